@@ -31,6 +31,7 @@ import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 
 import static io.crate.execution.dsl.phases.FileUriCollectPhase.InputFormat.CSV;
@@ -106,7 +107,8 @@ public class CsvReaderBenchmark {
             false,
             1,
             0,
-            CSV);
+            CSV,
+            ForkJoinPool.commonPool());
 
         while (batchIterator.moveNext()) {
             blackhole.consume(batchIterator.currentElement().get(0));
@@ -31,6 +31,7 @@ import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 
 import static io.crate.execution.dsl.phases.FileUriCollectPhase.InputFormat.JSON;
@@ -105,7 +106,8 @@ public class JsonReaderBenchmark {
             false,
             1,
             0,
-            JSON);
+            JSON,
+            ForkJoinPool.commonPool());
 
         while (batchIterator.moveNext()) {
             blackhole.consume(batchIterator.currentElement().get(0));
@@ -23,6 +23,7 @@
 package io.crate.execution.engine.sort;
 
 import com.google.common.collect.ImmutableList;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
 import io.crate.data.CollectingBatchIterator;
@@ -33,6 +34,9 @@ import io.crate.data.RowN;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.collect.InputCollectExpression;
 import io.crate.testing.RowGenerator;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
@@ -58,6 +62,7 @@ public class SortingTopNCollectorBenchmark {
     private static final Comparator<Object[]> COMPARATOR = (o1, o2) -> Integer.compare((int) o2[0], (int) o1[0]);
     private static final InputCollectExpression INPUT = new InputCollectExpression(0);
     private static final List<Input<?>> INPUTS = ImmutableList.of(INPUT);
+    private static final List<DataType> INPUT_TYPES = ImmutableList.of(DataTypes.INTEGER);
     private static final Iterable<CollectExpression<Row, ?>> COLLECT_EXPRESSIONS = ImmutableList.of(INPUT);
 
     private List<Row> rows = StreamSupport.stream(RowGenerator.range(0, 10_000_000).spliterator(), false)
@@ -66,7 +71,7 @@ public class SortingTopNCollectorBenchmark {
         .collect(Collectors.toList());
 
     private Collector<Row, ?, Bucket> boundedSortingCollector;
-    private Collector<Row, ?, Bucket> unboundedSortingCollector;
+    private Collector<Row, ?, ? extends Iterable<Row>> unboundedSortingCollector;
 
     @Setup
     public void setUp() {
@@ -81,11 +86,13 @@ public class SortingTopNCollectorBenchmark {
         unboundedSortingCollector = new UnboundedSortingTopNCollector(
             INPUTS,
             COLLECT_EXPRESSIONS,
+            INPUT_TYPES,
             1,
             COMPARATOR,
             10_000,
             10_000,
-            0);
+            0,
+            new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy")));
     }
 
     @Benchmark
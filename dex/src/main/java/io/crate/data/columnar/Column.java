@@ -0,0 +1,77 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data.columnar;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * The values of one column of a {@link ColumnBatch}.
+ * <p>
+ * Nulls are tracked in a bitmap, so that implementations can store their values in primitive arrays.
+ * After a {@link #reset()} each position must be written at most once.
+ */
+public abstract class Column {
+
+    private final int capacity;
+    private final long[] nullBits;
+    private boolean hasNulls = false;
+
+    protected Column(int capacity) {
+        this.capacity = capacity;
+        this.nullBits = new long[(capacity + 63) >>> 6];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return false if none of the positions is null. Can be used to skip the null checks entirely.
+     */
+    public boolean hasNulls() {
+        return hasNulls;
+    }
+
+    public boolean isNull(int position) {
+        return hasNulls && (nullBits[position >>> 6] & (1L << position)) != 0;
+    }
+
+    public void setNull(int position) {
+        nullBits[position >>> 6] |= 1L << position;
+        hasNulls = true;
+    }
+
+    public void reset() {
+        if (hasNulls) {
+            Arrays.fill(nullBits, 0L);
+            hasNulls = false;
+        }
+    }
+
+    /**
+     * Returns the (boxed) value at the given position or null.
+     */
+    @Nullable
+    public abstract Object get(int position);
+}
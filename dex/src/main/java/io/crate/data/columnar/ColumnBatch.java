@@ -0,0 +1,154 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data.columnar;
+
+import java.util.function.IntPredicate;
+
+/**
+ * A batch of up to {@link Column#capacity()} rows stored column by column.
+ * <p>
+ * Operators working on a ColumnBatch process a whole column in a tight loop instead of
+ * moving through one {@link io.crate.data.Row} at a time, which avoids a virtual call and boxing per value.
+ * <p>
+ * Filtering doesn't move any values, instead it narrows down the selected positions:
+ * <pre>
+ *     for (int i = 0; i &lt; batch.numSelected(); i++) {
+ *         int position = batch.position(i);
+ *         ...
+ *     }
+ * </pre>
+ * A batch is usually re-filled by its producer after it has been consumed, so consumers must not keep
+ * references to it or its columns.
+ */
+public final class ColumnBatch {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final Column[] columns;
+    private final int capacity;
+    private int size = 0;
+
+    private int[] selection;
+    private int numSelected;
+    private boolean selectionActive = false;
+
+    public ColumnBatch(Column... columns) {
+        this.columns = columns;
+        int capacity = Integer.MAX_VALUE;
+        for (Column column : columns) {
+            capacity = Math.min(capacity, column.capacity());
+        }
+        this.capacity = columns.length == 0 ? DEFAULT_CAPACITY : capacity;
+    }
+
+    private ColumnBatch(Column[] columns, ColumnBatch source) {
+        this.columns = columns;
+        this.capacity = source.capacity;
+        this.size = source.size;
+        this.selection = source.selection;
+        this.numSelected = source.numSelected;
+        this.selectionActive = source.selectionActive;
+    }
+
+    public int numColumns() {
+        return columns.length;
+    }
+
+    public Column column(int index) {
+        return columns[index];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of rows in the batch, including those which have been filtered out.
+     */
+    public int size() {
+        return size;
+    }
+
+    public void size(int size) {
+        assert size <= capacity : "size must not exceed the capacity of the batch";
+        this.size = size;
+    }
+
+    /**
+     * @return the number of rows which haven't been filtered out.
+     */
+    public int numSelected() {
+        return selectionActive ? numSelected : size;
+    }
+
+    /**
+     * @param i index between 0 and {@link #numSelected()}
+     * @return the position of the i-th selected row within the columns
+     */
+    public int position(int i) {
+        return selectionActive ? selection[i] : i;
+    }
+
+    /**
+     * Removes the rows whose position doesn't match the predicate from the selection.
+     */
+    public void filter(IntPredicate positionPredicate) {
+        int numCurrentlySelected = numSelected();
+        if (selection == null) {
+            selection = new int[capacity];
+        }
+        int n = 0;
+        for (int i = 0; i < numCurrentlySelected; i++) {
+            int position = position(i);
+            if (positionPredicate.test(position)) {
+                selection[n++] = position;
+            }
+        }
+        numSelected = n;
+        selectionActive = true;
+    }
+
+    /**
+     * Returns a view of this batch containing only the given columns in the given order.
+     * The view shares the columns and the current selection and must not be used anymore once this batch is reset.
+     */
+    public ColumnBatch project(int... columnIndices) {
+        Column[] projected = new Column[columnIndices.length];
+        for (int i = 0; i < columnIndices.length; i++) {
+            projected[i] = columns[columnIndices[i]];
+        }
+        return new ColumnBatch(projected, this);
+    }
+
+    /**
+     * Clears the batch so that it can be re-filled.
+     */
+    public void reset() {
+        for (Column column : columns) {
+            column.reset();
+        }
+        size = 0;
+        numSelected = 0;
+        selectionActive = false;
+    }
+}
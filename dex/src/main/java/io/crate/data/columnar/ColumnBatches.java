@@ -0,0 +1,70 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data.columnar;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.FlatMapBatchIterator;
+import io.crate.data.Row;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public final class ColumnBatches {
+
+    private ColumnBatches() {
+    }
+
+    /**
+     * Returns a BatchIterator which emits the selected rows of the batches one by one.
+     * This is the bridge from the columnar execution path to the row based projectors.
+     */
+    public static BatchIterator<Row> toRows(BatchIterator<ColumnBatch> batches) {
+        return new FlatMapBatchIterator<>(batches, ColumnBatches::rows);
+    }
+
+    /**
+     * Returns an iterator over the selected rows of a batch. The same {@link Row} instance is returned on each call.
+     */
+    public static Iterator<Row> rows(ColumnBatch batch) {
+        ColumnBatchRow row = new ColumnBatchRow(batch);
+        return new Iterator<Row>() {
+
+            int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < batch.numSelected();
+            }
+
+            @Override
+            public Row next() {
+                if (i >= batch.numSelected()) {
+                    throw new NoSuchElementException("ColumnBatch has no more rows");
+                }
+                row.position(batch.position(i));
+                i++;
+                return row;
+            }
+        };
+    }
+}
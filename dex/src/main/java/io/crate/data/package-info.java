@@ -50,6 +50,11 @@
  *      Examples include the fetch-operation.
  *      See {@link io.crate.data.AsyncOperationBatchIterator}
  *
+ * Besides rows, a BatchIterator can also expose {@link io.crate.data.columnar.ColumnBatch}es, which hold a
+ * block of rows column by column in primitive arrays. Operators on that path process whole columns at once;
+ * {@link io.crate.data.columnar.ColumnBatches#toRows(io.crate.data.BatchIterator)} converts back to rows
+ * for operators which only support rows.
+ *
  *
  */
 package io.crate.data;
@@ -0,0 +1,134 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data.columnar;
+
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row;
+import io.crate.testing.BatchIteratorTester;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ColumnBatchTest {
+
+    private static ColumnBatch batchOf(Long... values) {
+        LongColumn longs = new LongColumn(ColumnBatch.DEFAULT_CAPACITY);
+        ObjectColumn strings = new ObjectColumn(ColumnBatch.DEFAULT_CAPACITY);
+        for (int i = 0; i < values.length; i++) {
+            Long value = values[i];
+            if (value == null) {
+                longs.setNull(i);
+            } else {
+                longs.set(i, value);
+            }
+            strings.set(i, value == null ? null : "v" + value);
+        }
+        ColumnBatch batch = new ColumnBatch(longs, strings);
+        batch.size(values.length);
+        return batch;
+    }
+
+    private static List<Object[]> materialize(ColumnBatch batch) {
+        List<Object[]> rows = new ArrayList<>();
+        Iterator<Row> it = ColumnBatches.rows(batch);
+        while (it.hasNext()) {
+            rows.add(it.next().materialize());
+        }
+        return rows;
+    }
+
+    @Test
+    public void testNullsAreTrackedPerPosition() {
+        ColumnBatch batch = batchOf(1L, null, 3L);
+        LongColumn longs = (LongColumn) batch.column(0);
+
+        assertThat(longs.hasNulls(), is(true));
+        assertThat(longs.isNull(0), is(false));
+        assertThat(longs.isNull(1), is(true));
+        assertThat(longs.get(1), nullValue());
+        assertThat(longs.getLong(2), is(3L));
+        assertThat(batch.column(1).isNull(1), is(true));
+
+        batch.reset();
+        assertThat(batch.size(), is(0));
+        assertThat(longs.hasNulls(), is(false));
+        assertThat(batch.column(1).get(0), nullValue());
+    }
+
+    @Test
+    public void testFilterNarrowsSelection() {
+        ColumnBatch batch = batchOf(1L, 2L, null, 4L, 5L, 6L);
+        LongColumn longs = (LongColumn) batch.column(0);
+
+        batch.filter(pos -> longs.isNull(pos) == false && longs.getLong(pos) % 2 == 0);
+        assertThat(batch.numSelected(), is(3));
+        assertThat(batch.size(), is(6));
+
+        batch.filter(pos -> longs.getLong(pos) > 2);
+        assertThat(batch.numSelected(), is(2));
+        assertThat(batch.position(0), is(3));
+        assertThat(batch.position(1), is(5));
+        assertThat(materialize(batch), contains(new Object[] { 4L, "v4" }, new Object[] { 6L, "v6" }));
+
+        batch.reset();
+        batch.size(1);
+        assertThat(batch.numSelected(), is(1));
+    }
+
+    @Test
+    public void testProjectReordersColumnsAndKeepsSelection() {
+        ColumnBatch batch = batchOf(1L, 2L, 3L);
+        batch.filter(pos -> pos != 1);
+
+        ColumnBatch projected = batch.project(1, 0, 1);
+        assertThat(materialize(projected), contains(
+            new Object[] { "v1", 1L, "v1" },
+            new Object[] { "v3", 3L, "v3" }
+        ));
+    }
+
+    @Test
+    public void testToRowsFulfillsBatchIteratorContracts() throws Exception {
+        ColumnBatch first = batchOf(1L, 2L, 3L);
+        first.filter(pos -> pos != 0);
+        ColumnBatch second = batchOf(4L, null);
+        List<ColumnBatch> batches = Arrays.asList(first, batchOf(), second);
+
+        BatchIteratorTester tester = new BatchIteratorTester(
+            () -> ColumnBatches.toRows(InMemoryBatchIterator.of(batches, null)));
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 2L, "v2" },
+            new Object[] { 3L, "v3" },
+            new Object[] { 4L, "v4" },
+            new Object[] { null, null }
+        ));
+    }
+}
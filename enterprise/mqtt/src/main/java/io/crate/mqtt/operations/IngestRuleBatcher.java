@@ -0,0 +1,196 @@
+/*
+ * This file is part of a module with proprietary Enterprise Features.
+ *
+ * Licensed to Crate.io Inc. ("Crate.io") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * Unauthorized copying of this file, via any medium is strictly prohibited.
+ *
+ * To use this file, Crate.io must have given you permission to enable and
+ * use such Enterprise Features and you must have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  If you enable or use the Enterprise
+ * Features, you represent and warrant that you have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  Your use of the Enterprise Features
+ * if governed by the terms and conditions of your Enterprise or Subscription
+ * Agreement with Crate.io.
+ */
+
+package io.crate.mqtt.operations;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.action.sql.Session;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.metadata.rule.ingest.IngestRule;
+import io.crate.types.DataType;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Supplier;
+
+/**
+ * Collects the inserts of the messages matching an {@link IngestRule} and executes them as a single bulk
+ * operation once {@code batchSize} inserts are pending or {@code batchTimeout} elapsed since the first
+ * insert of the batch was added.
+ * <p>
+ * The insert statement is parsed, analyzed and planned once per batch instead of once per message.
+ * The future of an insert completes once the row has been written, so QoS 1 messages are only acknowledged
+ * after their whole batch has been executed.
+ */
+final class IngestRuleBatcher {
+
+    private final IngestRule rule;
+    private final String insertStatement;
+    private final List<DataType> paramTypes;
+    private final Supplier<Session> newSession;
+    private final ThreadPool threadPool;
+    private final int batchSize;
+    private final TimeValue batchTimeout;
+
+    private List<PendingInsert> pending;
+    @Nullable
+    private ScheduledFuture<?> scheduledFlush;
+
+    IngestRuleBatcher(IngestRule rule,
+                      String insertStatement,
+                      List<DataType> paramTypes,
+                      Supplier<Session> newSession,
+                      ThreadPool threadPool,
+                      int batchSize,
+                      TimeValue batchTimeout) {
+        this.rule = rule;
+        this.insertStatement = insertStatement;
+        this.paramTypes = paramTypes;
+        this.newSession = newSession;
+        this.threadPool = threadPool;
+        this.batchSize = batchSize;
+        this.batchTimeout = batchTimeout;
+        this.pending = new ArrayList<>(batchSize);
+    }
+
+    IngestRule rule() {
+        return rule;
+    }
+
+    /**
+     * Adds an insert to the current batch.
+     *
+     * @param args  the values of the row
+     * @param isDup if the message is a redelivery; a row which already exists is not treated as failure in that case
+     * @return a future which completes once the row has been inserted
+     */
+    CompletableFuture<Void> add(List<Object> args, boolean isDup) {
+        PendingInsert insert = new PendingInsert(args, isDup);
+        List<PendingInsert> batch = null;
+        synchronized (this) {
+            pending.add(insert);
+            if (pending.size() >= batchSize || batchTimeout.millis() <= 0) {
+                batch = takePending();
+            } else if (pending.size() == 1) {
+                scheduledFlush = threadPool.schedule(batchTimeout, ThreadPool.Names.GENERIC, this::flush);
+            }
+        }
+        if (batch != null) {
+            execute(batch);
+        }
+        return insert.result;
+    }
+
+    /**
+     * Executes the pending inserts, if any.
+     */
+    void flush() {
+        List<PendingInsert> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = takePending();
+        }
+        execute(batch);
+    }
+
+    private List<PendingInsert> takePending() {
+        assert Thread.holdsLock(this) : "pending inserts must only be taken while holding the lock";
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        List<PendingInsert> batch = pending;
+        pending = new ArrayList<>(batchSize);
+        return batch;
+    }
+
+    private void execute(List<PendingInsert> batch) {
+        Session session = newSession.get();
+        try {
+            session.parse(rule.getName(), insertStatement, paramTypes);
+            for (PendingInsert insert : batch) {
+                RowCountReceiver resultReceiver = new RowCountReceiver();
+                resultReceiver.completionFuture().whenComplete((r, t) -> {
+                    if (t == null && resultReceiver.rowCount == Row1.ERROR && batch.size() > 1) {
+                        // the bulk operation doesn't expose why a row failed, insert it on its own to find out
+                        execute(Collections.singletonList(insert));
+                    } else if (t == null && resultReceiver.rowCount == Row1.ERROR) {
+                        insert.result.completeExceptionally(
+                            new IllegalStateException("Failed to insert row into " + rule.getTargetTable()));
+                    } else if (t == null) {
+                        insert.result.complete(null);
+                    } else {
+                        insert.onFailure(t);
+                    }
+                });
+                session.bind(Session.UNNAMED, rule.getName(), insert.args, null);
+                session.execute(Session.UNNAMED, 0, resultReceiver);
+            }
+            session.sync();
+        } catch (Throwable t) {
+            // the batch couldn't be executed at all, e.g. because the target table doesn't exist
+            for (PendingInsert insert : batch) {
+                insert.result.completeExceptionally(t);
+            }
+        } finally {
+            session.close();
+        }
+    }
+
+    private static class PendingInsert {
+
+        private final List<Object> args;
+        private final boolean isDup;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        PendingInsert(List<Object> args, boolean isDup) {
+            this.args = args;
+            this.isDup = isDup;
+        }
+
+        void onFailure(Throwable t) {
+            if (isDup && SQLExceptions.isDocumentAlreadyExistsException(t)) {
+                // we are dealing with QoS1, so redeliveries and duplicate insert exceptions are
+                // normal in case of a duplicate message - indicated by the isDup flag
+                result.complete(null);
+            } else {
+                result.completeExceptionally(t);
+            }
+        }
+    }
+
+    private static class RowCountReceiver extends BaseResultReceiver {
+
+        private long rowCount = 0L;
+
+        @Override
+        public void setNextRow(Row row) {
+            rowCount = ((Number) row.get(0)).longValue();
+        }
+    }
+}
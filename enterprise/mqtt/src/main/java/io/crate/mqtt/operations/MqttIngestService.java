@@ -19,11 +19,8 @@
 package io.crate.mqtt.operations;
 
 import com.google.common.collect.ImmutableMap;
-import io.crate.action.sql.BaseResultReceiver;
 import io.crate.action.sql.Option;
-import io.crate.action.sql.SQLActionException;
 import io.crate.action.sql.SQLOperations;
-import io.crate.action.sql.Session;
 import io.crate.analyze.expressions.ExpressionAnalysisContext;
 import io.crate.analyze.expressions.ExpressionAnalyzer;
 import io.crate.analyze.relations.FieldProvider;
@@ -31,8 +28,6 @@ import io.crate.auth.user.User;
 import io.crate.auth.user.UserLookup;
 import io.crate.data.Row;
 import io.crate.data.RowN;
-import io.crate.exceptions.Exceptions;
-import io.crate.exceptions.SQLExceptions;
 import io.crate.expression.InputFactory;
 import io.crate.expression.RowFilter;
 import io.crate.expression.symbol.InputColumn;
@@ -54,9 +49,11 @@ import io.netty.handler.codec.mqtt.MqttPublishMessage;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.netty4.Netty4Utils;
 
 import javax.annotation.Nullable;
@@ -95,7 +92,10 @@ public class MqttIngestService implements IngestRuleListener {
     private final SQLOperations sqlOperations;
     private final IngestionService ingestionService;
     private final User crateUser;
-    private final AtomicReference<Set<Tuple<Predicate<Row>, IngestRule>>> predicateAndIngestRulesReference =
+    private final ThreadPool threadPool;
+    private final int batchSize;
+    private final TimeValue batchTimeout;
+    private final AtomicReference<Set<Tuple<Predicate<Row>, IngestRuleBatcher>>> predicateAndBatchersReference =
         new AtomicReference<>(new HashSet<>());
     private final ExpressionAnalysisContext expressionAnalysisContext;
     private boolean isInitialized;
@@ -103,8 +103,14 @@ public class MqttIngestService implements IngestRuleListener {
     public MqttIngestService(Functions functions,
                              SQLOperations sqlOperations,
                              UserLookup userLookup,
-                             IngestionService ingestionService) {
+                             IngestionService ingestionService,
+                             ThreadPool threadPool,
+                             int batchSize,
+                             TimeValue batchTimeout) {
         this.sqlOperations = sqlOperations;
+        this.threadPool = threadPool;
+        this.batchSize = batchSize;
+        this.batchTimeout = batchTimeout;
         this.inputFactory = new InputFactory(functions);
         this.expressionAnalysisContext = new ExpressionAnalysisContext();
         FieldProvider<Symbol> mqttSourceFieldsProvider = new FieldProvider<Symbol>() {
@@ -149,7 +155,8 @@ public class MqttIngestService implements IngestRuleListener {
 
     /**
      * Parse the payload of the provided mqtt message and find which {@link IngestRule}s match the message properties.
-     * For every matched rule, execute the insert into the rule's target table.
+     * For every matched rule, add the insert into the rule's target table to the current batch of the rule,
+     * see {@link IngestRuleBatcher}.
      * If we encounter exceptions whilst executing the rules we try to send the ackCallback that failure that's not a
      * "row already exists" (because, in case of messages with the isDup flag set to true, we will send the PUBACK reply
      * to the message).
@@ -167,7 +174,7 @@ public class MqttIngestService implements IngestRuleListener {
             return;
         }
 
-        Set<Tuple<Predicate<Row>, IngestRule>> predicateAndIngestRules = predicateAndIngestRulesReference.get();
+        Set<Tuple<Predicate<Row>, IngestRuleBatcher>> predicateAndBatchers = predicateAndBatchersReference.get();
         int packetId = msg.variableHeader().packetId();
         Object[] args = new Object[]{clientId,
             packetId,
@@ -176,56 +183,25 @@ public class MqttIngestService implements IngestRuleListener {
         List<Object> argsAsList = Arrays.asList(args);
 
         boolean messageMatchedRule = false;
-        boolean callbackNotified = false;
-        Session session = sqlOperations.createSession(Schemas.DOC_SCHEMA_NAME, crateUser, Option.NONE, 1);
-        List<CompletableFuture<?>> insertOperationsFuture = new ArrayList<>(predicateAndIngestRules.size());
-        for (Tuple<Predicate<Row>, IngestRule> entry : predicateAndIngestRules) {
+        List<CompletableFuture<?>> insertOperationsFuture = new ArrayList<>(predicateAndBatchers.size());
+        for (Tuple<Predicate<Row>, IngestRuleBatcher> entry : predicateAndBatchers) {
             if (entry.v1().test(new RowN(args))) {
                 messageMatchedRule = true;
-                IngestRule ingestRule = entry.v2();
-
-                try {
-                    session.parse(ingestRule.getName(), "insert into " + RelationName.fromIndexName(ingestRule.getTargetTable()).fqn() +
-                                                        " (\"client_id\", \"packet_id\", \"topic\", \"ts\", \"payload\") " +
-                                                        "values (?, ?, ?, CURRENT_TIMESTAMP, ?)", FIELD_TYPES);
-                    session.bind(Session.UNNAMED, ingestRule.getName(), argsAsList, null);
-                    BaseResultReceiver resultReceiver = new BaseResultReceiver();
-                    insertOperationsFuture.add(resultReceiver.completionFuture().exceptionally(t -> {
-                        if (SQLExceptions.isDocumentAlreadyExistsException(t)) {
-                            if (msg.fixedHeader().isDup()) {
-                                // we are dealing with QoS1, so redeliveries and duplicate insert exceptions are
-                                // normal in case of a duplicate message - indicated by the isDup flag
-                                return null;
-                            }
-                        }
-
-                        Exceptions.rethrowUnchecked(t);
-                        return null;
-                    }));
-                    session.execute(Session.UNNAMED, 0, resultReceiver);
-                    session.sync();
-                } catch (SQLActionException e) {
-                    ackCallback.accept(null, e);
-                    callbackNotified = true;
-                    break;
-                }
+                insertOperationsFuture.add(entry.v2().add(argsAsList, msg.fixedHeader().isDup()));
             }
         }
-        session.close();
-
-        if (callbackNotified == false) {
-            CompletableFuture<Void> allResultsComplete =
-                CompletableFuture.allOf(insertOperationsFuture.toArray(new CompletableFuture[0]));
-
-            allResultsComplete.whenComplete((r, t) -> {
-                if (t != null) {
-                    // the actual cause is wrapped in a CompletionException by CompletableFuture#allOf
-                    ackCallback.accept(null, t.getCause());
-                } else {
-                    ackCallback.accept(r, null);
-                }
-            });
-        }
+
+        CompletableFuture<Void> allResultsComplete =
+            CompletableFuture.allOf(insertOperationsFuture.toArray(new CompletableFuture[0]));
+
+        allResultsComplete.whenComplete((r, t) -> {
+            if (t != null) {
+                // the actual cause is wrapped in a CompletionException by CompletableFuture#allOf
+                ackCallback.accept(null, t.getCause());
+            } else {
+                ackCallback.accept(r, null);
+            }
+        });
 
         if (messageMatchedRule == false) {
             LOGGER.warn("Message with client_id {} and packet_id {} did not match any rule. The message will not be " +
@@ -236,19 +212,37 @@ public class MqttIngestService implements IngestRuleListener {
         }
     }
 
+    private IngestRuleBatcher newBatcher(IngestRule rule) {
+        String insertStatement = "insert into " + RelationName.fromIndexName(rule.getTargetTable()).fqn() +
+                                 " (\"client_id\", \"packet_id\", \"topic\", \"ts\", \"payload\") " +
+                                 "values (?, ?, ?, CURRENT_TIMESTAMP, ?)";
+        return new IngestRuleBatcher(
+            rule,
+            insertStatement,
+            FIELD_TYPES,
+            () -> sqlOperations.createSession(Schemas.DOC_SCHEMA_NAME, crateUser, Option.NONE, 1),
+            threadPool,
+            batchSize,
+            batchTimeout);
+    }
+
     @Override
     public void applyRules(Set<IngestRule> rules) {
-        Set<Tuple<Predicate<Row>, IngestRule>> newRules = new HashSet<>(rules.size());
+        Set<Tuple<Predicate<Row>, IngestRuleBatcher>> newRules = new HashSet<>(rules.size());
         for (IngestRule rule : rules) {
             if (rule.getCondition().trim().isEmpty() == false) {
                 Symbol conditionSymbol = expressionAnalyzer.convert(SqlParser.createExpression(rule.getCondition()),
                     expressionAnalysisContext);
                 Predicate<Row> conditionPredicate = RowFilter.create(inputFactory, conditionSymbol);
-                newRules.add(new Tuple<>(conditionPredicate, rule));
+                newRules.add(new Tuple<>(conditionPredicate, newBatcher(rule)));
             } else {
-                newRules.add(new Tuple<>(ALWAYS_TRUE, rule));
+                newRules.add(new Tuple<>(ALWAYS_TRUE, newBatcher(rule)));
             }
         }
-        predicateAndIngestRulesReference.set(newRules);
+        Set<Tuple<Predicate<Row>, IngestRuleBatcher>> oldRules = predicateAndBatchersReference.getAndSet(newRules);
+        for (Tuple<Predicate<Row>, IngestRuleBatcher> oldRule : oldRules) {
+            // don't wait for the timeout of batches of rules which have been replaced
+            oldRule.v2().flush();
+        }
     }
 }
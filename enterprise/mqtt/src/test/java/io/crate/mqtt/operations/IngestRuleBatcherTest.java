@@ -0,0 +1,166 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.mqtt.operations;
+
+import io.crate.action.sql.ResultReceiver;
+import io.crate.action.sql.Session;
+import io.crate.data.Row1;
+import io.crate.metadata.rule.ingest.IngestRule;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.engine.VersionConflictEngineException;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IngestRuleBatcherTest extends CrateUnitTest {
+
+    private Session session;
+    private List<ResultReceiver> resultReceivers;
+    private IngestRule rule;
+
+    @Before
+    public void setUpSession() {
+        session = mock(Session.class);
+        resultReceivers = new ArrayList<>();
+        doAnswer(invocation -> {
+            resultReceivers.add((ResultReceiver) invocation.getArguments()[2]);
+            return null;
+        }).when(session).execute(anyString(), anyInt(), any(ResultReceiver.class));
+        rule = mock(IngestRule.class);
+        when(rule.getName()).thenReturn("rule");
+        when(rule.getTargetTable()).thenReturn("doc.mqtt");
+    }
+
+    private IngestRuleBatcher newBatcher(int batchSize) {
+        return new IngestRuleBatcher(
+            rule,
+            "insert into doc.mqtt (client_id) values (?)",
+            Arrays.asList(DataTypes.STRING),
+            () -> session,
+            mock(ThreadPool.class),
+            batchSize,
+            TimeValue.timeValueHours(1L));
+    }
+
+    private static VersionConflictEngineException documentAlreadyExists() {
+        return new VersionConflictEngineException(
+            new ShardId("mqtt", "_na_", 0), "default", "1", "document already exists");
+    }
+
+    private static void finish(ResultReceiver resultReceiver, long rowCount) {
+        resultReceiver.setNextRow(new Row1(rowCount));
+        resultReceiver.allFinished(false);
+    }
+
+    @Test
+    public void testInsertsAreExecutedAsOneBulkOperationOnceTheBatchIsFull() throws Exception {
+        IngestRuleBatcher batcher = newBatcher(2);
+
+        CompletableFuture<Void> first = batcher.add(Arrays.asList("c1"), false);
+        verify(session, times(0)).sync();
+
+        CompletableFuture<Void> second = batcher.add(Arrays.asList("c2"), false);
+        verify(session, times(1)).parse(eq("rule"), anyString(), anyListOf(DataType.class));
+        verify(session, times(2)).bind(eq(Session.UNNAMED), eq("rule"), anyListOf(Object.class), any());
+        verify(session, times(1)).sync();
+        assertThat(resultReceivers.size(), is(2));
+        assertThat(first.isDone(), is(false));
+
+        finish(resultReceivers.get(0), 1L);
+        finish(resultReceivers.get(1), 1L);
+        assertThat(first.isDone(), is(true));
+        assertThat(second.isDone(), is(true));
+    }
+
+    @Test
+    public void testPendingInsertsAreExecutedOnFlush() throws Exception {
+        IngestRuleBatcher batcher = newBatcher(100);
+
+        CompletableFuture<Void> insert = batcher.add(Arrays.asList("c1"), false);
+        verify(session, times(0)).sync();
+
+        batcher.flush();
+        verify(session, times(1)).sync();
+        finish(resultReceivers.get(0), 1L);
+        assertThat(insert.isDone(), is(true));
+
+        // nothing pending, nothing to execute
+        batcher.flush();
+        verify(session, times(1)).sync();
+    }
+
+    @Test
+    public void testFailedRowOfBatchIsRetriedOnItsOwnToDetectDuplicates() throws Exception {
+        IngestRuleBatcher batcher = newBatcher(2);
+
+        CompletableFuture<Void> first = batcher.add(Arrays.asList("c1"), true);
+        CompletableFuture<Void> second = batcher.add(Arrays.asList("c2"), false);
+        finish(resultReceivers.get(0), Row1.ERROR);
+        finish(resultReceivers.get(1), 1L);
+        assertThat(second.isDone(), is(true));
+        assertThat(first.isDone(), is(false));
+
+        // the failed row is executed on its own, which exposes the actual failure
+        verify(session, times(2)).sync();
+        assertThat(resultReceivers.size(), is(3));
+        resultReceivers.get(2).fail(documentAlreadyExists());
+
+        // the message is a redelivery so the row is expected to exist
+        first.get();
+    }
+
+    @Test
+    public void testDuplicateRowOfNewMessageFailsTheInsert() throws Exception {
+        IngestRuleBatcher batcher = newBatcher(1);
+
+        CompletableFuture<Void> insert = batcher.add(Arrays.asList("c1"), false);
+        resultReceivers.get(0).fail(documentAlreadyExists());
+
+        expectedException.expect(ExecutionException.class);
+        expectedException.expectCause(instanceOf(VersionConflictEngineException.class));
+        insert.get();
+    }
+}
@@ -25,6 +25,7 @@ import io.crate.analyze.AlterTableAnalyzedStatement;
 import io.crate.analyze.AlterTableOpenCloseAnalyzedStatement;
 import io.crate.analyze.AlterTableRenameAnalyzedStatement;
 import io.crate.analyze.AlterUserAnalyzedStatement;
+import io.crate.analyze.AnalyzedAnalyze;
 import io.crate.analyze.AnalyzedBegin;
 import io.crate.analyze.AnalyzedCommit;
 import io.crate.analyze.AnalyzedDeleteStatement;
@@ -307,6 +308,21 @@ class StatementPrivilegeValidator implements StatementAuthorizedValidator {
             return null;
         }
 
+        @Override
+        public Void visitAnalyze(AnalyzedAnalyze analysis, User user) {
+            if (analysis.table() == null) {
+                // analyzing all tables requires superuser
+                return visitAnalyzedStatement(analysis, user);
+            }
+            Privileges.ensureUserHasPrivilege(
+                Privilege.Type.DQL,
+                Privilege.Clazz.TABLE,
+                analysis.table().ident().toString(),
+                user,
+                defaultSchema);
+            return null;
+        }
+
         @Override
         public Void visitAlterTableRenameStatement(AlterTableRenameAnalyzedStatement analysis, User user) {
             Privileges.ensureUserHasPrivilege(
@@ -314,6 +314,20 @@ public class StatementPrivilegeValidatorTest extends CrateDummyClusterServiceUni
         assertAskedForTable(Privilege.Type.DQL, "doc.parted");
     }
 
+    @Test
+    public void testAnalyzeTable() throws Exception {
+        analyze("analyze users");
+        assertAskedForTable(Privilege.Type.DQL, "doc.users");
+    }
+
+    @Test
+    public void testAnalyzeAllTablesNotAllowedAsNormalUser() throws Exception {
+        expectedException.expect(UnauthorizedException.class);
+        expectedException.expectMessage("User \"normal\" is not authorized to execute the statement. " +
+                                        "Superuser permissions are required");
+        analyze("analyze");
+    }
+
     @Test
     public void testUpdate() throws Exception {
         analyze("update users set name = 'ford' where id = 1");
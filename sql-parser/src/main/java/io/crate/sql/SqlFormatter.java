@@ -25,6 +25,7 @@ package io.crate.sql;
 import com.google.common.collect.Iterables;
 import io.crate.sql.tree.AliasedRelation;
 import io.crate.sql.tree.AllColumns;
+import io.crate.sql.tree.AnalyzeStatement;
 import io.crate.sql.tree.Assignment;
 import io.crate.sql.tree.AstVisitor;
 import io.crate.sql.tree.ClusteredBy;
@@ -163,6 +164,16 @@ public final class SqlFormatter {
             return null;
         }
 
+        @Override
+        public Void visitAnalyzeStatement(AnalyzeStatement node, Integer indent) {
+            append(indent, "ANALYZE");
+            if (node.table() != null) {
+                builder.append(" ");
+                node.table().accept(this, indent);
+            }
+            return null;
+        }
+
         @Override
         public Void visitRefreshStatement(RefreshStatement node, Integer indent) {
             append(indent, "REFRESH TABLE ");
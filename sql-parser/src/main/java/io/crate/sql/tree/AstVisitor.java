@@ -425,6 +425,10 @@ public abstract class AstVisitor<R, C> {
         return visitStatement(node, context);
     }
 
+    public R visitAnalyzeStatement(AnalyzeStatement node, C context) {
+        return visitStatement(node, context);
+    }
+
     public R visitAlterTable(AlterTable node, C context) {
         return visitStatement(node, context);
     }
@@ -26,6 +26,7 @@ import com.google.common.base.Charsets;
 import com.google.common.io.Resources;
 import io.crate.sql.Literals;
 import io.crate.sql.SqlFormatter;
+import io.crate.sql.tree.AnalyzeStatement;
 import io.crate.sql.tree.ArrayComparisonExpression;
 import io.crate.sql.tree.ArrayLikePredicate;
 import io.crate.sql.tree.ArrayLiteral;
@@ -333,6 +334,13 @@ public class TestStatementBuilder {
         assertTrue(stmt.equals(new DeallocateStatement()));
     }
 
+    @Test
+    public void testAnalyzeStmtBuilder() {
+        printStatement("analyze");
+        printStatement("analyze t");
+        printStatement("analyze schemah.tableh");
+    }
+
     @Test
     public void testRefreshStmtBuilder() {
         printStatement("refresh table t");
@@ -1443,6 +1451,7 @@ public class TestStatementBuilder {
             statement instanceof CopyFrom ||
             statement instanceof SwapTable ||
             statement instanceof GCDanglingArtifacts ||
+            statement instanceof AnalyzeStatement ||
             statement instanceof CreateFunction ||
             statement instanceof CreateUser ||
             statement instanceof DropUser ||
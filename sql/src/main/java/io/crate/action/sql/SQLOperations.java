@@ -57,6 +57,7 @@ public class SQLOperations {
     private final ClusterService clusterService;
     private final UserManager userManager;
     private final boolean isReadOnly;
+    private final StatementCache statementCache;
     private volatile boolean disabled;
 
     @Inject
@@ -74,6 +75,7 @@ public class SQLOperations {
         this.clusterService = clusterService;
         this.userManager = userManagerProvider.get();
         this.isReadOnly = NODE_READ_ONLY_SETTING.get(settings);
+        this.statementCache = new StatementCache(settings);
     }
 
     private Session createSession(SessionContext sessionContext) {
@@ -86,7 +88,8 @@ public class SQLOperations {
             jobsLogs,
             isReadOnly,
             executorProvider.get(),
-            sessionContext);
+            sessionContext,
+            statementCache::parse);
     }
 
     public Session newSystemSession() {
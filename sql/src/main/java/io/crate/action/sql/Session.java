@@ -35,6 +35,9 @@ import io.crate.data.Row;
 import io.crate.data.RowConsumer;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.jobs.workload.Admission;
+import io.crate.execution.jobs.workload.WorkloadClass;
+import io.crate.execution.jobs.workload.WorkloadService;
 import io.crate.expression.symbol.DefaultTraversalSymbolVisitor;
 import io.crate.expression.symbol.Field;
 import io.crate.expression.symbol.ParameterSymbol;
@@ -129,6 +132,7 @@ public class Session implements AutoCloseable {
     private final JobsLogs jobsLogs;
     private final boolean isReadOnly;
     private final ParameterTypeExtractor parameterTypeExtractor;
+    private final Function<String, Statement> parser;
 
     public Session(Analyzer analyzer,
                    Planner planner,
@@ -136,6 +140,22 @@ public class Session implements AutoCloseable {
                    boolean isReadOnly,
                    DependencyCarrier executor,
                    SessionContext sessionContext) {
+        this(analyzer, planner, jobsLogs, isReadOnly, executor, sessionContext, SqlParser::createStatement);
+    }
+
+    /**
+     * @param parser used to parse statements in {@link #parse(String, String, List)} and
+     *               {@link #quickExec(String, ResultReceiver, Row)}. This can be used to share parsed statements
+     *               across sessions, see {@link StatementCache}.
+     */
+    public Session(Analyzer analyzer,
+                   Planner planner,
+                   JobsLogs jobsLogs,
+                   boolean isReadOnly,
+                   DependencyCarrier executor,
+                   SessionContext sessionContext,
+                   Function<String, Statement> parser) {
+        this.parser = parser;
         this.analyzer = analyzer;
         this.planner = planner;
         this.jobsLogs = jobsLogs;
@@ -149,7 +169,7 @@ public class Session implements AutoCloseable {
      * See {@link #quickExec(String, Function, ResultReceiver, Row)}
      */
     public void quickExec(String statement, ResultReceiver resultReceiver, Row params) {
-        quickExec(statement, SqlParser::createStatement, resultReceiver, params);
+        quickExec(statement, parser, resultReceiver, params);
     }
 
     /**
@@ -188,8 +208,16 @@ public class Session implements AutoCloseable {
         }
 
         StatementClassifier.Classification classification = StatementClassifier.classify(plan);
-        jobsLogs.logExecutionStart(jobId, statement, sessionContext.user(), classification);
-        JobsLogsUpdateListener jobsLogsUpdateListener = new JobsLogsUpdateListener(jobId, jobsLogs);
+        WorkloadService workloadService = executor.workloadService();
+        WorkloadClass workloadClass = workloadService.classify(sessionContext.user(), classification);
+        txnCtx.workloadClass(workloadClass);
+        jobsLogs.logExecutionStart(jobId, statement, sessionContext.user(), classification, workloadClass);
+        // internal statements may be issued by an already admitted job (e.g. ANALYZE), they must not wait for its slot
+        Admission admission = sessionContext.isSystemSession()
+            ? workloadService.newSystemAdmission(jobId, workloadClass)
+            : workloadService.newAdmission(jobId, workloadClass);
+        Consumer<Throwable> jobsLogsUpdateListener = new JobsLogsUpdateListener(jobId, jobsLogs)
+            .andThen(t -> admission.release());
         if (!analyzedStatement.isWriteOperation()) {
             resultReceiver = new RetryOnFailureResultReceiver(
                 executor.clusterService(),
@@ -211,7 +239,10 @@ public class Session implements AutoCloseable {
             );
         }
         RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(resultReceiver, 0, jobsLogsUpdateListener);
-        plan.execute(executor, plannerContext, consumer, params, SubQueryResults.EMPTY);
+        admission.execute(
+            () -> plan.execute(executor, plannerContext, consumer, params, SubQueryResults.EMPTY),
+            t -> consumer.accept(null, t)
+        );
     }
 
     private void retryQuery(UUID jobId,
@@ -267,7 +298,7 @@ public class Session implements AutoCloseable {
 
         Statement statement;
         try {
-            statement = SqlParser.createStatement(query);
+            statement = parser.apply(query);
         } catch (Throwable t) {
             if ("".equals(query)) {
                 statement = EMPTY_STMT;
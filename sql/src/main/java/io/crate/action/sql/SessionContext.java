@@ -42,6 +42,7 @@ public class SessionContext implements StatementAuthorizedValidator, ExceptionAu
     private final User user;
     private final StatementAuthorizedValidator statementAuthorizedValidator;
     private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
+    private final boolean systemSession;
 
     private SearchPath searchPath;
     private boolean semiJoinsRewriteEnabled = false;
@@ -51,7 +52,7 @@ public class SessionContext implements StatementAuthorizedValidator, ExceptionAu
      * Creates a new SessionContext suitable to use as system SessionContext
      */
     public static SessionContext systemSessionContext() {
-        return new SessionContext(0, Option.NONE, User.CRATE_USER, s -> { }, e -> { });
+        return new SessionContext(0, Option.NONE, User.CRATE_USER, s -> { }, e -> { }, true);
     }
 
     public SessionContext(int defaultLimit,
@@ -60,11 +61,22 @@ public class SessionContext implements StatementAuthorizedValidator, ExceptionAu
                           StatementAuthorizedValidator statementAuthorizedValidator,
                           ExceptionAuthorizedValidator exceptionAuthorizedValidator,
                           String... searchPath) {
+        this(defaultLimit, options, user, statementAuthorizedValidator, exceptionAuthorizedValidator, false, searchPath);
+    }
+
+    private SessionContext(int defaultLimit,
+                           Set<Option> options,
+                           User user,
+                           StatementAuthorizedValidator statementAuthorizedValidator,
+                           ExceptionAuthorizedValidator exceptionAuthorizedValidator,
+                           boolean systemSession,
+                           String... searchPath) {
         this.defaultLimit = defaultLimit;
         this.options = options;
         this.user = requireNonNull(user, "User is required");
         this.statementAuthorizedValidator = statementAuthorizedValidator;
         this.exceptionAuthorizedValidator = exceptionAuthorizedValidator;
+        this.systemSession = systemSession;
         this.searchPath = createSearchPathFrom(searchPath);
     }
 
@@ -115,6 +127,14 @@ public class SessionContext implements StatementAuthorizedValidator, ExceptionAu
         return defaultLimit;
     }
 
+    /**
+     * @return true if the session is used by the system to run internal statements,
+     *         see {@link #systemSessionContext()}
+     */
+    public boolean isSystemSession() {
+        return systemSession;
+    }
+
     @Override
     public void ensureExceptionAuthorized(Throwable t) throws MissingPrivilegeException {
         exceptionAuthorizedValidator.ensureExceptionAuthorized(t);
@@ -0,0 +1,78 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.Statement;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+
+/**
+ * A node wide, bounded cache of parsed statements keyed by the raw SQL string.
+ * <p>
+ * Parsing doesn't depend on the schema or cluster state, so entries never become stale and can be shared
+ * across sessions. Statements are immutable and already re-used for multiple binds of a prepared statement.
+ * <p>
+ * Only successfully parsed statements are cached, parse errors are always re-thrown by the parser.
+ * Very long statements (e.g. bulk inserts with inlined values) bypass the cache.
+ */
+public final class StatementCache {
+
+    public static final Setting<Integer> STATEMENT_CACHE_SIZE_SETTING = Setting.intSetting(
+        "node.sql.statement_cache.size",
+        1000,
+        0,
+        Setting.Property.NodeScope);
+
+    static final int MAX_CACHEABLE_QUERY_LENGTH = 4096;
+
+    private final Cache<String, Statement> cache;
+
+    public StatementCache(Settings settings) {
+        this(STATEMENT_CACHE_SIZE_SETTING.get(settings));
+    }
+
+    StatementCache(int maxSize) {
+        this.cache = maxSize > 0
+            ? CacheBuilder.newBuilder().maximumSize(maxSize).build()
+            : null;
+    }
+
+    public Statement parse(String query) {
+        if (cache == null || query.length() > MAX_CACHEABLE_QUERY_LENGTH) {
+            return SqlParser.createStatement(query);
+        }
+        Statement statement = cache.getIfPresent(query);
+        if (statement == null) {
+            statement = SqlParser.createStatement(query);
+            cache.put(query, statement);
+        }
+        return statement;
+    }
+
+    long size() {
+        return cache == null ? 0L : cache.size();
+    }
+}
@@ -246,4 +246,8 @@ public class AnalyzedStatementVisitor<C, R> {
     public R visitDecommissionNode(AnalyzedDecommissionNodeStatement decommissionNode, C context) {
         return visitAnalyzedStatement(decommissionNode, context);
     }
+
+    public R visitAnalyze(AnalyzedAnalyze analyze, C context) {
+        return visitAnalyzedStatement(analyze, context);
+    }
 }
@@ -25,6 +25,7 @@ import io.crate.action.sql.SessionContext;
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.relations.RelationAnalyzer;
 import io.crate.analyze.repositories.RepositoryParamValidator;
+import io.crate.exceptions.OperationOnInaccessibleRelationException;
 import io.crate.exceptions.RelationUnknown;
 import io.crate.exceptions.RelationsUnknown;
 import io.crate.execution.ddl.RepositoryService;
@@ -33,6 +34,9 @@ import io.crate.metadata.FulltextAnalyzerResolver;
 import io.crate.metadata.Functions;
 import io.crate.metadata.RelationName;
 import io.crate.metadata.Schemas;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.table.Operation;
+import io.crate.metadata.table.TableInfo;
 import io.crate.sql.tree.AlterBlobTable;
 import io.crate.sql.tree.AlterClusterRerouteRetryFailed;
 import io.crate.sql.tree.AlterTable;
@@ -41,6 +45,7 @@ import io.crate.sql.tree.AlterTableOpenClose;
 import io.crate.sql.tree.AlterTableRename;
 import io.crate.sql.tree.AlterTableReroute;
 import io.crate.sql.tree.AlterUser;
+import io.crate.sql.tree.AnalyzeStatement;
 import io.crate.sql.tree.AstVisitor;
 import io.crate.sql.tree.BeginStatement;
 import io.crate.sql.tree.CommitStatement;
@@ -89,6 +94,7 @@ import io.crate.sql.tree.ShowTables;
 import io.crate.sql.tree.ShowTransaction;
 import io.crate.sql.tree.Statement;
 import io.crate.sql.tree.SwapTable;
+import io.crate.sql.tree.Table;
 import io.crate.sql.tree.Update;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
@@ -520,6 +526,21 @@ public class Analyzer {
             return AnalyzedGCDanglingArtifacts.INSTANCE;
         }
 
+        @Override
+        public AnalyzedStatement visitAnalyzeStatement(AnalyzeStatement analyzeStatement, Analysis analysis) {
+            Table table = analyzeStatement.table();
+            if (table == null) {
+                return new AnalyzedAnalyze(null);
+            }
+            TableInfo tableInfo = schemas.resolveTableInfo(
+                table.getName(), Operation.READ, analysis.sessionContext().searchPath());
+            if (!(tableInfo instanceof DocTableInfo)) {
+                throw new OperationOnInaccessibleRelationException(tableInfo.ident(), String.format(Locale.ENGLISH,
+                    "The relation \"%s\" doesn't support or allow ANALYZE operations.", tableInfo.ident().fqn()));
+            }
+            return new AnalyzedAnalyze((DocTableInfo) tableInfo);
+        }
+
         @Override
         public AnalyzedStatement visitAlterClusterDecommissionNode(DecommissionNodeStatement decommissionNodeStatement,
                                                                    Analysis analysis) {
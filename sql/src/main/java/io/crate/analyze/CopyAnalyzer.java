@@ -63,6 +63,7 @@ import io.crate.types.DataTypes;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
@@ -81,14 +82,22 @@ class CopyAnalyzer {
         Setting.simpleString("compression", Validators.stringValidator("compression","gzip"), Setting.Property.Dynamic);
 
     private static final Setting<String> OUTPUT_FORMAT_SETTING =
-        Setting.simpleString("format", Validators.stringValidator("format","json_object", "json_array"), Setting.Property.Dynamic);
+        Setting.simpleString("format", Validators.stringValidator("format","json_object", "json_array", "columnar"), Setting.Property.Dynamic);
+
+    private static final Setting<Long> MAX_ROWS_PER_FILE_SETTING =
+        Setting.longSetting("max_rows_per_file", 0L, 0L, Setting.Property.Dynamic);
+
+    private static final Setting<ByteSizeValue> MAX_FILE_SIZE_SETTING =
+        Setting.byteSizeSetting("max_file_size", new ByteSizeValue(0), Setting.Property.Dynamic);
 
     private static final Setting<String> INPUT_FORMAT_SETTING =
-        new Setting<>("format", "json", (s) -> s, Validators.stringValidator("format","json", "csv"), Setting.Property.Dynamic);
+        new Setting<>("format", "json", (s) -> s, Validators.stringValidator("format","json", "csv", "columnar"), Setting.Property.Dynamic);
 
     private static final ImmutableMap<String, Setting> OUTPUT_SETTINGS = ImmutableMap.<String, Setting>builder()
         .put(COMPRESSION_SETTING.getKey(), COMPRESSION_SETTING)
         .put(OUTPUT_FORMAT_SETTING.getKey(), OUTPUT_FORMAT_SETTING)
+        .put(MAX_ROWS_PER_FILE_SETTING.getKey(), MAX_ROWS_PER_FILE_SETTING)
+        .put(MAX_FILE_SIZE_SETTING.getKey(), MAX_FILE_SIZE_SETTING)
         .build();
 
     private final Schemas schemas;
@@ -236,7 +245,8 @@ class CopyAnalyzer {
         WriterProjection.OutputFormat outputFormat =
             settingAsEnum(WriterProjection.OutputFormat.class, OUTPUT_FORMAT_SETTING.get(settings));
 
-        if (!columnsDefined && outputFormat == WriterProjection.OutputFormat.JSON_ARRAY) {
+        if (!columnsDefined && (outputFormat == WriterProjection.OutputFormat.JSON_ARRAY ||
+                                outputFormat == WriterProjection.OutputFormat.COLUMNAR)) {
             throw new UnsupportedFeatureException("Output format not supported without specifying columns.");
         }
 
@@ -252,7 +262,16 @@ class CopyAnalyzer {
             );
         QueriedTable<DocTableRelation> subRelation = new QueriedTable<>(false, tableRelation, querySpec);
         return new CopyToAnalyzedStatement(
-            subRelation, settings, uri, compressionType, outputFormat, outputNames, columnsDefined, overwrites);
+            subRelation,
+            settings,
+            uri,
+            compressionType,
+            outputFormat,
+            outputNames,
+            columnsDefined,
+            overwrites,
+            MAX_ROWS_PER_FILE_SETTING.get(settings),
+            MAX_FILE_SIZE_SETTING.get(settings).getBytes());
     }
 
     private static <E extends Enum<E>> E settingAsEnum(Class<E> settingsEnum, String settingValue) {
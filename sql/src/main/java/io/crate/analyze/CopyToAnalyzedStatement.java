@@ -43,6 +43,8 @@ public class CopyToAnalyzedStatement extends AbstractCopyAnalyzedStatement {
     private final WriterProjection.OutputFormat outputFormat;
     @Nullable
     private final List<String> outputNames;
+    private final long maxRowsPerFile;
+    private final long maxBytesPerFile;
 
     /*
      * add values that should be added or overwritten
@@ -57,7 +59,9 @@ public class CopyToAnalyzedStatement extends AbstractCopyAnalyzedStatement {
                                    @Nullable WriterProjection.OutputFormat outputFormat,
                                    @Nullable List<String> outputNames,
                                    boolean columnsDefined,
-                                   @Nullable Map<ColumnIdent, Symbol> overwrites) {
+                                   @Nullable Map<ColumnIdent, Symbol> overwrites,
+                                   long maxRowsPerFile,
+                                   long maxBytesPerFile) {
         super(settings, uri);
         this.subQueryRelation = subQueryRelation;
         this.columnsDefined = columnsDefined;
@@ -65,6 +69,8 @@ public class CopyToAnalyzedStatement extends AbstractCopyAnalyzedStatement {
         this.outputNames = outputNames;
         this.outputFormat = outputFormat;
         this.overwrites = MoreObjects.firstNonNull(overwrites, ImmutableMap.<ColumnIdent, Symbol>of());
+        this.maxRowsPerFile = maxRowsPerFile;
+        this.maxBytesPerFile = maxBytesPerFile;
     }
 
     public QueriedTable<?> subQueryRelation() {
@@ -94,6 +100,20 @@ public class CopyToAnalyzedStatement extends AbstractCopyAnalyzedStatement {
         return this.overwrites;
     }
 
+    /**
+     * @return the number of rows after which the output continues in a new file, 0 if unlimited
+     */
+    public long maxRowsPerFile() {
+        return maxRowsPerFile;
+    }
+
+    /**
+     * @return the number of (uncompressed) bytes after which the output continues in a new file, 0 if unlimited
+     */
+    public long maxBytesPerFile() {
+        return maxBytesPerFile;
+    }
+
     @Override
     public <C, R> R accept(AnalyzedStatementVisitor<C, R> analyzedStatementVisitor, C context) {
         return analyzedStatementVisitor.visitCopyToStatement(this, context);
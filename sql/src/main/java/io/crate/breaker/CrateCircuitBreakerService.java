@@ -48,6 +48,10 @@ public class CrateCircuitBreakerService extends CircuitBreakerService {
     public static final CrateSetting<Double> QUERY_CIRCUIT_BREAKER_OVERHEAD_SETTING = CrateSetting.of(Setting.doubleSetting(
         "indices.breaker.query.overhead", 1.09d, 0.0d, Setting.Property.Dynamic, Setting.Property.NodeScope),DataTypes.DOUBLE);
 
+    public static final String ANALYTICAL = "analytical";
+    public static final CrateSetting<ByteSizeValue> ANALYTICAL_CIRCUIT_BREAKER_LIMIT_SETTING = CrateSetting.of(Setting.memorySizeSetting(
+        "workload.analytical.breaker.limit", "60%", Setting.Property.Dynamic, Setting.Property.NodeScope), DataTypes.STRING);
+
     public static final String JOBS_LOG = "jobs_log";
     public static final CrateSetting<ByteSizeValue> JOBS_LOG_CIRCUIT_BREAKER_LIMIT_SETTING = CrateSetting.of(Setting.memorySizeSetting(
         "stats.breaker.log.jobs.limit", "5%", Setting.Property.Dynamic, Setting.Property.NodeScope), DataTypes.STRING);
@@ -65,6 +69,7 @@ public class CrateCircuitBreakerService extends CircuitBreakerService {
 
     private final CircuitBreakerService esCircuitBreakerService;
     private volatile BreakerSettings queryBreakerSettings;
+    private volatile BreakerSettings analyticalBreakerSettings;
     private volatile BreakerSettings logJobsBreakerSettings;
     private volatile BreakerSettings logOperationsBreakerSettings;
 
@@ -81,6 +86,12 @@ public class CrateCircuitBreakerService extends CircuitBreakerService {
             CircuitBreaker.Type.MEMORY
         );
 
+        analyticalBreakerSettings = new BreakerSettings(ANALYTICAL,
+            ANALYTICAL_CIRCUIT_BREAKER_LIMIT_SETTING.setting().get(settings).getBytes(),
+            QUERY_CIRCUIT_BREAKER_OVERHEAD_SETTING.setting().get(settings),
+            CircuitBreaker.Type.MEMORY
+        );
+
         logJobsBreakerSettings = new BreakerSettings(JOBS_LOG,
             JOBS_LOG_CIRCUIT_BREAKER_LIMIT_SETTING.setting().get(settings).getBytes(),
             JOBS_LOG_CIRCUIT_BREAKER_OVERHEAD_SETTING.setting().get(settings),
@@ -92,12 +103,16 @@ public class CrateCircuitBreakerService extends CircuitBreakerService {
             CircuitBreaker.Type.MEMORY);
 
         registerBreaker(queryBreakerSettings);
+        registerBreaker(analyticalBreakerSettings);
         registerBreaker(logJobsBreakerSettings);
         registerBreaker(logOperationsBreakerSettings);
 
         clusterSettings.addSettingsUpdateConsumer(QUERY_CIRCUIT_BREAKER_LIMIT_SETTING.setting(), QUERY_CIRCUIT_BREAKER_OVERHEAD_SETTING.setting(),
             (newLimit, newOverhead) ->
                 setQueryBreakerLimit(queryBreakerSettings, QUERY, s -> this.queryBreakerSettings = s, newLimit, newOverhead));
+        clusterSettings.addSettingsUpdateConsumer(ANALYTICAL_CIRCUIT_BREAKER_LIMIT_SETTING.setting(),
+            (newLimit) ->
+                setQueryBreakerLimit(analyticalBreakerSettings, ANALYTICAL, s -> this.analyticalBreakerSettings = s, newLimit, null));
         clusterSettings.addSettingsUpdateConsumer(JOBS_LOG_CIRCUIT_BREAKER_LIMIT_SETTING.setting(),
             (newLimit) ->
                 setQueryBreakerLimit(logJobsBreakerSettings, JOBS_LOG, s -> this.logJobsBreakerSettings = s, newLimit, null));
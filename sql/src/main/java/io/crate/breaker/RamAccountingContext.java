@@ -182,6 +182,29 @@ public class RamAccountingContext implements RamAccounting {
         flushBuffer.getAndSet(0);
     }
 
+    /**
+     * Creates a context for a single operation of the phase. The bytes added to the child are accounted to this
+     * context as well, but {@link #release()} and {@link #close()} of the child only give back the bytes which were
+     * added through the child; the bytes of other operations sharing this context remain accounted.
+     */
+    public RamAccountingContext newChildContext() {
+        return new ChildContext(this);
+    }
+
+    /**
+     * Subtracts bytes which were added to this context before; bytes which were already flushed to the breaker
+     * are given back to it right away.
+     */
+    private void releaseBytes(long bytes) {
+        if (closed || bytes == 0) {
+            return;
+        }
+        long currentFlushBuffer = flushBuffer.addAndGet(-bytes);
+        if (currentFlushBuffer < 0) {
+            flushWithoutBreaking(currentFlushBuffer);
+        }
+    }
+
     /**
      * Returns true if the limit of the breaker was already reached
      */
@@ -197,6 +220,14 @@ public class RamAccountingContext implements RamAccounting {
         return breaker.getUsed() >= breaker.getLimit();
     }
 
+    /**
+     * Returns true if the breaker has a limit and its used bytes reached the given fraction of it.
+     */
+    public boolean usedBytesExceed(double fractionOfLimit) {
+        long limit = breaker.getLimit();
+        return limit > 0 && breaker.getUsed() >= limit * fractionOfLimit;
+    }
+
     /**
      * Returns the configured bytes limit of the breaker
      */
@@ -225,4 +256,48 @@ public class RamAccountingContext implements RamAccounting {
     public static long roundUp(long n) {
         return roundUp(n, 8);
     }
+
+    private static final class ChildContext extends RamAccountingContext {
+
+        private final RamAccountingContext parent;
+        private final AtomicLong bytes = new AtomicLong(0);
+
+        private ChildContext(RamAccountingContext parent) {
+            super(parent.contextId, parent.breaker);
+            this.parent = parent;
+        }
+
+        @Override
+        public void addBytes(long bytes) throws CircuitBreakingException {
+            // the parent accounts the bytes even if the breaker trips
+            this.bytes.addAndGet(bytes);
+            parent.addBytes(bytes);
+        }
+
+        @Override
+        public void addBytesWithoutBreaking(long bytes) {
+            this.bytes.addAndGet(bytes);
+            parent.addBytesWithoutBreaking(bytes);
+        }
+
+        @Override
+        public long totalBytes() {
+            return bytes.get();
+        }
+
+        @Override
+        public void release() {
+            parent.releaseBytes(bytes.getAndSet(0));
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+
+        @Override
+        public boolean trippedBreaker() {
+            return parent.trippedBreaker();
+        }
+    }
 }
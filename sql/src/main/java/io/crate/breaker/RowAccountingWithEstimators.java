@@ -66,6 +66,13 @@ public class RowAccountingWithEstimators implements RowAccounting {
      */
     @Override
     public void accountForAndMaybeBreak(Row row) {
+        ramAccountingContext.addBytes(estimateSize(row));
+    }
+
+    /**
+     * Returns the number of bytes {@link #accountForAndMaybeBreak(Row)} accounts for the row.
+     */
+    public long estimateSize(Row row) {
         assert row.numColumns() == estimators.size() : "Size of row must match the number of estimators";
 
         // Container size of the row is excluded because here it's unknown where the values will be saved to.
@@ -74,7 +81,7 @@ public class RowAccountingWithEstimators implements RowAccounting {
         for (int i = 0; i < row.numColumns(); i++) {
             size += (estimators.get(i).estimateSize(row.get(i)) + extraSizePerRow);
         }
-        ramAccountingContext.addBytes(size);
+        return size;
     }
 
     @Override
@@ -31,6 +31,7 @@ import io.crate.data.Row;
 import io.crate.data.RowConsumer;
 import io.crate.execution.jobs.PageBucketReceiver;
 import io.crate.execution.jobs.PageResultListener;
+import org.elasticsearch.common.lease.Releasable;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.GuardedBy;
@@ -69,7 +70,7 @@ public class IncrementalPageBucketReceiver<T> implements PageBucketReceiver {
         this.streamers = streamers;
         this.remainingUpstreams = new AtomicInteger(upstreamsCount);
         lazyBatchIterator = CollectingBatchIterator.newInstance(
-            () -> {},
+            this::releaseState,
             t -> {},
             () -> processingFuture,
             true);
@@ -118,6 +119,13 @@ public class IncrementalPageBucketReceiver<T> implements PageBucketReceiver {
         }
     }
 
+    private void releaseState() {
+        // the state may hold resources like groups which have been spilled to disk
+        if (state instanceof Releasable) {
+            ((Releasable) state).close();
+        }
+    }
+
     @Override
     public Streamer<?>[] streamers() {
         return streamers;
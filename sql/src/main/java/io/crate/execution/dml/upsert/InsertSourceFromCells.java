@@ -41,6 +41,7 @@ import io.crate.metadata.Reference;
 import io.crate.metadata.RowGranularity;
 import io.crate.metadata.doc.DocTableInfo;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 
 import javax.annotation.Nullable;
@@ -55,6 +56,7 @@ public final class InsertSourceFromCells implements InsertSourceGen {
     private final ArrayRow row = new ArrayRow();
     private final CheckConstraints<Row, CollectExpression<Row, ?>> checks;
     private final GeneratedColumns<Row> generatedColumns;
+    private final boolean onlyTopLevelColumns;
 
     InsertSourceFromCells(TransactionContext txnCtx,
                           Functions functions,
@@ -78,6 +80,21 @@ public final class InsertSourceFromCells implements InsertSourceGen {
             );
         }
         checks = new CheckConstraints<>(txnCtx, inputFactory, referenceResolver, table);
+        onlyTopLevelColumns = onlyTopLevelColumns(targets, generatedColumns);
+    }
+
+    private static boolean onlyTopLevelColumns(List<Reference> targets, GeneratedColumns<Row> generatedColumns) {
+        for (Reference target : targets) {
+            if (target.granularity() == RowGranularity.DOC && !target.column().isTopLevel()) {
+                return false;
+            }
+        }
+        for (Map.Entry<Reference, Input<?>> entry : generatedColumns.toInject()) {
+            if (!entry.getKey().column().isTopLevel()) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public void checkConstraints(Object[] values) {
@@ -86,10 +103,12 @@ public final class InsertSourceFromCells implements InsertSourceGen {
     }
 
     public BytesReference generateSource(Object[] values) throws IOException {
-        HashMap<String, Object> source = new HashMap<>();
-
         row.cells(values);
         generatedColumns.setNextRow(row);
+        if (onlyTopLevelColumns) {
+            return generateSourceOfTopLevelColumns(values);
+        }
+        HashMap<String, Object> source = new HashMap<>();
         for (int i = 0; i < targets.size(); i++) {
             Reference target = targets.get(i);
             Object value = values[i];
@@ -109,6 +128,28 @@ public final class InsertSourceFromCells implements InsertSourceGen {
         return BytesReference.bytes(XContentFactory.jsonBuilder().map(source));
     }
 
+    /**
+     * Writes the values straight into the source without building an intermediate map,
+     * which is possible as long as no object columns have to be merged.
+     */
+    private BytesReference generateSourceOfTopLevelColumns(Object[] values) throws IOException {
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+        for (int i = 0; i < targets.size(); i++) {
+            Reference target = targets.get(i);
+            Object value = values[i];
+
+            // partitioned columns must not be included in the source
+            if (target.granularity() == RowGranularity.DOC) {
+                builder.field(target.column().name(), value);
+                generatedColumns.validateValue(target, value);
+            }
+        }
+        for (Map.Entry<Reference, Input<?>> entry : generatedColumns.toInject()) {
+            builder.field(entry.getKey().column().name(), entry.getValue().value());
+        }
+        return BytesReference.bytes(builder.endObject());
+    }
+
     private static class ReferencesFromInputRow implements ReferenceResolver<CollectExpression<Row, ?>> {
         private final List<Reference> targets;
         private final List<Reference> partitionedBy;
@@ -22,6 +22,7 @@
 package io.crate.execution.dsl.projection;
 
 import com.google.common.collect.ImmutableList;
+import io.crate.execution.engine.export.ColumnarFileWriter;
 import io.crate.expression.eval.EvaluatingNormalizer;
 import io.crate.expression.scalar.FormatFunction;
 import io.crate.expression.symbol.Function;
@@ -46,11 +47,13 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 public class WriterProjection extends Projection {
 
@@ -68,12 +71,18 @@ public class WriterProjection extends Projection {
         RowGranularity.SHARD, StringType.INSTANCE);
 
 
-    public static final Symbol DIRECTORY_TO_FILENAME = new Function(new FunctionInfo(
-        new FunctionIdent(FormatFunction.NAME, Arrays.<DataType>asList(StringType.INSTANCE,
-            StringType.INSTANCE, StringType.INSTANCE, StringType.INSTANCE)),
-        StringType.INSTANCE),
-        Arrays.asList(Literal.of("%s_%s_%s.json"), TABLE_NAME_REF, SHARD_ID_REF, PARTITION_IDENT_REF)
-    );
+    public static final Symbol DIRECTORY_TO_FILENAME = directoryToFileName("json");
+
+    public static final Symbol DIRECTORY_TO_COLUMNAR_FILENAME = directoryToFileName(ColumnarFileWriter.FILE_EXTENSION);
+
+    private static Symbol directoryToFileName(String extension) {
+        return new Function(new FunctionInfo(
+            new FunctionIdent(FormatFunction.NAME, Arrays.<DataType>asList(StringType.INSTANCE,
+                StringType.INSTANCE, StringType.INSTANCE, StringType.INSTANCE)),
+            StringType.INSTANCE),
+            Arrays.asList(Literal.of("%s_%s_%s." + extension), TABLE_NAME_REF, SHARD_ID_REF, PARTITION_IDENT_REF)
+        );
+    }
 
     private Symbol uri;
     private List<Symbol> inputs;
@@ -91,27 +100,67 @@ public class WriterProjection extends Projection {
 
     public enum OutputFormat {
         JSON_OBJECT,
-        JSON_ARRAY
+        JSON_ARRAY,
+        COLUMNAR
     }
 
     private CompressionType compressionType;
 
     public enum CompressionType {
-        GZIP
+        GZIP("gz") {
+            @Override
+            public OutputStream wrap(OutputStream outputStream) throws IOException {
+                return new GZIPOutputStream(outputStream, 64 * 1024);
+            }
+        };
+
+        private final String fileExtension;
+
+        CompressionType(String fileExtension) {
+            this.fileExtension = fileExtension;
+        }
+
+        /**
+         * Returns an OutputStream which compresses the data before it is written to {@code outputStream}
+         */
+        public abstract OutputStream wrap(OutputStream outputStream) throws IOException;
+
+        public String fileExtension() {
+            return fileExtension;
+        }
     }
 
+    /*
+     * once one of the limits is reached the output continues in a new file; 0 means no limit
+     */
+    private long maxRowsPerFile;
+    private long maxBytesPerFile;
+
     public WriterProjection(List<Symbol> inputs,
                             Symbol uri,
                             @Nullable CompressionType compressionType,
                             Map<ColumnIdent, Symbol> overwrites,
                             @Nullable List<String> outputNames,
                             OutputFormat outputFormat) {
+        this(inputs, uri, compressionType, overwrites, outputNames, outputFormat, 0L, 0L);
+    }
+
+    public WriterProjection(List<Symbol> inputs,
+                            Symbol uri,
+                            @Nullable CompressionType compressionType,
+                            Map<ColumnIdent, Symbol> overwrites,
+                            @Nullable List<String> outputNames,
+                            OutputFormat outputFormat,
+                            long maxRowsPerFile,
+                            long maxBytesPerFile) {
         this.inputs = inputs;
         this.uri = uri;
         this.overwrites = overwrites;
         this.outputNames = outputNames;
         this.outputFormat = outputFormat;
         this.compressionType = compressionType;
+        this.maxRowsPerFile = maxRowsPerFile;
+        this.maxBytesPerFile = maxBytesPerFile;
     }
 
     public WriterProjection(StreamInput in) throws IOException {
@@ -132,6 +181,8 @@ public class WriterProjection extends Projection {
         int compressionTypeOrdinal = in.readInt();
         compressionType = compressionTypeOrdinal >= 0 ? CompressionType.values()[compressionTypeOrdinal] : null;
         outputFormat = OutputFormat.values()[in.readInt()];
+        maxRowsPerFile = in.readVLong();
+        maxBytesPerFile = in.readVLong();
     }
 
     @Override
@@ -173,6 +224,14 @@ public class WriterProjection extends Projection {
         return compressionType;
     }
 
+    public long maxRowsPerFile() {
+        return maxRowsPerFile;
+    }
+
+    public long maxBytesPerFile() {
+        return maxBytesPerFile;
+    }
+
     @Override
     public <C, R> R accept(ProjectionVisitor<C, R> visitor, C context) {
         return visitor.visitWriterProjection(this, context);
@@ -199,6 +258,8 @@ public class WriterProjection extends Projection {
         }
         out.writeInt(compressionType != null ? compressionType.ordinal() : -1);
         out.writeInt(outputFormat.ordinal());
+        out.writeVLong(maxRowsPerFile);
+        out.writeVLong(maxBytesPerFile);
     }
 
     @Override
@@ -215,6 +276,8 @@ public class WriterProjection extends Projection {
         if (compressionType != null ? !compressionType.equals(that.compressionType) : that.compressionType != null)
             return false;
         if (!outputFormat.equals(that.outputFormat)) return false;
+        if (maxRowsPerFile != that.maxRowsPerFile) return false;
+        if (maxBytesPerFile != that.maxBytesPerFile) return false;
 
         return true;
     }
@@ -227,6 +290,8 @@ public class WriterProjection extends Projection {
         result = 31 * result + overwrites.hashCode();
         result = 31 * result + (compressionType != null ? compressionType.hashCode() : 0);
         result = 31 * result + outputFormat.hashCode();
+        result = 31 * result + Long.hashCode(maxRowsPerFile);
+        result = 31 * result + Long.hashCode(maxBytesPerFile);
         return result;
     }
 
@@ -237,6 +302,8 @@ public class WriterProjection extends Projection {
                ", outputNames=" + outputNames +
                ", compressionType=" + compressionType +
                ", outputFormat=" + outputFormat +
+               ", maxRowsPerFile=" + maxRowsPerFile +
+               ", maxBytesPerFile=" + maxBytesPerFile +
                '}';
     }
 
@@ -249,7 +316,9 @@ public class WriterProjection extends Projection {
                 compressionType,
                 overwrites,
                 outputNames,
-                outputFormat
+                outputFormat,
+                maxRowsPerFile,
+                maxBytesPerFile
             );
         }
         return this;
@@ -151,8 +151,17 @@ public class ProjectionBuilder {
                                                     @Nullable WriterProjection.CompressionType compressionType,
                                                     Map<ColumnIdent, Symbol> overwrites,
                                                     @Nullable List<String> outputNames,
-                                                    WriterProjection.OutputFormat outputFormat) {
+                                                    WriterProjection.OutputFormat outputFormat,
+                                                    long maxRowsPerFile,
+                                                    long maxBytesPerFile) {
         return new WriterProjection(
-            InputColumn.mapToInputColumns(inputs), uri, compressionType, overwrites, outputNames, outputFormat);
+            InputColumn.mapToInputColumns(inputs),
+            uri,
+            compressionType,
+            overwrites,
+            outputNames,
+            outputFormat,
+            maxRowsPerFile,
+            maxBytesPerFile);
     }
 }
@@ -203,6 +203,7 @@ public final class JobLauncher {
         List<CompletableFuture<StreamBucket>> directResponseFutures = jobSetup.prepareOnHandler(
             txnCtx.userName(),
             txnCtx.currentSchema(),
+            txnCtx.workloadClass(),
             localNodeOperations,
             builder,
             handlerPhaseAndReceiver,
@@ -308,7 +309,13 @@ public final class JobLauncher {
         for (Map.Entry<String, Collection<NodeOperation>> entry : operationByServer.entrySet()) {
             String serverNodeId = entry.getKey();
             JobRequest request = new JobRequest(
-                jobId, txnCtx.userName(), txnCtx.currentSchema(), localNodeId, entry.getValue(), enableProfiling);
+                jobId,
+                txnCtx.userName(),
+                txnCtx.currentSchema(),
+                localNodeId,
+                entry.getValue(),
+                enableProfiling,
+                txnCtx.workloadClass());
             if (hasDirectResponse) {
                 transportJobAction.execute(serverNodeId, request,
                     BucketForwarder.asActionListener(pageBucketReceivers, bucketIdx, initializationTracker));
@@ -24,6 +24,8 @@ package io.crate.execution.engine.aggregation;
 
 import io.crate.breaker.RamAccountingContext;
 import io.crate.data.Input;
+import io.crate.data.columnar.ColumnBatch;
+import io.crate.data.columnar.ColumnBatchRow;
 import io.crate.metadata.FunctionImplementation;
 import io.crate.types.DataType;
 import org.elasticsearch.Version;
@@ -66,6 +68,56 @@ public abstract class AggregationFunction<TPartial, TFinal> implements FunctionI
     public abstract TPartial iterate(RamAccountingContext ramAccountingContext, TPartial state, Input... args)
         throws CircuitBreakingException;
 
+    /**
+     * Aggregates all selected rows of a {@link ColumnBatch}.
+     * <p>
+     * The default implementation calls {@link #iterate(RamAccountingContext, Object, Input[])} for each row.
+     * Implementations should override it if they can aggregate the values of a column without boxing them.
+     *
+     * @param argColumns the indices of the columns within the batch matching the arguments of the function
+     */
+    public TPartial iterateBatch(RamAccountingContext ramAccountingContext,
+                                 TPartial state,
+                                 ColumnBatch batch,
+                                 int[] argColumns) throws CircuitBreakingException {
+        ColumnBatchRow row = new ColumnBatchRow(batch);
+        Input[] args = new Input[argColumns.length];
+        for (int i = 0; i < argColumns.length; i++) {
+            int column = argColumns[i];
+            args[i] = () -> row.get(column);
+        }
+        for (int i = 0; i < batch.numSelected(); i++) {
+            row.position(batch.position(i));
+            state = iterate(ramAccountingContext, state, args);
+        }
+        return state;
+    }
+
+    /**
+     * @return true if the function supports {@link #removeFromAggregatedState(RamAccountingContext, Object, Input[])}.
+     * This allows to compute the aggregation over a sliding window frame by removing the rows which leave the frame
+     * instead of computing the aggregation over all rows of the frame again.
+     * Only aggregations whose removal is exact may return true. Floating point sums (e.g. of avg or variance) would
+     * accumulate rounding errors with every removal.
+     */
+    public boolean isRemovableCumulative() {
+        return false;
+    }
+
+    /**
+     * Reverts the effect of a previous {@link #iterate(RamAccountingContext, Object, Input[])} call with the same
+     * input values.
+     * Only supported if {@link #isRemovableCumulative()} returns true.
+     *
+     * @return The new/changed state. This might be either a new instance or the same but mutated instance.
+     */
+    public TPartial removeFromAggregatedState(RamAccountingContext ramAccountingContext,
+                                              TPartial previousAggState,
+                                              Input[] stateToRemove) {
+        throw new UnsupportedOperationException(
+            "Cannot remove state from the aggregated state as the function is not removable cumulative");
+    }
+
     /**
      * This function merges two aggregation states together and returns that merged state.
      * <p>
@@ -0,0 +1,132 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.columnar.ColumnBatch;
+import io.crate.expression.symbol.AggregateMode;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.util.BigArrays;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * Collector implementation which aggregates {@link ColumnBatch}es using
+ * {@link AggregationFunction#iterateBatch(RamAccountingContext, Object, ColumnBatch, int[])}.
+ * <p>
+ * It's the columnar counterpart to the {@link AggregateCollector} and produces the same result,
+ * but the arguments of the aggregations must be columns of the batch.
+ */
+public class ColumnBatchAggregateCollector implements Collector<ColumnBatch, Object[], Iterable<Row>> {
+
+    private final RamAccountingContext ramAccounting;
+    private final AggregationFunction[] aggregations;
+    private final int[][] argColumns;
+    private final Version indexVersionCreated;
+    private final BigArrays bigArrays;
+    private final Function<Object[], Iterable<Row>> finisher;
+
+    public ColumnBatchAggregateCollector(RamAccountingContext ramAccounting,
+                                         AggregateMode mode,
+                                         AggregationFunction[] aggregations,
+                                         Version indexVersionCreated,
+                                         BigArrays bigArrays,
+                                         int[]... argColumns) {
+        assert aggregations.length == argColumns.length : "There must be argColumns for each aggregation";
+        this.ramAccounting = ramAccounting;
+        this.aggregations = aggregations;
+        this.argColumns = argColumns;
+        this.indexVersionCreated = indexVersionCreated;
+        this.bigArrays = bigArrays;
+        switch (mode) {
+            case ITER_PARTIAL:
+                finisher = s -> Collections.singletonList(new RowN(s));
+                break;
+
+            case ITER_FINAL:
+                finisher = this::finishCollect;
+                break;
+
+            default:
+                throw new AssertionError("Invalid mode for a ColumnBatchAggregateCollector: " + mode.name());
+        }
+    }
+
+    @Override
+    public Supplier<Object[]> supplier() {
+        return this::prepareState;
+    }
+
+    @Override
+    public BiConsumer<Object[], ColumnBatch> accumulator() {
+        return this::iterate;
+    }
+
+    @Override
+    public BinaryOperator<Object[]> combiner() {
+        return (state1, state2) -> {
+            throw new UnsupportedOperationException("combine not supported");
+        };
+    }
+
+    @Override
+    public Function<Object[], Iterable<Row>> finisher() {
+        return finisher;
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Collections.emptySet();
+    }
+
+    private Object[] prepareState() {
+        Object[] states = new Object[aggregations.length];
+        for (int i = 0; i < aggregations.length; i++) {
+            states[i] = aggregations[i].newState(ramAccounting, indexVersionCreated, bigArrays);
+        }
+        return states;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void iterate(Object[] state, ColumnBatch batch) {
+        for (int i = 0; i < aggregations.length; i++) {
+            state[i] = aggregations[i].iterateBatch(ramAccounting, state[i], batch, argColumns[i]);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Iterable<Row> finishCollect(Object[] state) {
+        for (int i = 0; i < aggregations.length; i++) {
+            state[i] = aggregations[i].terminatePartial(ramAccounting, state[i]);
+        }
+        return Collections.singletonList(new RowN(state));
+    }
+}
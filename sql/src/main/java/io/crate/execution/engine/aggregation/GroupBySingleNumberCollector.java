@@ -35,8 +35,10 @@ import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.collection.LongObjectHashMap;
 import io.netty.util.collection.ShortObjectHashMap;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.util.BigArrays;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
@@ -75,7 +77,8 @@ public final class GroupBySingleNumberCollector implements Collector<Row, GroupB
         this.mode = mode;
         this.aggregations = aggregations;
         this.inputs = inputs;
-        this.ramAccounting = ramAccounting;
+        // spilling releases the memory of the groups, which must not release the memory of other operations
+        this.ramAccounting = ramAccounting.newChildContext();
         this.keyInput = keyInput;
         this.indexVersionCreated = indexVersionCreated;
         this.bigArrays = bigArrays;
@@ -86,23 +89,34 @@ public final class GroupBySingleNumberCollector implements Collector<Row, GroupB
         if (!valueType.equals(DataTypes.BYTE) &&
             !valueType.equals(DataTypes.SHORT) &&
             !valueType.equals(DataTypes.INTEGER) &&
-            !valueType.equals(DataTypes.LONG)) {
+            !valueType.equals(DataTypes.LONG) &&
+            !valueType.equals(DataTypes.TIMESTAMP)) {
             throw new IllegalArgumentException(
-                "Single Number type collector is only supported for Byte, Short, Integer" +
-                " and Long types, but received " + valueType.getName());
+                "Single Number type collector is only supported for Byte, Short, Integer," +
+                " Long and Timestamp types, but received " + valueType.getName());
         }
     }
 
-    static class Groups {
+    static class Groups implements Releasable {
 
-        final Map<Number, Object[]> statesByKey;
+        Map<Number, Object[]> statesByKey;
         final long entryOverhead;
         Object[] statesByNullValue = null;
 
+        @Nullable
+        SpilledGroups<Number> spilledGroups = null;
+
         Groups(Map<Number, Object[]> statesByKey, long entryOverhead) {
             this.statesByKey = statesByKey;
             this.entryOverhead = entryOverhead;
         }
+
+        @Override
+        public void close() {
+            if (spilledGroups != null) {
+                spilledGroups.close();
+            }
+        }
     }
 
     @Override
@@ -141,29 +155,33 @@ public final class GroupBySingleNumberCollector implements Collector<Row, GroupB
          * to grow by doubling its size. See #addWithAccounting()
          */
 
+        final long entryOverhead;
+        if (valueType.equals(DataTypes.BYTE) || valueType.equals(DataTypes.SHORT)) {
+            entryOverhead = 6L;
+        } else if (valueType.equals(DataTypes.INTEGER)) {
+            entryOverhead = 8L;
+        } else if (valueType.equals(DataTypes.LONG) || valueType.equals(DataTypes.TIMESTAMP)) {
+            entryOverhead = 12L;
+        } else {
+            throw new IllegalArgumentException("Unsupported input type " + valueType.getName());
+        }
+        return () -> new Groups(newStatesByKey(entryOverhead), entryOverhead);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Number, Object[]> newStatesByKey(long entryOverhead) {
+        ramAccounting.addBytes(4 * entryOverhead);
         final Map statesByKey;
-        long entryOverhead;
         if (valueType.equals(DataTypes.BYTE)) {
-            entryOverhead = 6L;
-            ramAccounting.addBytes(4 * entryOverhead);
             statesByKey = new ByteObjectHashMap<Object[]>();
         } else if (valueType.equals(DataTypes.SHORT)) {
-            entryOverhead = 6L;
-            ramAccounting.addBytes(4 * entryOverhead);
             statesByKey = new ShortObjectHashMap<Object[]>();
         } else if (valueType.equals(DataTypes.INTEGER)) {
-            entryOverhead = 8L;
-            ramAccounting.addBytes(4 * entryOverhead);
             statesByKey = new IntObjectHashMap<Object[]>();
-        } else if (valueType.equals(DataTypes.LONG)) {
-            entryOverhead = 12L;
-            ramAccounting.addBytes(4 * entryOverhead);
-            statesByKey = new LongObjectHashMap<Object[]>();
         } else {
-            throw new IllegalArgumentException("Unsupported input type " + valueType.getName());
+            statesByKey = new LongObjectHashMap<Object[]>();
         }
-        //noinspection unchecked
-        return () -> new Groups(statesByKey, entryOverhead);
+        return statesByKey;
     }
 
     @Override
@@ -259,6 +277,28 @@ public final class GroupBySingleNumberCollector implements Collector<Row, GroupB
         }
 
         groups.statesByKey.put(key, newStates);
+        if (SpilledGroups.shouldSpill(ramAccounting)) {
+            spill(groups);
+        }
+    }
+
+    private void spill(Groups groups) {
+        if (groups.spilledGroups == null) {
+            groups.spilledGroups = new SpilledGroups<>(
+                Collections.singletonList(valueType),
+                aggregations,
+                mode,
+                ramAccounting,
+                (key, cells) -> cells[0] = key
+            );
+        }
+        groups.spilledGroups.spill(groups.statesByKey.entrySet());
+        if (groups.statesByNullValue != null) {
+            groups.spilledGroups.spill(null, groups.statesByNullValue);
+            groups.statesByNullValue = null;
+        }
+        ramAccounting.release();
+        groups.statesByKey = newStatesByKey(groups.entryOverhead);
     }
 
     private Object[] createNewStates() {
@@ -279,6 +319,11 @@ public final class GroupBySingleNumberCollector implements Collector<Row, GroupB
     }
 
     private Iterable<Row> groupsToRows(Groups groups) {
+        if (groups.spilledGroups != null) {
+            // groups left in memory are spilled as well so that they're merged with the spilled states of the same key
+            spill(groups);
+            return groups.spilledGroups.rows();
+        }
         final Object[] cells = new Object[1 + aggregations.length];
         final Row row = new RowN(cells);
         Supplier<Stream<Row>> rows = () -> groups.statesByKey.entrySet().stream()
@@ -33,6 +33,7 @@ import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.expression.symbol.AggregateMode;
 import io.crate.types.DataType;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.util.BigArrays;
 
 import javax.annotation.Nullable;
@@ -46,15 +47,19 @@ import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collector;
 
 /**
  * Collector implementation which uses {@link AggregateMode}s and {@code keyInputs}
  * to group rows by key and aggregate the grouped values.
+ * <p>
+ * If the memory used by the groups comes close to the circuit breaker limit the groups are spilled to disk,
+ * see {@link SpilledGroups}.
  *
  * @param <K> type of the key
  */
-public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, Iterable<Row>> {
+public class GroupingCollector<K> implements Collector<Row, GroupingCollector.Groups<K>, Iterable<Row>> {
 
     private final CollectExpression<Row, ?>[] expressions;
     private final AggregationFunction[] aggregations;
@@ -64,10 +69,12 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
     private final BiConsumer<K, Object[]> applyKeyToCells;
     private final int numKeyColumns;
     private final SizeEstimator<K> keySizeEstimator;
+    private final List<? extends DataType> keyTypes;
     private final Function<Row, K> keyExtractor;
+    private final UnaryOperator<K> keyCopier;
     private final Version indexVersionCreated;
     private final BigArrays bigArrays;
-    private final BiConsumer<Map<K, Object[]>, Row> accumulator;
+    private final BiConsumer<Groups<K>, Row> accumulator;
 
     static GroupingCollector<Object> singleKey(CollectExpression<Row, ?>[] expressions,
                                                AggregateMode mode,
@@ -85,9 +92,10 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
             inputs,
             ramAccountingContext,
             (key, cells) -> cells[0] = key,
-            1,
             SizeEstimatorFactory.create(keyType),
+            Collections.singletonList(keyType),
             row -> keyInput.value(),
+            UnaryOperator.identity(),
             indexVersionCreated,
             bigArrays
         );
@@ -102,6 +110,9 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                                                     List<? extends DataType> keyTypes,
                                                     Version indexVersionCreated,
                                                     BigArrays bigArrays) {
+        // The probe key is re-used for every row to avoid allocating a list per row;
+        // it is only copied if a new group is added.
+        ArrayList<Object> probeKey = new ArrayList<>(keyInputs.size());
         return new GroupingCollector<>(
             expressions,
             aggregations,
@@ -109,16 +120,17 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
             inputs,
             ramAccountingContext,
             GroupingCollector::applyKeysToCells,
-            keyInputs.size(),
             new MultiSizeEstimator(keyTypes),
-            row -> evalKeyInputs(keyInputs),
+            keyTypes,
+            row -> evalKeyInputs(keyInputs, probeKey),
+            ArrayList::new,
             indexVersionCreated,
             bigArrays
         );
     }
 
-    private static List<Object> evalKeyInputs(List<Input<?>> keyInputs) {
-        List<Object> key = new ArrayList<>(keyInputs.size());
+    private static List<Object> evalKeyInputs(List<Input<?>> keyInputs, List<Object> key) {
+        key.clear();
         for (Input<?> keyInput : keyInputs) {
             key.add(keyInput.value());
         }
@@ -137,45 +149,64 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                               Input[][] inputs,
                               RamAccountingContext ramAccountingContext,
                               BiConsumer<K, Object[]> applyKeyToCells,
-                              int numKeyColumns,
                               SizeEstimator<K> keySizeEstimator,
+                              List<? extends DataType> keyTypes,
                               Function<Row, K> keyExtractor,
+                              UnaryOperator<K> keyCopier,
                               Version indexVersionCreated,
                               BigArrays bigArrays) {
         this.expressions = expressions;
         this.aggregations = aggregations;
         this.mode = mode;
         this.inputs = inputs;
-        this.ramAccountingContext = ramAccountingContext;
+        // spilling releases the memory of the groups, which must not release the memory of other operations
+        this.ramAccountingContext = ramAccountingContext.newChildContext();
         this.applyKeyToCells = applyKeyToCells;
-        this.numKeyColumns = numKeyColumns;
+        this.numKeyColumns = keyTypes.size();
         this.keySizeEstimator = keySizeEstimator;
+        this.keyTypes = keyTypes;
         this.keyExtractor = keyExtractor;
+        this.keyCopier = keyCopier;
         this.indexVersionCreated = indexVersionCreated;
         this.bigArrays = bigArrays;
         this.accumulator = mode == AggregateMode.PARTIAL_FINAL ? this::reduce : this::iter;
     }
 
+    static class Groups<K> implements Releasable {
+
+        Map<K, Object[]> statesByKey = new HashMap<>();
+
+        @Nullable
+        SpilledGroups<K> spilledGroups = null;
+
+        @Override
+        public void close() {
+            if (spilledGroups != null) {
+                spilledGroups.close();
+            }
+        }
+    }
+
     @Override
-    public Supplier<Map<K, Object[]>> supplier() {
-        return HashMap::new;
+    public Supplier<Groups<K>> supplier() {
+        return Groups::new;
     }
 
     @Override
-    public BiConsumer<Map<K, Object[]>, Row> accumulator() {
+    public BiConsumer<Groups<K>, Row> accumulator() {
         return accumulator;
     }
 
     @Override
-    public BinaryOperator<Map<K, Object[]>> combiner() {
+    public BinaryOperator<Groups<K>> combiner() {
         return (state1, state2) -> {
             throw new UnsupportedOperationException("combine not supported");
         };
     }
 
     @Override
-    public Function<Map<K, Object[]>, Iterable<Row>> finisher() {
-        return this::mapToRows;
+    public Function<Groups<K>, Iterable<Row>> finisher() {
+        return this::groupsToRows;
     }
 
     @Override
@@ -183,18 +214,18 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         return Collections.emptySet();
     }
 
-    private void reduce(Map<K, Object[]> statesByKey, Row row) {
+    private void reduce(Groups<K> groups, Row row) {
         for (CollectExpression<Row, ?> expression : expressions) {
             expression.setNextRow(row);
         }
         K key = keyExtractor.apply(row);
-        Object[] states = statesByKey.get(key);
+        Object[] states = groups.statesByKey.get(key);
         if (states == null) {
             states = new Object[aggregations.length];
             for (int i = 0; i < aggregations.length; i++) {
                 states[i] = inputs[i][0].value();
             }
-            addWithAccounting(statesByKey, key, states);
+            addWithAccounting(groups, keyCopier.apply(key), states);
         } else {
             for (int i = 0; i < aggregations.length; i++) {
                 states[i] = aggregations[i].reduce(ramAccountingContext, states[i], inputs[i][0].value());
@@ -202,20 +233,32 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         }
     }
 
-    private void addWithAccounting(Map<K, Object[]> statesByKey, K key, Object[] states) {
+    private void addWithAccounting(Groups<K> groups, K key, Object[] states) {
         // key size + 32 bytes for entry + 4 bytes for increased capacity
         ramAccountingContext.addBytes(RamAccountingContext.roundUp(keySizeEstimator.estimateSize(key) + 36L));
-        statesByKey.put(key, states);
+        groups.statesByKey.put(key, states);
+        if (SpilledGroups.shouldSpill(ramAccountingContext)) {
+            spill(groups);
+        }
+    }
+
+    private void spill(Groups<K> groups) {
+        if (groups.spilledGroups == null) {
+            groups.spilledGroups = new SpilledGroups<>(keyTypes, aggregations, mode, ramAccountingContext, applyKeyToCells);
+        }
+        groups.spilledGroups.spill(groups.statesByKey.entrySet());
+        groups.statesByKey = new HashMap<>();
+        ramAccountingContext.release();
     }
 
-    private void iter(Map<K, Object[]> statesByKey, Row row) {
+    private void iter(Groups<K> groups, Row row) {
         for (CollectExpression<Row, ?> expression : expressions) {
             expression.setNextRow(row);
         }
         K key = keyExtractor.apply(row);
-        Object[] states = statesByKey.get(key);
+        Object[] states = groups.statesByKey.get(key);
         if (states == null) {
-            addNewEntry(statesByKey, key);
+            addNewEntry(groups, keyCopier.apply(key));
         } else {
             for (int i = 0; i < aggregations.length; i++) {
                 //noinspection unchecked
@@ -224,7 +267,7 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         }
     }
 
-    private void addNewEntry(Map<K, Object[]> statesByKey, K key) {
+    private void addNewEntry(Groups<K> groups, K key) {
         Object[] states;
         states = new Object[aggregations.length];
         for (int i = 0; i < aggregations.length; i++) {
@@ -234,7 +277,16 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                 ramAccountingContext,
                 aggregation.newState(ramAccountingContext, indexVersionCreated, bigArrays), inputs[i]);
         }
-        addWithAccounting(statesByKey, key, states);
+        addWithAccounting(groups, key, states);
+    }
+
+    private Iterable<Row> groupsToRows(Groups<K> groups) {
+        if (groups.spilledGroups == null) {
+            return mapToRows(groups.statesByKey);
+        }
+        // groups left in memory are spilled as well so that they're merged with the spilled states of the same key
+        spill(groups);
+        return groups.spilledGroups.rows();
     }
 
     private Iterable<Row> mapToRows(Map<K, Object[]> statesByKey) {
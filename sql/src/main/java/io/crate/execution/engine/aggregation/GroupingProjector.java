@@ -24,6 +24,7 @@ package io.crate.execution.engine.aggregation;
 
 import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
+import io.crate.data.BatchIterators;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Projector;
@@ -35,9 +36,11 @@ import io.crate.types.CollectionType;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.util.BigArrays;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collector;
 
 import static io.crate.expression.symbol.Symbols.typeView;
@@ -68,9 +71,7 @@ public class GroupingProjector implements Projector {
         }
         if (keys.size() == 1) {
             Symbol key = keys.get(0);
-            if (DataTypes.NUMERIC_PRIMITIVE_TYPES.contains(key.valueType()) &&
-                !key.valueType().equals(DataTypes.FLOAT) &&
-                !key.valueType().equals(DataTypes.DOUBLE)) {
+            if (isSingleNumberKeyType(key.valueType())) {
                 collector = new GroupBySingleNumberCollector(
                     key.valueType(),
                     collectExpressions,
@@ -111,6 +112,14 @@ public class GroupingProjector implements Projector {
         }
     }
 
+    private static boolean isSingleNumberKeyType(DataType type) {
+        if (DataTypes.NUMERIC_PRIMITIVE_TYPES.contains(type)) {
+            return !type.equals(DataTypes.FLOAT) && !type.equals(DataTypes.DOUBLE);
+        }
+        // timestamps are represented as long values
+        return type.equals(DataTypes.TIMESTAMP);
+    }
+
     private static void ensureAllTypesSupported(Iterable<? extends Symbol> keys) {
         for (Symbol key : keys) {
             DataType type = key.valueType();
@@ -122,7 +131,27 @@ public class GroupingProjector implements Projector {
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
-        return CollectingBatchIterator.newInstance(batchIterator, collector);
+        return collect(batchIterator, collector);
+    }
+
+    private static <A> BatchIterator<Row> collect(BatchIterator<Row> source,
+                                                  Collector<Row, A, Iterable<Row>> collector) {
+        A state = collector.supplier().get();
+        return CollectingBatchIterator.newInstance(
+            () -> {
+                try {
+                    source.close();
+                } finally {
+                    // releases groups which have been spilled to disk
+                    if (state instanceof Releasable) {
+                        ((Releasable) state).close();
+                    }
+                }
+            },
+            source::kill,
+            () -> BatchIterators.collect(source, state, collector, new CompletableFuture<>()),
+            source.involvesIO()
+        );
     }
 
     public Collector<Row, ?, Iterable<Row>> getCollector() {
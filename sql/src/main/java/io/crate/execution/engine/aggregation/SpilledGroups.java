@@ -0,0 +1,240 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.SizeEstimator;
+import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.types.DataType;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * Group states which have been moved to disk because a grouping operation came close to the limit
+ * of the circuit breaker.
+ * <p>
+ * Groups are hash partitioned by their key. Each spill appends the groups to the file of their partition
+ * and the groups can be removed from memory. The same key may therefore occur multiple times within a partition.
+ * <p>
+ * Once all input has been consumed the partitions are loaded one at a time and the states of equal keys
+ * are reduced, so that only the groups of a single partition have to be held in memory.
+ * The {@link RamAccountingContext} must only account for the grouping operation itself
+ * (see {@link RamAccountingContext#newChildContext()}) as it is released before a partition is loaded.
+ *
+ * <pre>
+ *  spill 1:   [k1, s1] [k2, s2]       -> p0: [k1, s1]            p1: [k2, s2]
+ *  spill 2:   [k1, s3] [k3, s4]       -> p0: [k1, s1] [k1, s3]   p1: [k2, s2] [k3, s4]
+ *
+ *  output:    p0: [k1, reduce(s1, s3)]   p1: [k2, s2] [k3, s4]
+ * </pre>
+ *
+ * @param <K> type of the key
+ */
+final class SpilledGroups<K> implements Closeable {
+
+    // this must not be final so tests could adjust it
+    // Spilling only pays off if a reasonable amount of memory is released
+    static long MIN_SPILL_BYTES = 16 * 1024 * 1024;
+
+    static final int NUM_PARTITIONS = 32;
+
+    // Spill before the breaker trips; Bytes are flushed to the breaker in chunks and other operations use it too
+    private static final double SPILL_THRESHOLD = 0.8;
+
+    private final int numKeyColumns;
+    private final AggregationFunction[] aggregations;
+    private final AggregateMode mode;
+    private final RamAccountingContext ramAccountingContext;
+    private final BiConsumer<K, Object[]> applyKeyToCells;
+    private final Streamer[] streamers;
+    private final List<SizeEstimator<Object>> keySizeEstimators;
+    private final SpillFile[] partitions = new SpillFile[NUM_PARTITIONS];
+    private final Object[] cells;
+
+    /**
+     * Returns true if the groups held in memory should be spilled to avoid tripping the circuit breaker.
+     */
+    static boolean shouldSpill(RamAccountingContext ramAccountingContext) {
+        return ramAccountingContext.totalBytes() >= MIN_SPILL_BYTES
+               && ramAccountingContext.usedBytesExceed(SPILL_THRESHOLD);
+    }
+
+    SpilledGroups(List<? extends DataType> keyTypes,
+                  AggregationFunction[] aggregations,
+                  AggregateMode mode,
+                  RamAccountingContext ramAccountingContext,
+                  BiConsumer<K, Object[]> applyKeyToCells) {
+        this.numKeyColumns = keyTypes.size();
+        this.aggregations = aggregations;
+        this.mode = mode;
+        this.ramAccountingContext = ramAccountingContext;
+        this.applyKeyToCells = applyKeyToCells;
+        this.cells = new Object[numKeyColumns + aggregations.length];
+        this.streamers = new Streamer[cells.length];
+        this.keySizeEstimators = new ArrayList<>(numKeyColumns);
+        for (int i = 0; i < numKeyColumns; i++) {
+            DataType keyType = keyTypes.get(i);
+            streamers[i] = keyType.streamer();
+            keySizeEstimators.add(SizeEstimatorFactory.create(keyType));
+        }
+        for (int i = 0; i < aggregations.length; i++) {
+            // states are streamed in their partial form for distributed aggregations as well
+            streamers[numKeyColumns + i] = aggregations[i].partialType().streamer();
+        }
+    }
+
+    /**
+     * Writes the states of a group to the file of its partition.
+     * The memory used by spilled groups must be released by the caller.
+     */
+    void spill(@Nullable K key, Object[] states) {
+        applyKeyToCells.accept(key, cells);
+        System.arraycopy(states, 0, cells, numKeyColumns, states.length);
+        int partition = partition(key);
+        SpillFile spillFile = partitions[partition];
+        if (spillFile == null) {
+            spillFile = SpillFile.create(streamers);
+            partitions[partition] = spillFile;
+        }
+        spillFile.write(cells);
+    }
+
+    void spill(Iterable<? extends Map.Entry<K, Object[]>> groups) {
+        for (Map.Entry<K, Object[]> group : groups) {
+            spill(group.getKey(), group.getValue());
+        }
+    }
+
+    private static int partition(@Nullable Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), NUM_PARTITIONS);
+    }
+
+    /**
+     * Returns the final rows of all spilled groups. No more groups may be spilled afterwards.
+     * The groups are read from disk on each iteration.
+     */
+    Iterable<Row> rows() {
+        for (SpillFile partition : partitions) {
+            if (partition != null) {
+                partition.finishWriting();
+            }
+        }
+        return RowIterator::new;
+    }
+
+    private Iterator<Object[]> loadPartition(int partition) {
+        SpillFile spillFile = partitions[partition];
+        if (spillFile == null) {
+            return Collections.emptyIterator();
+        }
+        // the groups of the previous partition are no longer needed
+        ramAccountingContext.release();
+        Map<Object, Object[]> groupsByKey = new HashMap<>();
+        for (Object[] group : spillFile) {
+            Object key = numKeyColumns == 1 ? group[0] : Arrays.asList(group).subList(0, numKeyColumns);
+            Object[] existing = groupsByKey.get(key);
+            if (existing == null) {
+                addWithAccounting(groupsByKey, key, group);
+            } else {
+                for (int i = 0; i < aggregations.length; i++) {
+                    int idx = numKeyColumns + i;
+                    //noinspection unchecked
+                    existing[idx] = aggregations[i].reduce(ramAccountingContext, existing[idx], group[idx]);
+                }
+            }
+        }
+        return groupsByKey.values().iterator();
+    }
+
+    private void addWithAccounting(Map<Object, Object[]> groupsByKey, Object key, Object[] group) {
+        long keySize = 0;
+        for (int i = 0; i < numKeyColumns; i++) {
+            keySize += keySizeEstimators.get(i).estimateSize(group[i]);
+        }
+        // key size + 32 bytes for entry + 4 bytes for increased capacity
+        ramAccountingContext.addBytes(RamAccountingContext.roundUp(keySize + 36L));
+        groupsByKey.put(key, group);
+    }
+
+    @Override
+    public void close() {
+        for (int i = 0; i < partitions.length; i++) {
+            SpillFile partition = partitions[i];
+            if (partition != null) {
+                partition.close();
+                partitions[i] = null;
+            }
+        }
+    }
+
+    private class RowIterator implements Iterator<Row> {
+
+        private final Object[] outputCells = new Object[numKeyColumns + aggregations.length];
+        private final Row row = new RowN(outputCells);
+        private int partition = -1;
+        private Iterator<Object[]> groups = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!groups.hasNext()) {
+                partition++;
+                if (partition >= NUM_PARTITIONS) {
+                    return false;
+                }
+                groups = loadPartition(partition);
+            }
+            return true;
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more spilled groups");
+            }
+            Object[] group = groups.next();
+            System.arraycopy(group, 0, outputCells, 0, numKeyColumns);
+            for (int i = 0; i < aggregations.length; i++) {
+                //noinspection unchecked
+                outputCells[numKeyColumns + i] = mode.finishCollect(
+                    ramAccountingContext, aggregations[i], group[numKeyColumns + i]);
+            }
+            return row;
+        }
+    }
+}
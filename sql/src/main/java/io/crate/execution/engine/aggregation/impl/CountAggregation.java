@@ -25,6 +25,8 @@ import com.google.common.collect.ImmutableList;
 import io.crate.Streamer;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.data.Input;
+import io.crate.data.columnar.Column;
+import io.crate.data.columnar.ColumnBatch;
 import io.crate.execution.engine.aggregation.AggregationFunction;
 import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Literal;
@@ -117,6 +119,42 @@ public class CountAggregation extends AggregationFunction<CountAggregation.LongS
         return state;
     }
 
+    @Override
+    public boolean isRemovableCumulative() {
+        return true;
+    }
+
+    @Override
+    public LongState removeFromAggregatedState(RamAccountingContext ramAccountingContext,
+                                               LongState previousAggState,
+                                               Input[] stateToRemove) {
+        if (!hasArgs || stateToRemove[0].value() != null) {
+            return previousAggState.add(-1L);
+        }
+        return previousAggState;
+    }
+
+    @Override
+    public LongState iterateBatch(RamAccountingContext ramAccountingContext,
+                                  LongState state,
+                                  ColumnBatch batch,
+                                  int[] argColumns) {
+        if (!hasArgs) {
+            return state.add(batch.numSelected());
+        }
+        Column column = batch.column(argColumns[0]);
+        if (column.hasNulls() == false) {
+            return state.add(batch.numSelected());
+        }
+        long count = 0L;
+        for (int i = 0; i < batch.numSelected(); i++) {
+            if (column.isNull(batch.position(i)) == false) {
+                count++;
+            }
+        }
+        return state.add(count);
+    }
+
     @Nullable
     @Override
     public LongState newState(RamAccountingContext ramAccountingContext,
@@ -24,6 +24,10 @@ package io.crate.execution.engine.aggregation.impl;
 import com.google.common.annotations.VisibleForTesting;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.data.Input;
+import io.crate.data.columnar.Column;
+import io.crate.data.columnar.ColumnBatch;
+import io.crate.data.columnar.DoubleColumn;
+import io.crate.data.columnar.LongColumn;
 import io.crate.execution.engine.aggregation.AggregationFunction;
 import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
@@ -101,6 +105,50 @@ public class SumAggregation<T extends Number> extends AggregationFunction<T, T>
         return reduce(ramAccountingContext, state, returnType.value(args[0].value()));
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public T iterateBatch(RamAccountingContext ramAccountingContext,
+                          T state,
+                          ColumnBatch batch,
+                          int[] argColumns) throws CircuitBreakingException {
+        Column column = batch.column(argColumns[0]);
+        if (returnType == DataTypes.LONG && column instanceof LongColumn) {
+            return (T) sumLongs(state == null ? null : state.longValue(), (LongColumn) column, batch);
+        }
+        if (returnType == DataTypes.DOUBLE && column instanceof DoubleColumn) {
+            return (T) sumDoubles(state == null ? null : state.doubleValue(), (DoubleColumn) column, batch);
+        }
+        return super.iterateBatch(ramAccountingContext, state, batch, argColumns);
+    }
+
+    @Nullable
+    private static Long sumLongs(@Nullable Long state, LongColumn column, ColumnBatch batch) {
+        boolean hasValue = state != null;
+        long sum = hasValue ? state : 0L;
+        for (int i = 0; i < batch.numSelected(); i++) {
+            int position = batch.position(i);
+            if (column.isNull(position) == false) {
+                sum = Math.addExact(sum, column.getLong(position));
+                hasValue = true;
+            }
+        }
+        return hasValue ? sum : null;
+    }
+
+    @Nullable
+    private static Double sumDoubles(@Nullable Double state, DoubleColumn column, ColumnBatch batch) {
+        boolean hasValue = state != null;
+        double sum = hasValue ? state : 0d;
+        for (int i = 0; i < batch.numSelected(); i++) {
+            int position = batch.position(i);
+            if (column.isNull(position) == false) {
+                sum += column.getDouble(position);
+                hasValue = true;
+            }
+        }
+        return hasValue ? sum : null;
+    }
+
     @Override
     public T reduce(RamAccountingContext ramAccountingContext, T state1, T state2) {
         if (state1 == null) {
@@ -33,6 +33,7 @@ import io.crate.execution.dsl.phases.CollectPhase;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.execution.jobs.AbstractTask;
 import io.crate.execution.jobs.SharedShardContexts;
+import io.crate.execution.jobs.workload.WorkloadClass;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.RowGranularity;
 import org.elasticsearch.index.engine.Engine;
@@ -70,7 +71,7 @@ public class CollectTask extends AbstractTask {
         this.sharedShardContexts = sharedShardContexts;
         this.consumer = new ListenableRowConsumer(consumer);
         this.consumer.completionFuture().whenComplete(closeOrKill(this));
-        this.threadPoolName = threadPoolName(collectPhase);
+        this.threadPoolName = threadPoolName(collectPhase, txnCtx.workloadClass());
     }
 
     public void addSearcher(int searcherId, Engine.Searcher searcher) {
@@ -155,7 +156,7 @@ public class CollectTask extends AbstractTask {
     }
 
     @VisibleForTesting
-    static String threadPoolName(CollectPhase phase) {
+    static String threadPoolName(CollectPhase phase, WorkloadClass workloadClass) {
         if (phase instanceof RoutedCollectPhase) {
             RoutedCollectPhase collectPhase = (RoutedCollectPhase) phase;
             if (collectPhase.maxRowGranularity() == RowGranularity.NODE
@@ -166,6 +167,6 @@ public class CollectTask extends AbstractTask {
         }
 
         // Anything else like doc tables, INFORMATION_SCHEMA tables or sys.cluster table collector, partition collector
-        return ThreadPool.Names.SEARCH;
+        return workloadClass.executorName();
     }
 }
@@ -0,0 +1,182 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.BatchIterators;
+import io.crate.data.CollectingBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.columnar.ColumnBatch;
+import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.AggregationProjection;
+import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.ColumnBatchAggregateCollector;
+import io.crate.execution.engine.collect.collectors.LuceneColumnBatchIterator;
+import io.crate.execution.jobs.SharedShardContext;
+import io.crate.expression.InputFactory;
+import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.Aggregation;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.Symbols;
+import io.crate.lucene.LuceneQueryBuilder;
+import io.crate.metadata.Functions;
+import io.crate.metadata.doc.DocSysColumns;
+import org.apache.lucene.index.LeafReaderContext;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.index.shard.IndexShard;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+
+import static io.crate.execution.dsl.projection.Projections.shardProjections;
+import static io.crate.execution.engine.collect.LuceneShardCollectorProvider.getCollectorContext;
+
+/**
+ * Global aggregations (without group by) on a shard which only use columns that can be loaded in batches
+ * (see {@link LuceneColumnBatchIterator#supports(List)}) are computed directly on the {@link ColumnBatch}es,
+ * without materializing a row per document.
+ */
+final class ColumnarAggregationIterator {
+
+    private ColumnarAggregationIterator() {
+    }
+
+    /**
+     * @return true if the shard projection of the phase can be computed using {@link #create}.
+     */
+    static boolean canOptimize(Functions functions,
+                               DocInputFactory docInputFactory,
+                               RoutedCollectPhase collectPhase,
+                               CollectTask collectTask) {
+        AggregationProjection aggregationProjection = getAggregationProjection(shardProjections(collectPhase.projections()));
+        if (aggregationProjection == null) {
+            return false;
+        }
+        if (Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.SCORE)
+            || Symbols.containsColumn(collectPhase.where(), DocSysColumns.SCORE)) {
+            return false;
+        }
+        for (Aggregation aggregation : aggregationProjection.aggregations()) {
+            for (Symbol input : aggregation.inputs()) {
+                if (!(input instanceof InputColumn)) {
+                    return false;
+                }
+            }
+            if (!(functions.getQualified(aggregation.functionIdent()) instanceof AggregationFunction)) {
+                return false;
+            }
+        }
+        InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
+            docInputFactory.extractImplementations(collectTask.txnCtx(), collectPhase);
+        return LuceneColumnBatchIterator.supports(docCtx.topLevelInputs());
+    }
+
+    /**
+     * Creates a BatchIterator which aggregates the given {@code leaves} of the searcher.
+     * Must only be used if {@link #canOptimize} returned true.
+     * The searcher is not closed by the BatchIterator.
+     */
+    static BatchIterator<Row> create(IndexShard indexShard,
+                                     SharedShardContext sharedShardContext,
+                                     Engine.Searcher searcher,
+                                     List<LeafReaderContext> leaves,
+                                     LuceneQueryBuilder luceneQueryBuilder,
+                                     Functions functions,
+                                     BigArrays bigArrays,
+                                     DocInputFactory docInputFactory,
+                                     RoutedCollectPhase collectPhase,
+                                     CollectTask collectTask) {
+        AggregationProjection aggregationProjection = getAggregationProjection(shardProjections(collectPhase.projections()));
+        assert aggregationProjection != null : "canOptimize must be checked before calling create";
+        List<Aggregation> aggregations = aggregationProjection.aggregations();
+        AggregationFunction[] functionImpls = new AggregationFunction[aggregations.size()];
+        int[][] argColumns = new int[aggregations.size()][];
+        for (int i = 0; i < functionImpls.length; i++) {
+            Aggregation aggregation = aggregations.get(i);
+            List<Symbol> inputs = aggregation.inputs();
+            argColumns[i] = new int[inputs.size()];
+            for (int j = 0; j < inputs.size(); j++) {
+                argColumns[i][j] = ((InputColumn) inputs.get(j)).index();
+            }
+            functionImpls[i] = (AggregationFunction) functions.getQualified(aggregation.functionIdent());
+        }
+        InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
+            docInputFactory.extractImplementations(collectTask.txnCtx(), collectPhase);
+        QueryShardContext queryShardContext =
+            sharedShardContext.indexService().newQueryShardContext(System::currentTimeMillis);
+        LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
+            collectPhase.where(),
+            collectTask.txnCtx(),
+            indexShard.mapperService(),
+            queryShardContext,
+            sharedShardContext.indexService().cache()
+        );
+        assert queryContext.minScore() == null : "minScore requires _score which isn't supported";
+        BatchIterator<ColumnBatch> batches = new LuceneColumnBatchIterator(
+            searcher.searcher(),
+            leaves,
+            queryContext.query(),
+            getCollectorContext(sharedShardContext.readerId(), queryShardContext::getForField),
+            collectTask.queryPhaseRamAccountingContext(),
+            docCtx.topLevelInputs(),
+            docCtx.expressions()
+        );
+        ColumnBatchAggregateCollector collector = new ColumnBatchAggregateCollector(
+            collectTask.queryPhaseRamAccountingContext(),
+            aggregationProjection.mode(),
+            functionImpls,
+            indexShard.indexSettings().getIndexVersionCreated(),
+            bigArrays,
+            argColumns
+        );
+        return CollectingBatchIterator.newInstance(
+            batches::close,
+            batches::kill,
+            () -> BatchIterators.collect(batches, collector),
+            true
+        );
+    }
+
+    @Nullable
+    private static AggregationProjection getAggregationProjection(Collection<? extends Projection> shardProjections) {
+        if (shardProjections.size() != 1) {
+            return null;
+        }
+        Projection shardProjection = shardProjections.iterator().next();
+        if (!(shardProjection instanceof AggregationProjection)) {
+            return null;
+        }
+        AggregationProjection aggregationProjection = (AggregationProjection) shardProjection;
+        AggregateMode mode = aggregationProjection.mode();
+        if (mode != AggregateMode.ITER_PARTIAL && mode != AggregateMode.ITER_FINAL) {
+            return null;
+        }
+        return aggregationProjection;
+    }
+}
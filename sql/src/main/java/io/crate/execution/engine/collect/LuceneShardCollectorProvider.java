@@ -23,9 +23,11 @@ package io.crate.execution.engine.collect;
 
 import io.crate.data.BatchIterator;
 import io.crate.data.Row;
+import io.crate.data.columnar.ColumnBatches;
 import io.crate.execution.TransportActionProvider;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.execution.engine.collect.collectors.LuceneBatchIterator;
+import io.crate.execution.engine.collect.collectors.LuceneColumnBatchIterator;
 import io.crate.execution.engine.collect.collectors.LuceneOrderedDocCollector;
 import io.crate.execution.engine.collect.collectors.OptimizeQueryForSearchAfter;
 import io.crate.execution.engine.collect.collectors.OrderedDocCollector;
@@ -45,6 +47,7 @@ import io.crate.metadata.Schemas;
 import io.crate.metadata.doc.DocSysColumns;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.LeafReaderContext;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
@@ -58,13 +61,23 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 public class LuceneShardCollectorProvider extends ShardCollectorProvider {
 
     private static final Logger LOGGER = LogManager.getLogger(LuceneShardCollectorProvider.class);
 
+    /**
+     * Collecting small segments concurrently isn't worth the overhead of the additional BatchIterators
+     */
+    private static final int MIN_DOCS_PER_SLICE = 100_000;
+
     private final Supplier<String> localNodeId;
     private final LuceneQueryBuilder luceneQueryBuilder;
     private final Functions functions;
@@ -105,31 +118,104 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
         ShardId shardId = indexShard.shardId();
         SharedShardContext sharedShardContext = collectTask.sharedShardContexts().getOrCreateContext(shardId);
         Engine.Searcher searcher = sharedShardContext.acquireSearcher();
-        IndexShard indexShard = sharedShardContext.indexShard();
         try {
-            QueryShardContext queryShardContext =
-                sharedShardContext.indexService().newQueryShardContext(System::currentTimeMillis);
-            LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
-                collectPhase.where(),
-                collectTask.txnCtx(),
-                indexShard.mapperService(),
-                queryShardContext,
-                sharedShardContext.indexService().cache()
+            BatchIterator<Row> iterator = createUnorderedIterator(
+                sharedShardContext,
+                searcher,
+                searcher.searcher().getTopReaderContext().leaves(),
+                collectPhase,
+                collectTask
             );
             collectTask.addSearcher(sharedShardContext.readerId(), searcher);
-            InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
-                docInputFactory.extractImplementations(collectTask.txnCtx(), collectPhase);
+            return iterator;
+        } catch (Throwable t) {
+            searcher.close();
+            throw t;
+        }
+    }
 
-            return new LuceneBatchIterator(
+    private BatchIterator<Row> createUnorderedIterator(SharedShardContext sharedShardContext,
+                                                       Engine.Searcher searcher,
+                                                       List<LeafReaderContext> leaves,
+                                                       RoutedCollectPhase collectPhase,
+                                                       CollectTask collectTask) {
+        IndexShard indexShard = sharedShardContext.indexShard();
+        QueryShardContext queryShardContext =
+            sharedShardContext.indexService().newQueryShardContext(System::currentTimeMillis);
+        LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
+            collectPhase.where(),
+            collectTask.txnCtx(),
+            indexShard.mapperService(),
+            queryShardContext,
+            sharedShardContext.indexService().cache()
+        );
+        InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
+            docInputFactory.extractImplementations(collectTask.txnCtx(), collectPhase);
+        boolean doScores = Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.SCORE);
+        CollectorContext collectorContext =
+            getCollectorContext(sharedShardContext.readerId(), queryShardContext::getForField);
+
+        if (!doScores && queryContext.minScore() == null
+            && LuceneColumnBatchIterator.supports(docCtx.topLevelInputs())) {
+            return ColumnBatches.toRows(new LuceneColumnBatchIterator(
                 searcher.searcher(),
+                leaves,
                 queryContext.query(),
-                queryContext.minScore(),
-                Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.SCORE),
-                getCollectorContext(sharedShardContext.readerId(), queryShardContext::getForField),
+                collectorContext,
                 collectTask.queryPhaseRamAccountingContext(),
                 docCtx.topLevelInputs(),
                 docCtx.expressions()
+            ));
+        }
+        return new LuceneBatchIterator(
+            searcher.searcher(),
+            leaves,
+            queryContext.query(),
+            queryContext.minScore(),
+            doScores,
+            collectorContext,
+            collectTask.queryPhaseRamAccountingContext(),
+            docCtx.topLevelInputs(),
+            docCtx.expressions()
+        );
+    }
+
+    @Nullable
+    @Override
+    protected BatchIterator<Row> getProjectionFusedIterator(RoutedCollectPhase normalizedPhase, CollectTask collectTask) {
+        BatchIterator<Row> groupByIterator = GroupByOptimizedIterator.tryOptimizeSingleStringKey(
+            indexShard,
+            luceneQueryBuilder,
+            fieldTypeLookup,
+            bigArrays,
+            new InputFactory(functions),
+            docInputFactory,
+            normalizedPhase,
+            collectTask
+        );
+        if (groupByIterator != null) {
+            return groupByIterator;
+        }
+        if (!ColumnarAggregationIterator.canOptimize(functions, docInputFactory, normalizedPhase, collectTask)) {
+            return null;
+        }
+        SharedShardContext sharedShardContext = collectTask.sharedShardContexts().getOrCreateContext(indexShard.shardId());
+        Engine.Searcher searcher = sharedShardContext.acquireSearcher();
+        try {
+            BatchIterator<Row> iterator = ColumnarAggregationIterator.create(
+                indexShard,
+                sharedShardContext,
+                searcher,
+                searcher.searcher().getTopReaderContext().leaves(),
+                luceneQueryBuilder,
+                functions,
+                bigArrays,
+                docInputFactory,
+                normalizedPhase,
+                collectTask
             );
+            collectTask.addSearcher(sharedShardContext.readerId(), searcher);
+            return iterator;
         } catch (Throwable t) {
             searcher.close();
             throw t;
@@ -138,8 +224,10 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
 
     @Nullable
     @Override
-    protected BatchIterator<Row> getProjectionFusedIterator(RoutedCollectPhase normalizedPhase, CollectTask collectTask) {
-        return GroupByOptimizedIterator.tryOptimizeSingleStringKey(
+    protected List<BatchIterator<Row>> getSlicedIterators(RoutedCollectPhase normalizedPhase,
+                                                          CollectTask collectTask,
+                                                          int maxSlices) {
+        BatchIterator<Row> groupByIterator = GroupByOptimizedIterator.tryOptimizeSingleStringKey(
             indexShard,
             luceneQueryBuilder,
             fieldTypeLookup,
@@ -149,6 +237,91 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             normalizedPhase,
             collectTask
         );
+        if (groupByIterator != null) {
+            // operates on the global ordinals of the shard, slicing wouldn't pay off
+            return Collections.singletonList(groupByIterator);
+        }
+        SharedShardContext sharedShardContext = collectTask.sharedShardContexts().getOrCreateContext(indexShard.shardId());
+        Engine.Searcher searcher = sharedShardContext.acquireSearcher();
+        try {
+            List<List<LeafReaderContext>> slices = sliceLeaves(
+                searcher.searcher().getTopReaderContext().leaves(), maxSlices, MIN_DOCS_PER_SLICE);
+            if (slices.size() < 2) {
+                searcher.close();
+                return null;
+            }
+            boolean columnarAggregation =
+                ColumnarAggregationIterator.canOptimize(functions, docInputFactory, normalizedPhase, collectTask);
+            List<BatchIterator<Row>> iterators = new ArrayList<>(slices.size());
+            for (List<LeafReaderContext> leaves : slices) {
+                if (columnarAggregation) {
+                    iterators.add(ColumnarAggregationIterator.create(
+                        indexShard,
+                        sharedShardContext,
+                        searcher,
+                        leaves,
+                        luceneQueryBuilder,
+                        functions,
+                        bigArrays,
+                        docInputFactory,
+                        normalizedPhase,
+                        collectTask
+                    ));
+                } else {
+                    iterators.add(applyShardProjections(
+                        normalizedPhase,
+                        collectTask,
+                        createUnorderedIterator(sharedShardContext, searcher, leaves, normalizedPhase, collectTask)
+                    ));
+                }
+            }
+            collectTask.addSearcher(sharedShardContext.readerId(), searcher);
+            return iterators;
+        } catch (Throwable t) {
+            searcher.close();
+            throw t;
+        }
+    }
+
+    /**
+     * Distributes the leaves into up to {@code maxSlices} slices with roughly the same number of documents.
+     * Slices contain at least {@code minDocsPerSlice} documents, unless there is only a single slice.
+     */
+    static List<List<LeafReaderContext>> sliceLeaves(List<LeafReaderContext> leaves, int maxSlices, int minDocsPerSlice) {
+        return partitionByWeight(leaves, maxSlices, minDocsPerSlice, leaf -> leaf.reader().maxDoc());
+    }
+
+    static <T> List<List<T>> partitionByWeight(List<T> items, int maxPartitions, int minWeightPerPartition, ToIntFunction<T> weight) {
+        long totalWeight = 0;
+        for (T item : items) {
+            totalWeight += weight.applyAsInt(item);
+        }
+        int numPartitions = (int) Math.min(
+            Math.min(maxPartitions, items.size()),
+            Math.max(1, totalWeight / Math.max(1, minWeightPerPartition))
+        );
+        if (numPartitions <= 1) {
+            return Collections.singletonList(items);
+        }
+        // largest first, each one is added to the currently lightest partition
+        ArrayList<T> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingInt(weight).reversed());
+        List<List<T>> partitions = new ArrayList<>(numPartitions);
+        long[] partitionWeights = new long[numPartitions];
+        for (int i = 0; i < numPartitions; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (T item : sorted) {
+            int lightest = 0;
+            for (int i = 1; i < numPartitions; i++) {
+                if (partitionWeights[i] < partitionWeights[lightest]) {
+                    lightest = i;
+                }
+            }
+            partitions.get(lightest).add(item);
+            partitionWeights[lightest] += weight.applyAsInt(item);
+        }
+        return partitions;
     }
 
     @Override
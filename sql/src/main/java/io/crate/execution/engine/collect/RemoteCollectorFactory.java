@@ -150,6 +150,7 @@ public class RemoteCollectorFactory {
             jobId,
             collectTask.txnCtx().userName(),
             collectTask.txnCtx().currentSchema(),
+            collectTask.txnCtx().workloadClass(),
             localNode,
             remoteNode,
             transportActionProvider.transportJobInitAction(),
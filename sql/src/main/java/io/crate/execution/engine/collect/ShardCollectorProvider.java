@@ -29,6 +29,11 @@ import io.crate.data.Row;
 import io.crate.data.SentinelRow;
 import io.crate.execution.TransportActionProvider;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.AggregationProjection;
+import io.crate.execution.dsl.projection.EvalProjection;
+import io.crate.execution.dsl.projection.FilterProjection;
+import io.crate.execution.dsl.projection.GroupProjection;
+import io.crate.execution.dsl.projection.Projection;
 import io.crate.execution.dsl.projection.Projections;
 import io.crate.execution.engine.collect.collectors.OrderedDocCollector;
 import io.crate.execution.engine.pipeline.ProjectionToProjectorVisitor;
@@ -39,6 +44,7 @@ import io.crate.execution.jobs.SharedShardContext;
 import io.crate.expression.InputFactory;
 import io.crate.expression.eval.EvaluatingNormalizer;
 import io.crate.expression.reference.sys.shard.ShardRowContext;
+import io.crate.expression.symbol.AggregateMode;
 import io.crate.metadata.Functions;
 import io.crate.metadata.RowGranularity;
 import io.crate.metadata.Schemas;
@@ -50,6 +56,9 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 public abstract class ShardCollectorProvider {
 
@@ -114,6 +123,74 @@ public abstract class ShardCollectorProvider {
         } else {
             iterator = InMemoryBatchIterator.empty(SentinelRow.SENTINEL);
         }
+        return applyShardProjections(collectPhase, collectTask, iterator);
+    }
+
+    /**
+     * Like {@link #getIterator(RoutedCollectPhase, boolean, CollectTask)}, but may split the shard into up to
+     * {@code maxSlices} parts which are collected by independent BatchIterators.
+     * Each of them already applies the shard projections, so they can be consumed concurrently.
+     * <p>
+     * Slicing is only done if the shard projections produce partial results which are merged later on anyway.
+     */
+    public List<BatchIterator<Row>> getIterators(RoutedCollectPhase collectPhase,
+                                                 boolean requiresScroll,
+                                                 CollectTask collectTask,
+                                                 int maxSlices) throws Exception {
+        if (maxSlices > 1
+            && !requiresScroll
+            && collectPhase.orderBy() == null
+            && canCollectSlicesIndependently(Projections.shardProjections(collectPhase.projections()))) {
+            RoutedCollectPhase normalizedCollectNode = collectPhase.normalize(shardNormalizer, null);
+            if (QueryClause.canMatch(normalizedCollectNode.where())) {
+                List<BatchIterator<Row>> iterators = getSlicedIterators(normalizedCollectNode, collectTask, maxSlices);
+                if (iterators != null) {
+                    return iterators;
+                }
+            }
+        }
+        return Collections.singletonList(getIterator(collectPhase, requiresScroll, collectTask));
+    }
+
+    /**
+     * Splitting is possible if the projections are row-wise, or aggregate into partial states.
+     */
+    static boolean canCollectSlicesIndependently(Collection<? extends Projection> shardProjections) {
+        boolean hasPartialAggregation = false;
+        for (Projection projection : shardProjections) {
+            if (projection instanceof FilterProjection || projection instanceof EvalProjection) {
+                continue;
+            }
+            if (projection instanceof AggregationProjection
+                && ((AggregationProjection) projection).mode() == AggregateMode.ITER_PARTIAL) {
+                hasPartialAggregation = true;
+                continue;
+            }
+            if (projection instanceof GroupProjection
+                && ((GroupProjection) projection).mode() == AggregateMode.ITER_PARTIAL) {
+                hasPartialAggregation = true;
+                continue;
+            }
+            return false;
+        }
+        // Slicing a plain scan doesn't help, the rows are consumed by a single thread anyway
+        return hasPartialAggregation;
+    }
+
+    /**
+     * @return BatchIterators which already apply the shard projections, one for each slice of the shard,
+     *         or null if the shard can't be sliced. Called with a normalized phase.
+     */
+    @Nullable
+    protected List<BatchIterator<Row>> getSlicedIterators(RoutedCollectPhase normalizedPhase,
+                                                          CollectTask collectTask,
+                                                          int maxSlices) {
+        return null;
+    }
+
+    protected BatchIterator<Row> applyShardProjections(RoutedCollectPhase collectPhase,
+                                                       CollectTask collectTask,
+                                                       BatchIterator<Row> iterator) {
         return Projectors.wrap(
             Projections.shardProjections(collectPhase.projections()),
             collectPhase.jobId(),
@@ -0,0 +1,281 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.collectors;
+
+import io.crate.breaker.CrateCircuitBreakerService;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.concurrent.CompletableFutures;
+import io.crate.data.BatchIterator;
+import io.crate.data.Input;
+import io.crate.data.columnar.Column;
+import io.crate.data.columnar.ColumnBatch;
+import io.crate.exceptions.Exceptions;
+import io.crate.expression.reference.doc.lucene.CollectorContext;
+import io.crate.expression.reference.doc.lucene.ColumnBatchLoader;
+import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Columnar counterpart of {@link LuceneBatchIterator}.
+ * <p>
+ * Instead of positioning the expressions on one document after the other, this iterator collects the ids of up to
+ * {@link ColumnBatch#DEFAULT_CAPACITY} matching documents of a segment and then loads the doc values of each column
+ * for all of them in one go. Each {@link #moveNext()} exposes the next filled {@link ColumnBatch}.
+ * <p>
+ * Only usable if all inputs are {@link ColumnBatchLoader}s (see {@link #supports(List)}) and no scores are required.
+ */
+public class LuceneColumnBatchIterator implements BatchIterator<ColumnBatch> {
+
+    private final IndexSearcher indexSearcher;
+    private final Query query;
+    private final CollectorContext collectorContext;
+    private final RamAccountingContext ramAccountingContext;
+    private final LuceneCollectorExpression[] expressions;
+    private final ColumnBatchLoader[] loaders;
+    private final Column[] loaderColumns;
+    private final List<LeafReaderContext> leaves;
+    private final ColumnBatch batch;
+    private final int[] docs;
+    private Weight weight;
+
+    private Iterator<LeafReaderContext> leavesIt;
+    private DocIdSetIterator currentDocIdSetIt;
+    private Bits currentLiveDocs;
+    private boolean closed = false;
+    private volatile Throwable killed;
+
+    public LuceneColumnBatchIterator(IndexSearcher indexSearcher,
+                                     Query query,
+                                     CollectorContext collectorContext,
+                                     RamAccountingContext ramAccountingContext,
+                                     List<? extends Input<?>> inputs,
+                                     Collection<? extends LuceneCollectorExpression<?>> expressions) {
+        this(indexSearcher, indexSearcher.getTopReaderContext().leaves(), query, collectorContext,
+            ramAccountingContext, inputs, expressions, ColumnBatch.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param leaves the segments to collect, a subset of the leaves of the {@code indexSearcher}.
+     */
+    public LuceneColumnBatchIterator(IndexSearcher indexSearcher,
+                                     List<LeafReaderContext> leaves,
+                                     Query query,
+                                     CollectorContext collectorContext,
+                                     RamAccountingContext ramAccountingContext,
+                                     List<? extends Input<?>> inputs,
+                                     Collection<? extends LuceneCollectorExpression<?>> expressions) {
+        this(indexSearcher, leaves, query, collectorContext, ramAccountingContext, inputs, expressions,
+            ColumnBatch.DEFAULT_CAPACITY);
+    }
+
+    LuceneColumnBatchIterator(IndexSearcher indexSearcher,
+                              List<LeafReaderContext> leaves,
+                              Query query,
+                              CollectorContext collectorContext,
+                              RamAccountingContext ramAccountingContext,
+                              List<? extends Input<?>> inputs,
+                              Collection<? extends LuceneCollectorExpression<?>> expressions,
+                              int batchSize) {
+        assert supports(inputs) : "All inputs must be ColumnBatchLoaders";
+        this.indexSearcher = indexSearcher;
+        this.query = query;
+        this.collectorContext = collectorContext;
+        this.ramAccountingContext = ramAccountingContext;
+        this.expressions = expressions.toArray(new LuceneCollectorExpression[0]);
+
+        // The same expression may be used for several inputs; it's loaded once and the column is shared.
+        Map<ColumnBatchLoader, Column> columnByLoader = new IdentityHashMap<>();
+        Column[] columns = new Column[inputs.size()];
+        for (int i = 0; i < columns.length; i++) {
+            ColumnBatchLoader loader = (ColumnBatchLoader) inputs.get(i);
+            columns[i] = columnByLoader.computeIfAbsent(loader, l -> l.newColumn(batchSize));
+        }
+        this.loaders = columnByLoader.keySet().toArray(new ColumnBatchLoader[0]);
+        this.loaderColumns = new Column[loaders.length];
+        for (int i = 0; i < loaders.length; i++) {
+            loaderColumns[i] = columnByLoader.get(loaders[i]);
+        }
+        this.batch = new ColumnBatch(columns);
+        this.docs = new int[batchSize];
+        this.leaves = leaves;
+        leavesIt = leaves.iterator();
+    }
+
+    /**
+     * @return true if all inputs can be loaded in batches and this iterator can be used.
+     */
+    public static boolean supports(List<? extends Input<?>> inputs) {
+        for (Input<?> input : inputs) {
+            if (!(input instanceof ColumnBatchLoader)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public ColumnBatch currentElement() {
+        return batch;
+    }
+
+    @Override
+    public void moveToStart() {
+        raiseIfClosedOrKilled();
+        leavesIt = leaves.iterator();
+        currentDocIdSetIt = null;
+        batch.reset();
+    }
+
+    @Override
+    public boolean moveNext() {
+        raiseIfClosedOrKilled();
+        try {
+            if (weight == null) {
+                weight = createWeight();
+            }
+            return fillBatch();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private boolean fillBatch() throws IOException {
+        batch.reset();
+        while (tryAdvanceDocIdSetIterator()) {
+            int numDocs = 0;
+            int doc;
+            while (numDocs < docs.length && (doc = currentDocIdSetIt.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+                if (currentLiveDocs == null || currentLiveDocs.get(doc)) {
+                    docs[numDocs++] = doc;
+                }
+            }
+            if (numDocs < docs.length) {
+                currentDocIdSetIt = null;
+            }
+            if (numDocs > 0) {
+                checkCircuitBreaker();
+                for (int i = 0; i < loaders.length; i++) {
+                    loaders[i].load(docs, numDocs, loaderColumns[i]);
+                }
+                batch.size(numDocs);
+                return true;
+            }
+        }
+        clearState();
+        return false;
+    }
+
+    private boolean tryAdvanceDocIdSetIterator() throws IOException {
+        if (currentDocIdSetIt != null) {
+            return true;
+        }
+        while (leavesIt.hasNext()) {
+            LeafReaderContext leaf = leavesIt.next();
+            Scorer scorer = weight.scorer(leaf);
+            if (scorer == null) {
+                continue;
+            }
+            currentDocIdSetIt = scorer.iterator();
+            currentLiveDocs = leaf.reader().getLiveDocs();
+            for (LuceneCollectorExpression expression : expressions) {
+                expression.setNextReader(leaf);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void clearState() {
+        currentDocIdSetIt = null;
+        currentLiveDocs = null;
+    }
+
+    private Weight createWeight() throws IOException {
+        for (LuceneCollectorExpression expression : expressions) {
+            expression.startCollect(collectorContext);
+        }
+        return indexSearcher.createWeight(indexSearcher.rewrite(query), false, 1f);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        clearState();
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() {
+        if (closed) {
+            return CompletableFutures.failedFuture(new IllegalStateException("BatchIterator is closed"));
+        }
+        return CompletableFutures.failedFuture(new IllegalStateException("BatchIterator already fully loaded"));
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return true;
+    }
+
+    @Override
+    public boolean involvesIO() {
+        return true;
+    }
+
+    private void checkCircuitBreaker() throws CircuitBreakingException {
+        if (ramAccountingContext != null && ramAccountingContext.trippedBreaker()) {
+            throw new CircuitBreakingException(
+                CrateCircuitBreakerService.breakingExceptionMessage(ramAccountingContext.contextId(),
+                    ramAccountingContext.limit()));
+        }
+    }
+
+    private void raiseIfClosedOrKilled() {
+        if (killed != null) {
+            Exceptions.rethrowUnchecked(killed);
+        }
+        if (closed) {
+            throw new IllegalStateException("BatchIterator is closed");
+        }
+    }
+
+    @Override
+    public void kill(@Nonnull Throwable throwable) {
+        killed = throwable;
+    }
+}
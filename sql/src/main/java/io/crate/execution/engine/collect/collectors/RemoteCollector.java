@@ -39,6 +39,7 @@ import io.crate.execution.jobs.kill.TransportKillJobsNodeAction;
 import io.crate.execution.jobs.transport.JobRequest;
 import io.crate.execution.jobs.transport.JobResponse;
 import io.crate.execution.jobs.transport.TransportJobAction;
+import io.crate.execution.jobs.workload.WorkloadClass;
 import io.crate.types.DataTypes;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -57,6 +58,7 @@ public class RemoteCollector {
     private final UUID jobId;
     private final String userName;
     private final String currentSchema;
+    private final WorkloadClass workloadClass;
     private final String localNode;
     private final String remoteNode;
     private final Executor executor;
@@ -76,6 +78,7 @@ public class RemoteCollector {
     public RemoteCollector(UUID jobId,
                            String userName,
                            String currentSchema,
+                           WorkloadClass workloadClass,
                            String localNode,
                            String remoteNode,
                            TransportJobAction transportJobAction,
@@ -88,6 +91,7 @@ public class RemoteCollector {
         this.jobId = jobId;
         this.userName = userName;
         this.currentSchema = currentSchema;
+        this.workloadClass = workloadClass;
         this.localNode = localNode;
         this.remoteNode = remoteNode;
         this.executor = executor;
@@ -153,7 +157,8 @@ public class RemoteCollector {
                     currentSchema,
                     localNode,
                     Collections.singletonList(nodeOperation),
-                    enableProfiling
+                    enableProfiling,
+                    workloadClass
                 ),
                 new ActionListener<JobResponse>() {
                     @Override
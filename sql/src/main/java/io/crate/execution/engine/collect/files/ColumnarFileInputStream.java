@@ -0,0 +1,180 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import io.crate.Streamer;
+import io.crate.execution.engine.export.ColumnarFileWriter;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decodes a file written by {@link ColumnarFileWriter} and exposes its rows as JSON objects, one per line,
+ * so that they can be consumed like any other line based COPY FROM input.
+ */
+class ColumnarFileInputStream extends InputStream {
+
+    private static final byte NEW_LINE = (byte) '\n';
+
+    private final StreamInput in;
+    private final String[] columnNames;
+    private final Streamer[] streamers;
+    private final StreamInput[] columnChunks;
+    private final Inflater inflater = new Inflater(true);
+    private final BytesStreamOutput line = new BytesStreamOutput();
+    private final XContentBuilder builder;
+
+    private int remainingRowsInGroup = 0;
+    private boolean endReached = false;
+    private byte[] lineBytes = new byte[0];
+    private int lineLength = 0;
+    private int pos = 0;
+
+    ColumnarFileInputStream(InputStream inputStream) throws IOException {
+        this.in = new InputStreamStreamInput(inputStream);
+        byte[] magic = new byte[ColumnarFileWriter.MAGIC.length];
+        in.readBytes(magic, 0, magic.length);
+        if (!Arrays.equals(magic, ColumnarFileWriter.MAGIC)) {
+            throw new IOException("Input is not in the columnar format");
+        }
+        int version = in.readVInt();
+        if (version != ColumnarFileWriter.VERSION) {
+            throw new IOException("Unsupported columnar format version: " + version);
+        }
+        int numColumns = in.readVInt();
+        columnNames = new String[numColumns];
+        streamers = new Streamer[numColumns];
+        columnChunks = new StreamInput[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            columnNames[i] = in.readString();
+            DataType type = DataTypes.fromStream(in);
+            streamers[i] = type.streamer();
+        }
+        builder = XContentFactory.jsonBuilder(line);
+    }
+
+    private boolean nextRowGroup() throws IOException {
+        int numRows = in.readVInt();
+        if (numRows == 0) {
+            endReached = true;
+            return false;
+        }
+        for (int i = 0; i < columnChunks.length; i++) {
+            int uncompressedLength = in.readVInt();
+            int compressedLength = in.readVInt();
+            // inflating with nowrap=true may require an extra dummy byte at the end of the input
+            byte[] compressed = new byte[compressedLength + 1];
+            in.readBytes(compressed, 0, compressedLength);
+            byte[] uncompressed = new byte[uncompressedLength];
+            inflater.reset();
+            inflater.setInput(compressed);
+            try {
+                int inflated = 0;
+                while (inflated < uncompressedLength && !inflater.finished()) {
+                    int n = inflater.inflate(uncompressed, inflated, uncompressedLength - inflated);
+                    if (n == 0 && inflater.needsInput()) {
+                        break;
+                    }
+                    inflated += n;
+                }
+                if (inflated != uncompressedLength) {
+                    throw new IOException("Column chunk of '" + columnNames[i] + "' is truncated");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Column chunk of '" + columnNames[i] + "' is corrupted", e);
+            }
+            columnChunks[i] = StreamInput.wrap(uncompressed);
+        }
+        remainingRowsInGroup = numRows;
+        return true;
+    }
+
+    /**
+     * Renders the next row as JSON line into {@link #lineBytes}
+     *
+     * @return false if there are no more rows
+     */
+    private boolean nextLine() throws IOException {
+        if (endReached) {
+            return false;
+        }
+        if (remainingRowsInGroup == 0 && !nextRowGroup()) {
+            return false;
+        }
+        line.reset();
+        builder.startObject();
+        for (int i = 0; i < streamers.length; i++) {
+            builder.field(columnNames[i], streamers[i].readValueFrom(columnChunks[i]));
+        }
+        builder.endObject();
+        builder.flush();
+        line.write(NEW_LINE);
+        remainingRowsInGroup--;
+
+        lineLength = (int) line.size();
+        if (lineBytes.length < lineLength) {
+            lineBytes = new byte[Math.max(lineLength, lineBytes.length * 2)];
+        }
+        line.bytes().streamInput().readBytes(lineBytes, 0, lineLength);
+        pos = 0;
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (pos == lineLength && !nextLine()) {
+            return -1;
+        }
+        return lineBytes[pos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (pos == lineLength && !nextLine()) {
+            return -1;
+        }
+        int n = Math.min(len, lineLength - pos);
+        System.arraycopy(lineBytes, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+}
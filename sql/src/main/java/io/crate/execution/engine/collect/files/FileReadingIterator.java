@@ -23,12 +23,14 @@ package io.crate.execution.engine.collect.files;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.concurrent.CompletableFutures;
 import io.crate.data.BatchIterator;
 import io.crate.data.CloseAssertingBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.execution.dsl.phases.FileUriCollectPhase;
+import io.crate.execution.engine.export.ColumnarFileWriter;
 import io.crate.expression.InputRow;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.common.collect.Tuple;
@@ -52,6 +54,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -63,11 +66,19 @@ public class FileReadingIterator implements BatchIterator<Row> {
 
     private static final Logger LOGGER = LogManager.getLogger(FileReadingIterator.class);
     private static final int MAX_SOCKET_TIMEOUT_RETRIES = 5;
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final int READ_AHEAD_CHUNK_SIZE = 64 * 1024;
+    private static final int READ_AHEAD_CHUNKS = 16;
+    // the read-ahead chunks and the gzip buffer of a compressed reader
+    private static final long COMPRESSED_READER_BYTES = (long) READ_AHEAD_CHUNK_SIZE * READ_AHEAD_CHUNKS + GZIP_BUFFER_SIZE;
+    private static final int READER_BUFFER_SIZE = 64 * 1024;
     private final Map<String, FileInputFactory> fileInputFactories;
     private final Boolean shared;
     private final int numReaders;
     private final int readerNumber;
     private final boolean compressed;
+    private final Executor readAheadExecutor;
+    private final RamAccountingContext ramAccountingContext;
 
     private static final Pattern HAS_GLOBS_PATTERN = Pattern.compile("(.*)[^\\\\]\\*.*");
     private static final Predicate<URI> MATCH_ALL_PREDICATE = (URI input) -> true;
@@ -92,7 +103,9 @@ public class FileReadingIterator implements BatchIterator<Row> {
                                 Boolean shared,
                                 int numReaders,
                                 int readerNumber,
-                                FileUriCollectPhase.InputFormat inputFormat) {
+                                FileUriCollectPhase.InputFormat inputFormat,
+                                Executor readAheadExecutor,
+                                RamAccountingContext ramAccountingContext) {
         this.compressed = compression != null && compression.equalsIgnoreCase("gzip");
         this.row = new InputRow(inputs);
         this.fileInputFactories = fileInputFactories;
@@ -102,6 +115,8 @@ public class FileReadingIterator implements BatchIterator<Row> {
         this.urisWithGlob = getUrisWithGlob(fileUris);
         this.collectorExpressions = collectorExpressions;
         this.inputFormat = inputFormat;
+        this.readAheadExecutor = readAheadExecutor;
+        this.ramAccountingContext = ramAccountingContext;
         initCollectorState();
     }
 
@@ -123,9 +138,12 @@ public class FileReadingIterator implements BatchIterator<Row> {
                                                  Boolean shared,
                                                  int numReaders,
                                                  int readerNumber,
-                                                 FileUriCollectPhase.InputFormat inputFormat) {
+                                                 FileUriCollectPhase.InputFormat inputFormat,
+                                                 Executor readAheadExecutor,
+                                                 RamAccountingContext ramAccountingContext) {
         return new CloseAssertingBatchIterator<>(new FileReadingIterator(fileUris, inputs, collectorExpressions,
-            compression, fileInputFactories, shared, numReaders, readerNumber, inputFormat));
+            compression, fileInputFactories, shared, numReaders, readerNumber, inputFormat, readAheadExecutor,
+            ramAccountingContext));
     }
 
     private void initCollectorState() {
@@ -142,6 +160,7 @@ public class FileReadingIterator implements BatchIterator<Row> {
 
     @Override
     public void moveToStart() {
+        closeCurrentReader();
         initCollectorState();
     }
 
@@ -196,7 +215,7 @@ public class FileReadingIterator implements BatchIterator<Row> {
     private void initCurrentReader(FileInput fileInput, URI uri) throws IOException {
         lineProcessor.startWithUri(uri);
         InputStream stream = fileInput.getStream(uri);
-        currentReader = createBufferedReader(stream);
+        currentReader = createBufferedReader(stream, uri);
         currentLineNumber = 0;
         lineProcessor.readFirstLine(currentUri, inputFormat, currentReader);
     }
@@ -210,6 +229,7 @@ public class FileReadingIterator implements BatchIterator<Row> {
             }
             currentReader = null;
         }
+        ramAccountingContext.release();
     }
 
     private String getLine(BufferedReader reader, long startFrom, int retry) throws IOException {
@@ -356,15 +376,30 @@ public class FileReadingIterator implements BatchIterator<Row> {
         return new URLFileInput(fileUri);
     }
 
-    private BufferedReader createBufferedReader(InputStream inputStream) throws IOException {
-        BufferedReader reader;
+    private BufferedReader createBufferedReader(InputStream inputStream, URI uri) throws IOException {
         if (compressed) {
-            reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(inputStream),
-                StandardCharsets.UTF_8));
-        } else {
-            reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+            // decompression is done by the readAheadExecutor so that it overlaps with parsing the lines
+            ramAccountingContext.addBytes(COMPRESSED_READER_BYTES);
+            inputStream = new ReadAheadInputStream(
+                new GZIPInputStream(inputStream, GZIP_BUFFER_SIZE),
+                readAheadExecutor,
+                READ_AHEAD_CHUNK_SIZE,
+                READ_AHEAD_CHUNKS
+            );
+        }
+        if (isInputColumnar(uri)) {
+            inputStream = new ColumnarFileInputStream(inputStream);
         }
-        return reader;
+        return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), READER_BUFFER_SIZE);
+    }
+
+    private boolean isInputColumnar(URI uri) {
+        String path = uri.toString();
+        // the extension only overrides the default json format, an explicit csv format is kept
+        return inputFormat == FileUriCollectPhase.InputFormat.COLUMNAR
+               || (inputFormat == FileUriCollectPhase.InputFormat.JSON
+                   && (path.endsWith("." + ColumnarFileWriter.FILE_EXTENSION)
+                       || path.endsWith("." + ColumnarFileWriter.FILE_EXTENSION + ".gz")));
     }
 
     private static List<URI> getUris(FileInput fileInput, URI fileUri, URI preGlobUri, Predicate<URI> uriPredicate) throws IOException {
@@ -59,6 +59,8 @@ public class LineParser {
     }
 
     private boolean isInputCsv(FileUriCollectPhase.InputFormat inputFormat, URI currentUri) {
-        return (inputFormat == FileUriCollectPhase.InputFormat.CSV) || currentUri.toString().endsWith(".csv");
+        // decoded columnar rows are json lines, even if the file has a .csv extension
+        return (inputFormat == FileUriCollectPhase.InputFormat.CSV)
+               || (inputFormat != FileUriCollectPhase.InputFormat.COLUMNAR && currentUri.toString().endsWith(".csv"));
     }
 }
@@ -0,0 +1,186 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InputStream which reads its delegate on a different thread, ahead of the consumer.
+ * <p>
+ * Used to decompress COPY FROM input in parallel to the line parsing and indexing which happens on the consuming
+ * thread. At most {@code numChunks} chunks of {@code chunkSize} bytes are buffered.
+ * </p>
+ * The delegate is closed by the reading thread once it is exhausted, failed or this stream got closed.
+ */
+class ReadAheadInputStream extends InputStream {
+
+    private static final byte[] EOF = new byte[0];
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    private final InputStream delegate;
+    private final int chunkSize;
+    private final BlockingQueue<byte[]> chunks;
+
+    private volatile boolean closed = false;
+    private volatile IOException failure;
+
+    private byte[] currentChunk = null;
+    private int pos = 0;
+
+    ReadAheadInputStream(InputStream delegate, Executor executor, int chunkSize, int numChunks) {
+        this.delegate = delegate;
+        this.chunkSize = chunkSize;
+        this.chunks = new ArrayBlockingQueue<>(numChunks);
+        executor.execute(this::readAhead);
+    }
+
+    private void readAhead() {
+        try {
+            while (!closed) {
+                byte[] chunk = new byte[chunkSize];
+                int length = fill(chunk);
+                if (length > 0 && !put(length == chunkSize ? chunk : Arrays.copyOf(chunk, length))) {
+                    return;
+                }
+                if (length < chunkSize) {
+                    put(EOF);
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+            put(EOF);
+        } catch (Throwable t) {
+            failure = new IOException(t);
+            put(EOF);
+        } finally {
+            try {
+                delegate.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Reads from the delegate until the chunk is full or the delegate is exhausted
+     */
+    private int fill(byte[] chunk) throws IOException {
+        int length = 0;
+        while (length < chunk.length) {
+            int read = delegate.read(chunk, length, chunk.length - length);
+            if (read == -1) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+
+    /**
+     * @return false if the stream got closed while waiting for space in the queue
+     */
+    private boolean put(byte[] chunk) {
+        try {
+            while (!closed) {
+                if (chunks.offer(chunk, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * @return false if the end of the stream was reached
+     */
+    private boolean ensureChunk() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (currentChunk != null && pos < currentChunk.length) {
+            return true;
+        }
+        if (currentChunk == EOF) {
+            return false;
+        }
+        try {
+            currentChunk = chunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for input");
+        }
+        pos = 0;
+        if (currentChunk == EOF) {
+            IOException e = failure;
+            if (e != null) {
+                // re-throw the original exception so that callers can handle e.g. SocketTimeoutException
+                throw e;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (ensureChunk() == false) {
+            return -1;
+        }
+        return currentChunk[pos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (ensureChunk() == false) {
+            return -1;
+        }
+        int n = Math.min(len, currentChunk.length - pos);
+        System.arraycopy(currentChunk, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return currentChunk == null || currentChunk == EOF ? 0 : currentChunk.length - pos;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        chunks.clear();
+        currentChunk = null;
+    }
+}
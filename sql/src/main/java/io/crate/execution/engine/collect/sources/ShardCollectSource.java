@@ -52,6 +52,7 @@ import io.crate.execution.engine.sort.OrderingByPosition;
 import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.execution.jobs.SharedShardContext;
 import io.crate.execution.jobs.SharedShardContexts;
+import io.crate.execution.jobs.workload.WorkloadClass;
 import io.crate.expression.InputFactory;
 import io.crate.expression.eval.EvaluatingNormalizer;
 import io.crate.expression.reference.StaticTableReferenceResolver;
@@ -78,6 +79,7 @@ import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
@@ -139,10 +141,21 @@ import static io.crate.execution.support.ThreadPools.numIdleThreads;
 @Singleton
 public class ShardCollectSource extends AbstractComponent implements CollectSource {
 
+    /**
+     * Upper limit for the number of BatchIterators used to collect the segments of a single shard concurrently.
+     * The number of slices is further limited by the number of idle search threads and the number of shards.
+     */
+    public static final Setting<Integer> MAX_SLICES_PER_SHARD_SETTING = Setting.intSetting(
+        "node.sql.collect.max_slices_per_shard",
+        4,
+        1,
+        Setting.Property.NodeScope);
+
     private final IndicesService indicesService;
     private final ClusterService clusterService;
     private final RemoteCollectorFactory remoteCollectorFactory;
-    private final Executor executor;
+    private final ThreadPool threadPool;
+    private final int numProcessors;
     private final ProjectorFactory sharedProjectorFactory;
     private final InputFactory inputFactory;
 
@@ -150,7 +163,7 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
     private final ShardCollectorProviderFactory shardCollectorProviderFactory;
     private final StaticTableReferenceResolver<UnassignedShard> unassignedShardReferenceResolver;
     private final StaticTableReferenceResolver<ShardRowContext> shardReferenceResolver;
-    private final IntSupplier availableThreads;
+    private final int maxSlicesPerShard;
 
     @Inject
     public ShardCollectSource(Settings settings,
@@ -174,9 +187,9 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
         this.indicesService = indicesService;
         this.clusterService = clusterService;
         this.remoteCollectorFactory = remoteCollectorFactory;
-        ThreadPoolExecutor executor = (ThreadPoolExecutor) threadPool.executor(ThreadPool.Names.SEARCH);
-        this.availableThreads = numIdleThreads(executor, EsExecutors.numberOfProcessors(settings));
-        this.executor = executor;
+        this.threadPool = threadPool;
+        this.numProcessors = EsExecutors.numberOfProcessors(settings);
+        this.maxSlicesPerShard = MAX_SLICES_PER_SHARD_SETTING.get(settings);
         this.inputFactory = new InputFactory(functions);
         this.shardCollectorProviderFactory = new ShardCollectorProviderFactory(
             clusterService,
@@ -290,7 +303,12 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
         Map<String, IntIndexedContainer> indexShards = collectPhase.routing().locations().get(localNodeId);
         List<BatchIterator<Row>> iterators = indexShards == null
             ? Collections.emptyList()
-            : getIterators(collectTask, collectPhase, requireMoveToStartSupport, indexShards);
+            : getIterators(
+                collectTask,
+                collectPhase,
+                requireMoveToStartSupport,
+                indexShards,
+                hasShardProjections ? maxSlicesPerShard(indexShards, collectTask.txnCtx().workloadClass()) : 1);
 
         final BatchIterator<Row> result;
         switch (iterators.size()) {
@@ -307,9 +325,12 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
                     // use AsyncCompositeBatchIterator for multi-threaded loadNextBatch
                     // in order to process shard-based projections concurrently
 
+                    WorkloadClass workloadClass = collectTask.txnCtx().workloadClass();
                     //noinspection unchecked
                     result = new AsyncCompositeBatchIterator<>(
-                        executor, availableThreads, iterators.toArray(new BatchIterator[0]));
+                        executor(workloadClass),
+                        availableThreads(workloadClass),
+                        iterators.toArray(new BatchIterator[0]));
                 } else {
                     //noinspection unchecked
                     result = new CompositeBatchIterator<>(iterators.toArray(new BatchIterator[0]));
@@ -370,8 +391,8 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
                 orderBy.nullsFirst()
             ),
             new RowAccountingWithEstimators(columnTypes, collectTask.queryPhaseRamAccountingContext()),
-            executor,
-            availableThreads,
+            executor(collectTask.txnCtx().workloadClass()),
+            availableThreads(collectTask.txnCtx().workloadClass()),
             supportMoveToStart
         );
     }
@@ -388,10 +409,33 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
         return shardCollectorProvider;
     }
 
+    /**
+     * The segments of a shard are only collected concurrently if there are more idle threads than shards.
+     */
+    private int maxSlicesPerShard(Map<String, IntIndexedContainer> indexShards, WorkloadClass workloadClass) {
+        int numShards = 0;
+        for (IntIndexedContainer shards : indexShards.values()) {
+            numShards += shards.size();
+        }
+        if (numShards == 0) {
+            return 1;
+        }
+        return Math.max(1, Math.min(maxSlicesPerShard, availableThreads(workloadClass).getAsInt() / numShards));
+    }
+
+    private Executor executor(WorkloadClass workloadClass) {
+        return threadPool.executor(workloadClass.executorName());
+    }
+
+    private IntSupplier availableThreads(WorkloadClass workloadClass) {
+        return numIdleThreads((ThreadPoolExecutor) executor(workloadClass), numProcessors);
+    }
+
     private List<BatchIterator<Row>> getIterators(CollectTask collectTask,
                                                   RoutedCollectPhase collectPhase,
                                                   boolean requiresScroll,
-                                                  Map<String, IntIndexedContainer> indexShards) {
+                                                  Map<String, IntIndexedContainer> indexShards,
+                                                  int maxSlicesPerShard) {
 
         MetaData metaData = clusterService.state().metaData();
         List<BatchIterator<Row>> iterators = new ArrayList<>();
@@ -417,12 +461,12 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
                 ShardId shardId = new ShardId(index, shardCursor.value);
                 try {
                     ShardCollectorProvider shardCollectorProvider = getCollectorProviderSafe(shardId);
-                    BatchIterator<Row> iterator = shardCollectorProvider.getIterator(
+                    iterators.addAll(shardCollectorProvider.getIterators(
                         collectPhase,
                         requiresScroll,
-                        collectTask
-                    );
-                    iterators.add(iterator);
+                        collectTask,
+                        maxSlicesPerShard
+                    ));
                 } catch (ShardNotFoundException | IllegalIndexShardStateException e) {
                     // If toCollect contains a docId it means that this is a QueryThenFetch operation.
                     // In such a case RemoteCollect cannot be used because on that node the FetchTask is missing
@@ -23,6 +23,7 @@
 package io.crate.execution.engine.collect.stats;
 
 import io.crate.auth.user.User;
+import io.crate.execution.jobs.workload.WorkloadClass;
 import io.crate.expression.reference.sys.job.JobContext;
 import io.crate.expression.reference.sys.job.JobContextLog;
 import io.crate.expression.reference.sys.operation.OperationContext;
@@ -104,11 +105,31 @@ public class JobsLogs {
      * If {@link #isEnabled()} is false this method won't do anything.
      */
     public void logExecutionStart(UUID jobId, String statement, User user, StatementClassifier.Classification classification) {
+        logExecutionStart(jobId, statement, user, classification, null);
+    }
+
+    public void logExecutionStart(UUID jobId,
+                                  String statement,
+                                  User user,
+                                  StatementClassifier.Classification classification,
+                                  @Nullable WorkloadClass workloadClass) {
         activeRequests.increment();
         if (!isEnabled()) {
             return;
         }
-        jobsTable.put(jobId, new JobContext(jobId, statement, System.currentTimeMillis(), user, classification));
+        jobsTable.put(jobId, new JobContext(
+            jobId, statement, System.currentTimeMillis(), user, classification, workloadClass));
+    }
+
+    /**
+     * Mark a job as waiting for admission or as admitted to run.
+     * Has no effect if the job isn't tracked.
+     */
+    public void logQueued(UUID jobId, boolean queued) {
+        JobContext jobContext = jobsTable.get(jobId);
+        if (jobContext != null) {
+            jobContext.queued(queued);
+        }
     }
 
     /**
@@ -49,6 +49,11 @@ public class BroadcastingBucketBuilder implements MultiBucketBuilder {
         return bucketBuilder.size();
     }
 
+    @Override
+    public long ramBytesUsed() {
+        return bucketBuilder.ramBytesUsed();
+    }
+
     @Override
     public void build(StreamBucket[] buckets) {
         assert buckets.length == numBuckets : "length of the provided array must match numBuckets";
@@ -40,16 +40,21 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Consumer which sends requests to downstream nodes every {@link #pageSize} rows.
+ * Consumer which sends requests to downstream nodes every {@link #pageSize} rows,
+ * or earlier if the serialized rows of a page exceed {@link #maxPageBytes}.
  *
  * The rows from the source {@link BatchIterator} are "bucketed" using a {@link MultiBucketBuilder}. So a downstream
  * can either receive a part of the data or all data.
  *
- * Every time requests to the downstreams are made consumption of the source BatchIterator is stopped until a response
- * from all downstreams is received.
+ * A page is only sent once a response from all downstreams for the previous page has been received.
+ * While waiting for these responses, the next page is built from the source BatchIterator. Consumption stops once
+ * that page is full and continues as soon as it has been sent. So at most two pages are held in memory:
+ * One in-flight and one being built.
  */
 public class DistributingConsumer implements RowConsumer {
 
+    private static final long MAX_PAGE_BYTES = 16 * 1024 * 1024;
+
     private final Logger logger;
     private final Executor responseExecutor;
     private final UUID jobId;
@@ -58,6 +63,7 @@ public class DistributingConsumer implements RowConsumer {
     private final int bucketIdx;
     private final TransportDistributedResultAction distributedResultAction;
     private final int pageSize;
+    private final long maxPageBytes;
     private final StreamBucket[] buckets;
     private final List<Downstream> downstreams;
     private final boolean traceEnabled;
@@ -67,6 +73,16 @@ public class DistributingConsumer implements RowConsumer {
 
     private volatile Throwable failure;
 
+    /**
+     * Guards the state below, which is shared between the thread consuming the source and the response handlers
+     */
+    private final Object lock = new Object();
+    private boolean requestsInFlight = false;
+    private boolean consuming = false;
+    private boolean pagePending = false;
+    private boolean pendingPageIsLast = false;
+    private boolean stopRequested = false;
+
     public DistributingConsumer(Logger logger,
                                 Executor responseExecutor,
                                 UUID jobId,
@@ -77,6 +93,31 @@ public class DistributingConsumer implements RowConsumer {
                                 Collection<String> downstreamNodeIds,
                                 TransportDistributedResultAction distributedResultAction,
                                 int pageSize) {
+        this(logger,
+            responseExecutor,
+            jobId,
+            multiBucketBuilder,
+            targetPhaseId,
+            inputId,
+            bucketIdx,
+            downstreamNodeIds,
+            distributedResultAction,
+            pageSize,
+            MAX_PAGE_BYTES);
+    }
+
+    @VisibleForTesting
+    DistributingConsumer(Logger logger,
+                         Executor responseExecutor,
+                         UUID jobId,
+                         MultiBucketBuilder multiBucketBuilder,
+                         int targetPhaseId,
+                         byte inputId,
+                         int bucketIdx,
+                         Collection<String> downstreamNodeIds,
+                         TransportDistributedResultAction distributedResultAction,
+                         int pageSize,
+                         long maxPageBytes) {
         this.traceEnabled = logger.isTraceEnabled();
         this.logger = logger;
         this.responseExecutor = responseExecutor;
@@ -87,6 +128,7 @@ public class DistributingConsumer implements RowConsumer {
         this.bucketIdx = bucketIdx;
         this.distributedResultAction = distributedResultAction;
         this.pageSize = pageSize;
+        this.maxPageBytes = maxPageBytes;
         this.buckets = new StreamBucket[downstreamNodeIds.size()];
         downstreams = new ArrayList<>(downstreamNodeIds.size());
         for (String downstreamNodeId : downstreamNodeIds) {
@@ -97,6 +139,9 @@ public class DistributingConsumer implements RowConsumer {
     @Override
     public void accept(BatchIterator<Row> iterator, @Nullable Throwable failure) {
         if (failure == null) {
+            synchronized (lock) {
+                consuming = true;
+            }
             consumeIt(iterator);
         } else {
             forwardFailure(null, failure);
@@ -104,31 +149,111 @@ public class DistributingConsumer implements RowConsumer {
     }
 
     private void consumeIt(BatchIterator<Row> it) {
-        boolean allLoaded;
-        try {
-            while (it.moveNext()) {
-                multiBucketBuilder.add(it.currentElement());
-                if (multiBucketBuilder.size() >= pageSize) {
-                    forwardResults(it, false);
+        while (true) {
+            if (stopIfRequested(it)) {
+                return;
+            }
+            boolean pageFull = false;
+            try {
+                while (it.moveNext()) {
+                    multiBucketBuilder.add(it.currentElement());
+                    if (isPageFull()) {
+                        pageFull = true;
+                        break;
+                    }
+                }
+                if (pageFull == false && it.allLoaded() == false) {
+                    it.loadNextBatch().whenComplete((r, t) -> {
+                        if (t == null) {
+                            consumeIt(it);
+                        } else {
+                            onConsumptionFailure(it, t);
+                        }
+                    });
                     return;
                 }
+            } catch (Throwable t) {
+                onConsumptionFailure(it, t);
+                return;
             }
-            allLoaded = it.allLoaded();
-        } catch (Throwable t) {
-            forwardFailure(it, t);
-            return;
+            boolean isLast = pageFull == false;
+            if (sendOrQueuePage(it, isLast) == false) {
+                return;
+            }
+        }
+    }
+
+    private boolean isPageFull() {
+        return multiBucketBuilder.size() >= pageSize || multiBucketBuilder.ramBytesUsed() >= maxPageBytes;
+    }
+
+    /**
+     * Sends the page if no other requests are in-flight, otherwise the page is sent once all responses are received.
+     *
+     * @return true if the consumption of the source should continue
+     */
+    private boolean sendOrQueuePage(BatchIterator<Row> it, boolean isLast) {
+        boolean stop;
+        synchronized (lock) {
+            if (requestsInFlight) {
+                pagePending = true;
+                pendingPageIsLast = isLast;
+                consuming = false;
+                return false;
+            }
+            stop = stopRequested;
+            if (stop) {
+                consuming = false;
+            } else {
+                requestsInFlight = true;
+                // the next page is built while this one is in-flight
+                consuming = isLast == false;
+            }
+        }
+        if (stop) {
+            finishStopped(it);
+            return false;
+        }
+        forwardResults(it, isLast);
+        return isLast == false;
+    }
+
+    private boolean stopIfRequested(BatchIterator<Row> it) {
+        synchronized (lock) {
+            if (stopRequested == false) {
+                return false;
+            }
+            consuming = false;
         }
-        if (allLoaded) {
-            forwardResults(it, true);
+        finishStopped(it);
+        return true;
+    }
+
+    private void finishStopped(BatchIterator<Row> it) {
+        if (failure == null) {
+            // If we've a failure we either communicated it to the other downstreams already,
+            // or were able to send results to all downstreams. In either case, *this* operation succeeded and the
+            // downstreams need to deal with failures.
+
+            // The NodeDisconnectJobMonitorService takes care of node disconnects, so we don't have to manage
+            // that scenario.
+            it.close();
         } else {
-            it.loadNextBatch().whenComplete((r, t) -> {
-                if (t == null) {
-                    consumeIt(it);
-                } else {
-                    forwardFailure(it, t);
-                }
-            });
+            forwardFailure(it, failure);
+        }
+    }
+
+    private void onConsumptionFailure(BatchIterator<Row> it, Throwable t) {
+        synchronized (lock) {
+            consuming = false;
+            pagePending = false;
+            if (requestsInFlight) {
+                // the failure is forwarded once the responses for the in-flight requests are received
+                failure = t;
+                return;
+            }
         }
+        forwardFailure(it, t);
     }
 
     private void forwardFailure(@Nullable final BatchIterator it, final Throwable f) {
@@ -180,7 +305,7 @@ public class DistributingConsumer implements RowConsumer {
         for (int i = 0; i < downstreams.size(); i++) {
             Downstream downstream = downstreams.get(i);
             if (downstream.needsMoreData == false) {
-                countdownAndMaybeContinue(it, numActiveRequests, true);
+                countdownAndMaybeContinue(it, numActiveRequests);
                 continue;
             }
             if (traceEnabled) {
@@ -194,7 +319,7 @@ public class DistributingConsumer implements RowConsumer {
                     @Override
                     public void onResponse(DistributedResultResponse response) {
                         downstream.needsMoreData = response.needMore();
-                        countdownAndMaybeContinue(it, numActiveRequests, false);
+                        countdownAndMaybeContinue(it, numActiveRequests);
                     }
 
                     @Override
@@ -202,47 +327,64 @@ public class DistributingConsumer implements RowConsumer {
                         failure = e;
                         downstream.needsMoreData = false;
                         // continue because it's necessary to send something to downstreams still waiting for data
-                        countdownAndMaybeContinue(it, numActiveRequests, false);
+                        countdownAndMaybeContinue(it, numActiveRequests);
                     }
                 }
             );
         }
     }
 
-    private void countdownAndMaybeContinue(BatchIterator<Row> it, AtomicInteger numActiveRequests, boolean sameExecutor) {
-        if (numActiveRequests.decrementAndGet() == 0) {
-            if (downstreams.stream().anyMatch(Downstream::needsMoreData)) {
-                if (failure == null) {
-                    if (sameExecutor) {
-                        consumeIt(it);
-                    } else {
-                        // try to dispatch to different executor, if it fails, forward the error in the same thread
-                        try {
-                            responseExecutor.execute(() -> consumeIt(it));
-                        } catch (EsRejectedExecutionException e) {
-                            failure = e;
-                            forwardFailure(it, failure);
-                        }
-                    }
-                } else {
-                    forwardFailure(it, failure);
+    private void countdownAndMaybeContinue(BatchIterator<Row> it, AtomicInteger numActiveRequests) {
+        if (numActiveRequests.decrementAndGet() != 0) {
+            return;
+        }
+        boolean needsMoreData = downstreams.stream().anyMatch(Downstream::needsMoreData);
+        boolean sendPendingPage = false;
+        boolean isLast = false;
+        synchronized (lock) {
+            requestsInFlight = false;
+            if (needsMoreData == false || failure != null) {
+                pagePending = false;
+                if (consuming) {
+                    // the consumer stops on the next page boundary
+                    stopRequested = true;
+                    return;
                 }
+            } else if (pagePending) {
+                pagePending = false;
+                requestsInFlight = true;
+                sendPendingPage = true;
+                isLast = pendingPageIsLast;
+                consuming = isLast == false;
+            } else if (consuming) {
+                // the consumer is still building the next page, or is waiting for the next batch of the source
+                return;
+            }
+        }
+        if (sendPendingPage == false) {
+            if (needsMoreData && failure != null) {
+                forwardFailure(it, failure);
             } else {
-                // If we've a failure we either communicated it to the other downstreams already,
-                // or were able to send results to all downstreams. In either case, *this* operation succeeded and the
-                // downstreams need to deal with failures.
-
-                // The NodeDisconnectJobMonitorService takes care of node disconnects, so we don't have to manage
-                // that scenario.
+                // Either all downstreams received their last page or they don't need more data.
                 it.close();
             }
+            return;
+        }
+        forwardResults(it, isLast);
+        if (isLast == false) {
+            // try to dispatch to different executor, if it fails, forward the error in the same thread
+            try {
+                responseExecutor.execute(() -> consumeIt(it));
+            } catch (EsRejectedExecutionException e) {
+                onConsumptionFailure(it, e);
+            }
         }
     }
 
     private static class Downstream {
 
         private final String nodeId;
-        private boolean needsMoreData = true;
+        private volatile boolean needsMoreData = true;
 
         Downstream(String nodeId) {
             this.nodeId = nodeId;
@@ -61,6 +61,15 @@ public class ModuloBucketBuilder implements MultiBucketBuilder {
         return size;
     }
 
+    @Override
+    public long ramBytesUsed() {
+        long bytes = 0;
+        for (int i = 0; i < numBuckets; i++) {
+            bytes += bucketBuilders.get(i).ramBytesUsed();
+        }
+        return bytes;
+    }
+
     @Override
     public void build(StreamBucket[] buckets) {
         assert buckets.length == numBuckets : "length of the provided array must match numBuckets";
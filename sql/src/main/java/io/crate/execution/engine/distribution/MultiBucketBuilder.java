@@ -40,6 +40,12 @@ public interface MultiBucketBuilder {
      */
     int size();
 
+    /**
+     * Approximate size in bytes of the serialized rows within the page.
+     * Will be reset on each build call.
+     */
+    long ramBytesUsed();
+
     /**
      * Builds the buckets and writes them into the provided array.
      * The provided array must have size N where N is the number of buckets the page contains.
@@ -22,11 +22,13 @@
 
 package io.crate.execution.engine.distribution;
 
+import com.carrotsearch.hppc.ObjectIntHashMap;
 import io.crate.Streamer;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.data.Bucket;
 import io.crate.data.Row;
 import io.crate.data.RowN;
+import io.crate.types.StringType;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -36,11 +38,44 @@ import org.elasticsearch.common.io.stream.Writeable;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
+/**
+ * A bucket of rows serialized using the {@link Streamer}s of the columns.
+ * <p>
+ * The serialized rows are prefixed with one encoding byte per column. String columns are dictionary encoded:
+ * The first occurrence of a value within the bucket is written once, repeated occurrences are written as
+ * a reference to it. This keeps the format streamable - rows are still written and read one by one - while
+ * repeated values like group keys don't have to be sent over and over again.
+ * <pre>
+ *     dictionary encoded cell:
+ *         vInt code
+ *           0  -&gt; null
+ *           1  -&gt; string follows, append it to the dictionary of the column
+ *           2  -&gt; string follows, not added to the dictionary
+ *          n&gt;2 -&gt; value at index n - 3 of the dictionary of the column
+ * </pre>
+ */
 public class StreamBucket implements Bucket, Writeable {
 
+    private static final byte ENCODING_PLAIN = 0;
+    private static final byte ENCODING_DICTIONARY = 1;
+
+    private static final int CODE_NULL = 0;
+    private static final int CODE_NEW_DICTIONARY_VALUE = 1;
+    private static final int CODE_LITERAL = 2;
+    private static final int CODE_DICTIONARY_OFFSET = 3;
+
+    /**
+     * Upper bounds for the values kept in the dictionary of a column while building a bucket.
+     * Long values rarely repeat and would only be kept alive unnecessarily.
+     */
+    private static final int MAX_DICTIONARY_SIZE = 16 * 1024;
+    private static final int MAX_DICTIONARY_VALUE_LENGTH = 256;
+
     private Streamer<?>[] streamers;
     private int size = -1;
     private BytesReference bytes;
@@ -53,14 +88,30 @@ public class StreamBucket implements Bucket, Writeable {
 
         private int size = 0;
         private final Streamer<?>[] streamers;
+        private final ObjectIntHashMap<String>[] dictionaries;
         private BytesStreamOutput out;
         private int prevOutSize = 0;
 
+        @SuppressWarnings("unchecked")
         public Builder(Streamer<?>[] streamers, RamAccountingContext ramAccountingContext) {
             this.ramAccountingContext = ramAccountingContext;
             assert validStreamers(streamers) : "streamers must not be null and they shouldn't be of undefinedType";
             this.streamers = streamers;
+            this.dictionaries = new ObjectIntHashMap[streamers.length];
+            for (int i = 0; i < streamers.length; i++) {
+                if (streamers[i] == StringType.INSTANCE) {
+                    dictionaries[i] = new ObjectIntHashMap<>();
+                }
+            }
             out = new BytesStreamOutput(INITIAL_PAGE_SIZE);
+            writeEncodings();
+        }
+
+        private void writeEncodings() {
+            for (ObjectIntHashMap<String> dictionary : dictionaries) {
+                out.writeByte(dictionary == null ? ENCODING_PLAIN : ENCODING_DICTIONARY);
+            }
+            prevOutSize = out.size();
         }
 
         public void add(Row row) {
@@ -69,8 +120,13 @@ public class StreamBucket implements Bucket, Writeable {
             size++;
             for (int i = 0; i < row.numColumns(); i++) {
                 try {
-                    //noinspection unchecked
-                    ((Streamer) streamers[i]).writeValueTo(out, row.get(i));
+                    ObjectIntHashMap<String> dictionary = dictionaries[i];
+                    if (dictionary == null) {
+                        //noinspection unchecked
+                        ((Streamer) streamers[i]).writeValueTo(out, row.get(i));
+                    } else {
+                        writeDictionaryEncoded(dictionary, (String) row.get(i));
+                    }
                 } catch (IOException e) {
                     throw new RuntimeException(e);
                 }
@@ -81,6 +137,24 @@ public class StreamBucket implements Bucket, Writeable {
             }
         }
 
+        private void writeDictionaryEncoded(ObjectIntHashMap<String> dictionary, @Nullable String value) throws IOException {
+            if (value == null) {
+                out.writeVInt(CODE_NULL);
+                return;
+            }
+            int slot = dictionary.indexOf(value);
+            if (dictionary.indexExists(slot)) {
+                out.writeVInt(dictionary.indexGet(slot) + CODE_DICTIONARY_OFFSET);
+            } else if (dictionary.size() < MAX_DICTIONARY_SIZE && value.length() <= MAX_DICTIONARY_VALUE_LENGTH) {
+                dictionary.indexInsert(slot, value, dictionary.size());
+                out.writeVInt(CODE_NEW_DICTIONARY_VALUE);
+                out.writeString(value);
+            } else {
+                out.writeVInt(CODE_LITERAL);
+                out.writeString(value);
+            }
+        }
+
         public StreamBucket build() {
             StreamBucket sb = new StreamBucket(streamers);
             sb.size = size;
@@ -91,11 +165,21 @@ public class StreamBucket implements Bucket, Writeable {
         public void reset() {
             out = new BytesStreamOutput(size); // next bucket is probably going to have the same size
             size = 0;
+            for (ObjectIntHashMap<String> dictionary : dictionaries) {
+                if (dictionary != null) {
+                    dictionary.clear();
+                }
+            }
+            writeEncodings();
         }
 
         public int size() {
             return size;
         }
+
+        public long ramBytesUsed() {
+            return out.size();
+        }
     }
 
     public StreamBucket(@Nullable Streamer<?>[] streamers) {
@@ -132,14 +216,22 @@ public class StreamBucket implements Bucket, Writeable {
         private final StreamInput input;
         private final Object[] current;
         private final RowN row;
+        private final List<String>[] dictionaries;
         private int pos = 0;
 
-        private RowIterator(StreamInput streamInput, Streamer<?>[] streamers, int size) {
+        @SuppressWarnings("unchecked")
+        private RowIterator(StreamInput streamInput, Streamer<?>[] streamers, int size) throws IOException {
             this.streamers = streamers;
             this.size = size;
             input = streamInput;
             current = new Object[streamers.length];
             row = new RowN(current);
+            dictionaries = new List[streamers.length];
+            for (int i = 0; i < streamers.length; i++) {
+                if (input.readByte() == ENCODING_DICTIONARY) {
+                    dictionaries[i] = new ArrayList<>();
+                }
+            }
         }
 
         @Override
@@ -151,7 +243,12 @@ public class StreamBucket implements Bucket, Writeable {
         public Row next() {
             for (int c = 0; c < streamers.length; c++) {
                 try {
-                    current[c] = streamers[c].readValueFrom(input);
+                    List<String> dictionary = dictionaries[c];
+                    if (dictionary == null) {
+                        current[c] = streamers[c].readValueFrom(input);
+                    } else {
+                        current[c] = readDictionaryEncoded(dictionary);
+                    }
                 } catch (IOException e) {
                     throw new RuntimeException(e);
                 }
@@ -160,6 +257,26 @@ public class StreamBucket implements Bucket, Writeable {
             return row;
         }
 
+        @Nullable
+        private String readDictionaryEncoded(List<String> dictionary) throws IOException {
+            int code = input.readVInt();
+            switch (code) {
+                case CODE_NULL:
+                    return null;
+
+                case CODE_NEW_DICTIONARY_VALUE:
+                    String value = input.readString();
+                    dictionary.add(value);
+                    return value;
+
+                case CODE_LITERAL:
+                    return input.readString();
+
+                default:
+                    return dictionary.get(code - CODE_DICTIONARY_OFFSET);
+            }
+        }
+
         @Override
         public void remove() {
         }
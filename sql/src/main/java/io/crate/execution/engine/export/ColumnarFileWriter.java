@@ -0,0 +1,146 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.export;
+
+import io.crate.Streamer;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes rows in a column oriented binary format.
+ * <p>
+ * Rows are buffered into row groups. Within a row group the values of each column are written
+ * as one chunk, using the {@link Streamer} of the column type, and each chunk is deflate compressed separately.
+ * Values of the same column compress much better than whole rows and a reader only has to inflate and
+ * decode the chunks of the columns it is interested in.
+ * </p>
+ * Layout:
+ * <pre>
+ *  header:    MAGIC | vInt version | vInt numColumns | (string name | type)*
+ *  rowGroup:  vInt numRows | (vInt uncompressedLength | vInt compressedLength | bytes)*
+ *  ...
+ *  end:       vInt 0
+ * </pre>
+ */
+public final class ColumnarFileWriter implements Closeable {
+
+    public static final byte[] MAGIC = new byte[] {'C', 'R', 'C', 'F'};
+    public static final int VERSION = 1;
+    public static final String FILE_EXTENSION = "columnar";
+
+    static final int DEFAULT_ROW_GROUP_SIZE = 8192;
+
+    private final StreamOutput out;
+    private final Streamer[] streamers;
+    private final BytesStreamOutput[] columnChunks;
+    private final BytesStreamOutput compressed = new BytesStreamOutput();
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final int rowGroupSize;
+
+    private int numRows = 0;
+
+    public ColumnarFileWriter(OutputStream outputStream,
+                              List<String> columnNames,
+                              List<? extends DataType> columnTypes,
+                              int rowGroupSize) throws IOException {
+        assert columnNames.size() == columnTypes.size() : "there must be a type for each column";
+        this.out = new OutputStreamStreamOutput(outputStream);
+        this.rowGroupSize = rowGroupSize;
+        this.streamers = new Streamer[columnTypes.size()];
+        this.columnChunks = new BytesStreamOutput[columnTypes.size()];
+        for (int i = 0; i < streamers.length; i++) {
+            streamers[i] = columnTypes.get(i).streamer();
+            columnChunks[i] = new BytesStreamOutput();
+        }
+        out.writeBytes(MAGIC);
+        out.writeVInt(VERSION);
+        out.writeVInt(columnNames.size());
+        for (int i = 0; i < columnNames.size(); i++) {
+            out.writeString(columnNames.get(i));
+            DataTypes.toStream(columnTypes.get(i), out);
+        }
+    }
+
+    /**
+     * Adds a row. The row group is written to the output once it is full.
+     */
+    @SuppressWarnings("unchecked")
+    public void write(Object[] cells) throws IOException {
+        for (int i = 0; i < streamers.length; i++) {
+            streamers[i].writeValueTo(columnChunks[i], cells[i]);
+        }
+        numRows++;
+        if (numRows == rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (numRows == 0) {
+            return;
+        }
+        out.writeVInt(numRows);
+        for (BytesStreamOutput chunk : columnChunks) {
+            compressed.reset();
+            deflater.reset();
+            try (DeflaterOutputStream deflaterOut = new DeflaterOutputStream(compressed, deflater, 8192) {
+                @Override
+                public void close() throws IOException {
+                    // finish only; the deflater and the target are re-used for the next chunk
+                    finish();
+                }
+            }) {
+                chunk.bytes().writeTo(deflaterOut);
+            }
+            out.writeVInt((int) chunk.size());
+            out.writeVInt((int) compressed.size());
+            compressed.bytes().writeTo(out);
+            chunk.reset();
+        }
+        numRows = 0;
+    }
+
+    /**
+     * Writes the pending row group and the end marker and closes the underlying output stream.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushRowGroup();
+            out.writeVInt(0);
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+}
@@ -24,6 +24,7 @@ package io.crate.execution.engine.export;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.CountingOutputStream;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.Row1;
@@ -33,6 +34,7 @@ import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.metadata.ColumnIdent;
+import io.crate.types.DataType;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentHelper;
@@ -67,27 +69,50 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
 
     private final Iterable<CollectExpression<Row, ?>> collectExpressions;
     private final List<Input<?>> inputs;
+    @Nullable
+    private final List<DataType> inputTypes;
     private final Map<String, Object> overwrites;
     @Nullable
     private final List<String> outputNames;
     private final WriterProjection.OutputFormat outputFormat;
-    private Output output;
+    private final ExecutorService executorService;
+    private final String uri;
+    @Nullable
+    private final WriterProjection.CompressionType compressionType;
+    private final long maxRowsPerFile;
+    private final long maxBytesPerFile;
 
-    private final RowWriter rowWriter;
+    private RowWriter rowWriter;
+    private CountingOutputStream outputStream;
+    private long rowsInFile = 0;
+    private int fileNumber = 0;
 
     FileWriterCountCollector(ExecutorService executorService,
                              String uri,
                              @Nullable WriterProjection.CompressionType compressionType,
                              @Nullable List<Input<?>> inputs,
+                             @Nullable List<DataType> inputTypes,
                              Iterable<CollectExpression<Row, ?>> collectExpressions,
                              Map<ColumnIdent, Object> overwrites,
                              @Nullable List<String> outputNames,
-                             WriterProjection.OutputFormat outputFormat) {
+                             WriterProjection.OutputFormat outputFormat,
+                             long maxRowsPerFile,
+                             long maxBytesPerFile) {
+        this.executorService = executorService;
+        this.uri = uri;
+        this.compressionType = compressionType;
+        this.maxRowsPerFile = maxRowsPerFile;
+        this.maxBytesPerFile = maxBytesPerFile;
         this.collectExpressions = collectExpressions;
         this.inputs = inputs;
+        this.inputTypes = inputTypes;
         this.overwrites = toNestedStringObjectMap(overwrites);
         this.outputNames = outputNames;
         this.outputFormat = outputFormat;
+        this.rowWriter = initWriter(createOutput(uri));
+    }
+
+    private Output createOutput(String uri) {
         URI uri1;
         try {
             uri1 = new URI(uri);
@@ -95,13 +120,32 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
             throw new SQLParseException(String.format(Locale.ENGLISH, "Invalid uri '%s'", uri), e);
         }
         if (uri1.getScheme() == null || uri1.getScheme().equals("file")) {
-            this.output = new OutputFile(uri1, compressionType);
+            return new OutputFile(uri1, compressionType, executorService);
         } else if (uri1.getScheme().equalsIgnoreCase("s3")) {
-            this.output = new OutputS3(executorService, uri1, compressionType);
+            return new OutputS3(executorService, uri1, compressionType);
         } else {
             throw new UnsupportedFeatureException(String.format(Locale.ENGLISH, "Unknown scheme '%s'", uri1.getScheme()));
         }
-        this.rowWriter = initWriter();
+    }
+
+    /**
+     * Returns the uri of the n-th file if the output is split into multiple files.
+     * The first file keeps the original uri, the others get the number appended to the file name:
+     * <pre>
+     *     /tmp/users_0_.json.gz -> /tmp/users_0__1.json.gz
+     * </pre>
+     */
+    @VisibleForTesting
+    static String fileUri(String uri, int fileNumber) {
+        if (fileNumber == 0) {
+            return uri;
+        }
+        int fileNameStart = uri.lastIndexOf('/') + 1;
+        int extensionStart = uri.indexOf('.', fileNameStart);
+        if (extensionStart == -1) {
+            return uri + "_" + fileNumber;
+        }
+        return uri.substring(0, extensionStart) + "_" + fileNumber + uri.substring(extensionStart);
     }
 
     @VisibleForTesting
@@ -142,17 +186,23 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
         return nestedMap;
     }
 
-    private RowWriter initWriter() {
+    private RowWriter initWriter(Output output) {
         try {
+            outputStream = new CountingOutputStream(output.acquireOutputStream());
             if (!overwrites.isEmpty()) {
                 return new DocWriter(
-                    output.acquireOutputStream(), collectExpressions, overwrites);
+                    outputStream, collectExpressions, overwrites);
+            } else if (outputFormat.equals(WriterProjection.OutputFormat.COLUMNAR)) {
+                assert inputs != null && inputTypes != null && outputNames != null
+                    : "columnar format requires the columns to be defined";
+                return new ColumnarRowWriter(
+                    outputStream, collectExpressions, inputs, inputTypes, outputNames);
             } else if (outputFormat.equals(WriterProjection.OutputFormat.JSON_ARRAY)) {
-                return new ColumnRowWriter(output.acquireOutputStream(), collectExpressions, inputs);
+                return new ColumnRowWriter(outputStream, collectExpressions, inputs);
             } else if (outputNames != null && outputFormat.equals(WriterProjection.OutputFormat.JSON_OBJECT)) {
-                return new ColumnRowObjectWriter(output.acquireOutputStream(), collectExpressions, inputs, outputNames);
+                return new ColumnRowObjectWriter(outputStream, collectExpressions, inputs, outputNames);
             } else {
-                return new RawRowWriter(output.acquireOutputStream());
+                return new RawRowWriter(outputStream);
             }
         } catch (IOException e) {
             throw new UnhandledServerException(String.format(Locale.ENGLISH, "Failed to open output: '%s'", e.getMessage()), e);
@@ -164,11 +214,19 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
             if (rowWriter != null) {
                 rowWriter.close();
             }
-        } catch (IOException ignored) {
-
+        } catch (IOException e) {
+            // writes to the output may happen asynchronously, errors can surface on close
+            throw new UnhandledServerException("Failed to close output", e);
+        } finally {
+            rowWriter = null;
         }
     }
 
+    private boolean fileLimitReached() {
+        return (maxRowsPerFile > 0 && rowsInFile >= maxRowsPerFile)
+               || (maxBytesPerFile > 0 && outputStream.getCount() >= maxBytesPerFile);
+    }
+
     @Override
     public Supplier<long[]> supplier() {
         return () -> new long[1];
@@ -180,8 +238,18 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
     }
 
     private void onNextRow(long[] container, Row row) {
+        if (rowWriter == null) {
+            fileNumber++;
+            rowsInFile = 0;
+            rowWriter = initWriter(createOutput(fileUri(uri, fileNumber)));
+        }
         rowWriter.write(row);
         container[0] += 1;
+        rowsInFile++;
+        if (fileLimitReached()) {
+            // the next file is only created once there is another row
+            closeWriterAndOutput();
+        }
     }
 
     @Override
@@ -327,6 +395,46 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
         }
     }
 
+    static class ColumnarRowWriter implements RowWriter {
+
+        private final Iterable<CollectExpression<Row, ?>> collectExpressions;
+        private final List<Input<?>> inputs;
+        private final ColumnarFileWriter writer;
+        private final Object[] cells;
+
+        ColumnarRowWriter(OutputStream outputStream,
+                          Iterable<CollectExpression<Row, ?>> collectExpressions,
+                          List<Input<?>> inputs,
+                          List<DataType> inputTypes,
+                          List<String> outputNames) throws IOException {
+            this.collectExpressions = collectExpressions;
+            this.inputs = inputs;
+            this.cells = new Object[inputs.size()];
+            this.writer = new ColumnarFileWriter(
+                outputStream, outputNames, inputTypes, ColumnarFileWriter.DEFAULT_ROW_GROUP_SIZE);
+        }
+
+        @Override
+        public void write(Row row) {
+            for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
+                collectExpression.setNextRow(row);
+            }
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = inputs.get(i).value();
+            }
+            try {
+                writer.write(cells);
+            } catch (IOException e) {
+                throw new UnhandledServerException("Failed to write row to output", e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
     static class ColumnRowObjectWriter extends ColumnRowWriter {
 
         private final List<String> outputNames;
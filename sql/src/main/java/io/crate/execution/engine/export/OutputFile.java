@@ -32,18 +32,27 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.Executor;
 
 public class OutputFile extends Output {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_PENDING_BUFFERS = 8;
+
     private final String path;
     private final boolean overwrite;
-    private final boolean compression;
+    @Nullable
+    private final WriterProjection.CompressionType compressionType;
+    private final Executor executor;
 
-    public OutputFile(URI uri, @Nullable WriterProjection.CompressionType compressionType) {
+    /**
+     * @param executor used to write to the file, so that the producer of the data doesn't block on disk IO.
+     */
+    public OutputFile(URI uri, @Nullable WriterProjection.CompressionType compressionType, Executor executor) {
         Preconditions.checkArgument(uri.getHost() == null);
         this.path = uri.getPath();
-        compression = compressionType != null;
+        this.compressionType = compressionType;
+        this.executor = executor;
         this.overwrite = true;
     }
 
@@ -58,9 +67,10 @@ public class OutputFile extends Output {
                 throw new IOException("Output path is a directory: " + path);
             }
         }
-        OutputStream os = new FileOutputStream(outFile);
-        if (compression) {
-            os = new GZIPOutputStream(os);
+        OutputStream os = new WriteBehindOutputStream(
+            new FileOutputStream(outFile), executor, BUFFER_SIZE, MAX_PENDING_BUFFERS);
+        if (compressionType != null) {
+            os = compressionType.wrap(os);
         }
         return new BufferedOutputStream(os);
     }
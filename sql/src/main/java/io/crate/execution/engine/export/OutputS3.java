@@ -36,6 +36,7 @@ import com.google.common.util.concurrent.MoreExecutors;
 import io.crate.external.S3ClientHelper;
 import io.crate.execution.dsl.projection.WriterProjection;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -47,26 +48,26 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.zip.GZIPOutputStream;
 
 @NotThreadSafe
 public class OutputS3 extends Output {
 
     private final ExecutorService executorService;
     private final URI uri;
-    private final boolean compression;
+    @Nullable
+    private final WriterProjection.CompressionType compressionType;
 
-    public OutputS3(ExecutorService executorService, URI uri, WriterProjection.CompressionType compressionType) {
+    public OutputS3(ExecutorService executorService, URI uri, @Nullable WriterProjection.CompressionType compressionType) {
         this.executorService = executorService;
         this.uri = uri;
-        compression = compressionType != null;
+        this.compressionType = compressionType;
     }
 
     @Override
     public OutputStream acquireOutputStream() throws IOException {
         OutputStream outputStream = new S3OutputStream(executorService, uri, new S3ClientHelper());
-        if (compression) {
-            outputStream = new GZIPOutputStream(outputStream);
+        if (compressionType != null) {
+            outputStream = compressionType.wrap(outputStream);
         }
         return outputStream;
     }
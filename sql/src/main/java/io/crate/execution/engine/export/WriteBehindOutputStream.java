@@ -0,0 +1,192 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.export;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OutputStream which collects the written bytes in buffers and writes them to the delegate on a different thread.
+ * <p>
+ * Buffers are written in order, one after another. At most {@code maxPendingBuffers} full buffers are pending,
+ * once that limit is reached writes block until the delegate caught up.
+ * </p>
+ * A failure of the delegate is thrown on the next write, flush or on close.
+ */
+class WriteBehindOutputStream extends OutputStream {
+
+    private final OutputStream delegate;
+    private final Executor executor;
+    private final int bufferSize;
+    private final Semaphore pendingBuffers;
+
+    private CompletableFuture<?> lastWrite = CompletableFuture.completedFuture(null);
+    private volatile IOException failure;
+    private volatile boolean cancelled = false;
+    private byte[] buffer;
+    private int count = 0;
+    private boolean closed = false;
+
+    WriteBehindOutputStream(OutputStream delegate, Executor executor, int bufferSize, int maxPendingBuffers) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.pendingBuffers = new Semaphore(maxPendingBuffers);
+        this.buffer = new byte[bufferSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == bufferSize) {
+            writeBuffer();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (count == bufferSize) {
+                writeBuffer();
+            }
+            int n = Math.min(len, bufferSize - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Hands the buffered bytes over to the writing thread; doesn't wait until they're written.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (count > 0) {
+            writeBuffer();
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        ensureOpenAndNotFailed();
+        acquirePendingBuffer();
+        final byte[] bytes = buffer;
+        final int length = count;
+        buffer = new byte[bufferSize];
+        count = 0;
+        lastWrite = lastWrite.thenRunAsync(() -> {
+            try {
+                if (failure == null && cancelled == false) {
+                    delegate.write(bytes, 0, length);
+                }
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                pendingBuffers.release();
+            }
+        }, executor);
+    }
+
+    private void acquirePendingBuffer() throws IOException {
+        try {
+            while (!pendingBuffers.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                if (lastWrite.isCompletedExceptionally()) {
+                    // executor rejected the write, pending buffers won't be released anymore
+                    waitForPendingWrites();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for pending writes");
+        }
+    }
+
+    private void waitForPendingWrites() throws IOException {
+        try {
+            lastWrite.join();
+        } catch (CompletionException e) {
+            throw new IOException("Failed to write to output", e.getCause());
+        }
+        ensureOpenAndNotFailed();
+    }
+
+    private void ensureOpenAndNotFailed() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        IOException e = failure;
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the remaining bytes, waits for all pending writes and closes the delegate.
+     * <p>
+     * If the remaining bytes can't be handed over (e.g. if interrupted), the pending writes which haven't started
+     * yet are cancelled. The delegate is only closed once no write is running anymore; the first failure is thrown.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        IOException closeFailure = null;
+        try {
+            flush();
+        } catch (IOException e) {
+            closeFailure = e;
+            cancelled = true;
+        }
+        try {
+            waitForPendingWrites();
+        } catch (IOException e) {
+            closeFailure = addFailure(closeFailure, e);
+        }
+        closed = true;
+        try {
+            delegate.close();
+        } catch (IOException e) {
+            closeFailure = addFailure(closeFailure, e);
+        }
+        if (closeFailure != null) {
+            throw closeFailure;
+        }
+    }
+
+    private static IOException addFailure(IOException first, IOException e) {
+        if (first == null) {
+            return e;
+        }
+        if (first != e) {
+            first.addSuppressed(e);
+        }
+        return first;
+    }
+}
@@ -23,19 +23,23 @@
 package io.crate.execution.engine.fetch;
 
 import com.carrotsearch.hppc.IntContainer;
-import com.carrotsearch.hppc.cursors.IntCursor;
 import io.crate.Streamer;
 import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.RowAccountingWithEstimators;
+import io.crate.data.RowN;
 import io.crate.execution.engine.distribution.StreamBucket;
 import io.crate.expression.InputRow;
 import io.crate.expression.reference.doc.lucene.CollectorContext;
 import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
+import io.crate.types.DataType;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 class FetchCollector {
@@ -43,11 +47,13 @@ class FetchCollector {
     private final LuceneCollectorExpression[] collectorExpressions;
     private final InputRow row;
     private final Streamer<?>[] streamers;
+    private final List<? extends DataType> columnTypes;
     private final List<LeafReaderContext> readerContexts;
     private final RamAccountingContext ramAccountingContext;
 
     FetchCollector(List<LuceneCollectorExpression<?>> collectorExpressions,
                    Streamer<?>[] streamers,
+                   List<? extends DataType> columnTypes,
                    Engine.Searcher searcher,
                    IndexFieldDataService indexFieldDataService,
                    RamAccountingContext ramAccountingContext,
@@ -55,6 +61,7 @@ class FetchCollector {
         // use toArray to avoid iterator allocations in docIds loop
         this.collectorExpressions = collectorExpressions.toArray(new LuceneCollectorExpression[0]);
         this.streamers = streamers;
+        this.columnTypes = columnTypes;
         this.readerContexts = searcher.searcher().getIndexReader().leaves();
         this.ramAccountingContext = ramAccountingContext;
         CollectorContext collectorContext = new CollectorContext(indexFieldDataService::getForField, readerId);
@@ -65,22 +72,88 @@ class FetchCollector {
 
     }
 
-    private void setNextDocId(LeafReaderContext readerContext, int doc) throws IOException {
+    /**
+     * Positions the expressions on the given docId.
+     * {@link LuceneCollectorExpression#setNextReader(LeafReaderContext)} is only called if the docId belongs to a
+     * different leaf than {@code currentLeaf}.
+     *
+     * @return the leaf of the docId
+     */
+    private LeafReaderContext setNextDocId(@Nullable LeafReaderContext currentLeaf, int docId) throws IOException {
+        if (currentLeaf == null || docId < currentLeaf.docBase || docId >= currentLeaf.docBase + currentLeaf.reader().maxDoc()) {
+            currentLeaf = readerContexts.get(ReaderUtil.subIndex(docId, readerContexts));
+            for (LuceneCollectorExpression e : collectorExpressions) {
+                e.setNextReader(currentLeaf);
+            }
+        }
+        int leafDocId = docId - currentLeaf.docBase;
         for (LuceneCollectorExpression e : collectorExpressions) {
-            e.setNextReader(readerContext);
-            e.setNextDocId(doc);
+            e.setNextDocId(leafDocId);
         }
+        return currentLeaf;
     }
 
+    /**
+     * Collects the rows of the docIds in the iteration order of {@code docIds}.
+     * <p>
+     * The documents are read grouped by leaf and in ascending docId order, so that each leaf is only set once
+     * and consecutive documents can be read from the same decompressed stored fields block.
+     * If the docIds are not ordered already, the rows are buffered and added in the original order.
+     * The buffered rows are accounted until they have been added to the bucket.
+     */
     public StreamBucket collect(IntContainer docIds) throws IOException {
         StreamBucket.Builder builder = new StreamBucket.Builder(streamers, ramAccountingContext);
-        for (IntCursor cursor : docIds) {
-            int docId = cursor.value;
-            int readerIndex = ReaderUtil.subIndex(docId, readerContexts);
-            LeafReaderContext subReaderContext = readerContexts.get(readerIndex);
-            setNextDocId(subReaderContext, docId - subReaderContext.docBase);
-            builder.add(row);
+        int[] ids = docIds.toArray();
+        long[] sortedPositions = sortedPositionsOrNull(ids);
+        LeafReaderContext leaf = null;
+        if (sortedPositions == null) {
+            for (int docId : ids) {
+                leaf = setNextDocId(leaf, docId);
+                builder.add(row);
+            }
+        } else {
+            RamAccountingContext bufferAccounting = ramAccountingContext.newChildContext();
+            RowAccountingWithEstimators rowAccounting = new RowAccountingWithEstimators(columnTypes, bufferAccounting);
+            RowN bufferedRow = new RowN(columnTypes.size());
+            Object[][] rows = new Object[ids.length][];
+            try {
+                for (long docIdAndPosition : sortedPositions) {
+                    leaf = setNextDocId(leaf, (int) (docIdAndPosition >>> 32));
+                    Object[] cells = row.materialize();
+                    bufferedRow.cells(cells);
+                    rowAccounting.accountForAndMaybeBreak(bufferedRow);
+                    rows[(int) docIdAndPosition] = cells;
+                }
+                for (Object[] cells : rows) {
+                    bufferedRow.cells(cells);
+                    builder.add(bufferedRow);
+                }
+            } finally {
+                // the bucket accounts for the serialized rows
+                bufferAccounting.release();
+            }
         }
         return builder.build();
     }
+
+    /**
+     * @return the positions of the docIds, each packed together with its docId in the upper 32 bits and
+     *         sorted by docId, or null if the docIds are already in ascending order.
+     */
+    @Nullable
+    private static long[] sortedPositionsOrNull(int[] docIds) {
+        boolean sorted = true;
+        long[] docIdAndPositions = new long[docIds.length];
+        for (int i = 0; i < docIds.length; i++) {
+            docIdAndPositions[i] = ((long) docIds[i] << 32) | i;
+            if (i > 0 && docIds[i] < docIds[i - 1]) {
+                sorted = false;
+            }
+        }
+        if (sorted) {
+            return null;
+        }
+        Arrays.sort(docIdAndPositions);
+        return docIdAndPositions;
+    }
 }
@@ -29,6 +29,7 @@ import io.crate.execution.dsl.phases.FetchPhase;
 import io.crate.execution.jobs.AbstractTask;
 import io.crate.execution.jobs.SharedShardContext;
 import io.crate.execution.jobs.SharedShardContexts;
+import io.crate.execution.jobs.workload.WorkloadClass;
 import io.crate.metadata.IndexParts;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
@@ -63,22 +64,29 @@ public class FetchTask extends AbstractTask {
     private final MetaData metaData;
     private final Iterable<? extends Routing> routingIterable;
     private final Map<RelationName, Collection<Reference>> toFetch;
+    private final WorkloadClass workloadClass;
     private final AtomicBoolean isKilled = new AtomicBoolean(false);
 
     public FetchTask(FetchPhase phase,
                      String localNodeId,
                      SharedShardContexts sharedShardContexts,
                      MetaData metaData,
-                     Iterable<? extends Routing> routingIterable) {
+                     Iterable<? extends Routing> routingIterable,
+                     WorkloadClass workloadClass) {
         super(phase.phaseId());
         this.phase = phase;
         this.localNodeId = localNodeId;
         this.sharedShardContexts = sharedShardContexts;
         this.metaData = metaData;
         this.routingIterable = routingIterable;
+        this.workloadClass = workloadClass;
         this.toFetch = new HashMap<>(phase.tableIndices().size());
     }
 
+    WorkloadClass workloadClass() {
+        return workloadClass;
+    }
+
     public Map<RelationName, Collection<Reference>> toFetch() {
         return toFetch;
     }
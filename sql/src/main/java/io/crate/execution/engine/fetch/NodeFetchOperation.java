@@ -32,14 +32,18 @@ import io.crate.execution.engine.collect.stats.JobsLogs;
 import io.crate.execution.engine.distribution.StreamBucket;
 import io.crate.execution.jobs.RootTask;
 import io.crate.execution.jobs.TasksService;
+import io.crate.execution.jobs.workload.WorkloadClass;
 import io.crate.execution.support.ThreadPools;
 import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.expression.symbol.Symbols;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
+import io.crate.types.DataType;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.index.IndexService;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
@@ -56,11 +60,11 @@ import java.util.function.Supplier;
 
 public class NodeFetchOperation {
 
-    private final ThreadPoolExecutor executor;
+    private final ThreadPool threadPool;
     private final int numProcessors;
     private final JobsLogs jobsLogs;
     private final TasksService tasksService;
-    private final CircuitBreaker circuitBreaker;
+    private final CircuitBreakerService circuitBreakerService;
 
     private static class TableFetchInfo {
 
@@ -79,12 +83,15 @@ public class NodeFetchOperation {
             LuceneReferenceResolver resolver = new LuceneReferenceResolver(
                 indexService.mapperService()::fullName, indexService.getIndexSettings());
             ArrayList<LuceneCollectorExpression<?>> exprs = new ArrayList<>(refs.size());
+            ArrayList<DataType> types = new ArrayList<>(refs.size());
             for (Reference reference : refs) {
                 exprs.add(resolver.getImplementation(reference));
+                types.add(reference.valueType());
             }
             return new FetchCollector(
                 exprs,
                 streamers,
+                types,
                 fetchTask.searcher(readerId),
                 indexService.fieldData(),
                 ramAccountingContext,
@@ -93,16 +100,16 @@ public class NodeFetchOperation {
         }
     }
 
-    public NodeFetchOperation(ThreadPoolExecutor executor,
+    public NodeFetchOperation(ThreadPool threadPool,
                               int numProcessors,
                               JobsLogs jobsLogs,
                               TasksService tasksService,
-                              CircuitBreaker circuitBreaker) {
-        this.executor = executor;
+                              CircuitBreakerService circuitBreakerService) {
+        this.threadPool = threadPool;
         this.numProcessors = numProcessors;
         this.jobsLogs = jobsLogs;
         this.tasksService = tasksService;
-        this.circuitBreaker = circuitBreaker;
+        this.circuitBreakerService = circuitBreakerService;
     }
 
     public CompletableFuture<IntObjectMap<StreamBucket>> fetch(UUID jobId,
@@ -174,6 +181,8 @@ public class NodeFetchOperation {
 
         // RamAccountingContext is per doFetch call instead of per FetchTask/fetchPhase
         // To be able to free up the memory count when the operation is complete
+        WorkloadClass workloadClass = fetchTask.workloadClass();
+        CircuitBreaker circuitBreaker = circuitBreakerService.getBreaker(workloadClass.breakerName());
         RamAccountingContext ramAccountingContext = new RamAccountingContext("fetch-" + fetchTask.id(), circuitBreaker);
         resultFuture.whenComplete((r, f) -> ramAccountingContext.close());
 
@@ -204,6 +213,7 @@ public class NodeFetchOperation {
 
         // We're only forwarding the failure case to the resultFuture here (eg. thread pools rejecting the collectors)
         // When all collectors complete successfully, the last one will complete the resultFuture with the result.
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) threadPool.executor(workloadClass.executorName());
         ThreadPools.runWithAvailableThreads(
             executor,
             ThreadPools.numIdleThreads(executor, numProcessors),
@@ -42,7 +42,6 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ThreadPoolExecutor;
 
 @Singleton
 public class TransportFetchNodeAction implements NodeAction<NodeFetchRequest, NodeFetchResponse> {
@@ -63,11 +62,11 @@ public class TransportFetchNodeAction implements NodeAction<NodeFetchRequest, No
                                     CrateCircuitBreakerService circuitBreakerService) {
         this.transports = transports;
         this.nodeFetchOperation = new NodeFetchOperation(
-            (ThreadPoolExecutor) threadPool.executor(ThreadPool.Names.SEARCH),
+            threadPool,
             EsExecutors.numberOfProcessors(settings),
             jobsLogs,
             tasksService,
-            circuitBreakerService.getBreaker(CrateCircuitBreakerService.QUERY)
+            circuitBreakerService
         );
 
         transportService.registerRequestHandler(
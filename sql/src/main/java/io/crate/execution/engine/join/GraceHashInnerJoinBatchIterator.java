@@ -0,0 +1,323 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import com.carrotsearch.hppc.IntObjectHashMap;
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.RowAccounting;
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.UnsafeArrayRow;
+import io.crate.data.join.CombinedRow;
+import io.crate.data.join.JoinBatchIterator;
+import io.crate.execution.engine.spill.SpillFile;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Hash join for a left side which doesn't fit into memory.
+ * <pre>
+ *     Partition Phase:
+ *     for (leftRow in left) {
+ *         write leftRow into leftPartitions[partition(hash(leftRow))]
+ *     }
+ *     for (rightRow in right) {
+ *         if (leftPartitions[partition(hash(rightRow))] has rows) {
+ *             write rightRow into rightPartitions[partition(hash(rightRow))]
+ *         }
+ *     }
+ *
+ *     Join Phase:
+ *     for (partition in partitions) {
+ *         build Buffer (HashMap) from leftPartitions[partition]
+ *         for (rightRow in rightPartitions[partition]) {
+ *             probe Buffer like {@link HashInnerJoinBatchIterator} does
+ *         }
+ *     }
+ * </pre>
+ * <p>
+ * Rows with the same hash always end up in the same partition, so each partition can be joined on its own and
+ * only the buffer of a single partition of the left side has to be kept in memory.
+ * Partitions are stored in {@link SpillFile}s, which are deleted once the iterator is closed or killed.
+ * The buffers of the files are accounted in {@code spillAccounting}, which must only be used by this iterator
+ * (see {@link RamAccountingContext#newChildContext()}): one write buffer per partition while partitioning and
+ * the read buffers of the current left and right partition afterwards.
+ * <p>
+ * Both sides are consumed completely and only once; there is no switching between left and right
+ * like in {@link HashInnerJoinBatchIterator}.
+ */
+public class GraceHashInnerJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
+
+    private final Predicate<Row> joinCondition;
+    private final Function<Row, Integer> hashBuilderForLeft;
+    private final Function<Row, Integer> hashBuilderForRight;
+    private final RowAccounting rowAccounting;
+    private final RamAccountingContext spillAccounting;
+    private final Streamer[] leftStreamers;
+    private final Streamer[] rightStreamers;
+    private final int numPartitions;
+
+    /**
+     * Used to avoid instantiating multiple times RowN for the rows read from the partitions
+     */
+    private final UnsafeArrayRow leftRow = new UnsafeArrayRow();
+    private final UnsafeArrayRow rightRow = new UnsafeArrayRow();
+    private final IntObjectHashMap<List<Object[]>> buffer = new IntObjectHashMap<>();
+
+    private SpillFile[] leftPartitions;
+    private SpillFile[] rightPartitions;
+    private boolean partitioned = false;
+    private int partition = -1;
+    private Iterator<Object[]> rightRowsOfPartition = Collections.emptyIterator();
+    private Iterator<Object[]> leftMatchingRowsIterator;
+
+    public GraceHashInnerJoinBatchIterator(BatchIterator<Row> left,
+                                           BatchIterator<Row> right,
+                                           CombinedRow combiner,
+                                           Predicate<Row> joinCondition,
+                                           Function<Row, Integer> hashBuilderForLeft,
+                                           Function<Row, Integer> hashBuilderForRight,
+                                           RowAccounting rowAccounting,
+                                           RamAccountingContext spillAccounting,
+                                           Streamer[] leftStreamers,
+                                           Streamer[] rightStreamers,
+                                           int numPartitions) {
+        super(left, right, combiner);
+        assert numPartitions > 0 : "numPartitions must be greater than 0";
+        this.joinCondition = joinCondition;
+        this.hashBuilderForLeft = hashBuilderForLeft;
+        this.hashBuilderForRight = hashBuilderForRight;
+        this.rowAccounting = rowAccounting;
+        this.spillAccounting = spillAccounting;
+        this.leftStreamers = leftStreamers;
+        this.rightStreamers = rightStreamers;
+        this.numPartitions = numPartitions;
+        this.leftPartitions = new SpillFile[numPartitions];
+        this.rightPartitions = new SpillFile[numPartitions];
+    }
+
+    @Override
+    public Row currentElement() {
+        return combiner.currentElement();
+    }
+
+    @Override
+    public void moveToStart() {
+        if (partitioned) {
+            // the partitions are complete, only the join phase has to be repeated
+            partition = -1;
+            rightRowsOfPartition = Collections.emptyIterator();
+            leftMatchingRowsIterator = null;
+            releaseBuffer();
+        } else {
+            closePartitions();
+            spillAccounting.release();
+            leftPartitions = new SpillFile[numPartitions];
+            rightPartitions = new SpillFile[numPartitions];
+            super.moveToStart();
+        }
+    }
+
+    @Override
+    public boolean moveNext() {
+        if (partitioned == false) {
+            if (activeIt == left) {
+                partitionLeft();
+                if (left.allLoaded() == false) {
+                    // left needs the next batch loaded
+                    return false;
+                }
+                activeIt = right;
+            }
+            partitionRight();
+            if (right.allLoaded() == false) {
+                // right needs the next batch loaded
+                return false;
+            }
+            finishPartitioning();
+        }
+
+        while (true) {
+            // In case of multiple matches on the left side (duplicate values or hash collisions)
+            if (leftMatchingRowsIterator != null && findMatchingRows()) {
+                return true;
+            }
+            leftMatchingRowsIterator = null;
+            while (rightRowsOfPartition.hasNext()) {
+                rightRow.cells(rightRowsOfPartition.next());
+                List<Object[]> leftMatchingRows = buffer.get(hashBuilderForRight.apply(rightRow));
+                if (leftMatchingRows != null) {
+                    leftMatchingRowsIterator = leftMatchingRows.iterator();
+                    combiner.setRight(rightRow);
+                    if (findMatchingRows()) {
+                        return true;
+                    }
+                }
+            }
+            if (loadNextPartition() == false) {
+                // all partitions are processed, we're done here
+                return false;
+            }
+        }
+    }
+
+    private void partitionLeft() {
+        while (left.moveNext()) {
+            Row row = left.currentElement();
+            int partitionIdx = partitionFor(hashBuilderForLeft.apply(row));
+            SpillFile partitionFile = leftPartitions[partitionIdx];
+            if (partitionFile == null) {
+                spillAccounting.addBytes(SpillFile.BUFFER_SIZE);
+                partitionFile = SpillFile.create(leftStreamers);
+                leftPartitions[partitionIdx] = partitionFile;
+            }
+            partitionFile.write(row);
+        }
+    }
+
+    private void partitionRight() {
+        while (right.moveNext()) {
+            Row row = right.currentElement();
+            int partitionIdx = partitionFor(hashBuilderForRight.apply(row));
+            if (leftPartitions[partitionIdx] == null) {
+                // there are no rows on the left side this row could match
+                continue;
+            }
+            SpillFile partitionFile = rightPartitions[partitionIdx];
+            if (partitionFile == null) {
+                spillAccounting.addBytes(SpillFile.BUFFER_SIZE);
+                partitionFile = SpillFile.create(rightStreamers);
+                rightPartitions[partitionIdx] = partitionFile;
+            }
+            partitionFile.write(row);
+        }
+    }
+
+    private int partitionFor(int hash) {
+        // the buffer of a partition uses the same hash, spread the bits so that the partitions don't correlate with it
+        return Math.floorMod(hash ^ (hash >>> 16), numPartitions);
+    }
+
+    private void finishPartitioning() {
+        for (int i = 0; i < numPartitions; i++) {
+            if (leftPartitions[i] != null) {
+                leftPartitions[i].finishWriting();
+            }
+            if (rightPartitions[i] != null) {
+                rightPartitions[i].finishWriting();
+            }
+        }
+        // the write buffers are gone, only the readers of one left and one right partition are open at a time
+        spillAccounting.release();
+        spillAccounting.addBytes(2L * SpillFile.BUFFER_SIZE);
+        partitioned = true;
+    }
+
+    private boolean loadNextPartition() {
+        releaseBuffer();
+        while (++partition < numPartitions) {
+            SpillFile leftPartition = leftPartitions[partition];
+            SpillFile rightPartition = rightPartitions[partition];
+            if (leftPartition == null || rightPartition == null) {
+                continue;
+            }
+            for (Object[] cells : leftPartition) {
+                leftRow.cells(cells);
+                rowAccounting.accountForAndMaybeBreak(leftRow);
+                addToBuffer(cells, hashBuilderForLeft.apply(leftRow));
+            }
+            rightRowsOfPartition = rightPartition.iterator();
+            return true;
+        }
+        return false;
+    }
+
+    private void addToBuffer(Object[] currentRow, int hash) {
+        List<Object[]> existingRows = buffer.get(hash);
+        if (existingRows == null) {
+            existingRows = new ArrayList<>();
+            buffer.put(hash, existingRows);
+        }
+        existingRows.add(currentRow);
+    }
+
+    private void releaseBuffer() {
+        buffer.release();
+        rowAccounting.release();
+    }
+
+    private boolean findMatchingRows() {
+        while (leftMatchingRowsIterator.hasNext()) {
+            leftRow.cells(leftMatchingRowsIterator.next());
+            combiner.setLeft(leftRow);
+            if (joinCondition.test(combiner.currentElement())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void closePartitions() {
+        for (int i = 0; i < numPartitions; i++) {
+            if (leftPartitions[i] != null) {
+                leftPartitions[i].close();
+                leftPartitions[i] = null;
+            }
+            if (rightPartitions[i] != null) {
+                rightPartitions[i].close();
+                rightPartitions[i] = null;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            closePartitions();
+            buffer.release();
+            rowAccounting.close();
+            spillAccounting.close();
+        } finally {
+            super.close();
+        }
+    }
+
+    @Override
+    public void kill(@Nonnull Throwable throwable) {
+        try {
+            closePartitions();
+            buffer.release();
+            rowAccounting.close();
+            spillAccounting.close();
+        } finally {
+            super.kill(throwable);
+        }
+    }
+}
@@ -22,6 +22,8 @@
 
 package io.crate.execution.engine.join;
 
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.breaker.RowAccounting;
 import io.crate.concurrent.CompletionListenable;
 import io.crate.data.BatchIterator;
@@ -44,6 +46,8 @@ import java.util.function.Predicate;
 
 public class HashJoinOperation implements CompletionListenable {
 
+    private static final int MAX_GRACE_PARTITIONS = 256;
+
     private final CompletableFuture<BatchIterator<Row>> leftBatchIterator = new CompletableFuture<>();
     private final CompletableFuture<BatchIterator<Row>> rightBatchIterator = new CompletableFuture<>();
     private final CompletableFuture<Void> completionFuture = new CompletableFuture<>();
@@ -55,6 +59,9 @@ public class HashJoinOperation implements CompletionListenable {
                              List<Symbol> joinLeftInputs,
                              List<Symbol> joinRightInputs,
                              RowAccounting rowAccounting,
+                             RamAccountingContext ramAccountingContext,
+                             Streamer[] leftStreamers,
+                             Streamer[] rightStreamers,
                              TransactionContext txnCtx,
                              InputFactory inputFactory,
                              CircuitBreaker circuitBreaker,
@@ -75,7 +82,12 @@ public class HashJoinOperation implements CompletionListenable {
                             getHashBuilderFromSymbols(txnCtx, inputFactory, joinLeftInputs),
                             getHashBuilderFromSymbols(txnCtx, inputFactory, joinRightInputs),
                             rowAccounting,
-                            new RamBlockSizeCalculator(Paging.PAGE_SIZE, circuitBreaker, estimatedRowSizeForLeft, numberOfRowsForLeft)
+                            ramAccountingContext,
+                            leftStreamers,
+                            rightStreamers,
+                            circuitBreaker,
+                            estimatedRowSizeForLeft,
+                            numberOfRowsForLeft
                         ), completionFuture);
                         nlResultConsumer.accept(joinIterator, null);
                     } catch (Exception e) {
@@ -125,8 +137,28 @@ public class HashJoinOperation implements CompletionListenable {
                                                              Function<Row, Integer> hashBuilderForLeft,
                                                              Function<Row, Integer> hashBuilderForRight,
                                                              RowAccounting rowAccounting,
-                                                             RamBlockSizeCalculator blockSizeCalculator) {
+                                                             RamAccountingContext ramAccountingContext,
+                                                             Streamer[] leftStreamers,
+                                                             Streamer[] rightStreamers,
+                                                             CircuitBreaker circuitBreaker,
+                                                             long estimatedRowSizeForLeft,
+                                                             long numberOfRowsForLeft) {
         CombinedRow combiner = new CombinedRow(leftNumCols, rightNumCols);
+        int numPartitions = numGracePartitions(circuitBreaker, estimatedRowSizeForLeft, numberOfRowsForLeft);
+        if (numPartitions > 1) {
+            return new GraceHashInnerJoinBatchIterator(
+                left,
+                right,
+                combiner,
+                joinCondition,
+                hashBuilderForLeft,
+                hashBuilderForRight,
+                rowAccounting,
+                ramAccountingContext.newChildContext(),
+                leftStreamers,
+                rightStreamers,
+                numPartitions);
+        }
         return new HashInnerJoinBatchIterator(
             new RamAccountingBatchIterator<>(left, rowAccounting),
             right,
@@ -134,6 +166,29 @@ public class HashJoinOperation implements CompletionListenable {
             joinCondition,
             hashBuilderForLeft,
             hashBuilderForRight,
-            blockSizeCalculator);
+            new RamBlockSizeCalculator(Paging.PAGE_SIZE, circuitBreaker, estimatedRowSizeForLeft, numberOfRowsForLeft));
+    }
+
+    /**
+     * Returns the number of partitions to use for a {@link GraceHashInnerJoinBatchIterator}
+     * or 1 if the left side is expected to fit into the available memory.
+     * <p>
+     * Without partitioning, a left side larger than the available memory must be processed in several blocks,
+     * each of them requiring a full iteration of the right side. The partitions are sized so that each of them
+     * should take at most half of the available memory.
+     */
+    static int numGracePartitions(CircuitBreaker circuitBreaker,
+                                  long estimatedRowSizeForLeft,
+                                  long numberOfRowsForLeft) {
+        if (estimatedRowSizeForLeft <= 0 || numberOfRowsForLeft <= 0 || circuitBreaker.getLimit() == -1) {
+            return 1;
+        }
+        double leftBytes = (double) estimatedRowSizeForLeft * numberOfRowsForLeft;
+        long availableMemory = Math.max(1L, circuitBreaker.getLimit() - circuitBreaker.getUsed());
+        if (leftBytes <= availableMemory) {
+            return 1;
+        }
+        double numPartitions = Math.ceil(2 * leftBytes / availableMemory);
+        return (int) Math.min(MAX_GRACE_PARTITIONS, Math.max(2, numPartitions));
     }
 }
@@ -84,6 +84,7 @@ import io.crate.expression.reference.StaticTableDefinition;
 import io.crate.expression.reference.sys.SysRowUpdater;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.Symbols;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.FunctionImplementation;
 import io.crate.metadata.Functions;
@@ -234,23 +235,30 @@ public class ProjectionToProjectorVisitor
         for (int i = numOutputs; i < inputs.size(); i++) {
             orderByIndices[idx++] = i;
         }
+        List<DataType> inputTypes = new ArrayList<>(inputs.size());
+        inputTypes.addAll(Symbols.typeView(projection.outputs()));
+        inputTypes.addAll(Symbols.typeView(projection.orderBy()));
         if (projection.limit() > TopN.NO_LIMIT) {
             return new SortingTopNProjector(
                 inputs,
                 ctx.expressions(),
+                inputTypes,
                 numOutputs,
                 OrderingByPosition.arrayOrdering(orderByIndices, projection.reverseFlags(), projection.nullsFirst()),
                 projection.limit(),
                 projection.offset(),
-                UNBOUNDED_COLLECTOR_THRESHOLD
+                UNBOUNDED_COLLECTOR_THRESHOLD,
+                context.ramAccountingContext
             );
         }
         return new SortingProjector(
             inputs,
             ctx.expressions(),
+            inputTypes,
             numOutputs,
             OrderingByPosition.arrayOrdering(orderByIndices, projection.reverseFlags(), projection.nullsFirst()),
-            projection.offset()
+            projection.offset(),
+            context.ramAccountingContext
         );
     }
 
@@ -309,9 +317,11 @@ public class ProjectionToProjectorVisitor
         InputFactory.Context<CollectExpression<Row, ?>> ctx = inputFactory.ctxForInputColumns(context.txnCtx);
 
         List<Input<?>> inputs = null;
+        List<DataType> inputTypes = null;
         if (!projection.inputs().isEmpty()) {
             ctx.add(projection.inputs());
             inputs = ctx.topLevelInputs();
+            inputTypes = Symbols.typeView(projection.inputs());
         }
 
         projection = projection.normalize(normalizer, context.txnCtx);
@@ -320,7 +330,10 @@ public class ProjectionToProjectorVisitor
         assert uri != null : "URI must not be null";
 
         StringBuilder sb = new StringBuilder(uri);
-        Symbol resolvedFileName = normalizer.normalize(WriterProjection.DIRECTORY_TO_FILENAME, context.txnCtx);
+        Symbol fileNameFunction = projection.outputFormat() == WriterProjection.OutputFormat.COLUMNAR
+            ? WriterProjection.DIRECTORY_TO_COLUMNAR_FILENAME
+            : WriterProjection.DIRECTORY_TO_FILENAME;
+        Symbol resolvedFileName = normalizer.normalize(fileNameFunction, context.txnCtx);
         assert resolvedFileName instanceof Literal : "resolvedFileName must be a Literal, but is: " + resolvedFileName;
         assert resolvedFileName.valueType() == StringType.INSTANCE :
             "resolvedFileName.valueType() must be " + StringType.INSTANCE;
@@ -330,8 +343,8 @@ public class ProjectionToProjectorVisitor
             sb.append("/");
         }
         sb.append(fileName);
-        if (projection.compressionType() == WriterProjection.CompressionType.GZIP) {
-            sb.append(".gz");
+        if (projection.compressionType() != null) {
+            sb.append(".").append(projection.compressionType().fileExtension());
         }
         uri = sb.toString();
 
@@ -343,10 +356,13 @@ public class ProjectionToProjectorVisitor
             uri,
             projection.compressionType(),
             inputs,
+            inputTypes,
             ctx.expressions(),
             overwrites,
             projection.outputNames(),
-            projection.outputFormat()
+            projection.outputFormat(),
+            projection.maxRowsPerFile(),
+            projection.maxBytesPerFile()
         );
     }
 
@@ -397,7 +413,7 @@ public class ProjectionToProjectorVisitor
             clusterService,
             nodeJobsCounter,
             threadPool.scheduler(),
-            threadPool.executor(ThreadPool.Names.SEARCH),
+            threadPool.executor(context.txnCtx.workloadClass().executorName()),
             context.txnCtx,
             functions,
             state.metaData().settings(),
@@ -445,7 +461,7 @@ public class ProjectionToProjectorVisitor
             clusterService,
             nodeJobsCounter,
             threadPool.scheduler(),
-            threadPool.executor(ThreadPool.Names.SEARCH),
+            threadPool.executor(context.txnCtx.workloadClass().executorName()),
             context.txnCtx,
             functions,
             state.metaData().settings(),
@@ -491,7 +507,7 @@ public class ProjectionToProjectorVisitor
         ShardDMLExecutor<ShardUpsertRequest, ShardUpsertRequest.Item> shardDMLExecutor = new ShardDMLExecutor<>(
             ShardDMLExecutor.DEFAULT_BULK_SIZE,
             threadPool.scheduler(),
-            threadPool.executor(ThreadPool.Names.SEARCH),
+            threadPool.executor(context.txnCtx.workloadClass().executorName()),
             resolveUidCollectExpression(context.txnCtx, projection.uidSymbol()),
             clusterService,
             nodeJobsCounter,
@@ -511,7 +527,7 @@ public class ProjectionToProjectorVisitor
         ShardDMLExecutor<ShardDeleteRequest, ShardDeleteRequest.Item> shardDMLExecutor = new ShardDMLExecutor<>(
             ShardDMLExecutor.DEFAULT_BULK_SIZE,
             threadPool.scheduler(),
-            threadPool.executor(ThreadPool.Names.SEARCH),
+            threadPool.executor(context.txnCtx.workloadClass().executorName()),
             resolveUidCollectExpression(context.txnCtx, projection.uidSymbol()),
             clusterService,
             nodeJobsCounter,
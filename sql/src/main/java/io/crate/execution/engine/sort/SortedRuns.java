@@ -0,0 +1,198 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.sort;
+
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.execution.engine.spill.SpillFile;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sorted runs of rows which have been moved to disk because a sort operation came close to the limit
+ * of the circuit breaker.
+ * <p>
+ * Each spill writes the rows held in memory, already sorted, as a new run. Once all input has been consumed
+ * the runs are merged by repeatedly taking the smallest head row of all runs, so that only a single row per
+ * run has to be held in memory.
+ *
+ * <pre>
+ *  spill 1:   [1, 4, 7]
+ *  spill 2:   [2, 3, 9]
+ *  spill 3:   [5, 6, 8]
+ *
+ *  output:    [1, 2, 3, 4, 5, 6, 7, 8, 9]
+ * </pre>
+ *
+ * If there are more than {@link #MAX_MERGE_WIDTH} runs, groups of runs are merged into bigger runs first
+ * to limit the number of files which are read concurrently.
+ */
+final class SortedRuns implements Closeable {
+
+    // this must not be final so tests could adjust it
+    // Spilling only pays off if a reasonable amount of memory is released
+    static long MIN_SPILL_BYTES = 16 * 1024 * 1024;
+
+    static final int MAX_MERGE_WIDTH = 64;
+
+    // Spill before the breaker trips; Bytes are flushed to the breaker in chunks and other operations use it too
+    private static final double SPILL_THRESHOLD = 0.8;
+
+    private final Streamer[] streamers;
+    private final Comparator<Object[]> ordering;
+    private List<SpillFile> runs = new ArrayList<>();
+
+    /**
+     * Returns true if the rows held in memory should be spilled to avoid tripping the circuit breaker.
+     * The context must only account for the rows of the sorting operation, see
+     * {@link RamAccountingContext#newChildContext()}.
+     */
+    static boolean shouldSpill(RamAccountingContext ramAccountingContext) {
+        return ramAccountingContext.totalBytes() >= MIN_SPILL_BYTES
+               && ramAccountingContext.usedBytesExceed(SPILL_THRESHOLD);
+    }
+
+    /**
+     * @param streamers streamers of the columns of a row
+     * @param ordering  the order in which rows are emitted, the spilled runs must be sorted by it as well
+     */
+    SortedRuns(Streamer[] streamers, Comparator<Object[]> ordering) {
+        this.streamers = streamers;
+        this.ordering = ordering;
+    }
+
+    /**
+     * Writes rows, which must already be sorted, as a new run.
+     * The memory used by the rows must be released by the caller.
+     */
+    void spill(Iterable<Object[]> sortedRows) {
+        SpillFile run = SpillFile.create(streamers);
+        runs.add(run);
+        for (Object[] row : sortedRows) {
+            run.write(row);
+        }
+        run.finishWriting();
+    }
+
+    int numRuns() {
+        return runs.size();
+    }
+
+    /**
+     * Returns the rows of all runs in order. No more rows may be spilled afterwards.
+     * The runs are read from disk on each iteration.
+     */
+    Iterable<Object[]> sortedRows() {
+        while (runs.size() > MAX_MERGE_WIDTH) {
+            runs = mergeRuns(runs);
+        }
+        List<SpillFile> finalRuns = runs;
+        return () -> new MergingIterator(finalRuns, ordering);
+    }
+
+    private List<SpillFile> mergeRuns(List<SpillFile> runs) {
+        List<SpillFile> merged = new ArrayList<>((runs.size() / MAX_MERGE_WIDTH) + 1);
+        for (int start = 0; start < runs.size(); start += MAX_MERGE_WIDTH) {
+            List<SpillFile> group = runs.subList(start, Math.min(start + MAX_MERGE_WIDTH, runs.size()));
+            SpillFile run = SpillFile.create(streamers);
+            merged.add(run);
+            Iterator<Object[]> rows = new MergingIterator(group, ordering);
+            while (rows.hasNext()) {
+                run.write(rows.next());
+            }
+            run.finishWriting();
+            for (SpillFile spillFile : group) {
+                spillFile.close();
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public void close() {
+        for (SpillFile run : runs) {
+            run.close();
+        }
+        runs = Collections.emptyList();
+    }
+
+    private static class Cursor {
+
+        private final Iterator<Object[]> rows;
+        private Object[] head;
+
+        Cursor(Iterator<Object[]> rows) {
+            this.rows = rows;
+            this.head = rows.next();
+        }
+
+        boolean advance() {
+            if (rows.hasNext()) {
+                head = rows.next();
+                return true;
+            }
+            head = null;
+            return false;
+        }
+    }
+
+    private static class MergingIterator implements Iterator<Object[]> {
+
+        private final PriorityQueue<Cursor> cursors;
+
+        MergingIterator(List<SpillFile> runs, Comparator<Object[]> ordering) {
+            cursors = new PriorityQueue<>(Math.max(runs.size(), 1), (c1, c2) -> ordering.compare(c1.head, c2.head));
+            for (SpillFile run : runs) {
+                Iterator<Object[]> rows = run.iterator();
+                if (rows.hasNext()) {
+                    cursors.add(new Cursor(rows));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !cursors.isEmpty();
+        }
+
+        @Override
+        public Object[] next() {
+            Cursor cursor = cursors.poll();
+            if (cursor == null) {
+                throw new NoSuchElementException("No more sorted rows");
+            }
+            Object[] row = cursor.head;
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+            return row;
+        }
+    }
+}
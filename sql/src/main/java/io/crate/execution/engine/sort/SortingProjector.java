@@ -23,63 +23,92 @@
 package io.crate.execution.engine.sort;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.RowAccounting;
+import io.crate.breaker.RowAccountingWithEstimators;
 import io.crate.data.BatchIterator;
-import io.crate.data.Bucket;
+import io.crate.data.BatchIterators;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.CollectionBucket;
 import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
+import io.crate.data.RowN;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.types.DataType;
+import org.elasticsearch.common.lease.Releasable;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collector;
-import java.util.stream.Collectors;
 
 /**
  * Sort rows by ordering criteria and process given offset before emitting.
  * <p>
  * Compared to {@link SortingTopNProjector} this projector does not support limiting,
  * while the {@link SortingTopNProjector} does not work WITHOUT a limit.
+ * <p>
+ * If the memory used by the rows comes close to the circuit breaker limit the rows are sorted and
+ * spilled to disk, see {@link SortedRuns}.
  */
 public class SortingProjector implements Projector {
 
+    // array header + reference per row in the list of rows
+    private static final int ROW_OVERHEAD = 24;
+    // reference to the value in the cells of a row
+    private static final int CELL_OVERHEAD = 8;
+
     private final Collection<? extends Input<?>> inputs;
     private final Iterable<? extends CollectExpression<Row, ?>> collectExpressions;
+    private final List<? extends DataType> inputTypes;
+    private final RamAccountingContext ramAccountingContext;
 
     private final Comparator<Object[]> comparator;
     private final int offset;
     private final int numOutputs;
 
     /**
-     * @param inputs             contains output {@link Input}s and orderBy {@link Input}s
-     * @param collectExpressions gathered from outputs and orderBy inputs
-     * @param numOutputs         <code>inputs</code> contains this much output {@link Input}s starting form index 0
-     * @param comparator         ordering that is used to compare the rows
-     * @param offset             the initial offset, this number of rows are skipped
+     * @param inputs               contains output {@link Input}s and orderBy {@link Input}s
+     * @param collectExpressions   gathered from outputs and orderBy inputs
+     * @param inputTypes           the types of the <code>inputs</code>, used to account and spill the rows
+     * @param numOutputs           <code>inputs</code> contains this much output {@link Input}s starting form index 0
+     * @param comparator           ordering that is used to compare the rows
+     * @param offset               the initial offset, this number of rows are skipped
+     * @param ramAccountingContext used to account the buffered rows
      */
     public SortingProjector(Collection<? extends Input<?>> inputs,
                             Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                            List<? extends DataType> inputTypes,
                             int numOutputs,
                             Comparator<Object[]> comparator,
-                            int offset) {
+                            int offset,
+                            RamAccountingContext ramAccountingContext) {
         Preconditions.checkArgument(offset >= 0, "invalid offset %s", offset);
         this.numOutputs = numOutputs;
         this.inputs = inputs;
         this.collectExpressions = collectExpressions;
+        this.inputTypes = inputTypes;
         this.comparator = comparator;
         this.offset = offset;
+        this.ramAccountingContext = ramAccountingContext;
     }
 
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
-        Collector<Row, ?, Bucket> collector = Collectors.mapping(
-            this::getCells,
-            Collectors.collectingAndThen(Collectors.toList(), this::sortAndCreateBucket));
-        return CollectingBatchIterator.newInstance(batchIterator, collector);
+        return collect(batchIterator, new SortingCollector());
     }
 
     @Override
@@ -87,6 +116,143 @@ public class SortingProjector implements Projector {
         return true;
     }
 
+    /**
+     * Like {@link CollectingBatchIterator#newInstance(BatchIterator, Collector)}, but releases rows which
+     * have been spilled to disk once the BatchIterator is closed.
+     */
+    static <A> BatchIterator<Row> collect(BatchIterator<Row> source,
+                                          Collector<Row, A, ? extends Iterable<Row>> collector) {
+        A state = collector.supplier().get();
+        return CollectingBatchIterator.newInstance(
+            () -> {
+                try {
+                    source.close();
+                } finally {
+                    if (state instanceof Releasable) {
+                        ((Releasable) state).close();
+                    }
+                }
+            },
+            source::kill,
+            () -> BatchIterators.collect(source, state, collector, new CompletableFuture<>()),
+            source.involvesIO()
+        );
+    }
+
+    static Streamer[] streamers(List<? extends DataType> types) {
+        Streamer[] streamers = new Streamer[types.size()];
+        for (int i = 0; i < streamers.length; i++) {
+            streamers[i] = types.get(i).streamer();
+        }
+        return streamers;
+    }
+
+    static Iterable<Row> toRows(Iterable<Object[]> rows, int numOutputs) {
+        RowN row = new RowN(numOutputs);
+        return Iterables.transform(rows, cells -> {
+            row.cells(cells);
+            return row;
+        });
+    }
+
+    static class Rows implements Releasable {
+
+        private final RamAccountingContext ramAccounting;
+        private final RowAccounting rowAccounting;
+        private final RowN accountedRow;
+        private List<Object[]> rows = new ArrayList<>();
+
+        @Nullable
+        private SortedRuns sortedRuns = null;
+
+        Rows(RamAccountingContext ramAccounting, List<? extends DataType> columnTypes) {
+            this.ramAccounting = ramAccounting;
+            this.rowAccounting = new RowAccountingWithEstimators(columnTypes, ramAccounting, CELL_OVERHEAD);
+            this.accountedRow = new RowN(columnTypes.size());
+        }
+
+        @Override
+        public void close() {
+            if (sortedRuns != null) {
+                sortedRuns.close();
+            }
+        }
+    }
+
+    private class SortingCollector implements Collector<Row, Rows, Iterable<Row>> {
+
+        private final Comparator<Object[]> ordering = comparator.reversed();
+
+        @Override
+        public Supplier<Rows> supplier() {
+            // spilling releases the memory of the buffered rows, which must not release the memory of other operations
+            return () -> new Rows(ramAccountingContext.newChildContext(), inputTypes);
+        }
+
+        @Override
+        public BiConsumer<Rows, Row> accumulator() {
+            return this::onNextRow;
+        }
+
+        @Override
+        public BinaryOperator<Rows> combiner() {
+            return (rows1, rows2) -> {
+                throw new UnsupportedOperationException("combine not supported");
+            };
+        }
+
+        @Override
+        public Function<Rows, Iterable<Row>> finisher() {
+            return this::sortAndCreateRows;
+        }
+
+        @Override
+        public Set<Characteristics> characteristics() {
+            return Collections.emptySet();
+        }
+
+        private void onNextRow(Rows rows, Row row) {
+            Object[] cells = getCells(row);
+            rows.accountedRow.cells(cells);
+            rows.rowAccounting.accountForAndMaybeBreak(rows.accountedRow);
+            rows.ramAccounting.addBytes(ROW_OVERHEAD);
+            rows.rows.add(cells);
+            if (SortedRuns.shouldSpill(rows.ramAccounting)) {
+                spill(rows);
+            }
+        }
+
+        private void spill(Rows rows) {
+            if (rows.sortedRuns == null) {
+                rows.sortedRuns = new SortedRuns(streamers(inputTypes), ordering);
+            }
+            rows.rows.sort(ordering);
+            rows.sortedRuns.spill(rows.rows);
+            rows.rows = new ArrayList<>();
+            rows.rowAccounting.release();
+        }
+
+        private Iterable<Row> sortAndCreateRows(Rows rows) {
+            if (rows.sortedRuns == null) {
+                return sortAndCreateBucket(rows.rows);
+            }
+            // rows left in memory are spilled as well so that they can be merged with the other runs
+            spill(rows);
+            return toRows(Iterables.skip(rows.sortedRuns.sortedRows(), offset), numOutputs);
+        }
+
+        private Iterable<Row> sortAndCreateBucket(List<Object[]> rows) {
+            rows.sort(ordering);
+            if (offset == 0) {
+                return new CollectionBucket(rows, numOutputs);
+            }
+            if (offset >= rows.size()) {
+                return Collections.emptyList();
+            }
+            return new CollectionBucket(rows.subList(offset, rows.size()), numOutputs);
+        }
+    }
+
     private Object[] getCells(Row row) {
         for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
             collectExpression.setNextRow(row);
@@ -98,12 +264,4 @@ public class SortingProjector implements Projector {
         }
         return newRow;
     }
-
-    private Bucket sortAndCreateBucket(List<Object[]> rows) {
-        rows.sort(comparator.reversed());
-        if (offset == 0) {
-            return new CollectionBucket(rows, numOutputs);
-        }
-        return new CollectionBucket(rows.subList(offset, rows.size()), numOutputs);
-    }
 }
@@ -22,39 +22,45 @@
 
 package io.crate.execution.engine.sort;
 
+import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
-import io.crate.data.Bucket;
-import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.types.DataType;
 
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.stream.Collector;
 
 public class SortingTopNProjector implements Projector {
 
-    private final Collector<Row, ?, Bucket> collector;
+    private final Collector<Row, ?, ? extends Iterable<Row>> collector;
 
     /**
      * @param inputs                      contains output {@link Input}s and orderBy {@link Input}s
      * @param collectExpressions          gathered from outputs and orderBy inputs
+     * @param inputTypes                  the types of the <code>inputs</code>, used by the unbounded collector
+     *                                    to account and spill the rows
      * @param numOutputs                  <code>inputs</code> contains this much output {@link Input}s starting form index 0
      * @param ordering                    ordering that is used to compare the rows
      * @param limit                       the number of rows to gather, pass to upStream
      * @param offset                      the initial offset, this number of rows are skipped
      * @param unboundedCollectorThreshold if (limit + offset) is greater than this threshold an unbounded collector will
      *                                    be used, otherwise a bounded one is used.
+     * @param ramAccountingContext        used by the unbounded collector to account the rows
      */
     public SortingTopNProjector(Collection<? extends Input<?>> inputs,
                                 Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                                List<? extends DataType> inputTypes,
                                 int numOutputs,
                                 Comparator<Object[]> ordering,
                                 int limit,
                                 int offset,
-                                int unboundedCollectorThreshold) {
+                                int unboundedCollectorThreshold,
+                                RamAccountingContext ramAccountingContext) {
         /**
          * We'll use an unbounded queue with the initial capacity of {@link unboundedCollectorThreshold}
          * if the maximum number of rows we have to accommodate in the queue in order to maintain correctness is
@@ -67,11 +73,13 @@ public class SortingTopNProjector implements Projector {
             collector = new UnboundedSortingTopNCollector(
                 inputs,
                 collectExpressions,
+                inputTypes,
                 numOutputs,
                 ordering,
                 unboundedCollectorThreshold,
                 limit,
-                offset
+                offset,
+                ramAccountingContext
             );
         } else {
             collector = new BoundedSortingTopNCollector(
@@ -87,7 +95,7 @@ public class SortingTopNProjector implements Projector {
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
-        return CollectingBatchIterator.newInstance(batchIterator, collector);
+        return SortingProjector.collect(batchIterator, collector);
     }
 
     @Override
@@ -23,16 +23,24 @@
 package io.crate.execution.engine.sort;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.RowAccountingWithEstimators;
 import io.crate.data.ArrayBucket;
-import io.crate.data.Bucket;
 import io.crate.data.Input;
 import io.crate.data.Row;
+import io.crate.data.RowN;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.types.DataType;
 import org.apache.lucene.util.ArrayUtil;
+import org.elasticsearch.common.lease.Releasable;
 
+import javax.annotation.Nullable;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.function.BiConsumer;
@@ -46,33 +54,47 @@ import java.util.stream.Collector;
  * Collector implementation which collects rows into an unbounded priorityQueue in order to sort the rows and apply a
  * limit + offset.
  * The final result is a sorted bucket with limit and offset applied.
+ * <p>
+ * If the memory used by the queue comes close to the circuit breaker limit the queued rows are spilled to disk
+ * as a sorted run, see {@link SortedRuns}. The result is then merged from all runs.
  */
-public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQueue<Object[]>, Bucket> {
+public class UnboundedSortingTopNCollector implements Collector<Row, UnboundedSortingTopNCollector.RowQueue, Iterable<Row>> {
+
+    // array header + reference per row in the queue
+    private static final int ROW_OVERHEAD = 24;
+    // reference to the value in the cells of a row
+    private static final int CELL_OVERHEAD = 8;
 
     private final Collection<? extends Input<?>> inputs;
     private final Iterable<? extends CollectExpression<Row, ?>> expressions;
+    private final List<? extends DataType> inputTypes;
     private final int numOutputs;
     private final Comparator<Object[]> comparator;
     private final int initialCapacity;
     private final int offset;
     private final int maxNumberOfRowsInQueue;
+    private final RamAccountingContext ramAccountingContext;
 
     /**
-     * @param inputs          contains output {@link Input}s and orderBy {@link Input}s
-     * @param expressions     expressions linked to the inputs
-     * @param numOutputs      number of output columns
-     * @param comparator      used to sort the rows
-     * @param initialCapacity the initial capacity of the backing queue
-     * @param limit           the max number of rows the result should contain
-     * @param offset          the number of rows to skip (after sort)
+     * @param inputs               contains output {@link Input}s and orderBy {@link Input}s
+     * @param expressions          expressions linked to the inputs
+     * @param inputTypes           the types of the <code>inputs</code>, used to account and spill the rows
+     * @param numOutputs           number of output columns
+     * @param comparator           used to sort the rows
+     * @param initialCapacity      the initial capacity of the backing queue
+     * @param limit                the max number of rows the result should contain
+     * @param offset               the number of rows to skip (after sort)
+     * @param ramAccountingContext used to account the queued rows
      */
     public UnboundedSortingTopNCollector(Collection<? extends Input<?>> inputs,
                                          Iterable<? extends CollectExpression<Row, ?>> expressions,
+                                         List<? extends DataType> inputTypes,
                                          int numOutputs,
                                          Comparator<Object[]> comparator,
                                          int initialCapacity,
                                          int limit,
-                                         int offset) {
+                                         int offset,
+                                         RamAccountingContext ramAccountingContext) {
         Preconditions.checkArgument(
             initialCapacity > 0, "Invalid initial capacity: value must be > 0; got: " + initialCapacity);
         Preconditions.checkArgument(limit > 0, "Invalid LIMIT: value must be > 0; got: " + limit);
@@ -80,11 +102,13 @@ public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQue
 
         this.inputs = inputs;
         this.expressions = expressions;
+        this.inputTypes = inputTypes;
         this.numOutputs = numOutputs;
         this.comparator = comparator;
         this.initialCapacity = initialCapacity;
         this.offset = offset;
         this.maxNumberOfRowsInQueue = limit + offset;
+        this.ramAccountingContext = ramAccountingContext;
 
         if (maxNumberOfRowsInQueue >= ArrayUtil.MAX_ARRAY_LENGTH || maxNumberOfRowsInQueue < 0) {
             // Throw exception to prevent confusing OOME in PriorityQueue
@@ -95,26 +119,57 @@ public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQue
         }
     }
 
+    static class RowQueue implements Releasable {
+
+        private final RamAccountingContext ramAccounting;
+        private final RowAccountingWithEstimators rowAccounting;
+        private final RowN accountedRow;
+        private PriorityQueue<Object[]> pq;
+
+        @Nullable
+        SortedRuns sortedRuns = null;
+
+        RowQueue(PriorityQueue<Object[]> pq,
+                 RamAccountingContext ramAccounting,
+                 List<? extends DataType> columnTypes) {
+            this.pq = pq;
+            this.ramAccounting = ramAccounting;
+            this.rowAccounting = new RowAccountingWithEstimators(columnTypes, ramAccounting, CELL_OVERHEAD);
+            this.accountedRow = new RowN(columnTypes.size());
+        }
+
+        @Override
+        public void close() {
+            if (sortedRuns != null) {
+                sortedRuns.close();
+            }
+        }
+    }
+
     @Override
-    public Supplier<PriorityQueue<Object[]>> supplier() {
-        return () -> new PriorityQueue<>(initialCapacity, comparator);
+    public Supplier<RowQueue> supplier() {
+        // spilling releases the memory of the queued rows, which must not release the memory of other operations
+        return () -> new RowQueue(
+            new PriorityQueue<>(initialCapacity, comparator),
+            ramAccountingContext.newChildContext(),
+            inputTypes);
     }
 
     @Override
-    public BiConsumer<PriorityQueue<Object[]>, Row> accumulator() {
+    public BiConsumer<RowQueue, Row> accumulator() {
         return this::onNextRow;
     }
 
     @Override
-    public BinaryOperator<PriorityQueue<Object[]>> combiner() {
+    public BinaryOperator<RowQueue> combiner() {
         return (pq1, pq2) -> {
             throw new UnsupportedOperationException("combine not supported");
         };
     }
 
     @Override
-    public Function<PriorityQueue<Object[]>, Bucket> finisher() {
-        return this::pqToIterable;
+    public Function<RowQueue, Iterable<Row>> finisher() {
+        return this::queueToIterable;
     }
 
     @Override
@@ -122,7 +177,7 @@ public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQue
         return Collections.emptySet();
     }
 
-    private void onNextRow(PriorityQueue<Object[]> pq, Row row) {
+    private void onNextRow(RowQueue queue, Row row) {
         for (CollectExpression<Row, ?> expression : expressions) {
             expression.setNextRow(row);
         }
@@ -133,27 +188,69 @@ public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQue
             i++;
         }
 
+        PriorityQueue<Object[]> pq = queue.pq;
         if (pq.size() == maxNumberOfRowsInQueue) {
             Object[] highestElementInOrder = pq.peek();
             if (highestElementInOrder == null || comparator.compare(rowCells, highestElementInOrder) > 0) {
-                pq.poll();
-                pq.add(rowCells);
+                releaseAccounting(queue, pq.poll());
+                addWithAccounting(queue, rowCells);
             }
         } else {
-            pq.add(rowCells);
+            addWithAccounting(queue, rowCells);
         }
     }
 
-    private Bucket pqToIterable(PriorityQueue<Object[]> pq) {
-        if (offset > pq.size()) {
-            return new ArrayBucket(new Object[0][0], numOutputs);
+    private void addWithAccounting(RowQueue queue, Object[] rowCells) {
+        queue.accountedRow.cells(rowCells);
+        queue.rowAccounting.accountForAndMaybeBreak(queue.accountedRow);
+        queue.ramAccounting.addBytes(ROW_OVERHEAD);
+        queue.pq.add(rowCells);
+        if (SortedRuns.shouldSpill(queue.ramAccounting)) {
+            spill(queue);
         }
-        int resultSize = Math.max(Math.min(maxNumberOfRowsInQueue - offset, pq.size() - offset), 0);
+    }
+
+    private static void releaseAccounting(RowQueue queue, Object[] evictedRowCells) {
+        queue.accountedRow.cells(evictedRowCells);
+        queue.ramAccounting.addBytes(-(queue.rowAccounting.estimateSize(queue.accountedRow) + ROW_OVERHEAD));
+    }
+
+    private void spill(RowQueue queue) {
+        if (queue.sortedRuns == null) {
+            queue.sortedRuns = new SortedRuns(SortingProjector.streamers(inputTypes), comparator.reversed());
+        }
+        queue.sortedRuns.spill(Arrays.asList(drain(queue.pq, queue.pq.size())));
+        queue.pq = new PriorityQueue<>(initialCapacity, comparator);
+        queue.rowAccounting.release();
+    }
 
-        Object[][] rows = new Object[resultSize][];
-        for (int i = resultSize - 1; i >= 0; i--) {
+    /**
+     * Polls the first {@code numRows} rows of the queue and returns them in the output order.
+     */
+    private static Object[][] drain(PriorityQueue<Object[]> pq, int numRows) {
+        Object[][] rows = new Object[numRows][];
+        for (int i = numRows - 1; i >= 0; i--) {
             rows[i] = pq.poll();
         }
-        return new ArrayBucket(rows, numOutputs);
+        return rows;
+    }
+
+    private Iterable<Row> queueToIterable(RowQueue queue) {
+        if (queue.sortedRuns == null) {
+            return pqToIterable(queue.pq);
+        }
+        // rows left in memory are spilled as well so that they can be merged with the other runs
+        spill(queue);
+        return SortingProjector.toRows(
+            Iterables.limit(Iterables.skip(queue.sortedRuns.sortedRows(), offset), maxNumberOfRowsInQueue - offset),
+            numOutputs);
+    }
+
+    private Iterable<Row> pqToIterable(PriorityQueue<Object[]> pq) {
+        if (offset > pq.size()) {
+            return new ArrayBucket(new Object[0][0], numOutputs);
+        }
+        int resultSize = Math.max(Math.min(maxNumberOfRowsInQueue - offset, pq.size() - offset), 0);
+        return new ArrayBucket(drain(pq, resultSize), numOutputs);
     }
 }
@@ -0,0 +1,217 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.spill;
+
+import io.crate.Streamer;
+import io.crate.data.Row;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A temporary file holding rows which have been moved out of memory.
+ * <p>
+ * Rows are appended using the {@link Streamer}s of their columns and can be read back,
+ * in the order they've been written, once {@link #finishWriting()} has been called.
+ * The file can be read multiple times, it is deleted on {@link #close()}.
+ */
+public final class SpillFile implements Closeable, Iterable<Object[]> {
+
+    private static final String PREFIX = "crate-spill-";
+    /**
+     * Size of the buffer used while writing and of each reader; callers holding many files at once should account it.
+     */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final Streamer[] streamers;
+    private final List<StreamInput> openReaders = new ArrayList<>();
+
+    private StreamOutput out;
+    private long numRows = 0;
+    private boolean closed = false;
+
+    public static SpillFile create(Streamer[] streamers) {
+        try {
+            Path path = Files.createTempFile(PREFIX, null);
+            return new SpillFile(path, streamers);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't create spill file", e);
+        }
+    }
+
+    private SpillFile(Path path, Streamer[] streamers) throws IOException {
+        this.path = path;
+        this.streamers = streamers;
+        this.out = new OutputStreamStreamOutput(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE));
+    }
+
+    /**
+     * Appends a row. Only the first {@code streamers.length} cells are written.
+     */
+    @SuppressWarnings("unchecked")
+    public void write(Object[] cells) {
+        assert out != null : "SpillFile must not be written to after finishWriting has been called";
+        try {
+            for (int i = 0; i < streamers.length; i++) {
+                streamers[i].writeValueTo(out, cells[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't write row to spill file " + path, e);
+        }
+        numRows++;
+    }
+
+    /**
+     * Appends a row without materializing it. Only the first {@code streamers.length} columns are written.
+     */
+    @SuppressWarnings("unchecked")
+    public void write(Row row) {
+        assert out != null : "SpillFile must not be written to after finishWriting has been called";
+        try {
+            for (int i = 0; i < streamers.length; i++) {
+                streamers[i].writeValueTo(out, row.get(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't write row to spill file " + path, e);
+        }
+        numRows++;
+    }
+
+    public void finishWriting() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't finish writing spill file " + path, e);
+        } finally {
+            out = null;
+        }
+    }
+
+    public long numRows() {
+        return numRows;
+    }
+
+    /**
+     * Returns an iterator reading all rows of the file. Each row is returned as a new array.
+     * The underlying file handle is released once the iterator is exhausted or the file is closed.
+     */
+    @Override
+    public Iterator<Object[]> iterator() {
+        assert out == null : "finishWriting must be called before reading a SpillFile";
+        if (numRows == 0) {
+            return Collections.emptyIterator();
+        }
+        StreamInput in;
+        try {
+            in = new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't open spill file " + path, e);
+        }
+        synchronized (openReaders) {
+            openReaders.add(in);
+        }
+        return new Iterator<Object[]>() {
+
+            long remaining = numRows;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public Object[] next() {
+                if (remaining <= 0) {
+                    throw new NoSuchElementException("SpillFile has no more rows");
+                }
+                Object[] cells = new Object[streamers.length];
+                try {
+                    for (int i = 0; i < streamers.length; i++) {
+                        cells[i] = streamers[i].readValueFrom(in);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Couldn't read row from spill file " + path, e);
+                }
+                remaining--;
+                if (remaining == 0) {
+                    closeReader(in);
+                }
+                return cells;
+            }
+        };
+    }
+
+    private void closeReader(StreamInput in) {
+        synchronized (openReaders) {
+            openReaders.remove(in);
+        }
+        try {
+            in.close();
+        } catch (IOException ignored) {
+            // only used for reading, no data can be lost
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            finishWriting();
+        } catch (UncheckedIOException ignored) {
+            // the file is deleted anyway
+        }
+        List<StreamInput> readers;
+        synchronized (openReaders) {
+            readers = new ArrayList<>(openReaders);
+        }
+        for (StreamInput reader : readers) {
+            closeReader(reader);
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't delete spill file " + path, e);
+        }
+    }
+}
@@ -46,6 +46,7 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
     private final BigArrays bigArrays;
     private Object accumulatedState;
 
+    private int seenFrameLowerBound = -1;
     private int seenFrameUpperBound = -1;
     private Object resultForCurrentFrame;
 
@@ -73,31 +74,60 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
     @Override
     public Object execute(int rowIdx, WindowFrameState frame, List<? extends CollectExpression<Row, ?>> expressions, Input... args) {
         if (isNewFrame(seenFrameUpperBound, frame)) {
+            if (seenFrameLowerBound >= 0 && frame.lowerBound() > seenFrameLowerBound) {
+                removeRowsBeforeLowerBound(frame, expressions, args);
+            }
             executeAggregateForFrame(frame, expressions, args);
         } else if (isReiteratingWindow(frame)) {
             accumulatedState = aggregationFunction.newState(ramAccountingContext, indexVersionCreated, bigArrays);
+            seenFrameUpperBound = -1;
             executeAggregateForFrame(frame, expressions, args);
         }
         return resultForCurrentFrame;
     }
 
+    /**
+     * The frame start moved, so the rows between the previous and the current frame start must not be part of the
+     * aggregation anymore.
+     * Removable aggregations remove these rows from the state, so that every row is iterated and removed at most once.
+     * Other aggregations are computed again starting with the first row of the current frame.
+     */
+    private void removeRowsBeforeLowerBound(WindowFrameState frame,
+                                            List<? extends CollectExpression<Row, ?>> expressions,
+                                            Input... inputs) {
+        if (aggregationFunction.isRemovableCumulative() && frame.lowerBound() < seenFrameUpperBound) {
+            for (int i = seenFrameLowerBound; i < frame.lowerBound(); i++) {
+                setNextRow(frame, i, expressions);
+                accumulatedState = aggregationFunction.removeFromAggregatedState(ramAccountingContext, accumulatedState, inputs);
+            }
+        } else {
+            accumulatedState = aggregationFunction.newState(ramAccountingContext, indexVersionCreated, bigArrays);
+            seenFrameUpperBound = -1;
+        }
+    }
+
+    private static void setNextRow(WindowFrameState frame, int rowIdx, List<? extends CollectExpression<Row, ?>> expressions) {
+        Object[] cells = frame.getRowAtIndexOrNull(rowIdx);
+        assert cells != null : "Requested row for invalid index in the current frame";
+        RowN row = new RowN(cells);
+        for (int j = 0, expressionsSize = expressions.size(); j < expressionsSize; j++) {
+            expressions.get(j).setNextRow(row);
+        }
+    }
+
     private void executeAggregateForFrame(WindowFrameState frame, List<? extends CollectExpression<Row, ?>> expressions, Input... inputs) {
         /*
          * The successive frames have overlapping rows (especially now as we currently only support UNBOUNDED PRECEDING - CURRENT_ROW frames).
          * We want to accumulate the rows we haven't processed yet (the difference between the rows in the current frame to the rows in the previous frame, if any).
          */
-        int unseenRowsInCurrentFrameStart = seenFrameUpperBound > 0 ? seenFrameUpperBound : 0;
+        int unseenRowsInCurrentFrameStart = Math.max(seenFrameUpperBound, frame.lowerBound());
         for (int i = unseenRowsInCurrentFrameStart; i < frame.size(); i++) {
-            Object[] cells = frame.getRowAtIndexOrNull(i);
-            assert cells != null : "Requested row for invalid index in the current frame";
-            RowN row = new RowN(cells);
-            for (int j = 0, expressionsSize = expressions.size(); j < expressionsSize; j++) {
-                expressions.get(j).setNextRow(row);
-            }
+            setNextRow(frame, i, expressions);
             accumulatedState = aggregationFunction.iterate(ramAccountingContext, accumulatedState, inputs);
         }
-        
+
         resultForCurrentFrame = aggregationFunction.terminatePartial(ramAccountingContext, accumulatedState);
+        seenFrameLowerBound = frame.lowerBound();
         seenFrameUpperBound = frame.upperBoundExclusive();
     }
 
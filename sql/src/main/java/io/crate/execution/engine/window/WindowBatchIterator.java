@@ -36,8 +36,8 @@ import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.join.RamAccountingBatchIterator;
 import io.crate.types.DataType;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.function.BiPredicate;
 
@@ -73,8 +73,8 @@ public class WindowBatchIterator extends MappedForwardingBatchIterator<Row, Row>
     private final BatchIterator<Row> source;
     private final List<WindowFunction> functions;
     private final Object[] outgoingCells;
-    private final LinkedList<Object[]> standaloneOutgoingCells;
-    private final LinkedList<Object[]> outstandingResults;
+    private final ArrayDeque<Object[]> standaloneOutgoingCells;
+    private final ArrayDeque<Object[]> outstandingResults;
     private final List<CollectExpression<Row, ?>> standaloneExpressions;
     private final BiPredicate<Object[], Object[]> arePeerCellsPredicate;
     private final List<? extends CollectExpression<Row, ?>> windowFuncArgsExpressions;
@@ -116,12 +116,12 @@ public class WindowBatchIterator extends MappedForwardingBatchIterator<Row, Row>
 
         this.order = windowDefinition.orderBy();
 
-        // adding 32 extra bytes as some cells of each row will be part of a LinkedList which adds the overhead of
-        // 24 bytes for each element (32 bytes each with compressed oops)
-        int extraRowOverhead = 32;
+        // adding 16 extra bytes as some cells of each row will be part of an ArrayDeque which needs a reference
+        // per element and grows by doubling its capacity (so up to 2 references per element)
+        int extraRowOverhead = 16;
         if (standaloneInputs.size() > 0) {
-            // another LinkedList is used for standalone inputs
-            extraRowOverhead += 32;
+            // another ArrayDeque is used for standalone inputs
+            extraRowOverhead += 16;
         }
         RowAccountingWithEstimators rowAccounting =
             new RowAccountingWithEstimators(standaloneInputTypes, ramAccountingContext, extraRowOverhead);
@@ -129,8 +129,8 @@ public class WindowBatchIterator extends MappedForwardingBatchIterator<Row, Row>
         this.standaloneExpressions = standaloneExpressions;
         this.windowFunctionsCount = functions.size();
         this.outgoingCells = new Object[windowFunctionsCount + standaloneInputs.size()];
-        this.standaloneOutgoingCells = new LinkedList<>();
-        this.outstandingResults = new LinkedList<>();
+        this.standaloneOutgoingCells = new ArrayDeque<>();
+        this.outstandingResults = new ArrayDeque<>();
         this.functions = functions;
         this.windowFuncArgsExpressions = windowFuncArgsExpressions;
         this.windowFuncArgsInputs = windowFuncArgsInputs;
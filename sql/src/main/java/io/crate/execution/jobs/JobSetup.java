@@ -78,6 +78,7 @@ import io.crate.execution.engine.join.NestedLoopOperation;
 import io.crate.execution.engine.pipeline.ProjectingRowConsumer;
 import io.crate.execution.engine.pipeline.ProjectionToProjectorVisitor;
 import io.crate.execution.engine.pipeline.ProjectorFactory;
+import io.crate.execution.jobs.workload.WorkloadClass;
 import io.crate.expression.InputFactory;
 import io.crate.expression.RowFilter;
 import io.crate.expression.eval.EvaluatingNormalizer;
@@ -128,7 +129,7 @@ public class JobSetup extends AbstractComponent {
     private final InputFactory inputFactory;
     private final ProjectorFactory projectorFactory;
     private final PKLookupOperation pkLookupOperation;
-    private final ExecutorService searchTp;
+    private final ThreadPool threadPool;
 
     @Inject
     public JobSetup(Settings settings,
@@ -154,7 +155,7 @@ public class JobSetup extends AbstractComponent {
         this.distributingConsumerFactory = distributingConsumerFactory;
         innerPreparer = new InnerPreparer();
         inputFactory = new InputFactory(functions);
-        searchTp = threadPool.executor(ThreadPool.Names.SEARCH);
+        this.threadPool = threadPool;
         EvaluatingNormalizer normalizer = EvaluatingNormalizer.functionOnlyNormalizer(functions);
         this.projectorFactory = new ProjectionToProjectorVisitor(
             clusterService,
@@ -173,6 +174,7 @@ public class JobSetup extends AbstractComponent {
 
     public List<CompletableFuture<StreamBucket>> prepareOnRemote(String userName,
                                                                  String currentSchema,
+                                                                 WorkloadClass workloadClass,
                                                                  Collection<? extends NodeOperation> nodeOperations,
                                                                  RootTask.Builder contextBuilder,
                                                                  SharedShardContexts sharedShardContexts) {
@@ -180,6 +182,7 @@ public class JobSetup extends AbstractComponent {
             clusterService.localNode().getId(),
             userName,
             currentSchema,
+            workloadClass,
             contextBuilder,
             logger,
             distributingConsumerFactory,
@@ -198,6 +201,7 @@ public class JobSetup extends AbstractComponent {
 
     public List<CompletableFuture<StreamBucket>> prepareOnHandler(String userName,
                                                                   String currentSchema,
+                                                                  WorkloadClass workloadClass,
                                                                   Collection<? extends NodeOperation> nodeOperations,
                                                                   RootTask.Builder taskBuilder,
                                                                   List<Tuple<ExecutionPhase, RowConsumer>> handlerPhases,
@@ -206,6 +210,7 @@ public class JobSetup extends AbstractComponent {
             clusterService.localNode().getId(),
             userName,
             currentSchema,
+            workloadClass,
             taskBuilder,
             logger,
             distributingConsumerFactory,
@@ -441,6 +446,7 @@ public class JobSetup extends AbstractComponent {
         Context(String localNodeId,
                 String userName,
                 String currentSchema,
+                WorkloadClass workloadClass,
                 RootTask.Builder taskBuilder,
                 Logger logger,
                 DistributingConsumerFactory distributingConsumerFactory,
@@ -451,7 +457,8 @@ public class JobSetup extends AbstractComponent {
             this.opCtx = new NodeOperationCtx(localNodeId, nodeOperations);
             this.distributingConsumerFactory = distributingConsumerFactory;
             this.sharedShardContexts = sharedShardContexts;
-            this.transactionContext = TransactionContext.of(userName, SearchPath.createSearchPathFrom(currentSchema));
+            this.transactionContext = TransactionContext.of(
+                userName, SearchPath.createSearchPathFrom(currentSchema), workloadClass);
         }
 
         public UUID jobId() {
@@ -504,7 +511,7 @@ public class JobSetup extends AbstractComponent {
 
         /**
          * The rowReceiver for handlerPhases got passed into
-         * {@link #prepareOnHandler(String, String, Collection, RootTask.Builder, List, SharedShardContexts)}
+         * {@link #prepareOnHandler(String, String, WorkloadClass, Collection, RootTask.Builder, List, SharedShardContexts)}
          * and is registered there.
          * <p>
          * Retrieve it
@@ -579,7 +586,7 @@ public class JobSetup extends AbstractComponent {
             Collection<? extends Projection> shardProjections = shardProjections(pkLookupPhase.projections());
             Collection<? extends Projection> nodeProjections = nodeProjections(pkLookupPhase.projections());
 
-            RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(breaker(), pkLookupPhase);
+            RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(breaker(context), pkLookupPhase);
             RowConsumer nodeRowConsumer = ProjectingRowConsumer.create(
                 context.getRowConsumer(pkLookupPhase, 0),
                 nodeProjections,
@@ -612,7 +619,7 @@ public class JobSetup extends AbstractComponent {
 
             int pageSize = Paging.getWeightedPageSize(Paging.PAGE_SIZE, 1.0d / phase.nodeIds().size());
             RowConsumer consumer = context.getRowConsumer(phase, pageSize);
-            RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(breaker(), phase);
+            RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(breaker(context), phase);
 
 
             if (upstreamOnSameNode && phase.numInputs() == 1) {
@@ -666,7 +673,7 @@ public class JobSetup extends AbstractComponent {
                 pageBucketReceiver = new CumulativePageBucketReceiver(
                     nodeName(),
                     phase.phaseId(),
-                    searchTp,
+                    executor(context),
                     DataTypes.getStreamers(phase.inputTypes()),
                     consumer,
                     PagingIterator.create(
@@ -675,13 +682,13 @@ public class JobSetup extends AbstractComponent {
                         phase.orderByPositions(),
                         () -> new RowAccountingWithEstimators(
                             phase.inputTypes(),
-                            RamAccountingContext.forExecutionPhase(breaker(), phase))),
+                            RamAccountingContext.forExecutionPhase(breaker(context), phase))),
                     phase.numUpstreams());
             } else {
                 pageBucketReceiver = new IncrementalPageBucketReceiver<>(
                     collector,
                     consumer,
-                    searchTp,
+                    executor(context),
                     DataTypes.getStreamers(phase.inputTypes()),
                     phase.numUpstreams());
             }
@@ -704,7 +711,7 @@ public class JobSetup extends AbstractComponent {
 
             RamAccountingContext ramAccountingContext = context.getRamAccountingContext(phase);
             if (ramAccountingContext == null) {
-                ramAccountingContext = RamAccountingContext.forExecutionPhase(breaker(), phase);
+                ramAccountingContext = RamAccountingContext.forExecutionPhase(breaker(context), phase);
             }
 
             context.registerSubContext(new CollectTask(
@@ -720,7 +727,7 @@ public class JobSetup extends AbstractComponent {
 
         @Override
         public Boolean visitCollectPhase(CollectPhase phase, Context context) {
-            RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(breaker(), phase);
+            RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(breaker(context), phase);
             RowConsumer consumer = context.getRowConsumer(phase, Paging.PAGE_SIZE);
             context.registerSubContext(new CollectTask(
                 phase,
@@ -757,13 +764,14 @@ public class JobSetup extends AbstractComponent {
                 localNodeId,
                 context.sharedShardContexts,
                 clusterService.state().metaData(),
-                routings));
+                routings,
+                context.txnCtx().workloadClass()));
             return true;
         }
 
         @Override
         public Boolean visitNestedLoopPhase(NestedLoopPhase phase, Context context) {
-            RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(breaker(), phase);
+            RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(breaker(context), phase);
             RowConsumer lastConsumer = context.getRowConsumer(phase, Paging.PAGE_SIZE);
 
             RowConsumer firstConsumer = ProjectingRowConsumer.create(
@@ -776,7 +784,7 @@ public class JobSetup extends AbstractComponent {
                 firstConsumer,
                 joinCondition,
                 phase.joinType(),
-                breaker(),
+                breaker(context),
                 ramAccountingContext,
                 phase.leftSideColumnTypes,
                 phase.estimatedRowsSizeLeft,
@@ -817,7 +825,7 @@ public class JobSetup extends AbstractComponent {
 
         @Override
         public Boolean visitHashJoinPhase(HashJoinPhase phase, Context context) {
-            RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(breaker(), phase);
+            RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(breaker(context), phase);
             RowConsumer lastConsumer = context.getRowConsumer(phase, Paging.PAGE_SIZE);
 
             RowConsumer firstConsumer = ProjectingRowConsumer.create(
@@ -835,10 +843,14 @@ public class JobSetup extends AbstractComponent {
                 //    96 bytes for each ArrayList +
                 //    7 bytes per key for the IntHashObjectHashMap  (should be 4 but the map pre-allocates more)
                 //    7 bytes perv value (pointer from the map to the list) (should be 4 but the map pre-allocates more)
-                new RowAccountingWithEstimators(phase.leftOutputTypes(), ramAccountingContext, 110),
+                // a child context, so that releasing a block or partition keeps the bytes of the spill files and projections
+                new RowAccountingWithEstimators(phase.leftOutputTypes(), ramAccountingContext.newChildContext(), 110),
+                ramAccountingContext,
+                DataTypes.getStreamers(phase.leftOutputTypes()),
+                DataTypes.getStreamers(phase.rightOutputTypes()),
                 context.transactionContext,
                 inputFactory,
-                breaker(),
+                breaker(context),
                 phase.estimatedRowSizeForLeft(),
                 phase.numberOfRowsForLeft());
             DistResultRXTask left = pageDownstreamContextForNestedLoop(
@@ -898,7 +910,7 @@ public class JobSetup extends AbstractComponent {
             PageBucketReceiver pageBucketReceiver = new CumulativePageBucketReceiver(
                 nodeName(),
                 mergePhase.phaseId(),
-                searchTp,
+                executor(ctx),
                 StreamerVisitor.streamersFromOutputs(mergePhase),
                 rowConsumer,
                 PagingIterator.create(
@@ -907,7 +919,7 @@ public class JobSetup extends AbstractComponent {
                     mergePhase.orderByPositions(),
                     () -> new RowAccountingWithEstimators(
                         mergePhase.inputTypes(),
-                        RamAccountingContext.forExecutionPhase(breaker(), mergePhase))),
+                        RamAccountingContext.forExecutionPhase(breaker(ctx), mergePhase))),
                 mergePhase.numUpstreams());
 
             return new DistResultRXTask(
@@ -926,7 +938,11 @@ public class JobSetup extends AbstractComponent {
         return (l << 32) | (inputId & 0xffffffffL);
     }
 
-    private CircuitBreaker breaker() {
-        return circuitBreakerService.getBreaker(CrateCircuitBreakerService.QUERY);
+    private CircuitBreaker breaker(Context context) {
+        return circuitBreakerService.getBreaker(context.txnCtx().workloadClass().breakerName());
+    }
+
+    private ExecutorService executor(Context context) {
+        return threadPool.executor(context.txnCtx().workloadClass().executorName());
     }
 }
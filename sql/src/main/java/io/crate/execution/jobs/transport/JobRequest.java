@@ -23,6 +23,7 @@
 package io.crate.execution.jobs.transport;
 
 import io.crate.execution.dsl.phases.NodeOperation;
+import io.crate.execution.jobs.workload.WorkloadClass;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.transport.TransportRequest;
@@ -40,6 +41,7 @@ public class JobRequest extends TransportRequest {
     private String coordinatorNodeId;
     private Collection<? extends NodeOperation> nodeOperations;
     private boolean enableProfiling;
+    private WorkloadClass workloadClass;
 
     public JobRequest() {
     }
@@ -49,13 +51,15 @@ public class JobRequest extends TransportRequest {
                       String currentSchema,
                       String coordinatorNodeId,
                       Collection<? extends NodeOperation> nodeOperations,
-                      boolean enableProfiling) {
+                      boolean enableProfiling,
+                      WorkloadClass workloadClass) {
         this.jobId = jobId;
         this.userName = userName;
         this.currentSchema = currentSchema;
         this.coordinatorNodeId = coordinatorNodeId;
         this.nodeOperations = nodeOperations;
         this.enableProfiling = enableProfiling;
+        this.workloadClass = workloadClass;
     }
 
     public UUID jobId() {
@@ -82,6 +86,10 @@ public class JobRequest extends TransportRequest {
         return currentSchema;
     }
 
+    public WorkloadClass workloadClass() {
+        return workloadClass;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
@@ -99,6 +107,7 @@ public class JobRequest extends TransportRequest {
 
         userName = in.readString();
         currentSchema = in.readString();
+        workloadClass = WorkloadClass.fromStream(in);
     }
 
     @Override
@@ -117,5 +126,6 @@ public class JobRequest extends TransportRequest {
         out.writeBoolean(enableProfiling);
         out.writeString(userName);
         out.writeString(currentSchema);
+        WorkloadClass.toStream(workloadClass, out);
     }
 }
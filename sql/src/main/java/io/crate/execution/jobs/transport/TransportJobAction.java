@@ -90,6 +90,7 @@ public class TransportJobAction implements NodeAction<JobRequest, JobResponse> {
         List<CompletableFuture<StreamBucket>> directResponseFutures = jobSetup.prepareOnRemote(
             request.userName(),
             request.currentSchema(),
+            request.workloadClass(),
             request.nodeOperations(),
             contextBuilder,
             sharedShardContexts
@@ -0,0 +1,143 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.jobs.workload;
+
+import io.crate.exceptions.JobRejectedException;
+import io.crate.execution.engine.collect.stats.JobsLogs;
+
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Admission of a single job to its {@link WorkloadClass}.
+ * <p>
+ * {@link #execute(Runnable, Consumer)} either runs the job right away, queues it until a running job of the same
+ * class is released, or rejects it with a {@link JobRejectedException} if the queue is full.
+ * {@link #release()} must be called once the job finished, including if it failed or was rejected.
+ */
+public final class Admission {
+
+    enum State {
+        NEW,
+        QUEUED,
+        RUNNING,
+        RELEASED
+    }
+
+    private final UUID jobId;
+    private final AdmissionQueue queue;
+    private final Executor executor;
+    private final JobsLogs jobsLogs;
+
+    // guarded by the monitor of the queue
+    private State state = State.NEW;
+    private Runnable task;
+    private Consumer<Throwable> onFailure;
+
+    Admission(UUID jobId, AdmissionQueue queue, Executor executor, JobsLogs jobsLogs) {
+        this.jobId = jobId;
+        this.queue = queue;
+        this.executor = executor;
+        this.jobsLogs = jobsLogs;
+    }
+
+    public WorkloadClass workloadClass() {
+        return queue.workloadClass();
+    }
+
+    public void execute(Runnable task, Consumer<Throwable> onFailure) {
+        State admitted;
+        synchronized (queue) {
+            assert state == State.NEW : "execute must only be called once";
+            this.task = task;
+            this.onFailure = onFailure;
+            admitted = queue.admit(this);
+            state = admitted;
+        }
+        switch (admitted) {
+            case RUNNING:
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    release();
+                    throw t;
+                }
+                break;
+
+            case QUEUED:
+                jobsLogs.logQueued(jobId, true);
+                break;
+
+            default:
+                onFailure.accept(new JobRejectedException(queue.workloadClass().toString(), queue.queueSize()));
+        }
+    }
+
+    /**
+     * Frees the slot of the job and admits the next queued job, if any.
+     * Calling this more than once has no effect.
+     */
+    public void release() {
+        State previousState;
+        synchronized (queue) {
+            previousState = state;
+            state = State.RELEASED;
+        }
+        if (previousState == State.QUEUED || previousState == State.RUNNING) {
+            queue.release(this, previousState);
+        }
+    }
+
+    /**
+     * Must be called while holding the monitor of the queue
+     */
+    boolean markRunning() {
+        if (state == State.QUEUED) {
+            state = State.RUNNING;
+            return true;
+        }
+        return false;
+    }
+
+    void dispatch() {
+        jobsLogs.logQueued(jobId, false);
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    onFailure.accept(t);
+                }
+            });
+        } catch (Throwable t) {
+            onFailure.accept(t);
+        }
+    }
+
+    State state() {
+        synchronized (queue) {
+            return state;
+        }
+    }
+}
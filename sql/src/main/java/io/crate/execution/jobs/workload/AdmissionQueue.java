@@ -0,0 +1,122 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.jobs.workload;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounds the number of concurrently running jobs of a {@link WorkloadClass}.
+ * A {@code maxConcurrentJobs} of 0 disables the limit.
+ */
+final class AdmissionQueue {
+
+    private final WorkloadClass workloadClass;
+    private final ArrayDeque<Admission> queued = new ArrayDeque<>();
+    private int maxConcurrentJobs;
+    private int queueSize;
+    private int running = 0;
+
+    AdmissionQueue(WorkloadClass workloadClass, int maxConcurrentJobs, int queueSize) {
+        this.workloadClass = workloadClass;
+        this.maxConcurrentJobs = maxConcurrentJobs;
+        this.queueSize = queueSize;
+    }
+
+    WorkloadClass workloadClass() {
+        return workloadClass;
+    }
+
+    synchronized Admission.State admit(Admission admission) {
+        if (hasCapacity()) {
+            running++;
+            return Admission.State.RUNNING;
+        }
+        if (queued.size() < queueSize) {
+            queued.add(admission);
+            return Admission.State.QUEUED;
+        }
+        return Admission.State.RELEASED;
+    }
+
+    void release(Admission admission, Admission.State previousState) {
+        List<Admission> toDispatch;
+        synchronized (this) {
+            if (previousState == Admission.State.QUEUED) {
+                queued.remove(admission);
+            } else if (previousState == Admission.State.RUNNING) {
+                running--;
+            }
+            toDispatch = pollAdmitted();
+        }
+        dispatch(toDispatch);
+    }
+
+    void setMaxConcurrentJobs(int maxConcurrentJobs) {
+        List<Admission> toDispatch;
+        synchronized (this) {
+            this.maxConcurrentJobs = maxConcurrentJobs;
+            toDispatch = pollAdmitted();
+        }
+        dispatch(toDispatch);
+    }
+
+    synchronized void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    synchronized int running() {
+        return running;
+    }
+
+    synchronized int queued() {
+        return queued.size();
+    }
+
+    synchronized int queueSize() {
+        return queueSize;
+    }
+
+    private boolean hasCapacity() {
+        return maxConcurrentJobs == 0 || running < maxConcurrentJobs;
+    }
+
+    private List<Admission> pollAdmitted() {
+        List<Admission> admitted = new ArrayList<>();
+        while (!queued.isEmpty() && hasCapacity()) {
+            Admission admission = queued.poll();
+            if (admission.markRunning()) {
+                running++;
+                admitted.add(admission);
+            }
+        }
+        return admitted;
+    }
+
+    private static void dispatch(List<Admission> admitted) {
+        for (Admission admission : admitted) {
+            admission.dispatch();
+        }
+    }
+}
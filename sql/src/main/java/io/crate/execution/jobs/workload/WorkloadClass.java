@@ -0,0 +1,103 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.jobs.workload;
+
+import com.google.common.collect.ImmutableSet;
+import io.crate.breaker.CrateCircuitBreakerService;
+import io.crate.planner.Plan;
+import io.crate.planner.operators.StatementClassifier.Classification;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The workload class of a job decides on which executor and against which circuit breaker its phases run on
+ * every node and to which admission queue it is added on the handler node.
+ * <p>
+ * {@link #INTERACTIVE} jobs, like primary key lookups or inserts, keep using the search thread pool and the query
+ * circuit breaker, while {@link #ANALYTICAL} jobs get an executor and a circuit breaker on their own.
+ */
+public enum WorkloadClass {
+
+    INTERACTIVE(ThreadPool.Names.SEARCH, CrateCircuitBreakerService.QUERY),
+    ANALYTICAL(WorkloadClass.ANALYTICAL_EXECUTOR, CrateCircuitBreakerService.ANALYTICAL);
+
+    public static final String ANALYTICAL_EXECUTOR = "analytical";
+
+    /**
+     * Labels of a {@link Classification} which mark a statement as analytical.
+     */
+    private static final Set<String> ANALYTICAL_LABELS = ImmutableSet.of(
+        "HashAggregate",
+        "GroupHashAggregate",
+        "HashJoin",
+        "NestedLoopJoin",
+        "Order",
+        "Union",
+        "WindowAgg"
+    );
+
+    private final String executorName;
+    private final String breakerName;
+
+    WorkloadClass(String executorName, String breakerName) {
+        this.executorName = executorName;
+        this.breakerName = breakerName;
+    }
+
+    public String executorName() {
+        return executorName;
+    }
+
+    public String breakerName() {
+        return breakerName;
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ENGLISH);
+    }
+
+    public static WorkloadClass of(Classification classification) {
+        if (classification.type() == Plan.StatementType.COPY) {
+            return ANALYTICAL;
+        }
+        if (Collections.disjoint(classification.labels(), ANALYTICAL_LABELS)) {
+            return INTERACTIVE;
+        }
+        return ANALYTICAL;
+    }
+
+    public static WorkloadClass fromStream(StreamInput in) throws IOException {
+        return WorkloadClass.values()[in.readVInt()];
+    }
+
+    public static void toStream(WorkloadClass workloadClass, StreamOutput out) throws IOException {
+        out.writeVInt(workloadClass.ordinal());
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.jobs.workload;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.crate.auth.user.User;
+import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.planner.operators.StatementClassifier.Classification;
+import io.crate.settings.CrateSetting;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Assigns statements to a {@link WorkloadClass} and limits the number of jobs of each class which are executed
+ * concurrently by this node. Jobs exceeding the limit are queued, and rejected if the queue is full.
+ */
+@Singleton
+public class WorkloadService extends AbstractComponent {
+
+    public static final CrateSetting<Integer> INTERACTIVE_MAX_CONCURRENT_JOBS_SETTING = CrateSetting.of(Setting.intSetting(
+        "workload.interactive.max_concurrent_jobs", 0, 0, Setting.Property.NodeScope, Setting.Property.Dynamic),
+        DataTypes.INTEGER);
+    public static final CrateSetting<Integer> INTERACTIVE_QUEUE_SIZE_SETTING = CrateSetting.of(Setting.intSetting(
+        "workload.interactive.queue_size", 100, 0, Setting.Property.NodeScope, Setting.Property.Dynamic),
+        DataTypes.INTEGER);
+    public static final CrateSetting<String> INTERACTIVE_USERS_SETTING = CrateSetting.of(new Setting<>(
+        "workload.interactive.users", "", Function.identity(), Setting.Property.NodeScope, Setting.Property.Dynamic),
+        DataTypes.STRING);
+
+    public static final CrateSetting<Integer> ANALYTICAL_MAX_CONCURRENT_JOBS_SETTING = CrateSetting.of(Setting.intSetting(
+        "workload.analytical.max_concurrent_jobs", 0, 0, Setting.Property.NodeScope, Setting.Property.Dynamic),
+        DataTypes.INTEGER);
+    public static final CrateSetting<Integer> ANALYTICAL_QUEUE_SIZE_SETTING = CrateSetting.of(Setting.intSetting(
+        "workload.analytical.queue_size", 100, 0, Setting.Property.NodeScope, Setting.Property.Dynamic),
+        DataTypes.INTEGER);
+    public static final CrateSetting<String> ANALYTICAL_USERS_SETTING = CrateSetting.of(new Setting<>(
+        "workload.analytical.users", "", Function.identity(), Setting.Property.NodeScope, Setting.Property.Dynamic),
+        DataTypes.STRING);
+
+    private final ThreadPool threadPool;
+    private final JobsLogs jobsLogs;
+    private final EnumMap<WorkloadClass, AdmissionQueue> queues = new EnumMap<>(WorkloadClass.class);
+    private final EnumMap<WorkloadClass, AdmissionQueue> systemQueues = new EnumMap<>(WorkloadClass.class);
+
+    private volatile Set<String> interactiveUsers;
+    private volatile Set<String> analyticalUsers;
+
+    @Inject
+    public WorkloadService(Settings settings,
+                           ClusterSettings clusterSettings,
+                           ThreadPool threadPool,
+                           JobsLogs jobsLogs) {
+        super(settings);
+        this.threadPool = threadPool;
+        this.jobsLogs = jobsLogs;
+        AdmissionQueue interactive = new AdmissionQueue(
+            WorkloadClass.INTERACTIVE,
+            INTERACTIVE_MAX_CONCURRENT_JOBS_SETTING.setting().get(settings),
+            INTERACTIVE_QUEUE_SIZE_SETTING.setting().get(settings));
+        AdmissionQueue analytical = new AdmissionQueue(
+            WorkloadClass.ANALYTICAL,
+            ANALYTICAL_MAX_CONCURRENT_JOBS_SETTING.setting().get(settings),
+            ANALYTICAL_QUEUE_SIZE_SETTING.setting().get(settings));
+        queues.put(WorkloadClass.INTERACTIVE, interactive);
+        queues.put(WorkloadClass.ANALYTICAL, analytical);
+        for (WorkloadClass workloadClass : WorkloadClass.values()) {
+            systemQueues.put(workloadClass, new AdmissionQueue(workloadClass, 0, 0));
+        }
+        interactiveUsers = parseUsers(INTERACTIVE_USERS_SETTING.setting().get(settings));
+        analyticalUsers = parseUsers(ANALYTICAL_USERS_SETTING.setting().get(settings));
+
+        clusterSettings.addSettingsUpdateConsumer(
+            INTERACTIVE_MAX_CONCURRENT_JOBS_SETTING.setting(), interactive::setMaxConcurrentJobs);
+        clusterSettings.addSettingsUpdateConsumer(
+            INTERACTIVE_QUEUE_SIZE_SETTING.setting(), interactive::setQueueSize);
+        clusterSettings.addSettingsUpdateConsumer(
+            INTERACTIVE_USERS_SETTING.setting(), users -> interactiveUsers = parseUsers(users));
+        clusterSettings.addSettingsUpdateConsumer(
+            ANALYTICAL_MAX_CONCURRENT_JOBS_SETTING.setting(), analytical::setMaxConcurrentJobs);
+        clusterSettings.addSettingsUpdateConsumer(
+            ANALYTICAL_QUEUE_SIZE_SETTING.setting(), analytical::setQueueSize);
+        clusterSettings.addSettingsUpdateConsumer(
+            ANALYTICAL_USERS_SETTING.setting(), users -> analyticalUsers = parseUsers(users));
+    }
+
+    /**
+     * Users listed in the {@code workload.<class>.users} settings are always assigned to that class,
+     * all other statements are assigned by their {@link Classification}.
+     */
+    public WorkloadClass classify(User user, Classification classification) {
+        String userName = user.name();
+        if (analyticalUsers.contains(userName)) {
+            return WorkloadClass.ANALYTICAL;
+        }
+        if (interactiveUsers.contains(userName)) {
+            return WorkloadClass.INTERACTIVE;
+        }
+        return WorkloadClass.of(classification);
+    }
+
+    /**
+     * Creates the admission of a job. The job must be started using {@link Admission#execute} and
+     * {@link Admission#release()} must be called once the job finished.
+     */
+    public Admission newAdmission(UUID jobId, WorkloadClass workloadClass) {
+        return new Admission(
+            jobId,
+            queues.get(workloadClass),
+            threadPool.executor(workloadClass.executorName()),
+            jobsLogs);
+    }
+
+    /**
+     * Creates the admission of a job issued by the system, like the statements run by ANALYZE or by background
+     * checks. These jobs are never queued or rejected: they may be run from inside an already admitted job and
+     * waiting for a free slot could deadlock with the job which issued them.
+     */
+    public Admission newSystemAdmission(UUID jobId, WorkloadClass workloadClass) {
+        return new Admission(
+            jobId,
+            systemQueues.get(workloadClass),
+            threadPool.executor(workloadClass.executorName()),
+            jobsLogs);
+    }
+
+    private static Set<String> parseUsers(String users) {
+        return Arrays.stream(users.split(","))
+            .map(String::trim)
+            .filter(user -> !user.isEmpty())
+            .collect(Collectors.toSet());
+    }
+
+    @VisibleForTesting
+    AdmissionQueue queue(WorkloadClass workloadClass) {
+        return queues.get(workloadClass);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.expression.reference.doc.lucene;
+
+import io.crate.data.columnar.Column;
+
+import java.io.IOException;
+
+/**
+ * Implemented by {@link LuceneCollectorExpression}s which can read the values of a whole block of documents
+ * into a {@link Column} at once, instead of one document at a time using
+ * {@link LuceneCollectorExpression#setNextDocId(int)}.
+ */
+public interface ColumnBatchLoader {
+
+    Column newColumn(int capacity);
+
+    /**
+     * Loads the values of {@code docs[0..numDocs)} of the current reader into the positions {@code 0..numDocs}
+     * of the column. The docs must be in ascending order.
+     */
+    void load(int[] docs, int numDocs, Column column) throws IOException;
+}
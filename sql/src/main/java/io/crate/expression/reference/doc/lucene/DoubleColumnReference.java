@@ -21,18 +21,23 @@
 
 package io.crate.expression.reference.doc.lucene;
 
+import io.crate.data.columnar.Column;
+import io.crate.data.columnar.DoubleColumn;
 import io.crate.exceptions.GroupByOnArrayUnsupportedException;
 import org.apache.lucene.index.LeafReaderContext;
+import org.elasticsearch.index.fielddata.FieldData;
 import org.elasticsearch.index.fielddata.IndexNumericFieldData;
+import org.elasticsearch.index.fielddata.NumericDoubleValues;
 import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
 import org.elasticsearch.index.mapper.MappedFieldType;
 
 import java.io.IOException;
 
-public class DoubleColumnReference extends FieldCacheExpression<IndexNumericFieldData, Double> {
+public class DoubleColumnReference extends FieldCacheExpression<IndexNumericFieldData, Double> implements ColumnBatchLoader {
 
     private final String columnName;
     private SortedNumericDoubleValues values;
+    private NumericDoubleValues singleValues;
     private Double value;
 
     public DoubleColumnReference(String columnName, MappedFieldType mappedFieldType) {
@@ -66,6 +71,37 @@ public class DoubleColumnReference extends FieldCacheExpression<IndexNumericFiel
     public void setNextReader(LeafReaderContext context) throws IOException {
         super.setNextReader(context);
         values = indexFieldData.load(context).getDoubleValues();
+        singleValues = FieldData.unwrapSingleton(values);
+    }
+
+    @Override
+    public Column newColumn(int capacity) {
+        return new DoubleColumn(capacity);
+    }
+
+    @Override
+    public void load(int[] docs, int numDocs, Column column) throws IOException {
+        DoubleColumn doubleColumn = (DoubleColumn) column;
+        if (singleValues != null) {
+            for (int i = 0; i < numDocs; i++) {
+                if (singleValues.advanceExact(docs[i])) {
+                    doubleColumn.set(i, singleValues.doubleValue());
+                } else {
+                    doubleColumn.setNull(i);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < numDocs; i++) {
+            if (values.advanceExact(docs[i])) {
+                if (values.docValueCount() != 1) {
+                    throw new GroupByOnArrayUnsupportedException(columnName);
+                }
+                doubleColumn.set(i, values.nextValue());
+            } else {
+                doubleColumn.setNull(i);
+            }
+        }
     }
 }
 
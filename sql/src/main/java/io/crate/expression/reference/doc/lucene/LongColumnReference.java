@@ -21,17 +21,21 @@
 
 package io.crate.expression.reference.doc.lucene;
 
+import io.crate.data.columnar.Column;
+import io.crate.data.columnar.LongColumn;
 import io.crate.exceptions.GroupByOnArrayUnsupportedException;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SortedNumericDocValues;
 
 import java.io.IOException;
 
-public class LongColumnReference extends LuceneCollectorExpression<Long> {
+public class LongColumnReference extends LuceneCollectorExpression<Long> implements ColumnBatchLoader {
 
     private final String columnName;
     private SortedNumericDocValues values;
+    private NumericDocValues singleValues;
     private Long value;
 
     public LongColumnReference(String columnName) {
@@ -64,6 +68,37 @@ public class LongColumnReference extends LuceneCollectorExpression<Long> {
     public void setNextReader(LeafReaderContext context) throws IOException {
         super.setNextReader(context);
         values = DocValues.getSortedNumeric(context.reader(), columnName);
+        singleValues = DocValues.unwrapSingleton(values);
+    }
+
+    @Override
+    public Column newColumn(int capacity) {
+        return new LongColumn(capacity);
+    }
+
+    @Override
+    public void load(int[] docs, int numDocs, Column column) throws IOException {
+        LongColumn longColumn = (LongColumn) column;
+        if (singleValues != null) {
+            for (int i = 0; i < numDocs; i++) {
+                if (singleValues.advanceExact(docs[i])) {
+                    longColumn.set(i, singleValues.longValue());
+                } else {
+                    longColumn.setNull(i);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < numDocs; i++) {
+            if (values.advanceExact(docs[i])) {
+                if (values.docValueCount() != 1) {
+                    throw new GroupByOnArrayUnsupportedException(columnName);
+                }
+                longColumn.set(i, values.nextValue());
+            } else {
+                longColumn.setNull(i);
+            }
+        }
     }
 }
 
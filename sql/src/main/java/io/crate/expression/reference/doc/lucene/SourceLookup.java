@@ -38,9 +38,12 @@ import java.util.RandomAccess;
 public final class SourceLookup {
 
     private final SourceFieldVisitor fieldsVisitor = new SourceFieldVisitor();
+    private final SourceParser sourceParser = new SourceParser();
+    private boolean fullSourceRequired = false;
     private LeafReader reader;
     private int doc;
     private Map<String, Object> source;
+    private Map<String, Object> partialSource;
     private boolean docVisited = false;
 
     SourceLookup() {
@@ -54,11 +57,36 @@ public final class SourceLookup {
         fieldsVisitor.reset();
         this.docVisited = false;
         this.source = null;
+        this.partialSource = null;
         this.reader = context.reader();
         this.doc = doc;
     }
 
+    /**
+     * Register a column path which will be looked up using {@link #get(List)}.
+     * <p>
+     * As long as only registered paths are looked up, the source is parsed partially.
+     */
+    public void registerPath(List<String> path) {
+        sourceParser.register(path);
+    }
+
+    /**
+     * Indicate that the full source will be looked up using {@link #sourceAsMap()}.
+     * {@link #get(List)} will then use the full source instead of parsing the source a second time.
+     */
+    public void requireFullSource() {
+        fullSourceRequired = true;
+    }
+
     public Object get(List<String> path) {
+        if (source == null && !fullSourceRequired && sourceParser.isRegistered(path)) {
+            if (partialSource == null) {
+                ensureDocVisited();
+                partialSource = sourceParser.parse(fieldsVisitor.source());
+            }
+            return extractValue(partialSource, path, 0);
+        }
         ensureSourceParsed();
         return extractValue(source, path, 0);
     }
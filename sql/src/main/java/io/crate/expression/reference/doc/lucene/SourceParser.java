@@ -0,0 +1,153 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.expression.reference.doc.lucene;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses only the parts of a source which are required to extract the registered column paths.
+ * <p>
+ * Values of other columns are skipped by the parser without being materialized, and the parsing stops
+ * once all registered top-level columns have been read.
+ * The result has the same structure as the full source map, so values can be extracted using
+ * {@link SourceLookup#extractValue(Map, List, int)}.
+ */
+final class SourceParser {
+
+    private final Node root = new Node();
+
+    /**
+     * Register a column path which must be included in the result of {@link #parse(BytesReference)}
+     */
+    void register(List<String> path) {
+        Node node = root;
+        for (String name : path) {
+            if (node.leaf) {
+                // a parent column is already parsed including all its children
+                return;
+            }
+            node = node.children.computeIfAbsent(name, k -> new Node());
+        }
+        node.leaf = true;
+        node.children.clear();
+    }
+
+    /**
+     * @return true if the value of the column path is included in the result of {@link #parse(BytesReference)}
+     */
+    boolean isRegistered(List<String> path) {
+        Node node = root;
+        for (String name : path) {
+            node = node.children.get(name);
+            if (node == null) {
+                return false;
+            }
+            if (node.leaf) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Map<String, Object> parse(BytesReference source) {
+        try (XContentParser parser = XContentHelper.createParser(
+            NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, source, XContentType.JSON)) {
+
+            parser.nextToken();
+            return parseObject(parser, root, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, Object> parseObject(XContentParser parser, Node node, boolean stopIfComplete) throws IOException {
+        HashMap<String, Object> values = new HashMap<>();
+        int numFound = 0;
+        XContentParser.Token token;
+        while ((token = parser.nextToken()) == XContentParser.Token.FIELD_NAME) {
+            String name = parser.currentName();
+            token = parser.nextToken();
+            Node child = node.children.get(name);
+            if (child == null) {
+                parser.skipChildren();
+            } else {
+                values.put(name, parseValue(parser, token, child));
+                numFound++;
+                if (stopIfComplete && numFound == node.children.size()) {
+                    break;
+                }
+            }
+        }
+        return values;
+    }
+
+    private static Object parseValue(XContentParser parser, XContentParser.Token token, Node node) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                return node.leaf ? parser.map() : parseObject(parser, node, false);
+
+            case START_ARRAY:
+                if (node.leaf) {
+                    return parser.list();
+                }
+                ArrayList<Object> values = new ArrayList<>();
+                while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+                    values.add(parseValue(parser, token, node));
+                }
+                return values;
+
+            case VALUE_STRING:
+                return parser.text();
+
+            case VALUE_NUMBER:
+                return parser.numberValue();
+
+            case VALUE_BOOLEAN:
+                return parser.booleanValue();
+
+            case VALUE_EMBEDDED_OBJECT:
+                return parser.binaryValue();
+
+            default:
+                return null;
+        }
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+        private boolean leaf = false;
+    }
+}
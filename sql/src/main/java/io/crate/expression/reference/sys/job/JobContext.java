@@ -22,6 +22,7 @@
 package io.crate.expression.reference.sys.job;
 
 import io.crate.auth.user.User;
+import io.crate.execution.jobs.workload.WorkloadClass;
 import io.crate.planner.operators.StatementClassifier.Classification;
 
 import javax.annotation.Nullable;
@@ -35,13 +36,26 @@ public class JobContext {
     private final long started;
     @Nullable
     private final Classification classification;
+    @Nullable
+    private final WorkloadClass workloadClass;
+    private volatile boolean queued;
 
     public JobContext(UUID id, String stmt, long started, User user, @Nullable Classification classification) {
+        this(id, stmt, started, user, classification, null);
+    }
+
+    public JobContext(UUID id,
+                      String stmt,
+                      long started,
+                      User user,
+                      @Nullable Classification classification,
+                      @Nullable WorkloadClass workloadClass) {
         this.id = id;
         this.stmt = stmt;
         this.started = started;
         this.username = user.name();
         this.classification = classification;
+        this.workloadClass = workloadClass;
     }
 
     public UUID id() {
@@ -65,6 +79,19 @@ public class JobContext {
         return classification;
     }
 
+    @Nullable
+    public WorkloadClass workloadClass() {
+        return workloadClass;
+    }
+
+    public boolean queued() {
+        return queued;
+    }
+
+    public void queued(boolean queued) {
+        this.queued = queued;
+    }
+
     @Override
     public String toString() {
         return "JobContext{" +
@@ -73,6 +100,7 @@ public class JobContext {
                ", stmt='" + stmt + '\'' +
                ", started=" + started +
                ", classification=" + classification +
+               ", workloadClass=" + workloadClass +
                '}';
     }
 }
@@ -23,6 +23,7 @@
 package io.crate.metadata;
 
 import io.crate.action.sql.SessionContext;
+import io.crate.execution.jobs.workload.WorkloadClass;
 import org.joda.time.DateTimeUtils;
 
 import java.util.Objects;
@@ -37,6 +38,7 @@ public final class CoordinatorTxnCtx implements TransactionContext {
 
     private final SessionContext sessionContext;
     private Long currentTimeMillis = null;
+    private WorkloadClass workloadClass = WorkloadClass.INTERACTIVE;
 
     public static CoordinatorTxnCtx systemTransactionContext() {
         return new CoordinatorTxnCtx(SessionContext.systemSessionContext());
@@ -73,6 +75,18 @@ public final class CoordinatorTxnCtx implements TransactionContext {
         return sessionContext.searchPath();
     }
 
+    @Override
+    public WorkloadClass workloadClass() {
+        return workloadClass;
+    }
+
+    /**
+     * Sets the workload class of the statement, must be called before the plan is executed
+     */
+    public void workloadClass(WorkloadClass workloadClass) {
+        this.workloadClass = Objects.requireNonNull(workloadClass);
+    }
+
     public SessionContext sessionContext() {
         return sessionContext;
     }
@@ -22,12 +22,17 @@
 
 package io.crate.metadata;
 
+import io.crate.execution.jobs.workload.WorkloadClass;
 import org.joda.time.DateTimeUtils;
 
 public interface TransactionContext {
 
     static TransactionContext of(String userName, SearchPath searchPath) {
-        return new StaticTransactionContext(userName, searchPath);
+        return new StaticTransactionContext(userName, searchPath, WorkloadClass.INTERACTIVE);
+    }
+
+    static TransactionContext of(String userName, SearchPath searchPath, WorkloadClass workloadClass) {
+        return new StaticTransactionContext(userName, searchPath, workloadClass);
     }
 
     long currentTimeMillis();
@@ -38,15 +43,22 @@ public interface TransactionContext {
 
     SearchPath searchPath();
 
+    /**
+     * The workload class which determines the executor and circuit breaker used to run the job
+     */
+    WorkloadClass workloadClass();
+
     class StaticTransactionContext implements TransactionContext {
 
         private final String userName;
         private final SearchPath searchPath;
+        private final WorkloadClass workloadClass;
         private Long currentTimeMillis;
 
-        StaticTransactionContext(String userName, SearchPath searchPath) {
+        StaticTransactionContext(String userName, SearchPath searchPath, WorkloadClass workloadClass) {
             this.userName = userName;
             this.searchPath = searchPath;
+            this.workloadClass = workloadClass;
         }
 
         @Override
@@ -71,5 +83,10 @@ public interface TransactionContext {
         public SearchPath searchPath() {
             return searchPath;
         }
+
+        @Override
+        public WorkloadClass workloadClass() {
+            return workloadClass;
+        }
     }
 }
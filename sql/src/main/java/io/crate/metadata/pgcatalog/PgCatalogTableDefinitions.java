@@ -26,6 +26,7 @@ import io.crate.analyze.user.Privilege;
 import io.crate.execution.engine.collect.sources.InformationSchemaIterables;
 import io.crate.expression.reference.StaticTableDefinition;
 import io.crate.metadata.RelationName;
+import io.crate.planner.TableStats;
 import io.crate.protocols.postgres.types.PGTypes;
 import org.elasticsearch.common.inject.Inject;
 
@@ -42,8 +43,8 @@ public class PgCatalogTableDefinitions {
     private final Map<RelationName, StaticTableDefinition<?>> tableDefinitions;
 
     @Inject
-    public PgCatalogTableDefinitions(InformationSchemaIterables informationSchemaIterables) {
-        tableDefinitions = new HashMap<>(7);
+    public PgCatalogTableDefinitions(InformationSchemaIterables informationSchemaIterables, TableStats tableStats) {
+        tableDefinitions = new HashMap<>(11);
 
         tableDefinitions.put(PgTypeTable.IDENT, new StaticTableDefinition<>(
             () -> completedFuture(PGTypes.pgTypes()),
@@ -89,6 +90,11 @@ public class PgCatalogTableDefinitions {
             () -> completedFuture(emptyList()),
             PgDescriptionTable.expressions())
         );
+        tableDefinitions.put(PgStatsTable.IDENT, new StaticTableDefinition<>(
+            () -> PgStatsTable.entries(tableStats),
+            (user, e) -> user.hasAnyPrivilege(Privilege.Clazz.TABLE, e.relationName.fqn()),
+            PgStatsTable.expressions()
+        ));
     }
 
     public StaticTableDefinition<?> get(RelationName relationName) {
@@ -0,0 +1,161 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.pgcatalog;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.WhereClause;
+import io.crate.execution.engine.collect.NestableCollectExpression;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.Routing;
+import io.crate.metadata.RoutingProvider;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.expressions.RowCollectExpressionFactory;
+import io.crate.metadata.table.ColumnRegistrar;
+import io.crate.metadata.table.StaticTableInfo;
+import io.crate.planner.ColumnStats;
+import io.crate.planner.TableStats;
+import io.crate.types.ArrayType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.common.lucene.BytesRefs;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes the column statistics gathered by {@code ANALYZE}, see {@link TableStats#columnStats()}.
+ * Values are exposed as strings, similar to the {@code anyarray} columns of PostgreSQL.
+ */
+public class PgStatsTable extends StaticTableInfo {
+
+    public static final RelationName IDENT = new RelationName(PgCatalogSchemaInfo.NAME, "pg_stats");
+
+    static class Columns {
+        static final ColumnIdent SCHEMANAME = new ColumnIdent("schemaname");
+        static final ColumnIdent TABLENAME = new ColumnIdent("tablename");
+        static final ColumnIdent ATTNAME = new ColumnIdent("attname");
+        static final ColumnIdent INHERITED = new ColumnIdent("inherited");
+        static final ColumnIdent NULL_FRAC = new ColumnIdent("null_frac");
+        static final ColumnIdent N_DISTINCT = new ColumnIdent("n_distinct");
+        static final ColumnIdent MOST_COMMON_VALS = new ColumnIdent("most_common_vals");
+        static final ColumnIdent MOST_COMMON_FREQS = new ColumnIdent("most_common_freqs");
+        static final ColumnIdent HISTOGRAM_BOUNDS = new ColumnIdent("histogram_bounds");
+    }
+
+    public static final class Entry {
+
+        final RelationName relationName;
+        final ColumnIdent column;
+        final ColumnStats stats;
+
+        Entry(RelationName relationName, ColumnIdent column, ColumnStats stats) {
+            this.relationName = relationName;
+            this.column = column;
+            this.stats = stats;
+        }
+    }
+
+    static Iterable<Entry> entries(TableStats tableStats) {
+        List<Entry> entries = new ArrayList<>();
+        for (Map.Entry<RelationName, Map<ColumnIdent, ColumnStats>> table : tableStats.columnStats().entrySet()) {
+            for (Map.Entry<ColumnIdent, ColumnStats> column : table.getValue().entrySet()) {
+                entries.add(new Entry(table.getKey(), column.getKey(), column.getValue()));
+            }
+        }
+        return entries;
+    }
+
+    public static Map<ColumnIdent, RowCollectExpressionFactory<Entry>> expressions() {
+        return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory<Entry>>builder()
+            .put(Columns.SCHEMANAME, () -> NestableCollectExpression.forFunction(e -> e.relationName.schema()))
+            .put(Columns.TABLENAME, () -> NestableCollectExpression.forFunction(e -> e.relationName.name()))
+            .put(Columns.ATTNAME, () -> NestableCollectExpression.forFunction(e -> e.column.fqn()))
+            .put(Columns.INHERITED, () -> NestableCollectExpression.constant(false))
+            .put(Columns.NULL_FRAC, () -> NestableCollectExpression.forFunction(e -> (float) e.stats.nullFraction()))
+            .put(Columns.N_DISTINCT, () -> NestableCollectExpression.forFunction(e -> (float) e.stats.approxDistinct()))
+            .put(Columns.MOST_COMMON_VALS, () -> NestableCollectExpression.forFunction(
+                e -> toStrings(e.stats.mostCommonValues())))
+            .put(Columns.MOST_COMMON_FREQS, () -> NestableCollectExpression.forFunction(
+                e -> toFloats(e.stats.mostCommonFrequencies())))
+            .put(Columns.HISTOGRAM_BOUNDS, () -> NestableCollectExpression.forFunction(
+                e -> toStrings(e.stats.histogramBounds())))
+            .build();
+    }
+
+    @Nullable
+    private static String[] toStrings(List<Object> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        String[] strings = new String[values.size()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = BytesRefs.toString(values.get(i));
+        }
+        return strings;
+    }
+
+    @Nullable
+    private static Float[] toFloats(double[] values) {
+        if (values.length == 0) {
+            return null;
+        }
+        Float[] floats = new Float[values.length];
+        for (int i = 0; i < floats.length; i++) {
+            floats[i] = (float) values[i];
+        }
+        return floats;
+    }
+
+    PgStatsTable() {
+        super(IDENT, new ColumnRegistrar(IDENT, RowGranularity.DOC)
+                .register(Columns.SCHEMANAME.name(), DataTypes.STRING)
+                .register(Columns.TABLENAME.name(), DataTypes.STRING)
+                .register(Columns.ATTNAME.name(), DataTypes.STRING)
+                .register(Columns.INHERITED.name(), DataTypes.BOOLEAN)
+                .register(Columns.NULL_FRAC.name(), DataTypes.FLOAT)
+                .register(Columns.N_DISTINCT.name(), DataTypes.FLOAT)
+                .register(Columns.MOST_COMMON_VALS.name(), DataTypes.STRING_ARRAY)
+                .register(Columns.MOST_COMMON_FREQS.name(), new ArrayType(DataTypes.FLOAT))
+                .register(Columns.HISTOGRAM_BOUNDS.name(), DataTypes.STRING_ARRAY),
+            Collections.emptyList());
+    }
+
+    @Override
+    public Routing getRouting(ClusterState state,
+                              RoutingProvider routingProvider,
+                              WhereClause whereClause,
+                              RoutingProvider.ShardSelection shardSelection,
+                              SessionContext sessionContext) {
+        return Routing.forTableOnSingleNode(IDENT, state.getNodes().getLocalNodeId());
+    }
+
+    @Override
+    public RowGranularity rowGranularity() {
+        return RowGranularity.DOC;
+    }
+}
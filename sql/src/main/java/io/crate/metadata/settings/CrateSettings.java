@@ -28,6 +28,7 @@ import io.crate.breaker.CrateCircuitBreakerService;
 import io.crate.cluster.gracefulstop.DecommissioningService;
 import io.crate.execution.engine.collect.stats.JobsLogService;
 import io.crate.execution.engine.indexing.ShardingUpsertExecutor;
+import io.crate.execution.jobs.workload.WorkloadService;
 import io.crate.expression.NestableInput;
 import io.crate.expression.reference.NestedObjectExpression;
 import io.crate.planner.TableStatsService;
@@ -91,6 +92,15 @@ public final class CrateSettings implements ClusterStateListener {
             CrateCircuitBreakerService.QUERY_CIRCUIT_BREAKER_LIMIT_SETTING,
             CrateCircuitBreakerService.QUERY_CIRCUIT_BREAKER_OVERHEAD_SETTING,
 
+            // WORKLOAD
+            CrateCircuitBreakerService.ANALYTICAL_CIRCUIT_BREAKER_LIMIT_SETTING,
+            WorkloadService.INTERACTIVE_MAX_CONCURRENT_JOBS_SETTING,
+            WorkloadService.INTERACTIVE_QUEUE_SIZE_SETTING,
+            WorkloadService.INTERACTIVE_USERS_SETTING,
+            WorkloadService.ANALYTICAL_MAX_CONCURRENT_JOBS_SETTING,
+            WorkloadService.ANALYTICAL_QUEUE_SIZE_SETTING,
+            WorkloadService.ANALYTICAL_USERS_SETTING,
+
             // BULK
             ShardingUpsertExecutor.BULK_REQUEST_TIMEOUT_SETTING,
 
@@ -26,6 +26,7 @@ import com.google.common.collect.ImmutableMap;
 import io.crate.action.sql.SessionContext;
 import io.crate.analyze.WhereClause;
 import io.crate.execution.engine.collect.NestableCollectExpression;
+import io.crate.execution.jobs.workload.WorkloadClass;
 import io.crate.expression.reference.sys.job.JobContext;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.RelationName;
@@ -55,6 +56,8 @@ public class SysJobsTableInfo extends StaticTableInfo {
         static final ColumnIdent NODE = new ColumnIdent("node");
         static final ColumnIdent NODE_ID = new ColumnIdent("node", "id");
         static final ColumnIdent NODE_NAME = new ColumnIdent("node", "name");
+        static final ColumnIdent WORKLOAD_CLASS = new ColumnIdent("workload_class");
+        static final ColumnIdent STATE = new ColumnIdent("state");
     }
 
     public static ImmutableMap<ColumnIdent, RowCollectExpressionFactory<JobContext>> expressions(Supplier<DiscoveryNode> localNode) {
@@ -73,6 +76,12 @@ public class SysJobsTableInfo extends StaticTableInfo {
             )))
             .put(Columns.NODE_ID, () -> NestableCollectExpression.forFunction(ignored -> localNode.get().getId()))
             .put(Columns.NODE_NAME, () -> NestableCollectExpression.forFunction(ignored -> localNode.get().getName()))
+            .put(Columns.WORKLOAD_CLASS, () -> NestableCollectExpression.forFunction(c -> {
+                WorkloadClass workloadClass = c.workloadClass();
+                return workloadClass == null ? null : workloadClass.toString();
+            }))
+            .put(Columns.STATE,
+                () -> NestableCollectExpression.forFunction(c -> c.queued() ? "QUEUED" : "RUNNING"))
             .build();
     }
 
@@ -85,7 +94,9 @@ public class SysJobsTableInfo extends StaticTableInfo {
                     .setInnerType("name", DataTypes.STRING)
                     .build())
                 .register(Columns.STMT, DataTypes.STRING)
-                .register(Columns.STARTED, DataTypes.TIMESTAMP),
+                .register(Columns.STARTED, DataTypes.TIMESTAMP)
+                .register(Columns.WORKLOAD_CLASS, DataTypes.STRING)
+                .register(Columns.STATE, DataTypes.STRING),
             PRIMARY_KEY);
     }
 
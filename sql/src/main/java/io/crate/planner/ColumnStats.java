@@ -0,0 +1,287 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import io.crate.types.DataType;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics of a single column, estimated from a random sample of the rows of a table.
+ * Created by {@link TableStatsService} as part of {@code ANALYZE}.
+ * <p>
+ * Similar to PostgreSQL the values are split into the most common values with their frequencies and an
+ * equi-depth histogram of the remaining values.
+ */
+public final class ColumnStats implements Writeable {
+
+    static final int MAX_MOST_COMMON_VALUES = 10;
+    static final int NUM_HISTOGRAM_BUCKETS = 100;
+
+    private final double nullFraction;
+    private final double approxDistinct;
+    @Nullable
+    private final Object min;
+    @Nullable
+    private final Object max;
+    private final List<Object> mostCommonValues;
+    private final double[] mostCommonFrequencies;
+    private final List<Object> histogramBounds;
+
+    public ColumnStats(double nullFraction,
+                       double approxDistinct,
+                       @Nullable Object min,
+                       @Nullable Object max,
+                       List<Object> mostCommonValues,
+                       double[] mostCommonFrequencies,
+                       List<Object> histogramBounds) {
+        assert mostCommonValues.size() == mostCommonFrequencies.length
+            : "There must be a frequency for each of the most common values";
+        this.nullFraction = nullFraction;
+        this.approxDistinct = approxDistinct;
+        this.min = min;
+        this.max = max;
+        this.mostCommonValues = mostCommonValues;
+        this.mostCommonFrequencies = mostCommonFrequencies;
+        this.histogramBounds = histogramBounds;
+    }
+
+    public ColumnStats(StreamInput in) throws IOException {
+        nullFraction = in.readDouble();
+        approxDistinct = in.readDouble();
+        min = in.readGenericValue();
+        max = in.readGenericValue();
+        mostCommonValues = readValues(in);
+        mostCommonFrequencies = in.readDoubleArray();
+        histogramBounds = readValues(in);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeDouble(nullFraction);
+        out.writeDouble(approxDistinct);
+        out.writeGenericValue(min);
+        out.writeGenericValue(max);
+        writeValues(out, mostCommonValues);
+        out.writeDoubleArray(mostCommonFrequencies);
+        writeValues(out, histogramBounds);
+    }
+
+    private static List<Object> readValues(StreamInput in) throws IOException {
+        int size = in.readVInt();
+        ArrayList<Object> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(in.readGenericValue());
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    private static void writeValues(StreamOutput out, List<Object> values) throws IOException {
+        out.writeVInt(values.size());
+        for (Object value : values) {
+            out.writeGenericValue(value);
+        }
+    }
+
+    /**
+     * @param samples the values of the column within the sample, including nulls
+     * @param totalRows the number of rows in the table the sample was taken from
+     */
+    @SuppressWarnings("unchecked")
+    public static ColumnStats fromSample(List<Object> samples, long totalRows, DataType<?> type) {
+        int sampleSize = samples.size();
+        if (sampleSize == 0) {
+            return new ColumnStats(0.0, 0.0, null, null, Collections.emptyList(), new double[0], Collections.emptyList());
+        }
+        ArrayList<Object> values = new ArrayList<>(sampleSize);
+        for (Object sample : samples) {
+            if (sample != null) {
+                values.add(sample);
+            }
+        }
+        double nullFraction = (sampleSize - values.size()) / (double) sampleSize;
+        if (values.isEmpty()) {
+            return new ColumnStats(nullFraction, 0.0, null, null, Collections.emptyList(), new double[0], Collections.emptyList());
+        }
+        Comparator<Object> comparator = (a, b) -> ((DataType<Object>) type).compareValueTo(a, b);
+        values.sort(comparator);
+
+        // values are sorted, so equal values are adjacent
+        Map<Object, Integer> counts = new HashMap<>();
+        int distinctInSample = 0;
+        int seenOnce = 0;
+        int runStart = 0;
+        for (int i = 1; i <= values.size(); i++) {
+            if (i == values.size() || comparator.compare(values.get(runStart), values.get(i)) != 0) {
+                int count = i - runStart;
+                distinctInSample++;
+                if (count == 1) {
+                    seenOnce++;
+                } else {
+                    counts.put(values.get(runStart), count);
+                }
+                runStart = i;
+            }
+        }
+        long totalNonNull = Math.max(values.size(), Math.round(totalRows * (1.0 - nullFraction)));
+        double approxDistinct = estimateDistinct(values.size(), distinctInSample, seenOnce, totalNonNull);
+
+        List<Object> mostCommonValues = new ArrayList<>();
+        List<Double> frequencies = new ArrayList<>();
+        double avgCount = values.size() / (double) distinctInSample;
+        counts.entrySet().stream()
+            .filter(e -> e.getValue() > 1.25 * avgCount)
+            .sorted(Map.Entry.<Object, Integer>comparingByValue().reversed())
+            .limit(MAX_MOST_COMMON_VALUES)
+            .forEach(e -> {
+                mostCommonValues.add(e.getKey());
+                frequencies.add(e.getValue() / (double) sampleSize);
+            });
+
+        ArrayList<Object> histogramValues;
+        if (mostCommonValues.isEmpty()) {
+            histogramValues = values;
+        } else {
+            HashSet<Object> mostCommon = new HashSet<>(mostCommonValues);
+            histogramValues = new ArrayList<>(values.size());
+            for (Object value : values) {
+                if (!mostCommon.contains(value)) {
+                    histogramValues.add(value);
+                }
+            }
+        }
+        return new ColumnStats(
+            nullFraction,
+            approxDistinct,
+            values.get(0),
+            values.get(values.size() - 1),
+            mostCommonValues,
+            frequencies.stream().mapToDouble(Double::doubleValue).toArray(),
+            equiDepthBounds(histogramValues, NUM_HISTOGRAM_BUCKETS)
+        );
+    }
+
+    /**
+     * The "Duj1" estimator of Haas and Stokes, which is also used by PostgreSQL:
+     * <pre>
+     *     n * d / (n - f1 + f1 * n / N)
+     * </pre>
+     * n: sample size, d: distinct values in the sample, f1: values seen exactly once in the sample, N: total rows
+     */
+    static double estimateDistinct(int sampleSize, int distinctInSample, int seenOnce, long totalRows) {
+        if (seenOnce == 0 || sampleSize >= totalRows) {
+            return distinctInSample;
+        }
+        if (seenOnce == distinctInSample) {
+            // all values unique; assume the column is unique
+            return totalRows;
+        }
+        double n = sampleSize;
+        double estimate = n * distinctInSample / (n - seenOnce + seenOnce * n / totalRows);
+        return Math.min(Math.max(estimate, distinctInSample), totalRows);
+    }
+
+    private static List<Object> equiDepthBounds(List<Object> sortedValues, int numBuckets) {
+        if (sortedValues.size() < 2) {
+            return Collections.emptyList();
+        }
+        int numBounds = Math.min(numBuckets + 1, sortedValues.size());
+        ArrayList<Object> bounds = new ArrayList<>(numBounds);
+        for (int i = 0; i < numBounds; i++) {
+            int pos = (int) ((long) i * (sortedValues.size() - 1) / (numBounds - 1));
+            bounds.add(sortedValues.get(pos));
+        }
+        return Collections.unmodifiableList(bounds);
+    }
+
+    /**
+     * @return the fraction of rows where the column is null (between 0.0 and 1.0)
+     */
+    public double nullFraction() {
+        return nullFraction;
+    }
+
+    /**
+     * @return the estimated number of distinct non-null values of the column
+     */
+    public double approxDistinct() {
+        return approxDistinct;
+    }
+
+    @Nullable
+    public Object min() {
+        return min;
+    }
+
+    @Nullable
+    public Object max() {
+        return max;
+    }
+
+    public List<Object> mostCommonValues() {
+        return mostCommonValues;
+    }
+
+    public double[] mostCommonFrequencies() {
+        return mostCommonFrequencies;
+    }
+
+    /**
+     * @return the bounds of the buckets of an equi-depth histogram, excluding the {@link #mostCommonValues()}
+     */
+    public List<Object> histogramBounds() {
+        return histogramBounds;
+    }
+
+    /**
+     * @return the estimated fraction of rows where {@code column = value}
+     */
+    public double selectivityOfEq(@Nullable Object value) {
+        if (value == null) {
+            return 0.0;
+        }
+        double mcvFrequencies = 0.0;
+        for (int i = 0; i < mostCommonValues.size(); i++) {
+            if (mostCommonValues.get(i).equals(value)) {
+                return mostCommonFrequencies[i];
+            }
+            mcvFrequencies += mostCommonFrequencies[i];
+        }
+        double remainingDistinct = approxDistinct - mostCommonValues.size();
+        if (remainingDistinct < 1.0) {
+            return 0.0;
+        }
+        return Math.max(0.0, 1.0 - nullFraction - mcvFrequencies) / remainingDistinct;
+    }
+}
@@ -31,6 +31,7 @@ import io.crate.execution.ddl.views.TransportCreateViewAction;
 import io.crate.execution.ddl.views.TransportDropViewAction;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.PhasesTaskFactory;
+import io.crate.execution.jobs.workload.WorkloadService;
 import io.crate.license.LicenseService;
 import io.crate.metadata.Functions;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -61,6 +62,8 @@ public class DependencyCarrier {
     private final TransportDropViewAction dropViewAction;
     private final TransportSwapRelationsAction swapRelationsAction;
     private final LicenseService licenseService;
+    private final TableStatsService tableStatsService;
+    private final WorkloadService workloadService;
 
     @Inject
     public DependencyCarrier(Settings settings,
@@ -75,7 +78,9 @@ public class DependencyCarrier {
                              TransportDropTableAction transportDropTableAction,
                              TransportCreateViewAction createViewAction,
                              TransportDropViewAction dropViewAction,
-                             TransportSwapRelationsAction swapRelationsAction) {
+                             TransportSwapRelationsAction swapRelationsAction,
+                             TableStatsService tableStatsService,
+                             WorkloadService workloadService) {
         this.settings = settings;
         this.transportActionProvider = transportActionProvider;
         this.phasesTaskFactory = phasesTaskFactory;
@@ -90,6 +95,8 @@ public class DependencyCarrier {
         this.createViewAction = createViewAction;
         this.dropViewAction = dropViewAction;
         this.swapRelationsAction = swapRelationsAction;
+        this.tableStatsService = tableStatsService;
+        this.workloadService = workloadService;
     }
 
     public TransportSwapRelationsAction swapRelationsAction() {
@@ -155,4 +162,12 @@ public class DependencyCarrier {
     public TransportDropViewAction dropViewAction() {
         return dropViewAction;
     }
+
+    public TableStatsService tableStatsService() {
+        return tableStatsService;
+    }
+
+    public WorkloadService workloadService() {
+        return workloadService;
+    }
 }
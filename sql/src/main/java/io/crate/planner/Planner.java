@@ -26,6 +26,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import io.crate.analyze.AnalyzedBegin;
 import io.crate.analyze.AnalyzedCommit;
+import io.crate.analyze.AnalyzedAnalyze;
 import io.crate.analyze.AnalyzedDecommissionNodeStatement;
 import io.crate.analyze.AnalyzedDeleteStatement;
 import io.crate.analyze.AnalyzedGCDanglingArtifacts;
@@ -201,6 +202,11 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
         return new GCDangingArtifactsPlan();
     }
 
+    @Override
+    public Plan visitAnalyze(AnalyzedAnalyze analyze, PlannerContext context) {
+        return new AnalyzePlan(analyze);
+    }
+
     @Override
     public Plan visitDecommissionNode(AnalyzedDecommissionNodeStatement decommissionNode, PlannerContext context) {
         return new DecommissionNodePlan(decommissionNode);
@@ -25,8 +25,15 @@ package io.crate.planner;
 import com.carrotsearch.hppc.ObjectObjectHashMap;
 import com.carrotsearch.hppc.ObjectObjectMap;
 import com.google.common.annotations.VisibleForTesting;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.RelationName;
 
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
 /**
  * Holds table statistics that are updated periodically by {@link TableStatsService}.
  */
@@ -35,11 +42,83 @@ public class TableStats {
     private static final Stats EMPTY_STATS = new Stats();
 
     private volatile ObjectObjectMap<RelationName, Stats> tableStats = new ObjectObjectHashMap<>(0);
+    private volatile Map<RelationName, Map<ColumnIdent, ColumnStats>> columnStats = Collections.emptyMap();
+    private volatile Map<RelationName, Long> numDocsOnLastAnalyze = Collections.emptyMap();
 
     public void updateTableStats(ObjectObjectMap<RelationName, Stats> tableStats) {
         this.tableStats = tableStats;
     }
 
+    /**
+     * Replaces the column statistics of the tables contained in {@code columnStats}, or of all tables if
+     * {@code replaceAll} is true.
+     *
+     * @param numDocsOnAnalyze the number of documents each table had when it was analyzed
+     */
+    public synchronized void updateColumnStats(Map<RelationName, Map<ColumnIdent, ColumnStats>> columnStats,
+                                               Map<RelationName, Long> numDocsOnAnalyze,
+                                               boolean replaceAll) {
+        HashMap<RelationName, Map<ColumnIdent, ColumnStats>> newColumnStats =
+            replaceAll ? new HashMap<>() : new HashMap<>(this.columnStats);
+        HashMap<RelationName, Long> newNumDocs =
+            replaceAll ? new HashMap<>() : new HashMap<>(this.numDocsOnLastAnalyze);
+        for (Map.Entry<RelationName, Map<ColumnIdent, ColumnStats>> entry : columnStats.entrySet()) {
+            newColumnStats.put(entry.getKey(), Collections.unmodifiableMap(entry.getValue()));
+        }
+        newNumDocs.putAll(numDocsOnAnalyze);
+        this.columnStats = Collections.unmodifiableMap(newColumnStats);
+        this.numDocsOnLastAnalyze = Collections.unmodifiableMap(newNumDocs);
+    }
+
+    /**
+     * Replaces the column statistics of a single table.
+     */
+    public synchronized void updateColumnStats(RelationName relationName, Map<ColumnIdent, ColumnStats> stats) {
+        HashMap<RelationName, Map<ColumnIdent, ColumnStats>> newColumnStats = new HashMap<>(columnStats);
+        newColumnStats.put(relationName, Collections.unmodifiableMap(stats));
+        columnStats = Collections.unmodifiableMap(newColumnStats);
+    }
+
+    /**
+     * Removes the column statistics of all tables which don't match {@code exists}, e.g. because they have been dropped.
+     */
+    public synchronized void retainColumnStats(Predicate<RelationName> exists) {
+        if (columnStats.keySet().stream().allMatch(exists) && numDocsOnLastAnalyze.keySet().stream().allMatch(exists)) {
+            return;
+        }
+        HashMap<RelationName, Map<ColumnIdent, ColumnStats>> newColumnStats = new HashMap<>(columnStats);
+        newColumnStats.keySet().removeIf(exists.negate());
+        HashMap<RelationName, Long> newNumDocs = new HashMap<>(numDocsOnLastAnalyze);
+        newNumDocs.keySet().removeIf(exists.negate());
+        columnStats = Collections.unmodifiableMap(newColumnStats);
+        numDocsOnLastAnalyze = Collections.unmodifiableMap(newNumDocs);
+    }
+
+    /**
+     * Returns the number of docs a table had when it was last analyzed, or -1 if it hasn't been analyzed yet.
+     */
+    public long numDocsOnLastAnalyze(RelationName relationName) {
+        return numDocsOnLastAnalyze.getOrDefault(relationName, -1L);
+    }
+
+    public Map<RelationName, Long> numDocsOnLastAnalyze() {
+        return numDocsOnLastAnalyze;
+    }
+
+    /**
+     * Returns the statistics of a column, gathered by the last {@code ANALYZE}.
+     * Returns null if the table hasn't been analyzed yet or the column type isn't supported.
+     */
+    @Nullable
+    public ColumnStats columnStats(RelationName relationName, ColumnIdent column) {
+        Map<ColumnIdent, ColumnStats> stats = columnStats.get(relationName);
+        return stats == null ? null : stats.get(column);
+    }
+
+    public Map<RelationName, Map<ColumnIdent, ColumnStats>> columnStats() {
+        return columnStats;
+    }
+
     /**
      * Returns the number of docs a table has.
      * <p>
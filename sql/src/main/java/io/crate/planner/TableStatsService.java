@@ -26,17 +26,29 @@ package io.crate.planner;
 import com.carrotsearch.hppc.ObjectObjectHashMap;
 import com.carrotsearch.hppc.ObjectObjectMap;
 import com.google.common.annotations.VisibleForTesting;
+import io.crate.action.FutureActionListener;
 import io.crate.action.sql.BaseResultReceiver;
 import io.crate.action.sql.SQLOperations;
 import io.crate.action.sql.Session;
 import io.crate.data.Row;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.doc.DocSchemaInfo;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.table.SchemaInfo;
+import io.crate.metadata.table.TableInfo;
 import io.crate.settings.CrateSetting;
+import io.crate.sql.Identifiers;
 import io.crate.sql.parser.SqlParser;
 import io.crate.sql.tree.Statement;
 import io.crate.types.DataTypes;
 import org.apache.logging.log4j.Logger;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.Randomness;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
@@ -48,10 +60,27 @@ import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 /**
  * Periodically refresh {@link TableStats} based on {@link #refreshInterval}.
+ * <p>
+ * After each refresh the elected master node re-creates the column statistics of tables which haven't been analyzed
+ * yet, or whose number of documents changed significantly since they were last analyzed, using
+ * {@link #analyze(RelationName)}. Column statistics are always published to all nodes of the cluster.
+ * </p>
  */
 @Singleton
 public class TableStatsService extends AbstractComponent implements Runnable {
@@ -64,10 +93,30 @@ public class TableStatsService extends AbstractComponent implements Runnable {
                                "from sys.shards where primary=true group by 3, 4";
     private static final Statement PARSED_STMT = SqlParser.createStatement(STMT);
 
+    /**
+     * Number of rows sampled per table to create the column statistics
+     */
+    static final int SAMPLE_SIZE = 30_000;
+
+    /**
+     * Factor by which the rows pre-selected by the sample statement exceed {@link #SAMPLE_SIZE}
+     */
+    private static final double PRE_SAMPLE_FACTOR = 1.5;
+
+    /**
+     * Relative change in the number of documents of a table after which it is analyzed again
+     */
+    private static final double REANALYZE_THRESHOLD = 0.1;
+
     private final ClusterService clusterService;
     private final ThreadPool threadPool;
+    private final TableStats tableStats;
+    private final Schemas schemas;
     private final TableStatsResultReceiver resultReceiver;
     private final Session session;
+    private final TransportPublishColumnStatsAction publishColumnStatsAction;
+    private final AtomicBoolean analyzing = new AtomicBoolean(false);
+    private volatile Set<String> publishedToNodes = Collections.emptySet();
 
     @VisibleForTesting
     ThreadPool.Cancellable refreshScheduledTask;
@@ -79,11 +128,22 @@ public class TableStatsService extends AbstractComponent implements Runnable {
                              ThreadPool threadPool,
                              ClusterService clusterService,
                              TableStats tableStats,
-                             SQLOperations sqlOperations) {
+                             Schemas schemas,
+                             SQLOperations sqlOperations,
+                             TransportPublishColumnStatsAction publishColumnStatsAction) {
         super(settings);
         this.threadPool = threadPool;
         this.clusterService = clusterService;
-        resultReceiver = new TableStatsResultReceiver(tableStats::updateTableStats);
+        this.tableStats = tableStats;
+        this.schemas = schemas;
+        this.publishColumnStatsAction = publishColumnStatsAction;
+        resultReceiver = new TableStatsResultReceiver(newStats -> {
+            tableStats.updateTableStats(newStats);
+            tableStats.retainColumnStats(this::tableExists);
+            if (clusterService.state().nodes().isLocalNodeElectedMaster()) {
+                analyzeOutdatedTables();
+            }
+        });
         refreshInterval = STATS_SERVICE_REFRESH_INTERVAL_SETTING.setting().get(settings);
         refreshScheduledTask = scheduleRefresh(refreshInterval);
         session = sqlOperations.newSystemSession();
@@ -114,6 +174,223 @@ public class TableStatsService extends AbstractComponent implements Runnable {
         }
     }
 
+    /**
+     * Creates the column statistics of a table, or of all tables if {@code relationName} is null, by sampling
+     * up to {@link #SAMPLE_SIZE} rows of each table, and publishes them to all nodes.
+     *
+     * @return a future which completes with the number of analyzed tables
+     */
+    public CompletableFuture<Long> analyze(@Nullable RelationName relationName) {
+        List<DocTableInfo> tables = new ArrayList<>();
+        if (relationName == null) {
+            for (SchemaInfo schemaInfo : schemas) {
+                if (schemaInfo instanceof DocSchemaInfo) {
+                    for (TableInfo tableInfo : schemaInfo.getTables()) {
+                        addIfAnalyzable(tables, tableInfo);
+                    }
+                }
+            }
+        } else {
+            addIfAnalyzable(tables, schemas.getTableInfo(relationName));
+        }
+        return analyze(tables, relationName == null);
+    }
+
+    /**
+     * @param replaceAll if true the statistics of all tables are replaced, otherwise only those of {@code tables}
+     */
+    private CompletableFuture<Long> analyze(List<DocTableInfo> tables, boolean replaceAll) {
+        Map<RelationName, Map<ColumnIdent, ColumnStats>> newStats = new ConcurrentHashMap<>();
+        Map<RelationName, Long> numDocsOnAnalyze = new ConcurrentHashMap<>();
+        CompletableFuture<?> analyzed = CompletableFuture.completedFuture(null);
+        for (DocTableInfo table : tables) {
+            // tables are sampled one after another to limit the load on the cluster
+            analyzed = analyzed.thenCompose(ignored -> analyzeTable(table, numDocsOnAnalyze)
+                .thenAccept(stats -> newStats.put(table.ident(), stats)));
+        }
+        return analyzed
+            .thenCompose(ignored -> publish(new PublishColumnStatsRequest(newStats, numDocsOnAnalyze, replaceAll)))
+            .thenApply(ignored -> (long) newStats.size());
+    }
+
+    private CompletableFuture<Long> publish(PublishColumnStatsRequest request) {
+        FutureActionListener<Long, Long> listener = FutureActionListener.newInstance();
+        publishColumnStatsAction.broadcast(clusterService.state().nodes(), request, listener);
+        return listener;
+    }
+
+    private boolean tableExists(RelationName relationName) {
+        try {
+            return schemas.getTableInfo(relationName) instanceof DocTableInfo;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static void addIfAnalyzable(List<DocTableInfo> tables, TableInfo tableInfo) {
+        if (tableInfo instanceof DocTableInfo && !((DocTableInfo) tableInfo).isClosed()) {
+            tables.add((DocTableInfo) tableInfo);
+        }
+    }
+
+    private CompletableFuture<Map<ColumnIdent, ColumnStats>> analyzeTable(DocTableInfo table,
+                                                                         Map<RelationName, Long> numDocsOnAnalyze) {
+        List<Reference> columns = new ArrayList<>();
+        for (Reference reference : table.columns()) {
+            if (reference.column().isTopLevel() && DataTypes.isPrimitive(reference.valueType())) {
+                columns.add(reference);
+            }
+        }
+        RelationName relationName = table.ident();
+        long numDocs = tableStats.numDocs(relationName);
+        if (columns.isEmpty()) {
+            numDocsOnAnalyze.put(relationName, numDocs);
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+        String stmt = sampleStatement(relationName, columns, numDocs);
+        SampleResultReceiver sampleReceiver = new SampleResultReceiver(SAMPLE_SIZE, Randomness.get());
+        try {
+            session.quickExec(stmt, sampleReceiver, Row.EMPTY);
+        } catch (Throwable t) {
+            CompletableFuture<Map<ColumnIdent, ColumnStats>> failed = new CompletableFuture<>();
+            failed.completeExceptionally(t);
+            return failed;
+        }
+        return sampleReceiver.completionFuture().thenApply(ignored -> {
+            List<Object[]> rows = sampleReceiver.rows;
+            long totalRows = Math.max(numDocs, sampleReceiver.numRows);
+            Map<ColumnIdent, ColumnStats> stats = new HashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                List<Object> samples = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    samples.add(row[i]);
+                }
+                Reference column = columns.get(i);
+                stats.put(column.column(), ColumnStats.fromSample(samples, totalRows, column.valueType()));
+            }
+            numDocsOnAnalyze.put(relationName, numDocs);
+            return stats;
+        });
+    }
+
+    @VisibleForTesting
+    static String sampleStatement(RelationName relationName, List<Reference> columns, long numDocs) {
+        StringBuilder sb = new StringBuilder("select ");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(Identifiers.quote(columns.get(i).column().name()));
+        }
+        sb.append(" from ")
+            .append(Identifiers.quote(relationName.schema()))
+            .append('.')
+            .append(Identifiers.quote(relationName.name()));
+        if (numDocs > PRE_SAMPLE_FACTOR * SAMPLE_SIZE) {
+            // pre-select a random subset so that fewer rows have to be sent to the handler; the final sample is
+            // drawn from all selected rows by the SampleResultReceiver. There is no limit, as stopping the
+            // collection early would favour the rows which are collected first.
+            double fraction = PRE_SAMPLE_FACTOR * SAMPLE_SIZE / numDocs;
+            sb.append(" where random() < ").append(fraction);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Must only be called on the elected master node, so that the tables are analyzed only once in the cluster.
+     */
+    private void analyzeOutdatedTables() {
+        if (!analyzing.compareAndSet(false, true)) {
+            return;
+        }
+        List<DocTableInfo> outdated = new ArrayList<>();
+        for (SchemaInfo schemaInfo : schemas) {
+            if (schemaInfo instanceof DocSchemaInfo) {
+                for (TableInfo tableInfo : schemaInfo.getTables()) {
+                    if (isOutdated(tableInfo.ident())) {
+                        addIfAnalyzable(outdated, tableInfo);
+                    }
+                }
+            }
+        }
+        CompletableFuture<?> analyzed = publishToJoinedNodes();
+        for (DocTableInfo table : outdated) {
+            // a failure, e.g. because the table has been dropped meanwhile, must not prevent the other tables from being analyzed
+            analyzed = analyzed.thenCompose(ignored -> analyze(Collections.singletonList(table), false)
+                .exceptionally(t -> {
+                    logger.error("error analyzing table " + table.ident(), t);
+                    return 0L;
+                }));
+        }
+        analyzed.whenComplete((ignored, t) -> analyzing.set(false));
+    }
+
+    /**
+     * Nodes which joined the cluster after the last {@code ANALYZE} don't have any column statistics yet,
+     * so the current statistics are published again if the cluster contains nodes which didn't receive them.
+     */
+    private CompletableFuture<?> publishToJoinedNodes() {
+        DiscoveryNodes nodes = clusterService.state().nodes();
+        Set<String> nodeIds = new HashSet<>();
+        for (DiscoveryNode node : nodes) {
+            nodeIds.add(node.getId());
+        }
+        if (publishedToNodes.containsAll(nodeIds)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        PublishColumnStatsRequest request = new PublishColumnStatsRequest(
+            tableStats.columnStats(), tableStats.numDocsOnLastAnalyze(), true);
+        FutureActionListener<Long, Long> listener = FutureActionListener.newInstance();
+        publishColumnStatsAction.broadcast(nodes, request, listener);
+        return listener.handle((r, t) -> {
+            if (t == null) {
+                publishedToNodes = nodeIds;
+            } else {
+                logger.error("error publishing column statistics", t);
+            }
+            return null;
+        });
+    }
+
+    private boolean isOutdated(RelationName relationName) {
+        long lastNumDocs = tableStats.numDocsOnLastAnalyze(relationName);
+        if (lastNumDocs < 0) {
+            return true;
+        }
+        long numDocs = tableStats.numDocs(relationName);
+        return Math.abs(numDocs - lastNumDocs) > REANALYZE_THRESHOLD * Math.max(lastNumDocs, 1L);
+    }
+
+    /**
+     * Keeps a uniform random sample of all received rows using reservoir sampling (Algorithm R).
+     */
+    @VisibleForTesting
+    static class SampleResultReceiver extends BaseResultReceiver {
+
+        private final int sampleSize;
+        private final Random random;
+        final List<Object[]> rows = new ArrayList<>();
+        long numRows = 0;
+
+        SampleResultReceiver(int sampleSize, Random random) {
+            this.sampleSize = sampleSize;
+            this.random = random;
+        }
+
+        @Override
+        public void setNextRow(Row row) {
+            numRows++;
+            if (rows.size() < sampleSize) {
+                rows.add(row.materialize());
+            } else {
+                long pos = (long) (random.nextDouble() * numRows);
+                if (pos < sampleSize) {
+                    rows.set((int) pos, row.materialize());
+                }
+            }
+        }
+    }
+
     static class TableStatsResultReceiver extends BaseResultReceiver {
 
         private static final Logger LOGGER = LogManager.getLogger(TableStatsResultReceiver.class);
@@ -0,0 +1,86 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import io.crate.execution.support.MultiActionListener;
+import io.crate.execution.support.NodeAction;
+import io.crate.execution.support.NodeActionRequestHandler;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionListenerResponseHandler;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportResponse;
+import org.elasticsearch.transport.TransportResponseHandler;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes the column statistics created by {@code ANALYZE} on one node to the {@link TableStats} of all nodes,
+ * so that every node plans with the same statistics.
+ */
+@Singleton
+public class TransportPublishColumnStatsAction
+    implements NodeAction<PublishColumnStatsRequest, TransportResponse.Empty> {
+
+    private static final String TRANSPORT_ACTION = "internal:crate:sql/table/column_stats/publish";
+
+    private final TransportService transportService;
+    private final TableStats tableStats;
+
+    @Inject
+    public TransportPublishColumnStatsAction(TransportService transportService, TableStats tableStats) {
+        this.transportService = transportService;
+        this.tableStats = tableStats;
+        transportService.registerRequestHandler(
+            TRANSPORT_ACTION,
+            PublishColumnStatsRequest::new,
+            ThreadPool.Names.GENERIC,
+            new NodeActionRequestHandler<>(this));
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse.Empty> nodeOperation(PublishColumnStatsRequest request) {
+        tableStats.updateColumnStats(request.columnStats(), request.numDocsOnAnalyze(), request.replaceAll());
+        return CompletableFuture.completedFuture(TransportResponse.Empty.INSTANCE);
+    }
+
+    /**
+     * Sends the statistics to all nodes of the cluster, including the local node.
+     * The listener is completed with the number of nodes once all nodes applied them, or failed if any node
+     * failed to do so.
+     */
+    public void broadcast(DiscoveryNodes nodes, PublishColumnStatsRequest request, ActionListener<Long> listener) {
+        MultiActionListener<TransportResponse.Empty, ?, Long> multiListener =
+            new MultiActionListener<>(nodes.getSize(), Collectors.counting(), listener);
+        TransportResponseHandler<TransportResponse.Empty> responseHandler =
+            new ActionListenerResponseHandler<>(multiListener, () -> TransportResponse.Empty.INSTANCE);
+        for (DiscoveryNode node : nodes) {
+            transportService.sendRequest(node, TRANSPORT_ACTION, request, responseHandler);
+        }
+    }
+}
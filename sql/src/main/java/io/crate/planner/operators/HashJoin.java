@@ -62,6 +62,7 @@ class HashJoin extends TwoInputPlan {
 
     private final Symbol joinCondition;
     private final TableStats tableStats;
+    private final long numExpectedRows;
     @VisibleForTesting
     final AnalyzedRelation concreteRelation;
 
@@ -69,13 +70,15 @@ class HashJoin extends TwoInputPlan {
              LogicalPlan rhs,
              Symbol joinCondition,
              AnalyzedRelation concreteRelation,
-             TableStats tableStats) {
+             TableStats tableStats,
+             long numExpectedRows) {
         super(lhs, rhs, new ArrayList<>());
         this.concreteRelation = concreteRelation;
         this.joinCondition = joinCondition;
         this.outputs.addAll(lhs.outputs());
         this.outputs.addAll(rhs.outputs());
         this.tableStats = tableStats;
+        this.numExpectedRows = numExpectedRows;
     }
 
     JoinType joinType() {
@@ -154,18 +157,25 @@ class HashJoin extends TwoInputPlan {
             leftExecutionPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
             rightExecutionPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
         } else {
-            if (isDistributed) {
+            if (isDistributed && isBroadcastCheaper(leftLogicalPlan, rightLogicalPlan, joinExecutionNodes.size())) {
+                // Keep the bigger left side where it is and send the small right side to all of its nodes
+                leftExecutionPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
+                rightExecutionPlan.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
+                rightMerge = JoinOperations.buildMergePhaseForJoin(plannerContext, rightResultDesc, joinExecutionNodes);
+            } else if (isDistributed) {
                 // Run the join distributed by modulo distribution algorithm
                 leftOutputs = setModuloDistribution(hashSymbols.v1(), leftLogicalPlan.outputs(), leftExecutionPlan);
                 rightOutputs = setModuloDistribution(hashSymbols.v2(), rightLogicalPlan.outputs(), rightExecutionPlan);
+                leftMerge = JoinOperations.buildMergePhaseForJoin(plannerContext, leftResultDesc, joinExecutionNodes);
+                rightMerge = JoinOperations.buildMergePhaseForJoin(plannerContext, rightResultDesc, joinExecutionNodes);
             } else {
                 // Run the join non-distributed on the handler node
                 joinExecutionNodes = Collections.singletonList(plannerContext.handlerNode());
                 leftExecutionPlan.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
                 rightExecutionPlan.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
+                leftMerge = JoinOperations.buildMergePhaseForJoin(plannerContext, leftResultDesc, joinExecutionNodes);
+                rightMerge = JoinOperations.buildMergePhaseForJoin(plannerContext, rightResultDesc, joinExecutionNodes);
             }
-            leftMerge = JoinOperations.buildMergePhaseForJoin(plannerContext, leftResultDesc, joinExecutionNodes);
-            rightMerge = JoinOperations.buildMergePhaseForJoin(plannerContext, rightResultDesc, joinExecutionNodes);
         }
 
         List<Symbol> joinOutputs = Lists2.concat(leftOutputs, rightOutputs);
@@ -184,6 +194,7 @@ class HashJoin extends TwoInputPlan {
             InputColumns.create(hashSymbols.v1(), new InputColumns.SourceSymbols(leftOutputs)),
             InputColumns.create(hashSymbols.v2(), new InputColumns.SourceSymbols(rightOutputs)),
             Symbols.typeView(leftOutputs),
+            Symbols.typeView(rightOutputs),
             leftLogicalPlan.estimatedRowSize(),
             leftLogicalPlan.numExpectedRows());
         return new Join(
@@ -217,13 +228,12 @@ class HashJoin extends TwoInputPlan {
 
     @Override
     protected LogicalPlan updateSources(LogicalPlan newLeftSource, LogicalPlan newRightSource) {
-        return new HashJoin(newLeftSource, newRightSource, joinCondition, concreteRelation, tableStats);
+        return new HashJoin(newLeftSource, newRightSource, joinCondition, concreteRelation, tableStats, numExpectedRows);
     }
 
     @Override
     public long numExpectedRows() {
-        // We don't have any cardinality estimates, so just take the bigger table
-        return Math.max(lhs.numExpectedRows(), rhs.numExpectedRows());
+        return numExpectedRows;
     }
 
     @Override
@@ -236,6 +246,26 @@ class HashJoin extends TwoInputPlan {
         return visitor.visitHashJoin(this, context);
     }
 
+    /**
+     * Broadcasting the right side sends it to every node of the left side, while the modulo distribution
+     * re-distributes the rows of both sides once. Broadcasting is preferred if it is expected to transfer less data.
+     * Without estimates for both sides the modulo distribution is used.
+     */
+    @VisibleForTesting
+    static boolean isBroadcastCheaper(LogicalPlan left, LogicalPlan right, int numLeftNodes) {
+        long leftRows = left.numExpectedRows();
+        long rightRows = right.numExpectedRows();
+        long leftRowSize = left.estimatedRowSize();
+        long rightRowSize = right.estimatedRowSize();
+        if (leftRows < 0 || rightRows < 0 || leftRowSize < 0 || rightRowSize < 0) {
+            return false;
+        }
+        double rightBytes = (double) rightRows * rightRowSize;
+        double broadcastBytes = rightBytes * numLeftNodes;
+        double moduloBytes = (double) leftRows * leftRowSize + rightBytes;
+        return broadcastBytes < moduloBytes;
+    }
+
     private List<Symbol> setModuloDistribution(List<Symbol> joinSymbols,
                                                List<Symbol> planOutputs,
                                                ExecutionPlan executionPlan) {
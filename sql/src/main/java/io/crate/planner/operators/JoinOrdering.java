@@ -24,24 +24,217 @@ package io.crate.planner.operators;
 
 import com.carrotsearch.hppc.ObjectIntHashMap;
 import com.google.common.annotations.VisibleForTesting;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.JoinPair;
+import io.crate.expression.symbol.FieldsVisitor;
+import io.crate.planner.TableStats;
+import io.crate.planner.node.dql.join.JoinType;
 import io.crate.sql.tree.QualifiedName;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.IntPredicate;
 
 /**
  * Utility class which is used by the {@link JoinPlanBuilder} for the building of
  * the join tree, which helps to find the optimal ordering of the tables.
+ * <p>
+ * If the number of rows of all relations is known the order is chosen by cost, see
+ * {@link #getOrderedRelationNamesByCost(Map, Map, TableStats)}, otherwise the relations are ordered so that
+ * join conditions can be applied as early as possible.
+ * </p>
  */
 final class JoinOrdering {
 
+    /**
+     * Up to this number of relations all left-deep join trees are considered, above a greedy search is used.
+     */
+    @VisibleForTesting
+    static final int MAX_RELATIONS_FOR_EXHAUSTIVE_SEARCH = 10;
+
     private JoinOrdering() {
     }
 
+    /**
+     * Orders the relations so that the sum of the estimated number of rows of all intermediate join results is minimal.
+     * <p>
+     * Only inner and cross joins are re-ordered by cost.
+     * </p>
+     *
+     * @return the ordered relation names or null if the relations can't be ordered by cost, because the number of
+     *         rows of a relation is unknown or the join types don't allow it.
+     */
+    @Nullable
+    static List<QualifiedName> getOrderedRelationNamesByCost(Map<QualifiedName, AnalyzedRelation> sources,
+                                                             Map<Set<QualifiedName>, JoinPair> joinPairs,
+                                                             TableStats tableStats) {
+        List<QualifiedName> names = new ArrayList<>(sources.keySet());
+        int numRelations = names.size();
+        long[] rows = new long[numRelations];
+        for (int i = 0; i < numRelations; i++) {
+            rows[i] = RowCountEstimator.estimateRows(sources.get(names.get(i)), tableStats);
+            if (rows[i] < 0) {
+                return null;
+            }
+        }
+        double[][] selectivity = new double[numRelations][numRelations];
+        for (double[] row : selectivity) {
+            Arrays.fill(row, 1.0);
+        }
+        for (Map.Entry<Set<QualifiedName>, JoinPair> entry : joinPairs.entrySet()) {
+            JoinPair joinPair = entry.getValue();
+            if (joinPair.joinType() != JoinType.INNER && joinPair.joinType() != JoinType.CROSS) {
+                return null;
+            }
+            if (joinPair.condition() == null) {
+                continue;
+            }
+            // A condition may refer to relations other than the pair (e.g. `t1 JOIN t2 ON .. JOIN t3 ON t3.x = t1.x`),
+            // it can then only be applied in the original order.
+            Set<QualifiedName> referencedRelations = new HashSet<>();
+            FieldsVisitor.visitFields(joinPair.condition(), f -> referencedRelations.add(f.relation().getQualifiedName()));
+            if (!entry.getKey().containsAll(referencedRelations)) {
+                return null;
+            }
+            int left = names.indexOf(joinPair.left());
+            int right = names.indexOf(joinPair.right());
+            if (left < 0 || right < 0) {
+                return null;
+            }
+            double conditionSelectivity = RowCountEstimator.selectivity(joinPair.condition(), tableStats);
+            selectivity[left][right] = conditionSelectivity;
+            selectivity[right][left] = conditionSelectivity;
+        }
+        return orderByCost(names, rows, selectivity);
+    }
+
+    /**
+     * @param rows        the estimated number of rows of each relation
+     * @param selectivity the selectivity of the join condition between two relations; 1.0 if there is none
+     */
+    @VisibleForTesting
+    static List<QualifiedName> orderByCost(List<QualifiedName> names, long[] rows, double[][] selectivity) {
+        int[] order = names.size() <= MAX_RELATIONS_FOR_EXHAUSTIVE_SEARCH
+            ? cheapestLeftDeepOrder(rows, selectivity)
+            : greedyOrder(rows, selectivity);
+        List<QualifiedName> orderedNames = new ArrayList<>(order.length);
+        for (int relation : order) {
+            orderedNames.add(names.get(relation));
+        }
+        return orderedNames;
+    }
+
+    /**
+     * Dynamic programming over all subsets of relations. The cost of a join tree is the sum of the rows of all
+     * intermediate results; all trees joining the same subset of relations produce the same number of rows, so
+     * only the cheapest tree per subset has to be kept.
+     */
+    private static int[] cheapestLeftDeepOrder(long[] rows, double[][] selectivity) {
+        int numRelations = rows.length;
+        int numSubsets = 1 << numRelations;
+        double[] cost = new double[numSubsets];
+        double[] subsetRows = new double[numSubsets];
+        int[] lastRelation = new int[numSubsets];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < numRelations; i++) {
+            cost[1 << i] = 0.0;
+            subsetRows[1 << i] = rows[i];
+            lastRelation[1 << i] = i;
+        }
+        // supersets are always numerically bigger than their subsets
+        for (int subset = 1; subset < numSubsets; subset++) {
+            if (cost[subset] == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            for (int next = 0; next < numRelations; next++) {
+                if ((subset & (1 << next)) != 0) {
+                    continue;
+                }
+                int currentSubset = subset;
+                double joinedRows = joinedRows(
+                    r -> (currentSubset & (1 << r)) != 0, subsetRows[subset], next, rows, selectivity);
+                int joined = subset | (1 << next);
+                double joinedCost = cost[subset] + joinedRows;
+                if (joinedCost < cost[joined]) {
+                    cost[joined] = joinedCost;
+                    subsetRows[joined] = joinedRows;
+                    lastRelation[joined] = next;
+                }
+            }
+        }
+        int[] order = new int[numRelations];
+        int subset = numSubsets - 1;
+        for (int i = numRelations - 1; i >= 0; i--) {
+            order[i] = lastRelation[subset];
+            subset &= ~(1 << order[i]);
+        }
+        return order;
+    }
+
+    /**
+     * Starts with the pair of relations producing the fewest rows and then adds the relation that keeps the
+     * intermediate result the smallest.
+     */
+    private static int[] greedyOrder(long[] rows, double[][] selectivity) {
+        int numRelations = rows.length;
+        int[] order = new int[numRelations];
+        double bestRows = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < numRelations; i++) {
+            for (int j = i + 1; j < numRelations; j++) {
+                double pairRows = (double) rows[i] * rows[j] * selectivity[i][j];
+                if (pairRows < bestRows) {
+                    bestRows = pairRows;
+                    order[0] = i;
+                    order[1] = j;
+                }
+            }
+        }
+        boolean[] joined = new boolean[numRelations];
+        joined[order[0]] = true;
+        joined[order[1]] = true;
+        double currentRows = bestRows;
+        for (int pos = 2; pos < numRelations; pos++) {
+            double bestNextRows = Double.POSITIVE_INFINITY;
+            int bestNext = -1;
+            for (int next = 0; next < numRelations; next++) {
+                if (joined[next]) {
+                    continue;
+                }
+                double nextRows = joinedRows(r -> joined[r], currentRows, next, rows, selectivity);
+                if (nextRows < bestNextRows) {
+                    bestNextRows = nextRows;
+                    bestNext = next;
+                }
+            }
+            order[pos] = bestNext;
+            joined[bestNext] = true;
+            currentRows = bestNextRows;
+        }
+        return order;
+    }
+
+    private static double joinedRows(IntPredicate isJoined,
+                                     double joinedSoFar,
+                                     int next,
+                                     long[] rows,
+                                     double[][] selectivity) {
+        double joinedRows = joinedSoFar * rows[next];
+        for (int relation = 0; relation < rows.length; relation++) {
+            if (isJoined.test(relation)) {
+                joinedRows *= selectivity[relation][next];
+            }
+        }
+        return Math.max(1.0, joinedRows);
+    }
+
     static Collection<QualifiedName> getOrderedRelationNames(Collection<QualifiedName> sourceRelations,
                                                              Set<? extends Set<QualifiedName>> explicitJoinConditions,
                                                              Set<? extends Set<QualifiedName>> implicitJoinConditions) {
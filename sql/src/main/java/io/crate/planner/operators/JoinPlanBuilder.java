@@ -101,11 +101,14 @@ public class JoinPlanBuilder implements LogicalPlan.Builder {
 
         Collection<QualifiedName> orderedRelationNames;
         if (mss.sources().size() > 2) {
-            orderedRelationNames = JoinOrdering.getOrderedRelationNames(
-                mss.sources().keySet(),
-                joinPairs.keySet(),
-                queryParts.keySet()
-            );
+            orderedRelationNames = JoinOrdering.getOrderedRelationNamesByCost(mss.sources(), joinPairs, tableStats);
+            if (orderedRelationNames == null) {
+                orderedRelationNames = JoinOrdering.getOrderedRelationNames(
+                    mss.sources().keySet(),
+                    joinPairs.keySet(),
+                    queryParts.keySet()
+                );
+            }
         } else {
             orderedRelationNames = mss.sources().keySet();
         }
@@ -197,13 +200,16 @@ public class JoinPlanBuilder implements LogicalPlan.Builder {
                                               boolean orderByCanBePushedDown,
                                               SessionContext sessionContext,
                                               TableStats tableStats) {
+        long numExpectedRows = RowCountEstimator.estimateJoinRows(
+            lhsPlan.numExpectedRows(), rhsPlan.numExpectedRows(), joinType, joinCondition, tableStats);
         if (isHashJoinPossible(joinType, joinCondition, sessionContext)) {
             return new HashJoin(
                 lhsPlan,
                 rhsPlan,
                 joinCondition,
                 rhs,
-                tableStats);
+                tableStats,
+                numExpectedRows);
         } else {
             return new NestedLoopJoin(
                 lhsPlan,
@@ -212,7 +218,8 @@ public class JoinPlanBuilder implements LogicalPlan.Builder {
                 joinCondition,
                 !query.symbolType().isValueSymbol(),
                 orderByCanBePushedDown,
-                lhs);
+                lhs,
+                numExpectedRows);
         }
     }
 
@@ -71,6 +71,7 @@ class NestedLoopJoin extends TwoInputPlan {
     private final JoinType joinType;
     private final boolean noOuterJoin;
     private final boolean isFiltered;
+    private final long numExpectedRows;
     private boolean orderByWasPushedDown = false;
 
     NestedLoopJoin(LogicalPlan lhs,
@@ -79,8 +80,10 @@ class NestedLoopJoin extends TwoInputPlan {
                    @Nullable Symbol joinCondition,
                    boolean isFiltered,
                    boolean noOuterJoin,
-                   AnalyzedRelation topMostLeftRelation) {
+                   AnalyzedRelation topMostLeftRelation,
+                   long numExpectedRows) {
         super(lhs, rhs, new ArrayList<>());
+        this.numExpectedRows = numExpectedRows;
         this.joinType = joinType;
         this.isFiltered = isFiltered || joinCondition != null;
         if (joinType == JoinType.SEMI) {
@@ -101,8 +104,9 @@ class NestedLoopJoin extends TwoInputPlan {
                    boolean isFiltered,
                    boolean noOuterJoin,
                    AnalyzedRelation topMostLeftRelation,
+                   long numExpectedRows,
                    boolean orderByWasPushedDown) {
-        this(lhs, rhs, joinType, joinCondition, isFiltered, noOuterJoin, topMostLeftRelation);
+        this(lhs, rhs, joinType, joinCondition, isFiltered, noOuterJoin, topMostLeftRelation, numExpectedRows);
         this.orderByWasPushedDown = orderByWasPushedDown;
     }
 
@@ -261,17 +265,13 @@ class NestedLoopJoin extends TwoInputPlan {
             isFiltered,
             noOuterJoin,
             topMostLeftRelation,
+            numExpectedRows,
             orderByWasPushedDown);
     }
 
     @Override
     public long numExpectedRows() {
-        if (joinType == JoinType.CROSS) {
-            return lhs.numExpectedRows() * rhs.numExpectedRows();
-        } else {
-            // We don't have any cardinality estimates, so just take the bigger table
-            return Math.max(lhs.numExpectedRows(), rhs.numExpectedRows());
-        }
+        return numExpectedRows;
     }
 
     @Override
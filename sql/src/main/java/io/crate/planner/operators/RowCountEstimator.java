@@ -0,0 +1,213 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.operators;
+
+import io.crate.analyze.QueriedTable;
+import io.crate.analyze.relations.AbstractTableRelation;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.QueriedRelation;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.OrOperator;
+import io.crate.expression.predicate.NotPredicate;
+import io.crate.expression.symbol.Field;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.Reference;
+import io.crate.metadata.RelationName;
+import io.crate.planner.ColumnStats;
+import io.crate.planner.TableStats;
+import io.crate.planner.node.dql.join.JoinType;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Estimates the number of rows produced by relations and joins, based on the {@link TableStats} and, if the
+ * tables have been analyzed, on their {@link ColumnStats}.
+ * <p>
+ * Predicates for which no statistics are available are estimated using the same default selectivities
+ * PostgreSQL uses.
+ * </p>
+ */
+final class RowCountEstimator {
+
+    /**
+     * Selectivity of {@code column = value} if there are no statistics for the column
+     */
+    static final double DEFAULT_EQ_SELECTIVITY = 0.005;
+
+    /**
+     * Selectivity of any other predicate
+     */
+    static final double DEFAULT_SELECTIVITY = 1.0 / 3.0;
+
+    private RowCountEstimator() {
+    }
+
+    /**
+     * @return the estimated number of rows of the relation after its WHERE clause has been applied,
+     *         or -1 if the number of rows of the underlying table is unknown.
+     */
+    static long estimateRows(AnalyzedRelation relation, TableStats tableStats) {
+        if (!(relation instanceof QueriedTable)) {
+            return -1L;
+        }
+        QueriedTable<?> queriedTable = (QueriedTable<?>) relation;
+        if (queriedTable.limit() != null || !queriedTable.groupBy().isEmpty() || queriedTable.hasAggregates()) {
+            return -1L;
+        }
+        long numDocs = tableStats.numDocs(queriedTable.tableRelation().tableInfo().ident());
+        if (numDocs < 0) {
+            return -1L;
+        }
+        double selectivity = queriedTable.where().hasQuery()
+            ? selectivity(queriedTable.where().query(), tableStats)
+            : 1.0;
+        return Math.max(1L, Math.round(numDocs * selectivity));
+    }
+
+    /**
+     * Estimates the number of rows of {@code lhs JOIN rhs ON condition}
+     *
+     * @return the estimated number of rows or, if either side is unknown, the number of rows of the bigger side
+     *         (the product of both sides for cross joins).
+     */
+    static long estimateJoinRows(long lhsRows,
+                                 long rhsRows,
+                                 JoinType joinType,
+                                 @Nullable Symbol joinCondition,
+                                 TableStats tableStats) {
+        if (lhsRows < 0 || rhsRows < 0) {
+            return joinType == JoinType.CROSS ? lhsRows * rhsRows : Math.max(lhsRows, rhsRows);
+        }
+        double crossProduct = (double) lhsRows * rhsRows;
+        double selectivity = joinCondition == null ? 1.0 : selectivity(joinCondition, tableStats);
+        long innerRows = (long) Math.min(Long.MAX_VALUE, Math.max(1.0, crossProduct * selectivity));
+        switch (joinType) {
+            case CROSS:
+            case INNER:
+                return innerRows;
+            case LEFT:
+                return Math.max(innerRows, lhsRows);
+            case RIGHT:
+                return Math.max(innerRows, rhsRows);
+            case FULL:
+                return Math.max(innerRows, lhsRows + rhsRows);
+            default:
+                // SEMI, ANTI: at most all rows of the left side are emitted
+                return lhsRows;
+        }
+    }
+
+    /**
+     * @return the estimated fraction of rows matching the predicate, between 0.0 and 1.0
+     */
+    static double selectivity(Symbol predicate, TableStats tableStats) {
+        if (predicate instanceof Literal) {
+            Object value = ((Literal<?>) predicate).value();
+            return Boolean.TRUE.equals(value) ? 1.0 : 0.0;
+        }
+        if (!(predicate instanceof Function)) {
+            return DEFAULT_SELECTIVITY;
+        }
+        Function function = (Function) predicate;
+        List<Symbol> args = function.arguments();
+        switch (function.info().ident().name()) {
+            case AndOperator.NAME:
+                return selectivity(args.get(0), tableStats) * selectivity(args.get(1), tableStats);
+
+            case OrOperator.NAME:
+                double lhs = selectivity(args.get(0), tableStats);
+                double rhs = selectivity(args.get(1), tableStats);
+                return lhs + rhs - lhs * rhs;
+
+            case NotPredicate.NAME:
+                return 1.0 - selectivity(args.get(0), tableStats);
+
+            case EqOperator.NAME:
+                return eqSelectivity(args.get(0), args.get(1), tableStats);
+
+            default:
+                return DEFAULT_SELECTIVITY;
+        }
+    }
+
+    private static double eqSelectivity(Symbol lhs, Symbol rhs, TableStats tableStats) {
+        if (lhs instanceof Literal) {
+            Symbol tmp = lhs;
+            lhs = rhs;
+            rhs = tmp;
+        }
+        Reference lhsColumn = resolveColumn(lhs);
+        if (lhsColumn == null) {
+            return DEFAULT_EQ_SELECTIVITY;
+        }
+        if (rhs instanceof Literal) {
+            ColumnStats stats = tableStats.columnStats(lhsColumn.ident().tableIdent(), lhsColumn.column());
+            return stats == null ? DEFAULT_EQ_SELECTIVITY : stats.selectivityOfEq(((Literal<?>) rhs).value());
+        }
+        Reference rhsColumn = resolveColumn(rhs);
+        if (rhsColumn == null) {
+            return DEFAULT_EQ_SELECTIVITY;
+        }
+        // equi-join: |R ⋈ S| = |R| * |S| / max(ndv(R.a), ndv(S.b))
+        double maxDistinct = Math.max(approxDistinct(lhsColumn, tableStats), approxDistinct(rhsColumn, tableStats));
+        return maxDistinct < 1.0 ? DEFAULT_EQ_SELECTIVITY : 1.0 / maxDistinct;
+    }
+
+    /**
+     * Returns the number of distinct values of a column. If the table hasn't been analyzed the column is assumed
+     * to be unique, which is the case for the primary key side of a foreign key join.
+     */
+    private static double approxDistinct(Reference column, TableStats tableStats) {
+        RelationName relationName = column.ident().tableIdent();
+        ColumnStats stats = tableStats.columnStats(relationName, column.column());
+        if (stats == null) {
+            return Math.max(0L, tableStats.numDocs(relationName));
+        }
+        return stats.approxDistinct();
+    }
+
+    /**
+     * Resolves the column behind a symbol. Within a join the conditions refer to the outputs of the joined relations
+     * using {@link Field}s.
+     */
+    @Nullable
+    private static Reference resolveColumn(Symbol symbol) {
+        while (symbol instanceof Field) {
+            Field field = (Field) symbol;
+            AnalyzedRelation relation = field.relation();
+            if (!(relation instanceof QueriedRelation)) {
+                if (relation instanceof AbstractTableRelation) {
+                    // fields of a table relation map directly to its columns
+                    return ((AbstractTableRelation<?>) relation).resolveField(field);
+                }
+                return null;
+            }
+            symbol = ((QueriedRelation) relation).outputs().get(field.index());
+        }
+        return symbol instanceof Reference ? (Reference) symbol : null;
+    }
+}
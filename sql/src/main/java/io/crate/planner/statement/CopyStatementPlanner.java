@@ -379,7 +379,9 @@ public final class CopyStatementPlanner {
             statement.compressionType(),
             statement.overwrites(),
             statement.outputNames(),
-            outputFormat);
+            outputFormat,
+            statement.maxRowsPerFile(),
+            statement.maxBytesPerFile());
 
         LogicalPlan logicalPlan = logicalPlanner.normalizeAndPlan(
             statement.subQueryRelation(), context, subqueryPlanner, FetchMode.NEVER_CLEAR);
@@ -36,6 +36,9 @@ import io.crate.data.RowN;
 import io.crate.exceptions.ReadOnlyException;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.jobs.workload.Admission;
+import io.crate.execution.jobs.workload.WorkloadClass;
+import io.crate.execution.jobs.workload.WorkloadService;
 import io.crate.expression.symbol.Field;
 import io.crate.expression.symbol.Symbols;
 import io.crate.metadata.RoutingProvider;
@@ -55,6 +58,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 class BatchPortal extends AbstractPortal {
 
@@ -65,8 +69,6 @@ class BatchPortal extends AbstractPortal {
     private final List<List<? extends DataType>> outputTypes = new ArrayList<>();
     private final List<ResultReceiver> resultReceivers = new ArrayList<>();
 
-    private CoordinatorTxnCtx coordinatorTxnCtx;
-
     BatchPortal(String name,
                 String query,
                 AnalyzedStatement analyzedStatement,
@@ -115,14 +117,13 @@ class BatchPortal extends AbstractPortal {
                        @Nullable AnalyzedStatement analyzedStatement,
                        List<Object> params,
                        @Nullable FormatCodes.FormatCode[] resultFormatCodes) {
-        coordinatorTxnCtx = new CoordinatorTxnCtx(sessionContext);
         queries.add(query);
         batchParams.add(params);
         this.resultFormatCodes.add(resultFormatCodes);
 
         if (analyzedStatement == null) {
             Analysis analysis = portalContext.getAnalyzer().boundAnalyze(
-                statement, coordinatorTxnCtx, new ParameterContext(getArgs(), Collections.emptyList()));
+                statement, new CoordinatorTxnCtx(sessionContext), new ParameterContext(getArgs(), Collections.emptyList()));
             analyzedStatement = analysis.analyzedStatement();
         }
 
@@ -147,11 +148,21 @@ class BatchPortal extends AbstractPortal {
         resultReceivers.add(resultReceiver);
     }
 
+    /**
+     * Plans and dispatches all statements of the batch without waiting for the previous statement to complete.
+     * Each statement is admitted with its own workload class.
+     * The results are buffered and forwarded to the ResultReceivers in the order of the statements,
+     * so that the responses are sent in the same order as the Execute messages were received.
+     */
     @Override
     public CompletableFuture<Void> sync(Planner planner, JobsLogs jobsLogs) {
         CountdownFutureCallback completionCallback = new CountdownFutureCallback(analyzedStatements.size());
+        CompletableFuture<?> previousForwarded = CompletableFuture.completedFuture(null);
         for (int i = 0; i < analyzedStatements.size(); i++) {
             UUID jobId = UUID.randomUUID();
+            // each statement needs its own context: the workload class is set on it and read once the
+            // statement is executed, which may happen after the following statements have been classified
+            CoordinatorTxnCtx coordinatorTxnCtx = new CoordinatorTxnCtx(sessionContext);
             RoutingProvider routingProvider = new RoutingProvider(Randomness.get().nextInt(), planner.getAwarenessAttributes());
             PlannerContext plannerContext = new PlannerContext(
                 planner.currentClusterState(),
@@ -172,24 +183,48 @@ class BatchPortal extends AbstractPortal {
             }
             ResultReceiver<?> resultReceiver = resultReceivers.get(i);
             StatementClassifier.Classification classification = StatementClassifier.classify(plan);
-            jobsLogs.logExecutionStart(jobId, stmt, sessionContext.user(), classification);
-            JobsLogsUpdateListener jobsLogsUpdateListener = new JobsLogsUpdateListener(jobId, jobsLogs);
+            WorkloadService workloadService = portalContext.getExecutor().workloadService();
+            WorkloadClass workloadClass = workloadService.classify(sessionContext.user(), classification);
+            coordinatorTxnCtx.workloadClass(workloadClass);
+            jobsLogs.logExecutionStart(jobId, stmt, sessionContext.user(), classification, workloadClass);
+            Admission admission = workloadService.newAdmission(jobId, workloadClass);
+            Consumer<Throwable> onCompletion = new JobsLogsUpdateListener(jobId, jobsLogs)
+                .andThen(t -> admission.release());
 
             resultReceiver.completionFuture().whenComplete(completionCallback);
 
-            RowConsumer consumer = new RowConsumerToResultReceiver(resultReceiver, 0, jobsLogsUpdateListener);
-            plan.execute(
-                portalContext.getExecutor(),
-                plannerContext,
-                consumer,
-                new RowN(batchParams.get(i).toArray()),
-                SubQueryResults.EMPTY
+            DeferredResultReceiver deferredResultReceiver = new DeferredResultReceiver();
+            previousForwarded = forwardInOrder(previousForwarded, deferredResultReceiver, resultReceiver);
+
+            RowConsumer consumer = new RowConsumerToResultReceiver(deferredResultReceiver, 0, onCompletion);
+            Row params = new RowN(batchParams.get(i).toArray());
+            admission.execute(
+                () -> plan.execute(
+                    portalContext.getExecutor(),
+                    plannerContext,
+                    consumer,
+                    params,
+                    SubQueryResults.EMPTY
+                ),
+                t -> consumer.accept(null, t)
             );
         }
         synced = true;
         return completionCallback;
     }
 
+    private static CompletableFuture<?> forwardInOrder(CompletableFuture<?> previousForwarded,
+                                                       DeferredResultReceiver deferredResultReceiver,
+                                                       ResultReceiver<?> resultReceiver) {
+        return previousForwarded
+            .handle((r, t) -> null)
+            .thenCompose(ignored -> deferredResultReceiver.completionFuture().handle((r, t) -> null))
+            .thenCompose(ignored -> {
+                deferredResultReceiver.forwardTo(resultReceiver);
+                return resultReceiver.completionFuture();
+            });
+    }
+
     private Row getArgs() {
         return new RowN(batchParams.get(batchParams.size() - 1).toArray());
     }
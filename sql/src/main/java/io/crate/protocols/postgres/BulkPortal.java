@@ -33,6 +33,9 @@ import io.crate.data.RowN;
 import io.crate.data.Rows;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.jobs.workload.Admission;
+import io.crate.execution.jobs.workload.WorkloadClass;
+import io.crate.execution.jobs.workload.WorkloadService;
 import io.crate.expression.symbol.Field;
 import io.crate.metadata.RoutingProvider;
 import io.crate.metadata.CoordinatorTxnCtx;
@@ -168,9 +171,34 @@ class BulkPortal extends AbstractPortal {
             throw t;
         }
         StatementClassifier.Classification classification = StatementClassifier.classify(plan);
-        jobsLogs.logExecutionStart(jobId, query, sessionContext.user(), classification);
+        DependencyCarrier executor = portalContext.getExecutor();
+        WorkloadService workloadService = executor.workloadService();
+        WorkloadClass workloadClass = workloadService.classify(sessionContext.user(), classification);
+        coordinatorTxnCtx.workloadClass(workloadClass);
+        jobsLogs.logExecutionStart(jobId, query, sessionContext.user(), classification, workloadClass);
         synced = true;
-        return executeBulk(portalContext.getExecutor(), plan, plannerContext, jobId, jobsLogs, bulkParams);
+
+        Admission admission = workloadService.newAdmission(jobId, workloadClass);
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        admission.execute(
+            () -> executeBulk(executor, plan, plannerContext, jobId, jobsLogs, bulkParams).whenComplete((r, t) -> {
+                admission.release();
+                if (t == null) {
+                    result.complete(null);
+                } else {
+                    result.completeExceptionally(t);
+                }
+            }),
+            t -> {
+                admission.release();
+                jobsLogs.logExecutionEnd(jobId, SQLExceptions.messageOf(t));
+                for (ResultReceiver resultReceiver : resultReceivers) {
+                    resultReceiver.fail(t);
+                }
+                result.completeExceptionally(t);
+            }
+        );
+        return result;
     }
 
     private CompletableFuture<Void> executeBulk(DependencyCarrier executor,
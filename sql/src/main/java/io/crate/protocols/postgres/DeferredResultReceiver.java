@@ -0,0 +1,80 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.action.sql.ResultReceiver;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ResultReceiver which buffers the rows and the outcome of a statement, so that they can be forwarded to the
+ * actual receiver at a later point.
+ * <p>
+ * This is used to execute statements of a batch concurrently while still sending the responses in the
+ * order of the statements.
+ */
+class DeferredResultReceiver extends BaseResultReceiver {
+
+    private final List<Object[]> rows = new ArrayList<>();
+    private boolean interrupted = false;
+    private Throwable failure = null;
+
+    @Override
+    public void setNextRow(Row row) {
+        rows.add(row.materialize());
+    }
+
+    @Override
+    public void allFinished(boolean interrupted) {
+        this.interrupted = interrupted;
+        super.allFinished(interrupted);
+    }
+
+    @Override
+    public void fail(@Nonnull Throwable t) {
+        this.failure = t;
+        super.fail(t);
+    }
+
+    /**
+     * Forward the buffered rows and the outcome to {@code receiver}.
+     * Must only be called once {@link #completionFuture()} is done.
+     */
+    void forwardTo(ResultReceiver receiver) {
+        assert completionFuture().isDone() : "Results can only be forwarded once the statement completed";
+        if (failure != null) {
+            receiver.fail(failure);
+            return;
+        }
+        for (Object[] cells : rows) {
+            receiver.setNextRow(new RowN(cells));
+        }
+        rows.clear();
+        receiver.allFinished(interrupted);
+    }
+}
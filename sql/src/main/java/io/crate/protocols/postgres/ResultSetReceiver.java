@@ -27,14 +27,25 @@ import io.crate.auth.user.ExceptionAuthorizedValidator;
 import io.crate.data.Row;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.types.DataType;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.List;
 
+/**
+ * Sends the rows as DataRow messages.
+ * <p>
+ * The messages are collected in one buffer, which is written to the channel once it exceeds
+ * {@link #MAX_BUFFERED_BYTES} or every {@link #FLUSH_EVERY_N_ROWS} rows, instead of writing a buffer per row.
+ */
 class ResultSetReceiver extends BaseResultReceiver {
 
+    private static final int FLUSH_EVERY_N_ROWS = 1000;
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_BUFFERED_BYTES = 64 * 1024;
+
     private final String query;
     private final Channel channel;
     private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
@@ -45,6 +56,9 @@ class ResultSetReceiver extends BaseResultReceiver {
 
     private long rowCount = 0;
 
+    @Nullable
+    private ByteBuf buffer;
+
     ResultSetReceiver(String query,
                       Channel channel,
                       ExceptionAuthorizedValidator exceptionAuthorizedValidator,
@@ -59,15 +73,33 @@ class ResultSetReceiver extends BaseResultReceiver {
 
     @Override
     public void setNextRow(Row row) {
+        if (buffer == null) {
+            buffer = channel.alloc().ioBuffer(INITIAL_BUFFER_SIZE);
+        }
+        Messages.writeDataRow(buffer, row, columnTypes, formatCodes);
         rowCount++;
-        Messages.sendDataRow(channel, row, columnTypes, formatCodes);
-        if (rowCount % 1000 == 0) {
+        if (rowCount % FLUSH_EVERY_N_ROWS == 0 || buffer.readableBytes() >= MAX_BUFFERED_BYTES) {
+            writeBufferedRows();
             channel.flush();
         }
     }
 
+    private void writeBufferedRows() {
+        ByteBuf rows = buffer;
+        if (rows == null) {
+            return;
+        }
+        buffer = null;
+        if (rows.isReadable()) {
+            channel.write(rows);
+        } else {
+            rows.release();
+        }
+    }
+
     @Override
     public void batchFinished() {
+        writeBufferedRows();
         Messages.sendPortalSuspended(channel);
         Messages.sendReadyForQuery(channel);
     }
@@ -75,14 +107,20 @@ class ResultSetReceiver extends BaseResultReceiver {
     @Override
     public void allFinished(boolean interrupted) {
         if (interrupted) {
+            if (buffer != null) {
+                buffer.release();
+                buffer = null;
+            }
             super.allFinished(true);
         } else {
+            writeBufferedRows();
             Messages.sendCommandComplete(channel, query, rowCount).addListener(f -> super.allFinished(false));
         }
     }
 
     @Override
     public void fail(@Nonnull Throwable throwable) {
+        writeBufferedRows();
         final Throwable t = SQLExceptions.createSQLActionException(throwable, exceptionAuthorizedValidator);
         Messages.sendErrorResponse(channel, t).addListener(f -> super.fail(t));
     }
@@ -36,6 +36,9 @@ import io.crate.data.RowN;
 import io.crate.exceptions.ReadOnlyException;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.jobs.workload.Admission;
+import io.crate.execution.jobs.workload.WorkloadClass;
+import io.crate.execution.jobs.workload.WorkloadService;
 import io.crate.expression.symbol.Field;
 import io.crate.metadata.RoutingProvider;
 import io.crate.metadata.CoordinatorTxnCtx;
@@ -220,18 +223,29 @@ public class SimplePortal extends AbstractPortal {
             );
         }
 
-        jobsLogs.logExecutionStart(jobId, query, sessionContext.user(), StatementClassifier.classify(plan));
-        consumer = new RowConsumerToResultReceiver(
+        StatementClassifier.Classification classification = StatementClassifier.classify(plan);
+        WorkloadService workloadService = dependencyCarrier.workloadService();
+        WorkloadClass workloadClass = workloadService.classify(sessionContext.user(), classification);
+        coordinatorTxnCtx.workloadClass(workloadClass);
+        jobsLogs.logExecutionStart(jobId, query, sessionContext.user(), classification, workloadClass);
+        Admission admission = workloadService.newAdmission(jobId, workloadClass);
+        // The admission is released once the consumer completes. If the consumer is suspended because maxRows
+        // is reached, the job keeps its slot until the client fetched all rows or the portal is closed.
+        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(
             resultReceiver,
             maxRows,
-            new JobsLogsUpdateListener(jobId, jobsLogs)
+            new JobsLogsUpdateListener(jobId, jobsLogs).andThen(t -> admission.release())
         );
-        plan.execute(
-            dependencyCarrier,
-            plannerContext,
-            consumer,
-            rowParams,
-            SubQueryResults.EMPTY
+        this.consumer = consumer;
+        admission.execute(
+            () -> plan.execute(
+                dependencyCarrier,
+                plannerContext,
+                consumer,
+                rowParams,
+                SubQueryResults.EMPTY
+            ),
+            t -> consumer.accept(null, t)
         );
         synced = true;
         return resultReceiver.completionFuture();
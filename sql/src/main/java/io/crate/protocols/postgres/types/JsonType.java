@@ -23,6 +23,7 @@
 package io.crate.protocols.postgres.types;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.xcontent.DeprecationHandler;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
@@ -38,6 +39,9 @@ class JsonType extends PGType {
 
     public static final PGType INSTANCE = new JsonType();
     static final int OID = 114;
+    static final int JSONB_OID = 3802;
+
+    private static final byte JSONB_VERSION = 1;
 
     private static final int TYPE_LEN = -1;
     private static final int TYPE_MOD = -1;
@@ -52,28 +56,34 @@ class JsonType extends PGType {
     }
 
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Object value) {
+        return writeAsBinary(buffer, value);
+    }
+
+    /**
+     * The binary format of json is the same as the text format.
+     * The value is serialized straight into the buffer.
+     */
     @Override
     public int writeAsBinary(ByteBuf buffer, @Nonnull Object value) {
-        byte[] bytes = encodeAsUTF8Text(value);
-        buffer.writeInt(bytes.length);
-        buffer.writeBytes(bytes);
-        return INT32_BYTE_SIZE + bytes.length;
+        final int lenIndex = buffer.writerIndex();
+        buffer.writeInt(0);
+        try (XContentBuilder builder = new XContentBuilder(JsonXContent.jsonXContent, new ByteBufOutputStream(buffer))) {
+            writeValue(builder, value);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        int len = buffer.writerIndex() - lenIndex - INT32_BYTE_SIZE;
+        buffer.setInt(lenIndex, len);
+        return INT32_BYTE_SIZE + len;
     }
 
     @Override
     protected byte[] encodeAsUTF8Text(@Nonnull Object value) {
         try {
             XContentBuilder builder = JsonXContent.contentBuilder();
-            if (value.getClass().isArray()) {
-                Object[] values = ((Object[]) value);
-                builder.startArray();
-                for (Object o : values) {
-                    builder.value(o);
-                }
-                builder.endArray();
-            } else {
-                builder.map((Map) value);
-            }
+            writeValue(builder, value);
             builder.close();
             return BytesReference.toBytes(BytesReference.bytes(builder));
         } catch (IOException e) {
@@ -81,8 +91,28 @@ class JsonType extends PGType {
         }
     }
 
+    private static void writeValue(XContentBuilder builder, Object value) throws IOException {
+        if (value.getClass().isArray()) {
+            Object[] values = ((Object[]) value);
+            builder.startArray();
+            for (Object o : values) {
+                builder.value(o);
+            }
+            builder.endArray();
+        } else {
+            builder.map((Map) value);
+        }
+    }
+
+    /**
+     * Reads json, or jsonb which is json text prefixed with a version byte.
+     */
     @Override
     public Object readBinaryValue(ByteBuf buffer, int valueLength) {
+        if (valueLength > 0 && buffer.getByte(buffer.readerIndex()) == JSONB_VERSION) {
+            buffer.skipBytes(1);
+            valueLength--;
+        }
         byte[] bytes = new byte[valueLength];
         buffer.readBytes(bytes);
         return decodeUTF8Text(bytes);
@@ -22,8 +22,9 @@
 
 package io.crate.protocols.postgres.types;
 
-import com.google.common.primitives.Bytes;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
@@ -126,55 +127,68 @@ class PGArray extends PGType {
         return array;
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Object value) {
+        final int lenIndex = buffer.writerIndex();
+        buffer.writeInt(0);
+        int len = writeArrayAsText(buffer, (Object[]) value, JsonType.OID == innerType.oid());
+        buffer.setInt(lenIndex, len);
+        return INT32_BYTE_SIZE + len;
+    }
+
     @Override
     byte[] encodeAsUTF8Text(@Nonnull Object array) {
-        boolean isJson = JsonType.OID == innerType.oid();
-        Object[] values = (Object[]) array;
-        List<Byte> encodedValues = new ArrayList<>();
-        encodedValues.add((byte) '{');
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            writeArrayAsText(buffer, (Object[]) array, JsonType.OID == innerType.oid());
+            return ByteBufUtil.getBytes(buffer);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Writes the text representation of the array into the buffer.
+     *
+     * @return the number of bytes written
+     */
+    private int writeArrayAsText(ByteBuf buffer, Object[] values, boolean isJson) {
+        final int startIndex = buffer.writerIndex();
+        buffer.writeByte('{');
         for (int i = 0; i < values.length; i++) {
             Object o = values[i];
             if (o instanceof Object[]) { // Nested Array -> recursive call
-                byte[] bytes = encodeAsUTF8Text(o);
-                for (byte b : bytes) {
-                    encodedValues.add(b);
-                }
+                writeArrayAsText(buffer, (Object[]) o, isJson);
                 if (i == 0) {
-                    encodedValues.add((byte) ',');
+                    buffer.writeByte(',');
                 }
             } else {
                 if (i > 0) {
-                    encodedValues.add((byte) ',');
+                    buffer.writeByte(',');
                 }
-                byte[] bytes;
                 if (o == null) {
-                    bytes = NULL_BYTES;
-                    for (byte aByte : bytes) {
-                        encodedValues.add(aByte);
-                    }
+                    buffer.writeBytes(NULL_BYTES);
                 } else {
-                    bytes = innerType.encodeAsUTF8Text(o);
+                    byte[] bytes = innerType.encodeAsUTF8Text(o);
 
-                    encodedValues.add((byte) '"');
+                    buffer.writeByte('"');
                     if (isJson) {
                         for (byte aByte : bytes) {
                             // Escape double quotes with backslash for json
                             if ((char) aByte == '"') {
-                                encodedValues.add((byte) '\\');
+                                buffer.writeByte('\\');
                             }
-                            encodedValues.add(aByte);
+                            buffer.writeByte(aByte);
                         }
                     } else {
-                        for (byte aByte : bytes) {
-                            encodedValues.add(aByte);
-                        }
+                        buffer.writeBytes(bytes);
                     }
-                    encodedValues.add((byte) '"');
+                    buffer.writeByte('"');
                 }
             }
         }
-        encodedValues.add((byte) '}');
-        return Bytes.toArray(encodedValues);
+        buffer.writeByte('}');
+        return buffer.writerIndex() - startIndex;
     }
 
     @Override
@@ -23,6 +23,7 @@
 package io.crate.protocols.postgres.types;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
@@ -89,6 +90,19 @@ public abstract class PGType {
         return INT32_BYTE_SIZE + bytes.length;
     }
 
+    /**
+     * Write a text representation which only consists of ASCII characters, like a formatted number,
+     * without creating an intermediate byte array.
+     *
+     * @return the number of bytes written. (4 (int32)  + N)
+     */
+    static int writeAsciiText(ByteBuf buffer, CharSequence text) {
+        int length = text.length();
+        buffer.writeInt(length);
+        ByteBufUtil.writeAscii(buffer, text);
+        return INT32_BYTE_SIZE + length;
+    }
+
     public Object readTextValue(ByteBuf buffer, int valueLength) {
         byte[] bytes = new byte[valueLength];
         buffer.readBytes(bytes);
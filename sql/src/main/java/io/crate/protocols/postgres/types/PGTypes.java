@@ -96,6 +96,8 @@ public class PGTypes {
         PG_TYPES_TO_CRATE_TYPE.put(0, DataTypes.UNDEFINED);
         PG_TYPES_TO_CRATE_TYPE.put(TEXT_OID, DataTypes.STRING);
         PG_TYPES_TO_CRATE_TYPE.put(TEXT_ARRAY_OID, new ArrayType(DataTypes.STRING));
+        // jsonb parameters are read as json, see JsonType#readBinaryValue
+        PG_TYPES_TO_CRATE_TYPE.put(JsonType.JSONB_OID, ObjectType.untyped());
         TYPES = new HashSet<>(CRATE_TO_PG_TYPES.values()); // some pgTypes are used multiple times, de-dup them
     }
 
@@ -122,13 +122,24 @@ class TimestampType extends PGType {
         return toCrateTimestamp(microSecondsSince2K);
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Object value) {
+        StringBuilder sb = new StringBuilder(32);
+        formatterFor((long) value).printTo(sb, (long) value);
+        return writeAsciiText(buffer, sb);
+    }
+
     @Override
     byte[] encodeAsUTF8Text(@Nonnull Object value) {
         long msecs = (long) value;
+        return formatterFor(msecs).print(msecs).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static DateTimeFormatter formatterFor(long msecs) {
         if (msecs >= FIRST_MSEC_AFTER_CHRIST) {
-            return ISO_FORMATTER.print(msecs).getBytes(StandardCharsets.UTF_8);
+            return ISO_FORMATTER;
         } else {
-            return ISO_FORMATTER_WITH_ERA.print(msecs).getBytes(StandardCharsets.UTF_8);
+            return ISO_FORMATTER_WITH_ERA;
         }
     }
 
@@ -23,6 +23,7 @@
 package io.crate.protocols.postgres.types;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 
 import javax.annotation.Nonnull;
 import java.nio.charset.StandardCharsets;
@@ -47,10 +48,12 @@ class VarCharType extends PGType {
     @Override
     public int writeAsBinary(ByteBuf buffer, @Nonnull Object value) {
         assert value instanceof String : "value must be a string, got: " + value;
-        byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
-        buffer.writeInt(bytes.length);
-        buffer.writeBytes(bytes);
-        return INT32_BYTE_SIZE + bytes.length;
+        // encode directly into the buffer instead of creating an intermediate byte array
+        int lengthIdx = buffer.writerIndex();
+        buffer.writeInt(0);
+        int bytesWritten = ByteBufUtil.writeUtf8(buffer, (String) value);
+        buffer.setInt(lengthIdx, bytesWritten);
+        return INT32_BYTE_SIZE + bytesWritten;
     }
 
     @Override
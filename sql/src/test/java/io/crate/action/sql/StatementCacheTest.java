@@ -0,0 +1,74 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import io.crate.sql.parser.ParsingException;
+import io.crate.sql.tree.Statement;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class StatementCacheTest extends CrateUnitTest {
+
+    @Test
+    public void testSameQueryReturnsCachedStatement() {
+        StatementCache cache = new StatementCache(10);
+        Statement first = cache.parse("select * from t where x = ?");
+        Statement second = cache.parse("select * from t where x = ?");
+        assertThat(second, sameInstance(first));
+        assertThat(cache.size(), is(1L));
+    }
+
+    @Test
+    public void testParseErrorsAreNotCached() {
+        StatementCache cache = new StatementCache(10);
+        try {
+            cache.parse("select * fro t");
+            fail("parsing an invalid statement must fail");
+        } catch (ParsingException ignored) {
+        }
+        assertThat(cache.size(), is(0L));
+    }
+
+    @Test
+    public void testLongQueriesBypassCache() {
+        StatementCache cache = new StatementCache(10);
+        StringBuilder sb = new StringBuilder("select 1");
+        while (sb.length() <= StatementCache.MAX_CACHEABLE_QUERY_LENGTH) {
+            sb.append(" + 1");
+        }
+        String query = sb.toString();
+        assertThat(cache.parse(query), not(sameInstance(cache.parse(query))));
+        assertThat(cache.size(), is(0L));
+    }
+
+    @Test
+    public void testCacheDisabledWithSizeZero() {
+        StatementCache cache = new StatementCache(0);
+        assertThat(cache.parse("select 1"), not(sameInstance(cache.parse("select 1"))));
+        assertThat(cache.size(), is(0L));
+    }
+}
@@ -274,6 +274,35 @@ public class CopyAnalyzerTest extends CrateDummyClusterServiceUnitTest {
         e.analyze("copy users to directory '/blah' with (format='json_array')");
     }
 
+    @Test
+    public void testCopyToFileWithFileLimits() throws Exception {
+        CopyToAnalyzedStatement analysis = e.analyze(
+            "copy users to directory '/blah' with (max_rows_per_file = 1000, max_file_size = '10mb')");
+        assertThat(analysis.maxRowsPerFile(), is(1000L));
+        assertThat(analysis.maxBytesPerFile(), is(10L * 1024 * 1024));
+    }
+
+    @Test
+    public void testCopyToFileWithoutFileLimits() throws Exception {
+        CopyToAnalyzedStatement analysis = e.analyze("copy users to directory '/blah'");
+        assertThat(analysis.maxRowsPerFile(), is(0L));
+        assertThat(analysis.maxBytesPerFile(), is(0L));
+    }
+
+    @Test
+    public void testCopyToFileWithColumnarFormatRequiresColumns() throws Exception {
+        expectedException.expect(UnsupportedFeatureException.class);
+        expectedException.expectMessage("Output format not supported without specifying columns.");
+        e.analyze("copy users to directory '/blah' with (format='columnar')");
+    }
+
+    @Test
+    public void testCopyToFileWithColumnarFormat() throws Exception {
+        CopyToAnalyzedStatement analysis = e.analyze("copy users (id, name) to directory '/blah' with (format='columnar')");
+        assertThat(analysis.outputFormat(), is(WriterProjection.OutputFormat.COLUMNAR));
+        assertThat(analysis.outputNames(), contains("id", "name"));
+    }
+
     @Test
     public void testCopyFromWithReferenceAssignedToProperty() throws Exception {
         expectedException.expect(IllegalArgumentException.class);
@@ -41,6 +41,7 @@ import java.util.Set;
 
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -110,8 +111,8 @@ public class CrateCircuitBreakerServiceTest extends CrateUnitTest {
             .build();
         clusterSettings.applySettings(newSettings);
 
-        // expecting 4 times because registerBreaker() is also called from constructor of CrateCircuitBreakerService 3 times
-        verify(esBreakerService, times(4)).registerBreaker(Matchers.any());
+        // expecting 4 times because registerBreaker() is also called from constructor of CrateCircuitBreakerService 4 times
+        verify(esBreakerService, times(5)).registerBreaker(Matchers.any());
 
         breaker = breakerService.getBreaker(CrateCircuitBreakerService.QUERY);
         assertThat(breaker.getLimit(), is(104_857_600L));
@@ -120,7 +121,7 @@ public class CrateCircuitBreakerServiceTest extends CrateUnitTest {
         // updating with same settings should not register a new breaker
         clusterSettings.applySettings(newSettings);
 
-        verify(esBreakerService, times(4)).registerBreaker(Matchers.any());
+        verify(esBreakerService, times(5)).registerBreaker(Matchers.any());
     }
 
     @Test
@@ -144,9 +145,9 @@ public class CrateCircuitBreakerServiceTest extends CrateUnitTest {
             .build();
         clusterSettings.applySettings(newSettings);
 
-        // expecting 5 times because registerBreaker() is also called from constructor of CrateCircuitBreakerService 3 times
+        // expecting 5 times because registerBreaker() is also called from constructor of CrateCircuitBreakerService 4 times
         // and twice from the new settings
-        verify(esBreakerService, times(5)).registerBreaker(Matchers.any());
+        verify(esBreakerService, times(6)).registerBreaker(Matchers.any());
 
         breaker = breakerService.getBreaker(CrateCircuitBreakerService.JOBS_LOG);
         assertThat(breaker.getLimit(), is(104_857_600L));
@@ -156,7 +157,27 @@ public class CrateCircuitBreakerServiceTest extends CrateUnitTest {
         // updating with same settings should not register a new breaker
         clusterSettings.applySettings(newSettings);
 
-        verify(esBreakerService, times(5)).registerBreaker(Matchers.any());
+        verify(esBreakerService, times(6)).registerBreaker(Matchers.any());
+    }
+
+    @Test
+    public void testAnalyticalBreakerAssignment() throws Exception {
+        Settings settings = Settings.builder()
+            .put(CrateCircuitBreakerService.ANALYTICAL_CIRCUIT_BREAKER_LIMIT_SETTING.getKey(), "10m")
+            .build();
+        CircuitBreakerService esBreakerService = new HierarchyCircuitBreakerService(Settings.EMPTY, clusterSettings);
+        CrateCircuitBreakerService breakerService = new CrateCircuitBreakerService(settings, clusterSettings, esBreakerService);
+
+        CircuitBreaker breaker = breakerService.getBreaker(CrateCircuitBreakerService.ANALYTICAL);
+        assertThat(breaker.getLimit(), is(10_485_760L));
+
+        clusterSettings.applySettings(Settings.builder()
+            .put(CrateCircuitBreakerService.ANALYTICAL_CIRCUIT_BREAKER_LIMIT_SETTING.getKey(), "100m")
+            .build());
+
+        breaker = breakerService.getBreaker(CrateCircuitBreakerService.ANALYTICAL);
+        assertThat(breaker.getLimit(), is(104_857_600L));
+        assertThat(breakerService.getBreaker(CrateCircuitBreakerService.QUERY).getLimit(), not(104_857_600L));
     }
 
     @Test
@@ -173,7 +194,7 @@ public class CrateCircuitBreakerServiceTest extends CrateUnitTest {
             Settings.EMPTY, clusterSettings, esBreakerService);
 
         CircuitBreakerStats[] stats = breakerService.stats().getAllStats();
-        assertThat(stats.length, is(8));
+        assertThat(stats.length, is(9));
 
         CircuitBreakerStats queryBreakerStats = breakerService.stats(CrateCircuitBreakerService.QUERY);
         assertThat(queryBreakerStats.getEstimated(), is(0L));
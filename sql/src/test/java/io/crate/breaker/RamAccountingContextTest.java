@@ -98,4 +98,21 @@ public class RamAccountingContextTest extends CrateUnitTest {
         assertThat(ramAccountingContext.totalBytes(), is(0L));
         assertThat(breaker.getUsed(), is(0L));
     }
+
+    @Test
+    public void testReleaseOfChildContextOnlyReleasesItsOwnBytes() {
+        RamAccountingContext child = ramAccountingContext.newChildContext();
+        ramAccountingContext.addBytes(10);
+        child.addBytes(25);
+
+        assertThat(child.totalBytes(), is(25L));
+        assertThat(ramAccountingContext.totalBytes(), is(35L));
+        assertThat(breaker.getUsed(), is(35L));
+
+        child.release();
+
+        assertThat(child.totalBytes(), is(0L));
+        assertThat(ramAccountingContext.totalBytes(), is(10L));
+        assertThat(breaker.getUsed(), is(10L));
+    }
 }
@@ -0,0 +1,167 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.data.Row;
+import io.crate.data.columnar.ColumnBatch;
+import io.crate.data.columnar.DoubleColumn;
+import io.crate.data.columnar.LongColumn;
+import io.crate.data.columnar.ObjectColumn;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.metadata.FunctionIdent;
+import io.crate.operation.aggregation.AggregationTest;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.util.BigArrays;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ColumnBatchAggregateCollectorTest extends AggregationTest {
+
+    private AggregationFunction aggregation(String name, List<DataType> argumentTypes) {
+        return (AggregationFunction) functions.getQualified(new FunctionIdent(name, argumentTypes));
+    }
+
+    private static Object[] collect(ColumnBatchAggregateCollector collector, ColumnBatch... batches) {
+        Object[] state = collector.supplier().get();
+        for (ColumnBatch batch : batches) {
+            collector.accumulator().accept(state, batch);
+        }
+        Iterable<Row> result = collector.finisher().apply(state);
+        return result.iterator().next().materialize();
+    }
+
+    private static ColumnBatch newBatch(int size) {
+        LongColumn longs = new LongColumn(ColumnBatch.DEFAULT_CAPACITY);
+        DoubleColumn doubles = new DoubleColumn(ColumnBatch.DEFAULT_CAPACITY);
+        ObjectColumn strings = new ObjectColumn(ColumnBatch.DEFAULT_CAPACITY);
+        for (int i = 0; i < size; i++) {
+            if (i % 10 == 0) {
+                longs.setNull(i);
+                doubles.setNull(i);
+                strings.set(i, null);
+            } else {
+                longs.set(i, i);
+                doubles.set(i, i / 2.0d);
+                strings.set(i, "v" + i);
+            }
+        }
+        ColumnBatch batch = new ColumnBatch(longs, doubles, strings);
+        batch.size(size);
+        return batch;
+    }
+
+    @Test
+    public void testAggregatesBatchesLikeRows() {
+        ColumnBatchAggregateCollector collector = new ColumnBatchAggregateCollector(
+            ramAccountingContext,
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] {
+                aggregation("count", Collections.emptyList()),
+                aggregation("count", ImmutableList.of(DataTypes.STRING)),
+                aggregation("sum", ImmutableList.of(DataTypes.LONG)),
+                aggregation("sum", ImmutableList.of(DataTypes.DOUBLE)),
+                aggregation("max", ImmutableList.of(DataTypes.LONG))
+            },
+            Version.CURRENT,
+            BigArrays.NON_RECYCLING_INSTANCE,
+            new int[0],
+            new int[] { 2 },
+            new int[] { 0 },
+            new int[] { 1 },
+            new int[] { 0 }
+        );
+
+        // 0..99 without the multiples of 10
+        Object[] result = collect(collector, newBatch(100), newBatch(0), newBatch(100));
+        assertThat(result[0], is(200L));
+        assertThat(result[1], is(180L));
+        assertThat(result[2], is(9000L));
+        assertThat(result[3], is(4500.0d));
+        assertThat(result[4], is(99L));
+    }
+
+    @Test
+    public void testAggregatesOnlySelectedRows() {
+        ColumnBatchAggregateCollector collector = new ColumnBatchAggregateCollector(
+            ramAccountingContext,
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] {
+                aggregation("count", Collections.emptyList()),
+                aggregation("sum", ImmutableList.of(DataTypes.LONG))
+            },
+            Version.CURRENT,
+            BigArrays.NON_RECYCLING_INSTANCE,
+            new int[0],
+            new int[] { 0 }
+        );
+        ColumnBatch batch = newBatch(20);
+        LongColumn longs = (LongColumn) batch.column(0);
+        batch.filter(pos -> longs.isNull(pos) == false && longs.getLong(pos) < 5);
+
+        Object[] result = collect(collector, batch);
+        assertThat(result[0], is(4L));
+        assertThat(result[1], is(10L));
+    }
+
+    @Test
+    public void testSumOfNullsIsNull() {
+        ColumnBatchAggregateCollector collector = new ColumnBatchAggregateCollector(
+            ramAccountingContext,
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { aggregation("sum", ImmutableList.of(DataTypes.LONG)) },
+            Version.CURRENT,
+            BigArrays.NON_RECYCLING_INSTANCE,
+            new int[] { 0 }
+        );
+        Object[] result = collect(collector, newBatch(1));
+        assertThat(result[0], nullValue());
+    }
+
+    @Test
+    public void testLongSumOverflowIsDetected() {
+        ColumnBatchAggregateCollector collector = new ColumnBatchAggregateCollector(
+            ramAccountingContext,
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { aggregation("sum", ImmutableList.of(DataTypes.LONG)) },
+            Version.CURRENT,
+            BigArrays.NON_RECYCLING_INSTANCE,
+            new int[] { 0 }
+        );
+        LongColumn longs = new LongColumn(2);
+        longs.set(0, Long.MAX_VALUE);
+        longs.set(1, 1L);
+        ColumnBatch batch = new ColumnBatch(longs);
+        batch.size(2);
+
+        expectedException.expect(ArithmeticException.class);
+        collect(collector, batch);
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.BatchIterator;
+import io.crate.data.BatchIterators;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.execution.engine.aggregation.impl.AggregationImplModule;
+import io.crate.execution.engine.aggregation.impl.SumAggregation;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.collect.InputCollectExpression;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.Functions;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.inject.ModulesBuilder;
+import org.elasticsearch.common.util.BigArrays;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static io.crate.data.SentinelRow.SENTINEL;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GroupingCollectorTest extends CrateUnitTest {
+
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+        new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+
+    @Test
+    public void testGroupByManyKeysDoesNotShareKeysBetweenGroups() throws Exception {
+        Functions functions = new ModulesBuilder().add(new AggregationImplModule())
+            .createInjector().getInstance(Functions.class);
+        AggregationFunction sumAgg = (AggregationFunction) functions.getQualified(
+            new FunctionIdent(SumAggregation.NAME, Arrays.asList(DataTypes.LONG)));
+        InputCollectExpression firstKey = new InputCollectExpression(0);
+        InputCollectExpression secondKey = new InputCollectExpression(1);
+        InputCollectExpression value = new InputCollectExpression(2);
+
+        GroupingCollector<List<Object>> collector = GroupingCollector.manyKeys(
+            new CollectExpression[]{firstKey, secondKey, value},
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[]{sumAgg},
+            new Input[][]{new Input[]{value}},
+            RAM_ACCOUNTING_CONTEXT,
+            Arrays.asList(firstKey, secondKey),
+            Arrays.asList(DataTypes.INTEGER, DataTypes.STRING),
+            Version.CURRENT,
+            BigArrays.NON_RECYCLING_INSTANCE
+        );
+
+        BatchIterator<Row> inputRowsIterator = InMemoryBatchIterator.of(
+            Arrays.asList(
+                new RowN(new Object[]{1, "a", 1L}),
+                new RowN(new Object[]{1, "b", 2L}),
+                new RowN(new Object[]{1, "a", 3L}),
+                new RowN(new Object[]{2, "a", 4L})
+            ),
+            SENTINEL
+        );
+
+        Iterable<Row> rows = BatchIterators.collect(inputRowsIterator, collector).get(10, TimeUnit.SECONDS);
+        List<List<Object>> result = new ArrayList<>();
+        for (Row row : rows) {
+            result.add(Arrays.asList(row.materialize()));
+        }
+        assertThat(result, containsInAnyOrder(
+            Arrays.asList(1, "a", 4L),
+            Arrays.asList(1, "b", 2L),
+            Arrays.asList(2, "a", 4L)
+        ));
+    }
+
+    @Test
+    public void testGroupsAreSpilledAndMergedIfBreakerLimitIsReached() throws Exception {
+        CircuitBreaker breaker = mock(CircuitBreaker.class);
+        when(breaker.getLimit()).thenReturn(100L);
+        when(breaker.getUsed()).thenReturn(100L);
+        RamAccountingContext ramAccountingContext = new RamAccountingContext("dummy", breaker);
+
+        Functions functions = new ModulesBuilder().add(new AggregationImplModule())
+            .createInjector().getInstance(Functions.class);
+        AggregationFunction sumAgg = (AggregationFunction) functions.getQualified(
+            new FunctionIdent(SumAggregation.NAME, Arrays.asList(DataTypes.LONG)));
+        InputCollectExpression key = new InputCollectExpression(0);
+        InputCollectExpression value = new InputCollectExpression(1);
+
+        GroupingCollector<Object> collector = GroupingCollector.singleKey(
+            new CollectExpression[]{key, value},
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[]{sumAgg},
+            new Input[][]{new Input[]{value}},
+            ramAccountingContext,
+            key,
+            DataTypes.INTEGER,
+            Version.CURRENT,
+            BigArrays.NON_RECYCLING_INSTANCE
+        );
+        List<Row> inputRows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            inputRows.add(new RowN(new Object[]{i % 10, (long) i}));
+        }
+
+        long origMinSpillBytes = SpilledGroups.MIN_SPILL_BYTES;
+        SpilledGroups.MIN_SPILL_BYTES = 0;
+        GroupingCollector.Groups<Object> groups = collector.supplier().get();
+        try {
+            Iterable<Row> rows = BatchIterators.collect(
+                InMemoryBatchIterator.of(inputRows, SENTINEL),
+                groups,
+                collector,
+                new CompletableFuture<>()
+            ).get(10, TimeUnit.SECONDS);
+            assertThat(groups.spilledGroups, notNullValue());
+
+            // the result can be consumed multiple times
+            for (int run = 0; run < 2; run++) {
+                List<List<Object>> result = new ArrayList<>();
+                for (Row row : rows) {
+                    result.add(Arrays.asList(row.materialize()));
+                }
+                List<List<Object>> expected = new ArrayList<>();
+                for (int k = 0; k < 10; k++) {
+                    expected.add(Arrays.asList(k, 10L * k + 450L));
+                }
+                assertThat(result, containsInAnyOrder(expected.toArray()));
+            }
+        } finally {
+            SpilledGroups.MIN_SPILL_BYTES = origMinSpillBytes;
+            groups.close();
+        }
+    }
+
+    @Test
+    public void testSpillingDoesNotReleaseBytesOfOtherOperationsSharingTheContext() throws Exception {
+        CircuitBreaker breaker = mock(CircuitBreaker.class);
+        when(breaker.getLimit()).thenReturn(100L);
+        when(breaker.getUsed()).thenReturn(100L);
+        RamAccountingContext ramAccountingContext = new RamAccountingContext("dummy", breaker);
+        // e.g. a projector or another slice of the same phase
+        ramAccountingContext.addBytes(1000L);
+
+        Functions functions = new ModulesBuilder().add(new AggregationImplModule())
+            .createInjector().getInstance(Functions.class);
+        AggregationFunction sumAgg = (AggregationFunction) functions.getQualified(
+            new FunctionIdent(SumAggregation.NAME, Arrays.asList(DataTypes.LONG)));
+        InputCollectExpression key = new InputCollectExpression(0);
+        InputCollectExpression value = new InputCollectExpression(1);
+
+        GroupingCollector<Object> collector = GroupingCollector.singleKey(
+            new CollectExpression[]{key, value},
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[]{sumAgg},
+            new Input[][]{new Input[]{value}},
+            ramAccountingContext,
+            key,
+            DataTypes.INTEGER,
+            Version.CURRENT,
+            BigArrays.NON_RECYCLING_INSTANCE
+        );
+        List<Row> inputRows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            inputRows.add(new RowN(new Object[]{i % 10, (long) i}));
+        }
+
+        long origMinSpillBytes = SpilledGroups.MIN_SPILL_BYTES;
+        SpilledGroups.MIN_SPILL_BYTES = 0;
+        GroupingCollector.Groups<Object> groups = collector.supplier().get();
+        try {
+            BatchIterators.collect(
+                InMemoryBatchIterator.of(inputRows, SENTINEL),
+                groups,
+                collector,
+                new CompletableFuture<>()
+            ).get(10, TimeUnit.SECONDS);
+            assertThat(groups.spilledGroups, notNullValue());
+            assertThat(ramAccountingContext.totalBytes(), is(1000L));
+        } finally {
+            SpilledGroups.MIN_SPILL_BYTES = origMinSpillBytes;
+            groups.close();
+        }
+    }
+}
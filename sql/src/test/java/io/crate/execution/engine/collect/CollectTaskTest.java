@@ -28,6 +28,7 @@ import io.crate.data.Row;
 import io.crate.exceptions.JobKilledException;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.execution.jobs.SharedShardContexts;
+import io.crate.execution.jobs.workload.WorkloadClass;
 import io.crate.metadata.CoordinatorTxnCtx;
 import io.crate.metadata.Routing;
 import io.crate.metadata.RowGranularity;
@@ -134,10 +135,16 @@ public class CollectTaskTest extends RandomizedTest {
 
     @Test
     public void testThreadPoolNameForDocTables() throws Exception {
-        String threadPoolExecutorName = CollectTask.threadPoolName(collectPhase);
+        String threadPoolExecutorName = CollectTask.threadPoolName(collectPhase, WorkloadClass.INTERACTIVE);
         assertThat(threadPoolExecutorName, is(ThreadPool.Names.SEARCH));
     }
 
+    @Test
+    public void testThreadPoolNameForAnalyticalWorkload() throws Exception {
+        String threadPoolExecutorName = CollectTask.threadPoolName(collectPhase, WorkloadClass.ANALYTICAL);
+        assertThat(threadPoolExecutorName, is(WorkloadClass.ANALYTICAL_EXECUTOR));
+    }
+
     @Test
     public void testThreadPoolNameForNonDocTables() throws Exception {
         RoutedCollectPhase collectPhase = Mockito.mock(RoutedCollectPhase.class);
@@ -147,29 +154,29 @@ public class CollectTaskTest extends RandomizedTest {
 
         // sys.cluster (single row collector)
         when(collectPhase.maxRowGranularity()).thenReturn(RowGranularity.CLUSTER);
-        String threadPoolExecutorName = CollectTask.threadPoolName(collectPhase);
+        String threadPoolExecutorName = CollectTask.threadPoolName(collectPhase, WorkloadClass.INTERACTIVE);
         assertThat(threadPoolExecutorName, is(ThreadPool.Names.SEARCH));
 
         // partition values only of a partitioned doc table (single row collector)
         when(collectPhase.maxRowGranularity()).thenReturn(RowGranularity.PARTITION);
-        threadPoolExecutorName = CollectTask.threadPoolName(collectPhase);
+        threadPoolExecutorName = CollectTask.threadPoolName(collectPhase, WorkloadClass.INTERACTIVE);
         assertThat(threadPoolExecutorName, is(ThreadPool.Names.SEARCH));
 
         // sys.nodes (single row collector)
         when(collectPhase.maxRowGranularity()).thenReturn(RowGranularity.NODE);
-        threadPoolExecutorName = CollectTask.threadPoolName(collectPhase);
+        threadPoolExecutorName = CollectTask.threadPoolName(collectPhase, WorkloadClass.INTERACTIVE);
         assertThat(threadPoolExecutorName, is(ThreadPool.Names.GET));
 
         // sys.shards
         when(routing.containsShards(localNodeId)).thenReturn(true);
         when(collectPhase.maxRowGranularity()).thenReturn(RowGranularity.SHARD);
-        threadPoolExecutorName = CollectTask.threadPoolName(collectPhase);
+        threadPoolExecutorName = CollectTask.threadPoolName(collectPhase, WorkloadClass.INTERACTIVE);
         assertThat(threadPoolExecutorName, is(ThreadPool.Names.GET));
         when(routing.containsShards(localNodeId)).thenReturn(false);
 
         // information_schema.*
         when(collectPhase.maxRowGranularity()).thenReturn(RowGranularity.DOC);
-        threadPoolExecutorName = CollectTask.threadPoolName(collectPhase);
+        threadPoolExecutorName = CollectTask.threadPoolName(collectPhase, WorkloadClass.INTERACTIVE);
         assertThat(threadPoolExecutorName, is(ThreadPool.Names.SEARCH));
     }
 }
@@ -36,6 +36,7 @@ import io.crate.execution.jobs.JobSetup;
 import io.crate.execution.jobs.RootTask;
 import io.crate.execution.jobs.SharedShardContexts;
 import io.crate.execution.jobs.TasksService;
+import io.crate.execution.jobs.workload.WorkloadClass;
 import io.crate.expression.operator.EqOperator;
 import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Literal;
@@ -246,6 +247,7 @@ public class DocLevelCollectTest extends SQLTransportIntegrationTest {
         List<CompletableFuture<StreamBucket>> results = jobSetup.prepareOnRemote(
             "dummyUser",
             "dummySchema",
+            WorkloadClass.INTERACTIVE,
             ImmutableList.of(nodeOperation),
             builder,
             sharedShardContexts
@@ -0,0 +1,63 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static io.crate.execution.engine.collect.LuceneShardCollectorProvider.partitionByWeight;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+public class LuceneShardCollectorProviderTest extends CrateUnitTest {
+
+    @Test
+    public void testPartitionByWeightBalancesPartitions() {
+        List<List<Integer>> partitions = partitionByWeight(Arrays.asList(10, 50, 20, 30, 40), 3, 1, x -> x);
+        assertThat(partitions, containsInAnyOrder(
+            Arrays.asList(50),
+            Arrays.asList(40, 10),
+            Arrays.asList(30, 20)
+        ));
+    }
+
+    @Test
+    public void testPartitionByWeightRespectsMinWeightPerPartition() {
+        List<List<Integer>> partitions = partitionByWeight(Arrays.asList(10, 50, 20, 30, 40), 3, 100, x -> x);
+        assertThat(partitions.size(), is(1));
+        assertThat(partitions.get(0), is(Arrays.asList(10, 50, 20, 30, 40)));
+    }
+
+    @Test
+    public void testPartitionByWeightNeverCreatesMorePartitionsThanItems() {
+        List<List<Integer>> partitions = partitionByWeight(Arrays.asList(100, 200), 8, 1, x -> x);
+        assertThat(partitions, containsInAnyOrder(
+            Collections.singletonList(100),
+            Collections.singletonList(200)
+        ));
+    }
+}
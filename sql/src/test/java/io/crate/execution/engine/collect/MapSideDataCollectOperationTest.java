@@ -21,6 +21,7 @@
 
 package io.crate.execution.engine.collect;
 
+import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
 import io.crate.data.CollectionBucket;
 import io.crate.data.Row;
@@ -33,6 +34,7 @@ import io.crate.metadata.Functions;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.TestingRowConsumer;
 import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -51,6 +53,7 @@ import static io.crate.testing.TestingHelpers.getFunctions;
 import static io.crate.testing.TestingHelpers.isRow;
 import static org.hamcrest.Matchers.contains;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class MapSideDataCollectOperationTest extends CrateDummyClusterServiceUnitTest {
 
@@ -60,7 +63,7 @@ public class MapSideDataCollectOperationTest extends CrateDummyClusterServiceUni
     @Test
     public void testFileUriCollect() throws Exception {
         Functions functions = getFunctions();
-        FileCollectSource fileCollectSource = new FileCollectSource(functions, clusterService, Collections.emptyMap());
+        FileCollectSource fileCollectSource = new FileCollectSource(functions, clusterService, Collections.emptyMap(), THREAD_POOL);
 
         File tmpFile = temporaryFolder.newFile("fileUriCollectOperation.json");
         try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(tmpFile), StandardCharsets.UTF_8)) {
@@ -85,6 +88,8 @@ public class MapSideDataCollectOperationTest extends CrateDummyClusterServiceUni
         );
         TestingRowConsumer consumer = new TestingRowConsumer();
         CollectTask collectTask = mock(CollectTask.class);
+        when(collectTask.queryPhaseRamAccountingContext())
+            .thenReturn(new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy")));
         BatchIterator<Row> iterator = fileCollectSource.getIterator(
             CoordinatorTxnCtx.systemTransactionContext(), collectNode, collectTask, false);
         consumer.accept(iterator, null);
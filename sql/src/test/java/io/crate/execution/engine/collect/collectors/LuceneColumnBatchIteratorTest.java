@@ -0,0 +1,115 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.collectors;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.columnar.ColumnBatch;
+import io.crate.data.columnar.ColumnBatches;
+import io.crate.expression.reference.doc.lucene.CollectorContext;
+import io.crate.expression.reference.doc.lucene.LongColumnReference;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.BatchIteratorTester;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+
+public class LuceneColumnBatchIteratorTest extends CrateUnitTest {
+
+    private IndexSearcher indexSearcher;
+    private ArrayList<Object[]> expectedResult;
+
+    @Before
+    public void prepareSearcher() throws Exception {
+        IndexWriter iw = new IndexWriter(new RAMDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        expectedResult = new ArrayList<>(20);
+        for (long i = 0; i < 20; i++) {
+            Document doc = new Document();
+            doc.add(new StringField("id", Long.toString(i), Field.Store.NO));
+            if (i % 5 == 0) {
+                expectedResult.add(new Object[] { null, null });
+            } else {
+                doc.add(new NumericDocValuesField("x", i));
+                expectedResult.add(new Object[] { i, i });
+            }
+            iw.addDocument(doc);
+            if (i == 9) {
+                iw.commit();
+            }
+        }
+        iw.deleteDocuments(new Term("id", "7"));
+        expectedResult.remove(7);
+        iw.commit();
+        indexSearcher = new IndexSearcher(DirectoryReader.open(iw));
+    }
+
+    private LuceneColumnBatchIterator createIterator(int batchSize) {
+        LongColumnReference x = new LongColumnReference("x");
+        return new LuceneColumnBatchIterator(
+            indexSearcher,
+            indexSearcher.getTopReaderContext().leaves(),
+            new MatchAllDocsQuery(),
+            new CollectorContext(mappedFieldType -> null),
+            new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy")),
+            Arrays.asList(x, x),
+            Collections.singletonList(x),
+            batchSize
+        );
+    }
+
+    @Test
+    public void testLuceneColumnBatchIterator() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> ColumnBatches.toRows(createIterator(3)));
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void testBatchesAreFilledUpToTheirCapacity() throws Exception {
+        LuceneColumnBatchIterator it = createIterator(4);
+        List<Integer> sizes = new ArrayList<>();
+        while (it.moveNext()) {
+            ColumnBatch batch = it.currentElement();
+            sizes.add(batch.size());
+        }
+        // 2 segments with 10 docs each, one doc of the first segment is deleted
+        assertThat(sizes, is(Arrays.asList(4, 4, 1, 4, 4, 2)));
+    }
+}
@@ -36,6 +36,7 @@ import io.crate.execution.jobs.kill.TransportKillJobsNodeAction;
 import io.crate.execution.jobs.transport.JobRequest;
 import io.crate.execution.jobs.transport.JobResponse;
 import io.crate.execution.jobs.transport.TransportJobAction;
+import io.crate.execution.jobs.workload.WorkloadClass;
 import io.crate.metadata.Routing;
 import io.crate.metadata.RowGranularity;
 import io.crate.planner.distribution.DistributionInfo;
@@ -111,6 +112,7 @@ public class RemoteCollectorTest extends CrateDummyClusterServiceUnitTest {
             jobId,
             "dummyUser",
             "dummySchema",
+            WorkloadClass.INTERACTIVE,
             "localNode",
             "remoteNode",
             transportJobAction,
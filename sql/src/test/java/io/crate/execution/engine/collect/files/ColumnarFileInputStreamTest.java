@@ -0,0 +1,91 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import io.crate.execution.engine.export.ColumnarFileWriter;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class ColumnarFileInputStreamTest extends CrateUnitTest {
+
+    private static List<String> readLines(byte[] bytes) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            new ColumnarFileInputStream(new ByteArrayInputStream(bytes)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line.trim());
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    public void testRowsWrittenInMultipleRowGroupsAreReadBackAsJsonLines() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(
+            out,
+            Arrays.asList("id", "name"),
+            Arrays.asList(DataTypes.INTEGER, DataTypes.STRING),
+            2)) {
+            writer.write(new Object[] {1, "Arthur"});
+            writer.write(new Object[] {2, null});
+            writer.write(new Object[] {3, "Trillian"});
+        }
+
+        assertThat(readLines(out.toByteArray()), contains(
+            "{\"id\":1,\"name\":\"Arthur\"}",
+            "{\"id\":2,\"name\":null}",
+            "{\"id\":3,\"name\":\"Trillian\"}"
+        ));
+    }
+
+    @Test
+    public void testEmptyFileHasNoRows() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ColumnarFileWriter(out, Arrays.asList("id"), Arrays.asList(DataTypes.LONG), 10).close();
+
+        assertThat(readLines(out.toByteArray()).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testInputInOtherFormatIsRejected() throws Exception {
+        expectedException.expect(IOException.class);
+        expectedException.expectMessage("Input is not in the columnar format");
+        readLines("{\"id\": 1}\n".getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -28,6 +28,7 @@ import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectInputStream;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.google.common.collect.ImmutableMap;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
 import io.crate.data.Input;
@@ -47,6 +48,7 @@ import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.TestingHelpers;
 import io.crate.testing.TestingRowConsumer;
 import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -70,6 +72,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPOutputStream;
 
 import static io.crate.testing.TestingHelpers.createReference;
@@ -86,12 +91,14 @@ public class FileReadingCollectorTest extends CrateUnitTest {
     private static File tmpFile;
     private static File tmpFileGz;
     private static File tmpFileEmptyLine;
+    private static ExecutorService executor;
     private InputFactory inputFactory;
     private Input<String> sourceUriFailureInput;
     private TransactionContext txnCtx = CoordinatorTxnCtx.systemTransactionContext();
 
     @BeforeClass
     public static void setUpClass() throws Exception {
+        executor = Executors.newFixedThreadPool(2);
         Path copy_from = Files.createTempDirectory("copy_from");
         Path copy_from_gz = Files.createTempDirectory("copy_from_gz");
         Path copy_from_empty = Files.createTempDirectory("copy_from_empty");
@@ -126,6 +133,8 @@ public class FileReadingCollectorTest extends CrateUnitTest {
 
     @AfterClass
     public static void tearDownClass() throws Exception {
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), is(true));
         assertThat(tmpFile.delete(), is(true));
         assertThat(tmpFileGz.delete(), is(true));
         assertThat(tmpFileEmptyLine.delete(), is(true));
@@ -316,7 +325,9 @@ public class FileReadingCollectorTest extends CrateUnitTest {
             false,
             1,
             0,
-            FileUriCollectPhase.InputFormat.JSON);
+            FileUriCollectPhase.InputFormat.JSON,
+            executor,
+            new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy")));
     }
 
     private static class WriteBufferAnswer implements Answer<Integer> {
@@ -23,6 +23,7 @@
 package io.crate.execution.engine.collect.files;
 
 import com.google.common.collect.ImmutableMap;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Row;
@@ -36,6 +37,8 @@ import io.crate.metadata.Reference;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.BatchIteratorTester;
 import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -48,15 +51,22 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 import static io.crate.execution.dsl.phases.FileUriCollectPhase.InputFormat.CSV;
 import static io.crate.execution.dsl.phases.FileUriCollectPhase.InputFormat.JSON;
 import static io.crate.testing.TestingHelpers.createReference;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
 
 public class FileReadingIteratorTest extends CrateUnitTest {
 
     private InputFactory inputFactory;
+    private ExecutorService executor;
     private Path tempFilePath;
     private String fileUri;
     private File tmpFile;
@@ -73,6 +83,13 @@ public class FileReadingIteratorTest extends CrateUnitTest {
             ImmutableMap.of()
         );
         inputFactory = new InputFactory(functions);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void shutdownExecutor() throws Exception {
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), is(true));
     }
 
     @Test
@@ -161,7 +178,57 @@ public class FileReadingIteratorTest extends CrateUnitTest {
         tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
     }
 
+    @Test
+    public void testIteratorContract_givenCSVInputFormat_AndColumnarExtension_thenWritesAsMap() throws Exception {
+        tempFilePath = createTempFile("tempfile", ".columnar");
+        tmpFile = tempFilePath.toFile();
+        try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(tmpFile), StandardCharsets.UTF_8)) {
+            writer.write("name,id,age\n");
+            writer.write("Arthur,4,38\n");
+            writer.write("Trillian,5,33\n");
+        }
+        fileUri = tempFilePath.toUri().toString();
+
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> createBatchIterator(
+            Collections.singletonList(fileUri), null, CSV
+        );
+
+        List<Object[]> expectedResult = Arrays.asList(
+            new Object[]{CSV_AS_MAP_FIRST_LINE},
+            new Object[]{CSV_AS_MAP_SECOND_LINE});
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void testReadAheadBuffersOfCompressedInputAreAccountedUntilClose() throws Exception {
+        tempFilePath = createTempFile("tempfile", ".json.gz");
+        tmpFile = tempFilePath.toFile();
+        try (OutputStreamWriter writer = new OutputStreamWriter(
+            new GZIPOutputStream(new FileOutputStream(tmpFile)), StandardCharsets.UTF_8)) {
+            writer.write("{\"name\": \"Arthur\", \"id\": 4, \"details\": {\"age\": 38}}\n");
+        }
+        fileUri = tempFilePath.toUri().toString();
+        RamAccountingContext ramAccountingContext = new RamAccountingContext("test", new NoopCircuitBreaker("dummy"));
+
+        BatchIterator<Row> iterator = createBatchIterator(
+            Collections.singletonList(fileUri), "gzip", JSON, ramAccountingContext.newChildContext());
+        assertThat(iterator.moveNext(), is(true));
+        assertThat(ramAccountingContext.totalBytes(), greaterThan(0L));
+
+        iterator.close();
+        assertThat(ramAccountingContext.totalBytes(), is(0L));
+    }
+
     private BatchIterator<Row> createBatchIterator(Collection<String> fileUris, String compression, FileUriCollectPhase.InputFormat format) {
+        return createBatchIterator(
+            fileUris, compression, format, new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy")));
+    }
+
+    private BatchIterator<Row> createBatchIterator(Collection<String> fileUris,
+                                                   String compression,
+                                                   FileUriCollectPhase.InputFormat format,
+                                                   RamAccountingContext ramAccountingContext) {
         Reference raw = createReference("_raw", DataTypes.STRING);
         InputFactory.Context<LineCollectorExpression<?>> ctx =
             inputFactory.ctxForRefs(txnCtx, FileLineReferenceResolver::getImplementation);
@@ -177,6 +244,8 @@ public class FileReadingIteratorTest extends CrateUnitTest {
             false,
             1,
             0,
-            format);
+            format,
+            executor,
+            ramAccountingContext);
     }
 }
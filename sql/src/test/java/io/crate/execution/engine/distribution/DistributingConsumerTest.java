@@ -111,6 +111,45 @@ public class DistributingConsumerTest extends CrateUnitTest {
         }
     }
 
+    @Test
+    public void testPagesAreSentOnceTheyExceedMaxPageBytes() throws Exception {
+        Streamer<?>[] streamers = {DataTypes.INTEGER.streamer()};
+        TestingRowConsumer collectingConsumer = new TestingRowConsumer();
+        DistResultRXTask distResultRXTask = createPageDownstreamContext(streamers, collectingConsumer);
+        TransportDistributedResultAction distributedResultAction = createFakeTransport(streamers, distResultRXTask);
+        DistributingConsumer distributingConsumer = new DistributingConsumer(
+            logger,
+            executorService,
+            UUID.randomUUID(),
+            new ModuloBucketBuilder(streamers, 1, 0),
+            1,
+            (byte) 0,
+            0,
+            Collections.singletonList("n1"),
+            distributedResultAction,
+            100, // pageSize
+            1    // maxPageBytes
+        );
+
+        BatchSimulatingIterator<Row> batchSimulatingIterator =
+            new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 5),
+                2,
+                3,
+                executorService);
+        distributingConsumer.accept(batchSimulatingIterator, null);
+
+        List<Object[]> result = collectingConsumer.getResult();
+        assertThat(TestingHelpers.printedTable(new CollectionBucket(result)),
+            is("0\n" +
+               "1\n" +
+               "2\n" +
+               "3\n" +
+               "4\n"));
+
+        // each row exceeds maxPageBytes, so each row is sent as a page + the final empty page
+        verify(distributedResultAction, times(6)).pushResult(anyString(), any(), any());
+    }
+
     @Test
     public void testDistributingConsumerForwardsFailure() throws Exception {
         Streamer<?>[] streamers = { DataTypes.INTEGER.streamer() };
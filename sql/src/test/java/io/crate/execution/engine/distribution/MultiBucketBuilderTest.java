@@ -31,6 +31,8 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 
@@ -72,4 +74,21 @@ public class MultiBucketBuilderTest {
             assertThat(builder.size(), is(0));
         }
     }
+
+    @Test
+    public void testRamBytesUsedGrowsWithRowsAndIsResetOnBuildBuckets() throws Exception {
+        StreamBucket[] buckets = new StreamBucket[1];
+
+        for (MultiBucketBuilder builder : builders) {
+            long emptyBytes = builder.ramBytesUsed();
+            builder.add(new Row1(42));
+            long oneRowBytes = builder.ramBytesUsed();
+            assertThat(oneRowBytes, greaterThan(emptyBytes));
+            builder.add(new Row1(42));
+            assertThat(builder.ramBytesUsed(), greaterThan(oneRowBytes));
+
+            builder.build(buckets);
+            assertThat(builder.ramBytesUsed(), lessThan(oneRowBytes));
+        }
+    }
 }
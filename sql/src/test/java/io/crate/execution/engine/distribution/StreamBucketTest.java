@@ -0,0 +1,115 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.distribution;
+
+import com.google.common.base.Strings;
+import io.crate.Streamer;
+import io.crate.data.Bucket;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class StreamBucketTest extends CrateUnitTest {
+
+    private final Streamer<?>[] streamers = new Streamer[] { DataTypes.STRING.streamer(), DataTypes.LONG.streamer() };
+
+    private StreamBucket streamed(StreamBucket bucket) throws Exception {
+        BytesStreamOutput out = new BytesStreamOutput();
+        bucket.writeTo(out);
+        return new StreamBucket(out.bytes().streamInput(), streamers);
+    }
+
+    private static List<Object[]> rows(Bucket bucket) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Row row : bucket) {
+            rows.add(row.materialize());
+        }
+        return rows;
+    }
+
+    @Test
+    public void testStringColumnsAreDictionaryEncoded() throws Exception {
+        String longValue = Strings.repeat("x", 1000);
+        StreamBucket.Builder builder = new StreamBucket.Builder(streamers, null);
+        builder.add(new RowN(new Object[] { "foo", 1L }));
+        builder.add(new RowN(new Object[] { "bar", 2L }));
+        builder.add(new RowN(new Object[] { null, null }));
+        builder.add(new RowN(new Object[] { "foo", 3L }));
+        builder.add(new RowN(new Object[] { longValue, 4L }));
+        builder.add(new RowN(new Object[] { longValue, 5L }));
+        builder.add(new RowN(new Object[] { "bar", 6L }));
+
+        StreamBucket bucket = streamed(builder.build());
+        assertThat(bucket.size(), is(7));
+        assertThat(rows(bucket), contains(
+            new Object[] { "foo", 1L },
+            new Object[] { "bar", 2L },
+            new Object[] { null, null },
+            new Object[] { "foo", 3L },
+            new Object[] { longValue, 4L },
+            new Object[] { longValue, 5L },
+            new Object[] { "bar", 6L }
+        ));
+        // the bucket can be iterated multiple times
+        assertThat(rows(bucket).size(), is(7));
+    }
+
+    @Test
+    public void testDictionaryIsResetBetweenBuckets() throws Exception {
+        StreamBucket.Builder builder = new StreamBucket.Builder(streamers, null);
+        builder.add(new RowN(new Object[] { "foo", 1L }));
+        StreamBucket first = builder.build();
+        builder.reset();
+        builder.add(new RowN(new Object[] { "foo", 2L }));
+        StreamBucket second = builder.build();
+
+        assertThat(rows(streamed(first)), contains(new Object[][] { new Object[] { "foo", 1L } }));
+        assertThat(rows(streamed(second)), contains(new Object[][] { new Object[] { "foo", 2L } }));
+    }
+
+    @Test
+    public void testRepeatedValuesAreOnlySentOnce() throws Exception {
+        StreamBucket.Builder repeated = new StreamBucket.Builder(streamers, null);
+        StreamBucket.Builder distinct = new StreamBucket.Builder(streamers, null);
+        for (long i = 0; i < 1000; i++) {
+            repeated.add(new RowN(new Object[] { "some-group-key-" + (i % 10), i }));
+            distinct.add(new RowN(new Object[] { "some-group-key-" + i, i }));
+        }
+        BytesStreamOutput repeatedOut = new BytesStreamOutput();
+        repeated.build().writeTo(repeatedOut);
+        BytesStreamOutput distinctOut = new BytesStreamOutput();
+        distinct.build().writeTo(distinctOut);
+
+        assertThat(repeatedOut.size() * 2, lessThan(distinctOut.size()));
+    }
+}
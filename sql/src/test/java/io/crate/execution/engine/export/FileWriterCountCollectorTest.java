@@ -50,6 +50,13 @@ public class FileWriterCountCollectorTest extends CrateUnitTest {
         assertThat(nestedMap.get("column"), is("foo"));
     }
 
+    @Test
+    public void testFileUriOfFollowingFilesContainsFileNumber() {
+        assertThat(FileWriterCountCollector.fileUri("file:///tmp/users_0_.json.gz", 0), is("file:///tmp/users_0_.json.gz"));
+        assertThat(FileWriterCountCollector.fileUri("file:///tmp/users_0_.json.gz", 2), is("file:///tmp/users_0__2.json.gz"));
+        assertThat(FileWriterCountCollector.fileUri("s3://bucket.name/users_0_", 1), is("s3://bucket.name/users_0__1"));
+    }
+
     @Test
     public void testJsonBuilderDoesNotPassFlushToStream() throws Exception {
         Path file = createTempFile("out", "json");
@@ -35,6 +35,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
@@ -46,6 +47,7 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static io.crate.data.SentinelRow.SENTINEL;
+import static org.hamcrest.Matchers.is;
 
 public class FileWriterProjectorTest extends CrateUnitTest {
 
@@ -64,8 +66,8 @@ public class FileWriterProjectorTest extends CrateUnitTest {
         Path file = createTempFile("out", "json");
 
         FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, file.toUri().toString(),
-            null, null, ImmutableSet.of(), new HashMap<>(),
-            null, WriterProjection.OutputFormat.JSON_OBJECT);
+            null, null, null, ImmutableSet.of(), new HashMap<>(),
+            null, WriterProjection.OutputFormat.JSON_OBJECT, 0L, 0L);
 
         new TestingRowConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null);
 
@@ -76,6 +78,25 @@ public class FileWriterProjectorTest extends CrateUnitTest {
                      "input line 04", TestingHelpers.readFile(file.toAbsolutePath().toString()));
     }
 
+    @Test
+    public void testOutputContinuesInNewFileAfterMaxRowsPerFile() throws Exception {
+        Path directory = createTempDir();
+        Path file = directory.resolve("out.json");
+
+        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, file.toUri().toString(),
+            null, null, null, ImmutableSet.of(), new HashMap<>(),
+            null, WriterProjection.OutputFormat.JSON_OBJECT, 2L, 0L);
+
+        new TestingRowConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null);
+
+        assertEquals("input line 00\n" +
+                     "input line 01", TestingHelpers.readFile(file.toAbsolutePath().toString()));
+        assertEquals("input line 02\n" +
+                     "input line 03", TestingHelpers.readFile(directory.resolve("out_1.json").toString()));
+        assertEquals("input line 04", TestingHelpers.readFile(directory.resolve("out_2.json").toString()));
+        assertThat(Files.exists(directory.resolve("out_3.json")), is(false));
+    }
+
     @Test
     public void testDirectoryAsFile() throws Exception {
         expectedException.expect(UnhandledServerException.class);
@@ -84,8 +105,8 @@ public class FileWriterProjectorTest extends CrateUnitTest {
         Path directory = createTempDir();
 
         FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, directory.toUri().toString(),
-            null, null, ImmutableSet.of(), new HashMap<>(),
-            null, WriterProjection.OutputFormat.JSON_OBJECT);
+            null, null, null, ImmutableSet.of(), new HashMap<>(),
+            null, WriterProjection.OutputFormat.JSON_OBJECT, 0L, 0L);
 
         new TestingRowConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null);
     }
@@ -98,8 +119,8 @@ public class FileWriterProjectorTest extends CrateUnitTest {
         String uri = Paths.get(folder.newFile().toURI()).resolve("out.json").toUri().toString();
 
         FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, uri,
-            null, null, ImmutableSet.of(), new HashMap<>(),
-            null, WriterProjection.OutputFormat.JSON_OBJECT);
+            null, null, null, ImmutableSet.of(), new HashMap<>(),
+            null, WriterProjection.OutputFormat.JSON_OBJECT, 0L, 0L);
 
         new TestingRowConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null);
     }
@@ -36,7 +36,7 @@ public class OutputFileTest extends CrateUnitTest {
     @Test
     public void testIsBufferedOutputStream() throws Exception {
         Path file = createTempFile("out", "json");
-        OutputFile outputFile = new OutputFile(file.toUri(), null);
+        OutputFile outputFile = new OutputFile(file.toUri(), null, Runnable::run);
         try (OutputStream os = outputFile.acquireOutputStream()) {
             assertThat(os, instanceOf(BufferedOutputStream.class));
         }
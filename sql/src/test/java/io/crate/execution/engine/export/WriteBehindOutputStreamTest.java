@@ -0,0 +1,140 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.export;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+
+public class WriteBehindOutputStreamTest extends CrateUnitTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void shutdownExecutor() throws Exception {
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void testBytesAreWrittenInOrder() throws Exception {
+        byte[] data = new byte[10_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try (OutputStream out = new WriteBehindOutputStream(target, executor, 64, 2)) {
+            out.write(data, 0, 5_000);
+            for (int i = 5_000; i < data.length; i++) {
+                out.write(data[i]);
+            }
+        }
+        assertThat(target.toByteArray(), is(data));
+    }
+
+    @Test
+    public void testFailureOfDelegateIsThrownOnClose() throws Exception {
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+        OutputStream out = new WriteBehindOutputStream(failing, executor, 16, 2);
+        out.write(new byte[10], 0, 10);
+        try {
+            out.close();
+            fail("close should have failed");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("disk full"));
+        }
+    }
+
+    @Test
+    public void testInterruptedCloseWaitsForRunningWriteBeforeClosingDelegate() throws Exception {
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch finishWrite = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(false);
+        AtomicBoolean closedWhileWriting = new AtomicBoolean(false);
+        AtomicInteger bytesWritten = new AtomicInteger(0);
+        OutputStream blocking = new OutputStream() {
+            @Override
+            public void write(int b) {
+                bytesWritten.incrementAndGet();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                writing.set(true);
+                writeStarted.countDown();
+                try {
+                    finishWrite.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                bytesWritten.addAndGet(len);
+                writing.set(false);
+            }
+
+            @Override
+            public void close() {
+                closedWhileWriting.set(writing.get());
+            }
+        };
+        OutputStream out = new WriteBehindOutputStream(blocking, executor, 4, 1);
+        // the fifth byte hands the first buffer over to the writing thread, which blocks
+        out.write(new byte[5], 0, 5);
+        writeStarted.await();
+
+        executor.execute(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+                // release the write anyway
+            }
+            finishWrite.countDown();
+        });
+        Thread.currentThread().interrupt();
+        try {
+            out.close();
+            fail("close should have failed");
+        } catch (InterruptedIOException e) {
+            assertThat(Thread.interrupted(), is(true));
+        }
+        assertThat(closedWhileWriting.get(), is(false));
+        assertThat(bytesWritten.get(), is(4));
+    }
+}
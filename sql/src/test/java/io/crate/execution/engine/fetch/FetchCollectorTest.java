@@ -0,0 +1,157 @@
+/*
+ * Licensed to Crate.IO GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.fetch;
+
+import com.carrotsearch.hppc.IntArrayList;
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Row;
+import io.crate.execution.engine.distribution.StreamBucket;
+import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.fielddata.IndexFieldDataService;
+import org.elasticsearch.index.mapper.KeywordFieldMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+public class FetchCollectorTest extends CrateUnitTest {
+
+    private static final int DOCS_PER_SEGMENT = 10;
+    private static final int NUM_SEGMENTS = 3;
+
+    private IndexWriter indexWriter;
+    private Engine.Searcher searcher;
+
+    @Before
+    public void createSegments() throws Exception {
+        indexWriter = new IndexWriter(
+            new RAMDirectory(),
+            new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE));
+        for (int i = 0; i < DOCS_PER_SEGMENT * NUM_SEGMENTS; i++) {
+            Document doc = new Document();
+            doc.add(new Field("x", new BytesRef(Integer.toString(i)), KeywordFieldMapper.Defaults.FIELD_TYPE.clone()));
+            indexWriter.addDocument(doc);
+            if ((i + 1) % DOCS_PER_SEGMENT == 0) {
+                indexWriter.commit();
+            }
+        }
+        IndexSearcher indexSearcher = new IndexSearcher(DirectoryReader.open(indexWriter));
+        searcher = new Engine.Searcher("dummy", indexSearcher, () -> { });
+    }
+
+    @After
+    public void closeSearcher() throws Exception {
+        searcher.close();
+        indexWriter.close();
+    }
+
+    private FetchCollector createCollector(DocIdExpression expression, RamAccountingContext ramAccountingContext) {
+        return new FetchCollector(
+            Collections.singletonList(expression),
+            new Streamer[]{DataTypes.INTEGER.streamer()},
+            Collections.singletonList(DataTypes.INTEGER),
+            searcher,
+            mock(IndexFieldDataService.class),
+            ramAccountingContext,
+            0
+        );
+    }
+
+    @Test
+    public void testRowsOfUnorderedDocIdsAreReadByLeafAndReturnedInTheOriginalOrder() throws Exception {
+        assertThat(searcher.reader().leaves().size(), is(NUM_SEGMENTS));
+        DocIdExpression expression = new DocIdExpression();
+        FetchCollector collector = createCollector(
+            expression, new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA)));
+
+        StreamBucket bucket = collector.collect(IntArrayList.from(25, 3, 17, 4, 29, 11, 0, 20, 12));
+
+        List<Object> docIds = new ArrayList<>();
+        for (Row row : bucket) {
+            docIds.add(row.get(0));
+        }
+        assertThat(docIds, contains(25, 3, 17, 4, 29, 11, 0, 20, 12));
+        // every leaf is only set once
+        assertThat(expression.numLeaves, is(NUM_SEGMENTS));
+    }
+
+    @Test
+    public void testBufferedRowsAreReleasedOnceAddedToTheBucket() throws Exception {
+        RamAccountingContext orderedAccounting =
+            new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+        createCollector(new DocIdExpression(), orderedAccounting).collect(IntArrayList.from(0, 3, 12, 20, 25));
+
+        RamAccountingContext unorderedAccounting =
+            new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+        createCollector(new DocIdExpression(), unorderedAccounting).collect(IntArrayList.from(25, 3, 20, 0, 12));
+
+        // only the serialized rows of the bucket remain accounted
+        assertThat(unorderedAccounting.totalBytes(), is(orderedAccounting.totalBytes()));
+    }
+
+    private static class DocIdExpression extends LuceneCollectorExpression<Integer> {
+
+        private int numLeaves = 0;
+        private int docBase;
+        private int docId;
+
+        @Override
+        public void setNextReader(LeafReaderContext context) {
+            numLeaves++;
+            docBase = context.docBase;
+        }
+
+        @Override
+        public void setNextDocId(int doc) {
+            docId = docBase + doc;
+        }
+
+        @Override
+        public Integer value() {
+            return docId;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import com.google.common.collect.ImmutableList;
 import io.crate.common.collections.TreeMapBuilder;
 import io.crate.execution.dsl.phases.FetchPhase;
 import io.crate.execution.jobs.SharedShardContexts;
+import io.crate.execution.jobs.workload.WorkloadClass;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.RelationName;
 import io.crate.metadata.Routing;
@@ -69,7 +70,8 @@ public class FetchTaskTest extends CrateDummyClusterServiceUnitTest {
             "dummy",
             new SharedShardContexts(mock(IndicesService.class), UnaryOperator.identity()),
             clusterService.state().getMetaData(),
-            Collections.emptyList());
+            Collections.emptyList(),
+            WorkloadClass.INTERACTIVE);
 
         expectedException.expect(IllegalArgumentException.class);
         context.indexService(10);
@@ -107,7 +109,8 @@ public class FetchTaskTest extends CrateDummyClusterServiceUnitTest {
             "dummy",
             new SharedShardContexts(mock(IndicesService.class, RETURNS_MOCKS), UnaryOperator.identity()),
             metaData,
-            ImmutableList.of(routing));
+            ImmutableList.of(routing),
+            WorkloadClass.INTERACTIVE);
 
         context.prepare();
 
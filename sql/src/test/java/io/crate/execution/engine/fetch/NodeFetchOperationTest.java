@@ -26,13 +26,11 @@ import com.google.common.collect.Iterables;
 import io.crate.execution.engine.collect.stats.JobsLogs;
 import io.crate.execution.jobs.TasksService;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
-import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.junit.Test;
 
 import java.util.UUID;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.core.Is.is;
@@ -41,22 +39,16 @@ public class NodeFetchOperationTest extends CrateDummyClusterServiceUnitTest {
 
     @Test
     public void testSysOperationsIsClearedIfNothingToFetch() throws Exception {
-        ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
-        try {
-            JobsLogs jobsLogs = new JobsLogs(() -> true);
-            NodeFetchOperation fetchOperation = new NodeFetchOperation(
-                threadPoolExecutor,
-                2,
-                jobsLogs,
-                new TasksService(Settings.EMPTY, clusterService, jobsLogs),
-                new NoopCircuitBreaker("dummy"));
-
-            fetchOperation.fetch(UUID.randomUUID(), 1, null, true).get(5, TimeUnit.SECONDS);
-
-            assertThat(Iterables.size(jobsLogs.activeOperations()), is(0));
-        } finally {
-            threadPoolExecutor.shutdown();
-            threadPoolExecutor.awaitTermination(2, TimeUnit.SECONDS);
-        }
+        JobsLogs jobsLogs = new JobsLogs(() -> true);
+        NodeFetchOperation fetchOperation = new NodeFetchOperation(
+            THREAD_POOL,
+            2,
+            jobsLogs,
+            new TasksService(Settings.EMPTY, clusterService, jobsLogs),
+            new NoneCircuitBreakerService());
+
+        fetchOperation.fetch(UUID.randomUUID(), 1, null, true).get(5, TimeUnit.SECONDS);
+
+        assertThat(Iterables.size(jobsLogs.activeOperations()), is(0));
     }
 }
@@ -0,0 +1,161 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.RowAccounting;
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.join.CombinedRow;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.BatchIteratorTester;
+import io.crate.testing.BatchSimulatingIterator;
+import io.crate.testing.TestingBatchIterators;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GraceHashInnerJoinBatchIteratorTest extends CrateUnitTest {
+
+    private static final Streamer[] STREAMERS = new Streamer[] { DataTypes.INTEGER.streamer() };
+
+    private final List<Object[]> resultForDuplicateValues = Arrays.asList(
+        new Object[] { 1, 1 }, new Object[] { 1, 1 },
+        new Object[] { 2, 2 }, new Object[] { 2, 2 },
+        new Object[] { 3, 3 },
+        new Object[] { 4, 4 }, new Object[] { 4, 4 }, new Object[] { 4, 4 }, new Object[] { 4, 4 }
+    );
+
+    private static BatchIterator<Row> newJoin(BatchIterator<Row> left,
+                                              BatchIterator<Row> right,
+                                              Function<Row, Integer> hashBuilder,
+                                              int numPartitions) {
+        return newJoin(left, right, hashBuilder, new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy")), numPartitions);
+    }
+
+    private static BatchIterator<Row> newJoin(BatchIterator<Row> left,
+                                              BatchIterator<Row> right,
+                                              Function<Row, Integer> hashBuilder,
+                                              RamAccountingContext spillAccounting,
+                                              int numPartitions) {
+        return new GraceHashInnerJoinBatchIterator(
+            left,
+            right,
+            new CombinedRow(1, 1),
+            row -> Objects.equals(row.get(0), row.get(1)),
+            hashBuilder,
+            hashBuilder,
+            mock(RowAccounting.class),
+            spillAccounting,
+            STREAMERS,
+            STREAMERS,
+            numPartitions
+        );
+    }
+
+    @Test
+    public void testGraceHashJoinWithUniqueValues() throws Exception {
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> newJoin(
+            TestingBatchIterators.range(0, 5),
+            TestingBatchIterators.range(2, 6),
+            row -> Objects.hash(row.get(0)),
+            4
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 2, 2 }, new Object[] { 3, 3 }, new Object[] { 4, 4 }));
+    }
+
+    @Test
+    public void testGraceHashJoinWithDuplicateValuesAndBatchedSources() throws Exception {
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> newJoin(
+            new BatchSimulatingIterator<>(
+                TestingBatchIterators.ofValues(Arrays.asList(0, 0, 1, 2, 2, 3, 4, 4)), 2, 4, null),
+            new BatchSimulatingIterator<>(
+                TestingBatchIterators.ofValues(Arrays.asList(1, 1, 2, 3, 4, 4, 5, 5, 6)), 2, 4, null),
+            row -> Objects.hash(row.get(0)),
+            3
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(resultForDuplicateValues);
+    }
+
+    @Test
+    public void testGraceHashJoinWithHashCollisions() throws Exception {
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> newJoin(
+            TestingBatchIterators.ofValues(Arrays.asList(0, 0, 1, 2, 2, 3, 4, 4)),
+            TestingBatchIterators.ofValues(Arrays.asList(1, 1, 2, 3, 4, 4, 5, 5, 6)),
+            row -> (Integer) row.get(0) % 3,
+            2
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(resultForDuplicateValues);
+    }
+
+    @Test
+    public void testBuffersOfThePartitionFilesAreAccountedUntilClose() throws Exception {
+        RamAccountingContext ramAccountingContext = new RamAccountingContext("test", new NoopCircuitBreaker("dummy"));
+        BatchIterator<Row> join = newJoin(
+            TestingBatchIterators.range(0, 5),
+            TestingBatchIterators.range(2, 6),
+            row -> Objects.hash(row.get(0)),
+            ramAccountingContext.newChildContext(),
+            4
+        );
+        // partitioning is done on the first call
+        assertThat(join.moveNext(), is(true));
+        assertThat(ramAccountingContext.totalBytes(), is(2L * SpillFile.BUFFER_SIZE));
+
+        join.close();
+        assertThat(ramAccountingContext.totalBytes(), is(0L));
+    }
+
+    @Test
+    public void testGracePartitionsAreOnlyUsedIfLeftSideExceedsAvailableMemory() {
+        CircuitBreaker circuitBreaker = mock(CircuitBreaker.class);
+        when(circuitBreaker.getLimit()).thenReturn(1000L);
+        when(circuitBreaker.getUsed()).thenReturn(200L);
+
+        assertThat(HashJoinOperation.numGracePartitions(circuitBreaker, 10, 80), is(1));
+        assertThat(HashJoinOperation.numGracePartitions(circuitBreaker, 10, 81), is(3));
+        assertThat(HashJoinOperation.numGracePartitions(circuitBreaker, 10, 10_000), is(250));
+        assertThat(HashJoinOperation.numGracePartitions(circuitBreaker, 10, 1_000_000), is(256));
+        assertThat(HashJoinOperation.numGracePartitions(circuitBreaker, 0, 1_000_000), is(1));
+
+        when(circuitBreaker.getLimit()).thenReturn(-1L);
+        assertThat(HashJoinOperation.numGracePartitions(circuitBreaker, 10, 1_000_000), is(1));
+    }
+}
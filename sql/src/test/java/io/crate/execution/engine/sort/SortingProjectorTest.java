@@ -23,32 +23,51 @@
 package io.crate.execution.engine.sort;
 
 import com.google.common.collect.ImmutableList;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.expression.symbol.Literal;
 import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
+import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Row;
+import io.crate.data.Row1;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.collect.InputCollectExpression;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.TestingBatchIterators;
 import io.crate.testing.TestingRowConsumer;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static io.crate.data.SentinelRow.SENTINEL;
 import static io.crate.testing.TestingHelpers.isRow;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class SortingProjectorTest extends CrateUnitTest {
 
     private TestingRowConsumer consumer = new TestingRowConsumer();
 
     private SortingProjector createProjector(int numOutputs, int offset) {
+        return createProjector(numOutputs, offset, new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy")));
+    }
+
+    private SortingProjector createProjector(int numOutputs, int offset, RamAccountingContext ramAccountingContext) {
         InputCollectExpression input = new InputCollectExpression(0);
         return new SortingProjector(
             ImmutableList.of(input, Literal.of(true)),
             ImmutableList.<CollectExpression<Row, ?>>of(input),
+            ImmutableList.of(DataTypes.INTEGER, DataTypes.BOOLEAN),
             numOutputs,
             OrderingByPosition.arrayOrdering(0, false, null),
-            offset
+            offset,
+            ramAccountingContext
         );
     }
 
@@ -86,6 +105,42 @@ public class SortingProjectorTest extends CrateUnitTest {
         expectedException.expect(IllegalArgumentException.class);
         expectedException.expectMessage("invalid offset -1");
 
-        new SortingProjector(null, null, 2, null, -1);
+        new SortingProjector(null, null, null, 2, null, -1, null);
+    }
+
+    @Test
+    public void testRowsAreSpilledAndMergedIfBreakerLimitIsReached() throws Exception {
+        CircuitBreaker breaker = mock(CircuitBreaker.class);
+        when(breaker.getLimit()).thenReturn(100L);
+        when(breaker.getUsed()).thenReturn(100L);
+        RamAccountingContext ramAccountingContext = new RamAccountingContext("dummy", breaker);
+
+        long origMinSpillBytes = SortedRuns.MIN_SPILL_BYTES;
+        SortedRuns.MIN_SPILL_BYTES = 0;
+        try {
+            // every row is spilled as a run, more runs than can be merged at once
+            int numRows = SortedRuns.MAX_MERGE_WIDTH * 2 + 10;
+            List<Row> rows = new ArrayList<>(numRows);
+            for (int i = 0; i < numRows; i++) {
+                rows.add(new Row1(i));
+            }
+            Collections.shuffle(rows, random());
+            SortingProjector projector = createProjector(2, 5, ramAccountingContext);
+            consumer.accept(projector.apply(InMemoryBatchIterator.of(rows, SENTINEL)), null);
+            List<Object[]> result = consumer.getResult();
+
+            List<Integer> values = new ArrayList<>(result.size());
+            for (Object[] row : result) {
+                assertThat(row.length, is(2));
+                values.add((Integer) row[0]);
+            }
+            List<Integer> expected = new ArrayList<>(numRows - 5);
+            for (int i = 5; i < numRows; i++) {
+                expected.add(i);
+            }
+            assertThat(values, is(expected));
+        } finally {
+            SortedRuns.MIN_SPILL_BYTES = origMinSpillBytes;
+        }
     }
 }
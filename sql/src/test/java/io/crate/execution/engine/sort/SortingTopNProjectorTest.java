@@ -24,10 +24,14 @@ package io.crate.execution.engine.sort;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Ordering;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.BatchIterators;
 import io.crate.data.Bucket;
+import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
+import io.crate.data.Row1;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.collect.InputCollectExpression;
 import io.crate.execution.engine.pipeline.TopN;
@@ -35,18 +39,31 @@ import io.crate.expression.symbol.Literal;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.TestingBatchIterators;
 import io.crate.testing.TestingRowConsumer;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+import static io.crate.data.SentinelRow.SENTINEL;
 import static io.crate.testing.TestingHelpers.isRow;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class SortingTopNProjectorTest extends CrateUnitTest {
 
     private static final InputCollectExpression INPUT = new InputCollectExpression(0);
     private static final Literal<Boolean> TRUE_LITERAL = Literal.of(true);
     private static final List<Input<?>> INPUT_LITERAL_LIST = ImmutableList.of(INPUT, TRUE_LITERAL);
+    private static final List<DataType> INPUT_TYPES = ImmutableList.of(DataTypes.INTEGER, DataTypes.BOOLEAN);
     private static final List<CollectExpression<Row, ?>> COLLECT_EXPRESSIONS = ImmutableList.<CollectExpression<Row, ?>>of(INPUT);
     private static final Ordering<Object[]> FIRST_CELL_ORDERING = OrderingByPosition.arrayOrdering(0, false, null);
 
@@ -62,11 +79,13 @@ public class SortingTopNProjectorTest extends CrateUnitTest {
         return new SortingTopNProjector(
             INPUT_LITERAL_LIST,
             COLLECT_EXPRESSIONS,
+            INPUT_TYPES,
             numOutputs,
             ordering,
             limit,
             offset,
-            unboundedCollectorThreshold
+            unboundedCollectorThreshold,
+            new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy"))
         );
     }
 
@@ -162,4 +181,93 @@ public class SortingTopNProjectorTest extends CrateUnitTest {
         int i = Integer.MAX_VALUE / 2 + 1;
         getProjector(2, i, i);
     }
+
+    @Test
+    public void testRowsAreSpilledAndMergedIfBreakerLimitIsReached() throws Exception {
+        CircuitBreaker breaker = mock(CircuitBreaker.class);
+        when(breaker.getLimit()).thenReturn(100L);
+        when(breaker.getUsed()).thenReturn(100L);
+        RamAccountingContext ramAccountingContext = new RamAccountingContext("dummy", breaker);
+
+        long origMinSpillBytes = SortedRuns.MIN_SPILL_BYTES;
+        SortedRuns.MIN_SPILL_BYTES = 0;
+        try {
+            int numRows = SortedRuns.MAX_MERGE_WIDTH * 2 + 10;
+            List<Row> rows = new ArrayList<>(numRows);
+            for (int i = 0; i < numRows; i++) {
+                rows.add(new Row1(i));
+            }
+            Collections.shuffle(rows, random());
+            Projector projector = new SortingTopNProjector(
+                INPUT_LITERAL_LIST,
+                COLLECT_EXPRESSIONS,
+                INPUT_TYPES,
+                1,
+                FIRST_CELL_ORDERING,
+                numRows - 20,
+                10,
+                1,
+                ramAccountingContext
+            );
+            consumer.accept(projector.apply(InMemoryBatchIterator.of(rows, SENTINEL)), null);
+            List<Object[]> result = consumer.getResult();
+
+            assertThat(result.size(), is(numRows - 20));
+            for (int i = 0; i < result.size(); i++) {
+                assertThat(result.get(i)[0], is(i + 10));
+            }
+        } finally {
+            SortedRuns.MIN_SPILL_BYTES = origMinSpillBytes;
+        }
+    }
+
+    @Test
+    public void testRowsEvictedFromTheQueueAreNotAccounted() throws Exception {
+        CircuitBreaker breaker = mock(CircuitBreaker.class);
+        when(breaker.getLimit()).thenReturn(100L);
+        when(breaker.getUsed()).thenReturn(100L);
+        RamAccountingContext ramAccountingContext = new RamAccountingContext("dummy", breaker);
+
+        long origMinSpillBytes = SortedRuns.MIN_SPILL_BYTES;
+        // far more than the 15 rows of the queue, far less than all rows
+        SortedRuns.MIN_SPILL_BYTES = 10 * 1024;
+        int numRows = 10_000;
+        List<Row> rows = new ArrayList<>(numRows);
+        for (int i = 0; i < numRows; i++) {
+            rows.add(new Row1(i));
+        }
+        Collections.shuffle(rows, random());
+        UnboundedSortingTopNCollector collector = new UnboundedSortingTopNCollector(
+            INPUT_LITERAL_LIST,
+            COLLECT_EXPRESSIONS,
+            INPUT_TYPES,
+            1,
+            FIRST_CELL_ORDERING,
+            10,
+            10,
+            5,
+            ramAccountingContext
+        );
+        UnboundedSortingTopNCollector.RowQueue queue = collector.supplier().get();
+        try {
+            Iterable<Row> result = BatchIterators.collect(
+                InMemoryBatchIterator.of(rows, SENTINEL),
+                queue,
+                collector,
+                new CompletableFuture<>()
+            ).get(10, TimeUnit.SECONDS);
+
+            assertThat(queue.sortedRuns, nullValue());
+            assertThat(ramAccountingContext.totalBytes() < SortedRuns.MIN_SPILL_BYTES, is(true));
+            int expected = 5;
+            for (Row row : result) {
+                assertThat(row.get(0), is(expected));
+                expected++;
+            }
+            assertThat(expected, is(15));
+        } finally {
+            SortedRuns.MIN_SPILL_BYTES = origMinSpillBytes;
+            queue.close();
+        }
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.window;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Input;
+import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.collect.InputCollectExpression;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.Functions;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.util.BigArrays;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class AggregateToWindowFunctionAdapterTest extends CrateUnitTest {
+
+    private final Functions functions = getFunctions();
+    private final List<Object[]> rows = new ArrayList<>();
+
+    private List<Object> executeOverSlidingFrames(String aggregate, DataType<?> type, Object... values) {
+        for (Object value : values) {
+            rows.add(new Object[]{value});
+        }
+        AggregationFunction aggregationFunction = (AggregationFunction) functions.getQualified(
+            new FunctionIdent(aggregate, Collections.singletonList(type)));
+        AggregateToWindowFunctionAdapter windowFunction = new AggregateToWindowFunctionAdapter(
+            aggregationFunction,
+            Version.CURRENT,
+            BigArrays.NON_RECYCLING_INSTANCE,
+            new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA))
+        );
+        InputCollectExpression input = new InputCollectExpression(0);
+        List<Object> results = new ArrayList<>();
+        // frames of the form ROWS BETWEEN 1 PRECEDING AND CURRENT ROW
+        for (int rowIdx = 0; rowIdx < rows.size(); rowIdx++) {
+            int upperBoundExclusive = rowIdx + 1;
+            WindowFrameState frame = new WindowFrameState(
+                Math.max(0, rowIdx - 1), upperBoundExclusive, rows.subList(0, upperBoundExclusive));
+            results.add(windowFunction.execute(rowIdx, frame, Collections.singletonList(input), new Input[]{input}));
+        }
+        return results;
+    }
+
+    @Test
+    public void testRemovableAggregationOverSlidingFrames() {
+        assertThat(executeOverSlidingFrames("count", DataTypes.INTEGER, 1, null, 3, 4, 5), contains(1L, 1L, 1L, 2L, 2L));
+    }
+
+    @Test
+    public void testNonRemovableAggregationOverSlidingFrames() {
+        assertThat(executeOverSlidingFrames("max", DataTypes.INTEGER, 1, 2, 3, 4, 5), contains(1, 2, 3, 4, 5));
+    }
+
+    @Test
+    public void testAvgOverSlidingFrames() {
+        assertThat(executeOverSlidingFrames("avg", DataTypes.INTEGER, 1, 2, 3, 4, 5), contains(1.0, 1.5, 2.5, 3.5, 4.5));
+    }
+
+    @Test
+    public void testVarianceOverSlidingFramesWithLargeAndSmallValues() {
+        // removing 1e9 from the running sums would result in a negative variance for the last frame
+        List<Object> results = executeOverSlidingFrames("variance", DataTypes.DOUBLE, 1e9, 1.0, 1.0);
+        assertThat(results.get(2), is(0.0));
+    }
+
+    @Test
+    public void testStdDevOverSlidingFramesWithLargeAndSmallValues() {
+        List<Object> results = executeOverSlidingFrames("stddev", DataTypes.DOUBLE, 1e9, 1.0, 1.0);
+        assertThat(results.get(2), is(0.0));
+    }
+}
@@ -135,8 +135,8 @@ public class WindowBatchIteratorTest {
         TestingRowConsumer consumer = new TestingRowConsumer();
         consumer.accept(windowBatchIterator, null);
 
-        // should've accounted for 10 integers of 48 bytes each (16 for the integer, 32 for the LinkedList element)
-        assertThat(ramAccountingContext.totalBytes(), is(480L));
+        // should've accounted for 10 integers of 32 bytes each (16 for the integer, 16 for the ArrayDeque element)
+        assertThat(ramAccountingContext.totalBytes(), is(320L));
     }
 
     private static WindowDefinition emptyWindow() {
@@ -22,6 +22,7 @@
 
 package io.crate.execution.jobs.transport;
 
+import io.crate.execution.jobs.workload.WorkloadClass;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.junit.Test;
 
@@ -35,7 +36,8 @@ public class JobRequestTest {
 
     @Test
     public void testJobRequestStreaming() throws Exception {
-        JobRequest r1 = new JobRequest(UUID.randomUUID(), "dummyUser", "dummySchema", "n1", Collections.emptyList(), true);
+        JobRequest r1 = new JobRequest(
+            UUID.randomUUID(), "dummyUser", "dummySchema", "n1", Collections.emptyList(), true, WorkloadClass.ANALYTICAL);
 
         BytesStreamOutput out = new BytesStreamOutput();
         r1.writeTo(out);
@@ -47,5 +49,6 @@ public class JobRequestTest {
         assertThat(r1.jobId(), is(r2.jobId()));
         assertThat(r1.nodeOperations().isEmpty(), is(true));
         assertThat(r1.enableProfiling(), is(r2.enableProfiling()));
+        assertThat(r2.workloadClass(), is(WorkloadClass.ANALYTICAL));
     }
 }
@@ -0,0 +1,170 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.jobs.workload;
+
+import com.google.common.collect.ImmutableSet;
+import io.crate.auth.user.User;
+import io.crate.exceptions.JobRejectedException;
+import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.planner.Plan;
+import io.crate.planner.operators.StatementClassifier.Classification;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class WorkloadServiceTest extends CrateDummyClusterServiceUnitTest {
+
+    private ClusterSettings clusterSettings;
+    private WorkloadService workloadService;
+
+    @Before
+    public void setupWorkloadService() {
+        clusterSettings = new ClusterSettings(Settings.EMPTY, ImmutableSet.of(
+            WorkloadService.INTERACTIVE_MAX_CONCURRENT_JOBS_SETTING.setting(),
+            WorkloadService.INTERACTIVE_QUEUE_SIZE_SETTING.setting(),
+            WorkloadService.INTERACTIVE_USERS_SETTING.setting(),
+            WorkloadService.ANALYTICAL_MAX_CONCURRENT_JOBS_SETTING.setting(),
+            WorkloadService.ANALYTICAL_QUEUE_SIZE_SETTING.setting(),
+            WorkloadService.ANALYTICAL_USERS_SETTING.setting()));
+        workloadService = new WorkloadService(
+            Settings.builder()
+                .put(WorkloadService.INTERACTIVE_MAX_CONCURRENT_JOBS_SETTING.getKey(), 1)
+                .put(WorkloadService.INTERACTIVE_QUEUE_SIZE_SETTING.getKey(), 1)
+                .build(),
+            clusterSettings,
+            THREAD_POOL,
+            new JobsLogs(() -> true));
+    }
+
+    @Test
+    public void testClassifyByPlanAndUser() {
+        Classification lookup = new Classification(Plan.StatementType.SELECT, ImmutableSet.of("Get"));
+        Classification join = new Classification(Plan.StatementType.SELECT, ImmutableSet.of("Collect", "HashJoin"));
+        Classification copy = new Classification(Plan.StatementType.COPY);
+
+        assertThat(workloadService.classify(User.CRATE_USER, lookup), is(WorkloadClass.INTERACTIVE));
+        assertThat(workloadService.classify(User.CRATE_USER, join), is(WorkloadClass.ANALYTICAL));
+        assertThat(workloadService.classify(User.CRATE_USER, copy), is(WorkloadClass.ANALYTICAL));
+
+        clusterSettings.applySettings(Settings.builder()
+            .put(WorkloadService.ANALYTICAL_USERS_SETTING.getKey(), "reporting, etl")
+            .put(WorkloadService.INTERACTIVE_USERS_SETTING.getKey(), "dashboard")
+            .build());
+        assertThat(workloadService.classify(User.of("etl"), lookup), is(WorkloadClass.ANALYTICAL));
+        assertThat(workloadService.classify(User.of("dashboard"), join), is(WorkloadClass.INTERACTIVE));
+    }
+
+    @Test
+    public void testJobsAreQueuedAndRejectedIfTheLimitIsReached() throws Exception {
+        AtomicInteger numRuns = new AtomicInteger(0);
+        CountDownLatch queuedJobRan = new CountDownLatch(1);
+
+        Admission running = workloadService.newAdmission(UUID.randomUUID(), WorkloadClass.INTERACTIVE);
+        running.execute(numRuns::incrementAndGet, t -> fail("job must not fail"));
+        assertThat(numRuns.get(), is(1));
+
+        Admission queued = workloadService.newAdmission(UUID.randomUUID(), WorkloadClass.INTERACTIVE);
+        queued.execute(queuedJobRan::countDown, t -> fail("job must not fail"));
+        assertThat(queued.state(), is(Admission.State.QUEUED));
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Admission rejected = workloadService.newAdmission(UUID.randomUUID(), WorkloadClass.INTERACTIVE);
+        rejected.execute(numRuns::incrementAndGet, failure::set);
+        assertThat(failure.get(), instanceOf(JobRejectedException.class));
+        assertThat(numRuns.get(), is(1));
+
+        // analytical jobs are limited independently
+        assertThat(workloadService.queue(WorkloadClass.ANALYTICAL).running(), is(0));
+
+        rejected.release();
+        running.release();
+        running.release();
+        assertThat(queuedJobRan.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(workloadService.queue(WorkloadClass.INTERACTIVE).running(), is(1));
+
+        queued.release();
+        assertThat(workloadService.queue(WorkloadClass.INTERACTIVE).running(), is(0));
+        assertThat(workloadService.queue(WorkloadClass.INTERACTIVE).queued(), is(0));
+    }
+
+    @Test
+    public void testQueuedJobsAreAdmittedIfTheLimitIsRaised() throws Exception {
+        Admission running = workloadService.newAdmission(UUID.randomUUID(), WorkloadClass.INTERACTIVE);
+        running.execute(() -> {}, t -> fail("job must not fail"));
+
+        CountDownLatch queuedJobRan = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Admission queued = workloadService.newAdmission(UUID.randomUUID(), WorkloadClass.INTERACTIVE);
+        queued.execute(queuedJobRan::countDown, failure::set);
+
+        clusterSettings.applySettings(Settings.builder()
+            .put(WorkloadService.INTERACTIVE_MAX_CONCURRENT_JOBS_SETTING.getKey(), 2)
+            .build());
+        assertThat(queuedJobRan.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(failure.get(), nullValue());
+        assertThat(workloadService.queue(WorkloadClass.INTERACTIVE).running(), is(2));
+    }
+
+    @Test
+    public void testReleasingAQueuedJobRemovesItFromTheQueue() {
+        Admission running = workloadService.newAdmission(UUID.randomUUID(), WorkloadClass.INTERACTIVE);
+        running.execute(() -> {}, t -> fail("job must not fail"));
+        Admission queued = workloadService.newAdmission(UUID.randomUUID(), WorkloadClass.INTERACTIVE);
+        queued.execute(() -> fail("released job must not run"), t -> fail("job must not fail"));
+
+        queued.release();
+        assertThat(workloadService.queue(WorkloadClass.INTERACTIVE).queued(), is(0));
+        running.release();
+        assertThat(workloadService.queue(WorkloadClass.INTERACTIVE).running(), is(0));
+    }
+
+    @Test
+    public void testSystemJobsAreNeverQueued() {
+        AtomicInteger numRuns = new AtomicInteger(0);
+        Admission running = workloadService.newAdmission(UUID.randomUUID(), WorkloadClass.INTERACTIVE);
+        running.execute(numRuns::incrementAndGet, t -> fail("job must not fail"));
+
+        Admission system = workloadService.newSystemAdmission(UUID.randomUUID(), WorkloadClass.INTERACTIVE);
+        system.execute(numRuns::incrementAndGet, t -> fail("job must not fail"));
+        assertThat(system.state(), is(Admission.State.RUNNING));
+        assertThat(numRuns.get(), is(2));
+        assertThat(workloadService.queue(WorkloadClass.INTERACTIVE).running(), is(1));
+        assertThat(workloadService.queue(WorkloadClass.INTERACTIVE).queued(), is(0));
+
+        system.release();
+        running.release();
+        assertThat(workloadService.queue(WorkloadClass.INTERACTIVE).running(), is(0));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.expression.reference.doc.lucene;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class SourceParserTest {
+
+    @Test
+    public void testOnlyRegisteredColumnsAreParsed() {
+        SourceParser sourceParser = new SourceParser();
+        sourceParser.register(Collections.singletonList("x"));
+        sourceParser.register(Arrays.asList("obj", "a"));
+
+        Map<String, Object> result = sourceParser.parse(new BytesArray(
+            "{\"y\": [1, 2], \"x\": 10, \"obj\": {\"a\": {\"b\": true}, \"c\": \"foo\"}, \"z\": {\"x\": 20}}"));
+
+        assertThat(result.keySet(), containsInAnyOrder("obj", "x"));
+        assertThat(result.get("x"), is(10));
+        assertThat(result.get("obj"), is(Collections.singletonMap("a", Collections.singletonMap("b", true))));
+        assertThat(sourceParser.isRegistered(Arrays.asList("obj", "a", "b")), is(true));
+        assertThat(sourceParser.isRegistered(Collections.singletonList("obj")), is(false));
+        assertThat(sourceParser.isRegistered(Collections.singletonList("y")), is(false));
+    }
+
+    @Test
+    public void testColumnsWithinArraysOfObjectsAreParsed() {
+        SourceParser sourceParser = new SourceParser();
+        sourceParser.register(Arrays.asList("x", "y"));
+
+        Map<String, Object> result = sourceParser.parse(new BytesArray(
+            "{\"x\": [{\"y\": 1, \"z\": 2}, {\"z\": 3}, {\"y\": 4}]}"));
+
+        Object value = SourceLookup.extractValue(result, Arrays.asList("x", "y"), 0);
+        assertThat(value, is(Arrays.asList(1, null, 4)));
+    }
+
+    @Test
+    public void testParentColumnIncludesChildColumns() {
+        SourceParser sourceParser = new SourceParser();
+        sourceParser.register(Collections.singletonList("obj"));
+        sourceParser.register(Arrays.asList("obj", "a"));
+
+        Map<String, Object> result = sourceParser.parse(new BytesArray("{\"obj\": {\"a\": 1, \"b\": 2}}"));
+
+        assertThat(((Map) result.get("obj")).size(), is(2));
+    }
+}
@@ -22,7 +22,9 @@
 
 package io.crate.integrationtests;
 
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.RelationName;
+import io.crate.planner.ColumnStats;
 import io.crate.planner.TableStats;
 import org.elasticsearch.test.ESIntegTestCase;
 import org.junit.After;
@@ -31,7 +33,10 @@ import org.junit.Test;
 
 import java.util.concurrent.TimeUnit;
 
+import static io.crate.testing.TestingHelpers.printedTable;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
 
 
 @ESIntegTestCase.ClusterScope(supportsDedicatedMasters = false, numDataNodes = 2, numClientNodes = 0)
@@ -61,4 +66,39 @@ public class TableStatsServiceIntegrationTest extends SQLTransportIntegrationTes
                 // to run this test.
             }, 5, TimeUnit.SECONDS);
     }
+
+    @Test
+    public void testAnalyzeWithSingleConcurrentJobPerWorkloadClass() throws Exception {
+        execute("create table t1(a int, b string) with (number_of_replicas = 0)");
+        ensureYellow();
+        execute("insert into t1(a, b) values(1, 'a'), (2, 'b'), (3, 'c')");
+        execute("refresh table t1");
+        execute("set global transient workload.interactive.max_concurrent_jobs = 1, " +
+                "workload.analytical.max_concurrent_jobs = 1");
+        try {
+            // the sample statements of ANALYZE are run while ANALYZE itself holds the only slot
+            execute("analyze t1");
+            execute("select count(*) from t1");
+            assertThat(printedTable(response.rows()), is("3\n"));
+        } finally {
+            execute("reset global workload.interactive.max_concurrent_jobs, workload.analytical.max_concurrent_jobs");
+        }
+    }
+
+    @Test
+    public void testColumnStatsArePublishedToAllNodes() throws Exception {
+        execute("set global transient stats.service.interval = 0");
+        execute("create table t1(a int) with (number_of_replicas = 0)");
+        ensureYellow();
+        execute("insert into t1(a) values(1), (2), (2)");
+        execute("refresh table t1");
+        execute("analyze t1");
+
+        RelationName relationName = new RelationName(sqlExecutor.getCurrentSchema(), "t1");
+        for (TableStats tableStats : internalCluster().getInstances(TableStats.class)) {
+            ColumnStats stats = tableStats.columnStats(relationName, new ColumnIdent("a"));
+            assertThat(stats, notNullValue());
+            assertThat(stats.mostCommonValues(), contains(2));
+        }
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.RelationName;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ColumnStatsTest extends CrateUnitTest {
+
+    @Test
+    public void testStatsFromSkewedSample() {
+        List<Object> samples = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            samples.add(null);
+        }
+        for (int i = 0; i < 400; i++) {
+            samples.add(42L);
+        }
+        for (long i = 1000; i < 1500; i++) {
+            samples.add(i);
+        }
+        Collections.shuffle(samples, random());
+
+        ColumnStats stats = ColumnStats.fromSample(samples, 1000L, DataTypes.LONG);
+        assertThat(stats.nullFraction(), closeTo(0.1, 0.0001));
+        assertThat(stats.approxDistinct(), closeTo(501.0, 0.0001));
+        assertThat(stats.min(), is(42L));
+        assertThat(stats.max(), is(1499L));
+        assertThat(stats.mostCommonValues(), contains(42L));
+        assertThat(stats.mostCommonFrequencies()[0], closeTo(0.4, 0.0001));
+
+        List<Object> bounds = stats.histogramBounds();
+        assertThat(bounds.size(), is(ColumnStats.NUM_HISTOGRAM_BUCKETS + 1));
+        assertThat(bounds.get(0), is(1000L));
+        assertThat(bounds.get(bounds.size() - 1), is(1499L));
+
+        assertThat(stats.selectivityOfEq(42L), closeTo(0.4, 0.0001));
+        assertThat(stats.selectivityOfEq(1200L), closeTo(0.001, 0.0001));
+        assertThat(stats.selectivityOfEq(null), is(0.0));
+    }
+
+    @Test
+    public void testStatsOfOnlyNulls() {
+        ColumnStats stats = ColumnStats.fromSample(Collections.nCopies(10, null), 100L, DataTypes.STRING);
+        assertThat(stats.nullFraction(), is(1.0));
+        assertThat(stats.approxDistinct(), is(0.0));
+        assertThat(stats.min(), nullValue());
+        assertThat(stats.histogramBounds().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testDistinctEstimationExtrapolatesToTable() {
+        // every value seen at least twice -> likely all distinct values are in the sample
+        assertThat(ColumnStats.estimateDistinct(1000, 100, 0, 1_000_000L), is(100.0));
+        // every value seen once -> likely unique
+        assertThat(ColumnStats.estimateDistinct(1000, 1000, 1000, 1_000_000L), is(1_000_000.0));
+
+        double estimate = ColumnStats.estimateDistinct(1000, 600, 400, 1_000_000L);
+        assertThat(estimate > 600.0, is(true));
+        assertThat(estimate < 1_000_000.0, is(true));
+    }
+
+    @Test
+    public void testStreamingOfPublishRequest() throws Exception {
+        List<Object> samples = new ArrayList<>();
+        for (long i = 0; i < 200; i++) {
+            samples.add(i % 3 == 0 ? 7L : i);
+        }
+        ColumnStats stats = ColumnStats.fromSample(samples, 1000L, DataTypes.LONG);
+        RelationName relationName = new RelationName("doc", "t1");
+        PublishColumnStatsRequest request = new PublishColumnStatsRequest(
+            Collections.singletonMap(relationName, Collections.singletonMap(new ColumnIdent("x"), stats)),
+            Collections.singletonMap(relationName, 1000L),
+            true);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        request.writeTo(out);
+        PublishColumnStatsRequest streamed = new PublishColumnStatsRequest();
+        streamed.readFrom(out.bytes().streamInput());
+
+        assertThat(streamed.replaceAll(), is(true));
+        assertThat(streamed.numDocsOnAnalyze().get(relationName), is(1000L));
+        ColumnStats streamedStats = streamed.columnStats().get(relationName).get(new ColumnIdent("x"));
+        assertThat(streamedStats.nullFraction(), is(stats.nullFraction()));
+        assertThat(streamedStats.approxDistinct(), is(stats.approxDistinct()));
+        assertThat(streamedStats.min(), is(stats.min()));
+        assertThat(streamedStats.max(), is(stats.max()));
+        assertThat(streamedStats.mostCommonValues(), is(stats.mostCommonValues()));
+        assertThat(streamedStats.mostCommonFrequencies(), is(stats.mostCommonFrequencies()));
+        assertThat(streamedStats.histogramBounds(), is(stats.histogramBounds()));
+    }
+}
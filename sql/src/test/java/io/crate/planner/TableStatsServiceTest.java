@@ -23,12 +23,20 @@
 package io.crate.planner;
 
 import com.carrotsearch.hppc.ObjectObjectMap;
+import com.google.common.collect.ImmutableMap;
 import io.crate.action.sql.SQLOperations;
 import io.crate.action.sql.Session;
+import io.crate.data.Row1;
 import io.crate.data.RowN;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.ReferenceIdent;
 import io.crate.metadata.RelationName;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.Schemas;
 import io.crate.plugin.SQLPlugin;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.types.DataTypes;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
@@ -37,13 +45,19 @@ import org.elasticsearch.common.unit.TimeValue;
 import org.junit.Test;
 import org.mockito.Answers;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Random;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.mockito.Matchers.anyString;
@@ -71,7 +85,9 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
             THREAD_POOL,
             clusterService,
             new TableStats(),
-            mock(SQLOperations.class, Answers.RETURNS_MOCKS.get()));
+            mock(Schemas.class),
+            mock(SQLOperations.class, Answers.RETURNS_MOCKS.get()),
+            mock(TransportPublishColumnStatsAction.class));
 
         assertThat(statsService.refreshInterval,
             is(TimeValue.timeValueMinutes(0)));
@@ -83,7 +99,9 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
             THREAD_POOL,
             clusterService,
             new TableStats(),
-            mock(SQLOperations.class, Answers.RETURNS_MOCKS.get()));
+            mock(Schemas.class),
+            mock(SQLOperations.class, Answers.RETURNS_MOCKS.get()),
+            mock(TransportPublishColumnStatsAction.class));
 
         assertThat(statsService.refreshInterval,
             is(TableStatsService.STATS_SERVICE_REFRESH_INTERVAL_SETTING.getDefault()));
@@ -151,7 +169,9 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
             THREAD_POOL,
             clusterService,
             new TableStats(),
-            sqlOperations
+            mock(Schemas.class),
+            sqlOperations,
+            mock(TransportPublishColumnStatsAction.class)
         );
         statsService.run();
 
@@ -172,10 +192,55 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
             THREAD_POOL,
             clusterService,
             new TableStats(),
-            sqlOperations
+            mock(Schemas.class),
+            sqlOperations,
+            mock(TransportPublishColumnStatsAction.class)
         );
 
         statsService.run();
         verify(session, times(0)).sync();
     }
+
+    @Test
+    public void testSampleStatementOnlyFiltersRandomlyIfTableIsLargerThanSample() {
+        RelationName relationName = new RelationName("doc", "Users");
+        Reference id = new Reference(new ReferenceIdent(relationName, "id"), RowGranularity.DOC, DataTypes.LONG);
+        Reference name = new Reference(new ReferenceIdent(relationName, "name"), RowGranularity.DOC, DataTypes.STRING);
+
+        assertThat(TableStatsService.sampleStatement(relationName, Arrays.asList(id, name), 100L),
+            is("select \"id\", \"name\" from \"doc\".\"Users\""));
+        assertThat(TableStatsService.sampleStatement(relationName, Arrays.asList(id, name), 90_000L),
+            is("select \"id\", \"name\" from \"doc\".\"Users\" where random() < 0.5"));
+    }
+
+    @Test
+    public void testSampleIsSpreadAcrossAllRows() {
+        TableStatsService.SampleResultReceiver receiver = new TableStatsService.SampleResultReceiver(1000, new Random(42));
+        for (int i = 0; i < 100_000; i++) {
+            receiver.setNextRow(new Row1(i));
+        }
+        assertThat(receiver.numRows, is(100_000L));
+        assertThat(receiver.rows.size(), is(1000));
+        // with a limit the sample would only contain the rows received first
+        long fromSecondHalf = receiver.rows.stream().filter(row -> (int) row[0] >= 50_000).count();
+        assertThat(fromSecondHalf, allOf(greaterThan(400L), lessThan(600L)));
+    }
+
+    @Test
+    public void testColumnStatsOfDroppedTablesAreRemoved() {
+        RelationName t1 = new RelationName("doc", "t1");
+        RelationName t2 = new RelationName("doc", "t2");
+        ColumnStats stats = ColumnStats.fromSample(Arrays.asList(1, 2, 3), 3L, DataTypes.INTEGER);
+        TableStats tableStats = new TableStats();
+        tableStats.updateColumnStats(
+            ImmutableMap.of(t1, ImmutableMap.of(new ColumnIdent("x"), stats), t2, ImmutableMap.of(new ColumnIdent("x"), stats)),
+            ImmutableMap.of(t1, 3L, t2, 3L),
+            false);
+
+        tableStats.retainColumnStats(t1::equals);
+
+        assertThat(tableStats.columnStats().keySet(), contains(t1));
+        assertThat(tableStats.numDocsOnLastAnalyze(t1), is(3L));
+        assertThat(tableStats.numDocsOnLastAnalyze(t2), is(-1L));
+    }
 }
@@ -29,11 +29,15 @@ import io.crate.sql.tree.QualifiedName;
 import io.crate.testing.T3;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -80,4 +84,47 @@ public class JoinOrderingTest {
         );
         assertThat(qualifiedNames, contains(T3.T1, T3.T2, T3.T3));
     }
+
+    @Test
+    public void testOrderByCostJoinsMostSelectivePairFirst() {
+        // SELECT * FROM t1, t2, t3 WHERE t1.id = t2.id AND t2.x = t3.x
+        long[] rows = new long[] { 1_000_000, 1_000_000, 10 };
+        double[][] selectivity = new double[][] {
+            { 1.0, 1.0 / 1_000_000, 1.0 },
+            { 1.0 / 1_000_000, 1.0, 1.0 / 1_000 },
+            { 1.0, 1.0 / 1_000, 1.0 }
+        };
+        List<QualifiedName> names = Arrays.asList(T3.T1, T3.T2, T3.T3);
+        List<QualifiedName> ordered = JoinOrdering.orderByCost(names, rows, selectivity);
+        assertThat(ordered.subList(0, 2), containsInAnyOrder(T3.T2, T3.T3));
+        assertThat(ordered.get(2), is(T3.T1));
+    }
+
+    @Test
+    public void testOrderByCostWithManyRelationsAvoidsCrossJoins() {
+        // a chain of relations r0.id = r1.id AND r1.id = r2.id ...
+        int numRelations = JoinOrdering.MAX_RELATIONS_FOR_EXHAUSTIVE_SEARCH + 2;
+        List<QualifiedName> names = new ArrayList<>(numRelations);
+        long[] rows = new long[numRelations];
+        double[][] selectivity = new double[numRelations][numRelations];
+        for (int i = 0; i < numRelations; i++) {
+            names.add(new QualifiedName("r" + i));
+            rows[i] = 1000;
+            Arrays.fill(selectivity[i], 1.0);
+        }
+        for (int i = 1; i < numRelations; i++) {
+            selectivity[i - 1][i] = 1.0 / 1000;
+            selectivity[i][i - 1] = 1.0 / 1000;
+        }
+        List<QualifiedName> ordered = JoinOrdering.orderByCost(names, rows, selectivity);
+        assertThat(ordered, containsInAnyOrder(names.toArray()));
+
+        Set<Integer> joined = new HashSet<>();
+        joined.add(names.indexOf(ordered.get(0)));
+        for (QualifiedName name : ordered.subList(1, ordered.size())) {
+            int relation = names.indexOf(name);
+            assertThat(joined.contains(relation - 1) || joined.contains(relation + 1), is(true));
+            joined.add(relation);
+        }
+    }
 }
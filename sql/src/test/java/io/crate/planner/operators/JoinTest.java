@@ -22,21 +22,30 @@
 
 package io.crate.planner.operators;
 
+import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.ObjectObjectHashMap;
+import com.google.common.collect.ImmutableMap;
 import io.crate.analyze.MultiSourceSelect;
 import io.crate.analyze.TableDefinitions;
 import io.crate.data.Row;
 import io.crate.execution.dsl.phases.HashJoinPhase;
 import io.crate.execution.dsl.phases.NestedLoopPhase;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.CoordinatorTxnCtx;
 import io.crate.metadata.Functions;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
+import io.crate.metadata.Routing;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.table.TestingTableInfo;
+import io.crate.planner.ColumnStats;
 import io.crate.planner.ExecutionPlan;
 import io.crate.planner.PlannerContext;
 import io.crate.planner.SubqueryPlanner;
 import io.crate.planner.TableStats;
+import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.node.dql.Collect;
 import io.crate.planner.node.dql.QueryThenFetch;
 import io.crate.planner.node.dql.join.Join;
@@ -51,6 +60,8 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static io.crate.testing.TestingHelpers.getFunctions;
 import static io.crate.testing.TestingHelpers.isSQL;
@@ -340,4 +351,127 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
         assertThat((((NestedLoopPhase) ((Join) ((QueryThenFetch) build).subPlan()).joinPhase())).blockNestedLoop,
             is(false));
     }
+
+    @Test
+    public void testJoinsAreOrderedByCostIfStatsAreAvailable() {
+        TableStats tableStats = new TableStats();
+        ObjectObjectHashMap<RelationName, TableStats.Stats> stats = new ObjectObjectHashMap<>();
+        stats.put(T3.T1_INFO.ident(), new TableStats.Stats(100_000, 6_400_000));
+        stats.put(T3.T2_INFO.ident(), new TableStats.Stats(1_000, 64_000));
+        stats.put(T3.T3_INFO.ident(), new TableStats.Stats(10, 640));
+        tableStats.updateTableStats(stats);
+        tableStats.updateColumnStats(T3.T1_INFO.ident(), ImmutableMap.of(new ColumnIdent("x"), columnStats(100_000)));
+        tableStats.updateColumnStats(T3.T2_INFO.ident(), ImmutableMap.of(new ColumnIdent("y"), columnStats(1_000)));
+        tableStats.updateColumnStats(T3.T3_INFO.ident(), ImmutableMap.of(new ColumnIdent("z"), columnStats(10)));
+
+        MultiSourceSelect mss = e.normalize("select * from t1 " +
+                                            "join t2 on t1.x = t2.y " +
+                                            "join t3 on t2.y = t3.z");
+        LogicalPlan operator = createLogicalPlan(mss, tableStats);
+
+        // t2 JOIN t3 produces ~10 rows, t1 JOIN t2 ~1000 rows, so t1 is joined last
+        assertThat(operator, instanceOf(HashJoin.class));
+        HashJoin join = (HashJoin) operator;
+        assertThat(tableNames(join.lhs), Matchers.containsInAnyOrder("t2", "t3"));
+        assertThat(tableNames(join.rhs), contains("t1"));
+        assertThat(join.lhs.numExpectedRows(), is(10L));
+        assertThat(join.numExpectedRows(), is(10L));
+    }
+
+    @Test
+    public void testSmallSideIsBroadcastIfCheaperThanRedistribution() {
+        TableStats tableStats = new TableStats();
+        ObjectObjectHashMap<RelationName, TableStats.Stats> stats = new ObjectObjectHashMap<>();
+        stats.put(new RelationName(Schemas.DOC_SCHEMA_NAME, "big"), new TableStats.Stats(1_000_000, 100_000_000));
+        stats.put(new RelationName(Schemas.DOC_SCHEMA_NAME, "small"), new TableStats.Stats(10, 1_000));
+        tableStats.updateTableStats(stats);
+        Join join = planDistributedJoin("select big.name, small.name from small join big on big.id = small.id", tableStats);
+
+        assertThat(join.joinPhase().nodeIds().size(), is(2));
+        assertThat(collectedTable(join.left()), is("big"));
+        assertThat(distributionType(join.left()), is(DistributionType.SAME_NODE));
+        assertThat(distributionType(join.right()), is(DistributionType.BROADCAST));
+    }
+
+    @Test
+    public void testBothSidesAreRedistributedIfTheyAreOfTheSameSize() {
+        TableStats tableStats = new TableStats();
+        ObjectObjectHashMap<RelationName, TableStats.Stats> stats = new ObjectObjectHashMap<>();
+        stats.put(new RelationName(Schemas.DOC_SCHEMA_NAME, "big"), new TableStats.Stats(1_000_000, 100_000_000));
+        stats.put(new RelationName(Schemas.DOC_SCHEMA_NAME, "small"), new TableStats.Stats(1_000_000, 100_000_000));
+        tableStats.updateTableStats(stats);
+        Join join = planDistributedJoin("select big.name, small.name from small join big on big.id = small.id", tableStats);
+
+        assertThat(distributionType(join.left()), is(DistributionType.MODULO));
+        assertThat(distributionType(join.right()), is(DistributionType.MODULO));
+    }
+
+    @Test
+    public void testBothSidesAreRedistributedWithoutStats() {
+        Join join = planDistributedJoin("select big.name, small.name from small join big on big.id = small.id",
+            new TableStats());
+
+        assertThat(distributionType(join.left()), is(DistributionType.MODULO));
+        assertThat(distributionType(join.right()), is(DistributionType.MODULO));
+    }
+
+    @Test
+    public void testIsBroadcastCheaperDependsOnTheNumberOfNodes() {
+        TableStats tableStats = new TableStats();
+        ObjectObjectHashMap<RelationName, TableStats.Stats> stats = new ObjectObjectHashMap<>();
+        stats.put(T3.T1_INFO.ident(), new TableStats.Stats(1_000, 100_000));
+        stats.put(T3.T2_INFO.ident(), new TableStats.Stats(100, 10_000));
+        tableStats.updateTableStats(stats);
+        MultiSourceSelect mss = e.normalize("select * from t1 join t2 on t1.x = t2.y");
+        HashJoin join = (HashJoin) createLogicalPlan(mss, tableStats);
+
+        // broadcast: 100 rows * numNodes, modulo: 1000 + 100 rows (of the same size)
+        assertThat(HashJoin.isBroadcastCheaper(join.lhs, join.rhs, 2), is(true));
+        assertThat(HashJoin.isBroadcastCheaper(join.lhs, join.rhs, 10), is(true));
+        assertThat(HashJoin.isBroadcastCheaper(join.lhs, join.rhs, 11), is(false));
+        assertThat(HashJoin.isBroadcastCheaper(join.rhs, join.lhs, 2), is(false));
+    }
+
+    private Join planDistributedJoin(String stmt, TableStats tableStats) {
+        e = SQLExecutor.builder(clusterService, 2, random())
+            .addDocTable(tableOnTwoNodes("big"))
+            .addDocTable(tableOnTwoNodes("small"))
+            .setTableStats(tableStats)
+            .build();
+        plannerCtx = e.getPlannerContext(clusterService.state());
+        MultiSourceSelect mss = e.normalize(stmt);
+        LogicalPlan operator = createLogicalPlan(mss, tableStats);
+        assertThat(operator, instanceOf(HashJoin.class));
+        return buildJoin(operator);
+    }
+
+    private static DocTableInfo tableOnTwoNodes(String name) {
+        Routing routing = new Routing(ImmutableMap.of(
+            "n1", ImmutableMap.of(name, IntArrayList.from(0)),
+            "n2", ImmutableMap.of(name, IntArrayList.from(1))));
+        return new TestingTableInfo.Builder(new RelationName(Schemas.DOC_SCHEMA_NAME, name), routing)
+            .add("id", DataTypes.INTEGER)
+            .add("name", DataTypes.STRING)
+            .build();
+    }
+
+    private static ColumnStats columnStats(double approxDistinct) {
+        return new ColumnStats(
+            0.0, approxDistinct, null, null, Collections.emptyList(), new double[0], Collections.emptyList());
+    }
+
+    private static List<String> tableNames(LogicalPlan plan) {
+        return plan.baseTables().stream()
+            .map(table -> table.tableInfo().ident().name())
+            .collect(Collectors.toList());
+    }
+
+    private static String collectedTable(ExecutionPlan plan) {
+        Reference ref = (Reference) ((Collect) plan).collectPhase().toCollect().get(0);
+        return ref.ident().tableIdent().name();
+    }
+
+    private static DistributionType distributionType(ExecutionPlan plan) {
+        return ((Collect) plan).collectPhase().distributionInfo().distributionType();
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+package io.crate.planner.operators;
+
+import com.carrotsearch.hppc.ObjectObjectHashMap;
+import com.google.common.collect.ImmutableMap;
+import io.crate.analyze.MultiSourceSelect;
+import io.crate.analyze.QueriedTable;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.RelationName;
+import io.crate.planner.ColumnStats;
+import io.crate.planner.TableStats;
+import io.crate.planner.node.dql.join.JoinType;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import io.crate.testing.T3;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+public class RowCountEstimatorTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+    private TableStats tableStats;
+
+    @Before
+    public void prepare() {
+        tableStats = new TableStats();
+        ObjectObjectHashMap<RelationName, TableStats.Stats> stats = new ObjectObjectHashMap<>();
+        stats.put(T3.T1_INFO.ident(), new TableStats.Stats(1_000, 64_000));
+        stats.put(T3.T2_INFO.ident(), new TableStats.Stats(100, 6_400));
+        tableStats.updateTableStats(stats);
+        e = SQLExecutor.builder(clusterService)
+            .addDocTable(T3.T1_INFO)
+            .addDocTable(T3.T2_INFO)
+            .addDocTable(T3.T3_INFO)
+            .setTableStats(tableStats)
+            .build();
+    }
+
+    private long estimateRows(String stmt) {
+        QueriedTable<?> relation = e.analyze(stmt);
+        return RowCountEstimator.estimateRows(relation, tableStats);
+    }
+
+    @Test
+    public void testRowsOfTableWithoutStatsAreUnknown() {
+        assertThat(estimateRows("select * from t3"), is(-1L));
+    }
+
+    @Test
+    public void testRowsWithoutWhereClauseAreTheNumberOfDocs() {
+        assertThat(estimateRows("select * from t1"), is(1_000L));
+    }
+
+    @Test
+    public void testEqSelectivityWithoutColumnStatsUsesDefault() {
+        assertThat(estimateRows("select * from t1 where x = 10"), is(5L));
+        assertThat(estimateRows("select * from t1 where x > 10"), is(333L));
+    }
+
+    @Test
+    public void testEqSelectivityUsesMostCommonValuesAndDistinctCount() {
+        tableStats.updateColumnStats(T3.T1_INFO.ident(), ImmutableMap.of(
+            new ColumnIdent("x"),
+            new ColumnStats(0.1, 51, 1, 100, Collections.singletonList(10), new double[]{0.4}, Collections.emptyList())));
+
+        // most common value
+        assertThat(estimateRows("select * from t1 where x = 10"), is(400L));
+        // (1.0 - null fraction - frequency of the most common values) / remaining distinct values
+        assertThat(estimateRows("select * from t1 where x = 20"), is(10L));
+        assertThat(estimateRows("select * from t1 where x = 10 or x = 20"), is(406L));
+        assertThat(estimateRows("select * from t1 where x = 10 and i = 3"), is(2L));
+        assertThat(estimateRows("select * from t1 where not x = 10"), is(600L));
+    }
+
+    @Test
+    public void testEquiJoinSelectivityUsesTheBiggerDistinctCount() {
+        MultiSourceSelect mss = e.normalize("select * from t1 join t2 on t1.x = t2.y");
+        long[] rows = {1_000L, 100L};
+
+        // without column stats the columns are assumed to be unique
+        assertThat(RowCountEstimator.estimateJoinRows(
+            rows[0], rows[1], JoinType.INNER, mss.joinPairs().get(0).condition(), tableStats), is(100L));
+
+        tableStats.updateColumnStats(T3.T1_INFO.ident(), ImmutableMap.of(new ColumnIdent("x"), distinct(10)));
+        tableStats.updateColumnStats(T3.T2_INFO.ident(), ImmutableMap.of(new ColumnIdent("y"), distinct(20)));
+        assertThat(RowCountEstimator.selectivity(mss.joinPairs().get(0).condition(), tableStats), closeTo(0.05, 1e-9));
+        assertThat(RowCountEstimator.estimateJoinRows(
+            rows[0], rows[1], JoinType.INNER, mss.joinPairs().get(0).condition(), tableStats), is(5_000L));
+        // all rows of the left side are emitted at least once
+        assertThat(RowCountEstimator.estimateJoinRows(
+            rows[0], 1L, JoinType.LEFT, mss.joinPairs().get(0).condition(), tableStats), is(1_000L));
+    }
+
+    @Test
+    public void testJoinRowsIfOneSideIsUnknown() {
+        assertThat(RowCountEstimator.estimateJoinRows(10L, 100L, JoinType.CROSS, null, tableStats), is(1_000L));
+        assertThat(RowCountEstimator.estimateJoinRows(-1L, 100L, JoinType.INNER, null, tableStats), is(100L));
+    }
+
+    private static ColumnStats distinct(double approxDistinct) {
+        return new ColumnStats(
+            0.0, approxDistinct, null, null, Collections.emptyList(), new double[0], Collections.emptyList());
+    }
+}
@@ -22,13 +22,19 @@
 
 package io.crate.protocols.postgres;
 
+import com.google.common.collect.ImmutableSet;
 import io.crate.action.sql.BaseResultReceiver;
 import io.crate.action.sql.Session;
 import io.crate.action.sql.SessionContext;
 import io.crate.analyze.AnalyzedStatement;
 import io.crate.data.Row;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row1;
 import io.crate.data.RowConsumer;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.jobs.workload.Admission;
+import io.crate.execution.jobs.workload.WorkloadClass;
+import io.crate.execution.jobs.workload.WorkloadService;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.Plan;
 import io.crate.planner.Planner;
@@ -37,18 +43,48 @@ import io.crate.planner.TableStats;
 import io.crate.planner.operators.SubQueryResults;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
+import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static io.crate.data.SentinelRow.SENTINEL;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class BatchPortalTest extends CrateDummyClusterServiceUnitTest {
 
+    private static WorkloadService newWorkloadService() {
+        return newWorkloadService(Settings.EMPTY);
+    }
+
+    private static WorkloadService newWorkloadService(Settings settings) {
+        ClusterSettings clusterSettings = new ClusterSettings(Settings.EMPTY, ImmutableSet.of(
+            WorkloadService.INTERACTIVE_MAX_CONCURRENT_JOBS_SETTING.setting(),
+            WorkloadService.INTERACTIVE_QUEUE_SIZE_SETTING.setting(),
+            WorkloadService.INTERACTIVE_USERS_SETTING.setting(),
+            WorkloadService.ANALYTICAL_MAX_CONCURRENT_JOBS_SETTING.setting(),
+            WorkloadService.ANALYTICAL_QUEUE_SIZE_SETTING.setting(),
+            WorkloadService.ANALYTICAL_USERS_SETTING.setting()));
+        return new WorkloadService(settings, clusterSettings, THREAD_POOL, new JobsLogs(() -> false));
+    }
+
     @Test
     public void testEachStatementReceivesCorrectParams() throws IOException {
         SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService).enableDefaultTables().build();
@@ -77,6 +113,7 @@ public class BatchPortalTest extends CrateDummyClusterServiceUnitTest {
         };
 
         DependencyCarrier executor = mock(DependencyCarrier.class);
+        when(executor.workloadService()).thenReturn(newWorkloadService());
         Session session = new Session(
             sqlExecutor.analyzer,
             planner,
@@ -96,4 +133,142 @@ public class BatchPortalTest extends CrateDummyClusterServiceUnitTest {
 
         assertThat(lastParams.get().get(0), is(2));
     }
+
+    @Test
+    public void testStatementsAreExecutedConcurrentlyButResultsAreSentInOrder() throws IOException {
+        SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService).enableDefaultTables().build();
+
+        List<RowConsumer> consumers = new ArrayList<>();
+        Plan insertPlan = new Plan() {
+            @Override
+            public StatementType type() {
+                return StatementType.INSERT;
+            }
+
+            @Override
+            public void executeOrFail(DependencyCarrier executor,
+                                      PlannerContext plannerContext,
+                                      RowConsumer consumer,
+                                      Row params,
+                                      SubQueryResults subQueryResults) {
+                consumers.add(consumer);
+            }
+        };
+        Planner planner = new Planner(Settings.EMPTY, clusterService, sqlExecutor.functions(), new TableStats(), () -> true) {
+            @Override
+            public Plan plan(AnalyzedStatement analyzedStatement, PlannerContext plannerContext) {
+                return insertPlan;
+            }
+        };
+        DependencyCarrier executor = mock(DependencyCarrier.class);
+        when(executor.workloadService()).thenReturn(newWorkloadService());
+        Session session = new Session(
+            sqlExecutor.analyzer,
+            planner,
+            new JobsLogs(() -> false),
+            false,
+            executor,
+            SessionContext.systemSessionContext());
+
+        List<Object> receivedRowCounts = new ArrayList<>();
+        class CollectingReceiver extends BaseResultReceiver {
+            @Override
+            public void setNextRow(Row row) {
+                receivedRowCounts.add(row.get(0));
+            }
+        }
+        session.parse("S_1", "insert into t1(x) values(1)", Collections.emptyList());
+        session.bind("Portal", "S_1", Collections.emptyList(), null);
+        session.execute("Portal", 0, new CollectingReceiver());
+
+        session.parse("S_2", "insert into t1(x) values(2)", Collections.emptyList());
+        session.bind("Portal", "S_2", Collections.emptyList(), null);
+        session.execute("Portal", 0, new CollectingReceiver());
+        CompletableFuture<?> syncFuture = session.sync();
+
+        assertThat("both statements must be dispatched", consumers.size(), is(2));
+
+        consumers.get(1).accept(InMemoryBatchIterator.of(new Row1(2L), SENTINEL), null);
+        assertThat(receivedRowCounts.isEmpty(), is(true));
+
+        consumers.get(0).accept(InMemoryBatchIterator.of(new Row1(1L), SENTINEL), null);
+        assertThat(receivedRowCounts, contains(1L, 2L));
+        assertThat(syncFuture.isDone(), is(true));
+    }
+
+    @Test
+    public void testQueuedStatementIsExecutedWithItsOwnWorkloadClass() throws Exception {
+        SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService).enableDefaultTables().build();
+
+        Map<Plan.StatementType, WorkloadClass> workloadClassOnExecution = new ConcurrentHashMap<>();
+        CountDownLatch insertExecuted = new CountDownLatch(1);
+        class RecordingPlan implements Plan {
+
+            private final StatementType type;
+
+            RecordingPlan(StatementType type) {
+                this.type = type;
+            }
+
+            @Override
+            public StatementType type() {
+                return type;
+            }
+
+            @Override
+            public void executeOrFail(DependencyCarrier executor,
+                                      PlannerContext plannerContext,
+                                      RowConsumer consumer,
+                                      Row params,
+                                      SubQueryResults subQueryResults) {
+                workloadClassOnExecution.put(type, plannerContext.transactionContext().workloadClass());
+                if (type == StatementType.INSERT) {
+                    insertExecuted.countDown();
+                }
+            }
+        }
+        // the first statement is interactive, the second one analytical
+        List<Plan> plans = Arrays.asList(
+            new RecordingPlan(Plan.StatementType.INSERT), new RecordingPlan(Plan.StatementType.COPY));
+        AtomicInteger numPlanned = new AtomicInteger(0);
+        Planner planner = new Planner(Settings.EMPTY, clusterService, sqlExecutor.functions(), new TableStats(), () -> true) {
+            @Override
+            public Plan plan(AnalyzedStatement analyzedStatement, PlannerContext plannerContext) {
+                return plans.get(numPlanned.getAndIncrement());
+            }
+        };
+
+        WorkloadService workloadService = newWorkloadService(Settings.builder()
+            .put(WorkloadService.INTERACTIVE_MAX_CONCURRENT_JOBS_SETTING.getKey(), 1)
+            .build());
+        Admission running = workloadService.newAdmission(UUID.randomUUID(), WorkloadClass.INTERACTIVE);
+        running.execute(() -> {}, t -> fail("job must not fail"));
+
+        DependencyCarrier executor = mock(DependencyCarrier.class);
+        when(executor.workloadService()).thenReturn(workloadService);
+        Session session = new Session(
+            sqlExecutor.analyzer,
+            planner,
+            new JobsLogs(() -> false),
+            false,
+            executor,
+            SessionContext.systemSessionContext());
+
+        session.parse("S_1", "insert into t1(x) values(1)", Collections.emptyList());
+        session.bind("Portal", "S_1", Collections.emptyList(), null);
+        session.execute("Portal", 0, new BaseResultReceiver());
+
+        session.parse("S_2", "insert into t1(x) values(2)", Collections.emptyList());
+        session.bind("Portal", "S_2", Collections.emptyList(), null);
+        session.execute("Portal", 0, new BaseResultReceiver());
+        session.sync();
+
+        // the interactive statement is queued, the analytical one is executed right away
+        assertThat(workloadClassOnExecution.get(Plan.StatementType.INSERT), nullValue());
+        assertThat(workloadClassOnExecution.get(Plan.StatementType.COPY), is(WorkloadClass.ANALYTICAL));
+
+        running.release();
+        assertThat(insertExecuted.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(workloadClassOnExecution.get(Plan.StatementType.INSERT), is(WorkloadClass.INTERACTIVE));
+    }
 }
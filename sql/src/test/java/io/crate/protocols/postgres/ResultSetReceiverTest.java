@@ -24,12 +24,16 @@ package io.crate.protocols.postgres;
 
 import io.crate.data.Row1;
 import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
+import io.netty.channel.embedded.EmbeddedChannel;
 import org.junit.Test;
 import org.mockito.Answers;
 
 import java.util.Collections;
 
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -53,4 +57,43 @@ public class ResultSetReceiverTest {
         }
         verify(channel, times(1)).flush();
     }
+
+    @Test
+    public void testRowsAreWrittenToTheChannelInOneBuffer() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        ResultSetReceiver resultSetReceiver = new ResultSetReceiver(
+            "select * from t",
+            channel,
+            t -> {
+            },
+            Collections.singletonList(DataTypes.INTEGER),
+            null
+        );
+        Row1 row1 = new Row1(1);
+        for (int i = 0; i < 10; i++) {
+            resultSetReceiver.setNextRow(row1);
+        }
+        resultSetReceiver.batchFinished();
+
+        ByteBuf rows = channel.readOutbound();
+        try {
+            int numDataRows = 0;
+            while (rows.isReadable()) {
+                assertThat(rows.readByte(), is((byte) 'D'));
+                int length = rows.readInt();
+                rows.skipBytes(length - 4);
+                numDataRows++;
+            }
+            assertThat(numDataRows, is(10));
+        } finally {
+            rows.release();
+        }
+        ByteBuf portalSuspended = channel.readOutbound();
+        try {
+            assertThat(portalSuspended.readByte(), is((byte) 's'));
+        } finally {
+            portalSuspended.release();
+        }
+        channel.finishAndReleaseAll();
+    }
 }
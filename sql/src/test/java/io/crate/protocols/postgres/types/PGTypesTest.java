@@ -37,6 +37,8 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import org.junit.Test;
 
+import java.util.Collections;
+
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.core.Is.is;
 
@@ -64,6 +66,7 @@ public class PGTypesTest extends CrateUnitTest {
     public void testPG2CrateType() throws Exception {
         assertThat(PGTypes.fromOID(VarCharType.OID), instanceOf(StringType.class));
         assertThat(PGTypes.fromOID(JsonType.OID), instanceOf(ObjectType.class));
+        assertThat(PGTypes.fromOID(JsonType.JSONB_OID), instanceOf(ObjectType.class));
         assertThat(PGTypes.fromOID(BooleanType.OID), instanceOf(io.crate.types.BooleanType.class));
         assertThat(PGTypes.fromOID(SmallIntType.OID), instanceOf(ShortType.class));
         assertThat(PGTypes.fromOID(IntegerType.OID), instanceOf(io.crate.types.IntegerType.class));
@@ -111,7 +114,9 @@ public class PGTypesTest extends CrateUnitTest {
             new Entry(new ArrayType(DataTypes.INTEGER), new Integer[]{null, null}),
             new Entry(new ArrayType(DataTypes.INTEGER), new Integer[][]{new Integer[]{10, null, 20}, new Integer[]{1, 2, 3}}),
             new Entry(new SetType(DataTypes.STRING), new Object[]{"test"}),
-            new Entry(new SetType(DataTypes.INTEGER), new Integer[]{10, null, 20})
+            new Entry(new SetType(DataTypes.INTEGER), new Integer[]{10, null, 20}),
+            new Entry(ObjectType.untyped(), Collections.singletonMap("x", 10)),
+            new Entry(new ArrayType(DataTypes.TIMESTAMP), new Long[]{DataTypes.TIMESTAMP.value("2014-05-08"), null})
         )) {
 
             PGType pgType = PGTypes.get(entry.type);